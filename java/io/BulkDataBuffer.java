@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Byte buffer through which the bulk primitive array methods of
+ * {@link DataInput} and {@link DataOutput} are implemented.  Array elements
+ * are copied between the array and the buffer by an {@code int}, {@code
+ * long} or {@code double} view of the buffer in the requested byte order,
+ * and the buffer is read or written with a single call to the byte array
+ * {@code readFully} or {@code write} method of the stream per chunk.
+ *
+ * <p>Streams allocate an instance lazily, on the first bulk operation, and
+ * keep it for later ones.  Instances are not thread-safe; streams which are
+ * synchronized call them with their lock held.
+ */
+final class BulkDataBuffer {
+
+    /** default buffer size in bytes */
+    static final int DEFAULT_SIZE = 8192;
+
+    /** backing array, handed to the byte array methods of the stream */
+    private final byte[] buf;
+    /** buffer over buf whose order is set before each view is taken */
+    private final ByteBuffer bytes;
+
+    BulkDataBuffer(int size) {
+        buf = new byte[size];
+        bytes = ByteBuffer.wrap(buf);
+    }
+
+    BulkDataBuffer() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Returns a buffer just large enough to transfer len values of the given
+     * size in bytes in one chunk, or of the default size if that is smaller.
+     * Used by the interface defaults, which have no stream to keep it in.
+     */
+    static BulkDataBuffer forValues(int len, int size) {
+        return new BulkDataBuffer(Math.min(DEFAULT_SIZE / size, len) * size);
+    }
+
+    /**
+     * Throws IndexOutOfBoundsException unless off and len describe a range
+     * within an array of the given length.
+     */
+    static void checkBounds(int length, int off, int len) {
+        if ((off | len | (off + len) | (length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    void readFully(DataInput in, int[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        checkBounds(a.length, off, len);
+        IntBuffer view = bytes.order(order).asIntBuffer();
+        while (len > 0) {
+            int n = Math.min(len, view.capacity());
+            in.readFully(buf, 0, n << 2);
+            view.clear();
+            view.get(a, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    void readFully(DataInput in, long[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        checkBounds(a.length, off, len);
+        LongBuffer view = bytes.order(order).asLongBuffer();
+        while (len > 0) {
+            int n = Math.min(len, view.capacity());
+            in.readFully(buf, 0, n << 3);
+            view.clear();
+            view.get(a, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    void readFully(DataInput in, double[] a, int off, int len,
+                   ByteOrder order)
+        throws IOException
+    {
+        checkBounds(a.length, off, len);
+        DoubleBuffer view = bytes.order(order).asDoubleBuffer();
+        while (len > 0) {
+            int n = Math.min(len, view.capacity());
+            in.readFully(buf, 0, n << 3);
+            view.clear();
+            view.get(a, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    void write(DataOutput out, int[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        checkBounds(a.length, off, len);
+        IntBuffer view = bytes.order(order).asIntBuffer();
+        while (len > 0) {
+            int n = Math.min(len, view.capacity());
+            view.clear();
+            view.put(a, off, n);
+            out.write(buf, 0, n << 2);
+            off += n;
+            len -= n;
+        }
+    }
+
+    void write(DataOutput out, long[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        checkBounds(a.length, off, len);
+        LongBuffer view = bytes.order(order).asLongBuffer();
+        while (len > 0) {
+            int n = Math.min(len, view.capacity());
+            view.clear();
+            view.put(a, off, n);
+            out.write(buf, 0, n << 3);
+            off += n;
+            len -= n;
+        }
+    }
+
+    void write(DataOutput out, double[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        checkBounds(a.length, off, len);
+        DoubleBuffer view = bytes.order(order).asDoubleBuffer();
+        while (len > 0) {
+            int n = Math.min(len, view.capacity());
+            view.clear();
+            view.put(a, off, n);
+            out.write(buf, 0, n << 3);
+            off += n;
+            len -= n;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * This class implements an output stream in which the data is written into
+ * a list of byte array chunks.  Unlike {@link ByteArrayOutputStream}, the
+ * stream grows by adding a chunk, so bytes once written are never copied
+ * again while the stream grows, and the content can be handed on without
+ * being copied into a single array: as an array of byte buffers suitable
+ * for {@link GatheringByteChannel#write(ByteBuffer[]) gathering writes}, to a
+ * {@link WritableByteChannel} or {@link OutputStream}, or as an
+ * {@link InputStream}.
+ * <p>
+ * Chunks start at the size given to the constructor and double in size as
+ * the stream grows, up to one megabyte, except that a single large write
+ * is stored in one chunk of its own size.
+ * <p>
+ * The buffers returned by {@link #toByteBuffers()} and the stream returned
+ * by {@link #toInputStream()} share the chunks of this stream.  They reflect
+ * the content of the stream at the time they were created, and are not
+ * affected by later writes or by {@link #reset()}, which releases the chunks
+ * rather than reusing them.
+ * <p>
+ * This class is not synchronized.  If a stream is used by multiple threads
+ * concurrently, it must be synchronized externally.
+ * <p>
+ * Closing a <tt>ChunkedByteArrayOutputStream</tt> has no effect.  The
+ * methods in this class can be called after the stream has been closed
+ * without generating an <tt>IOException</tt>.
+ *
+ * @see     ByteArrayOutputStream
+ * @since   1.8
+ */
+public class ChunkedByteArrayOutputStream extends OutputStream {
+
+    /** size of the first chunk if none is given to the constructor */
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /** size beyond which chunks stop doubling */
+    private static final int MAX_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The maximum size of array to allocate.
+     * Some VMs reserve some header words in an array.
+     * Attempts to allocate larger arrays may result in
+     * OutOfMemoryError: Requested array size exceeds VM limit
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /** size of the first chunk */
+    private final int initialChunkSize;
+
+    /** chunks in order of writing; all but the last are full */
+    private byte[][] chunks;
+
+    /** number of chunks in use */
+    private int nchunks;
+
+    /** last chunk, into which data is written, or null if none */
+    private byte[] current;
+
+    /** number of bytes written into current */
+    private int pos;
+
+    /** number of bytes in the chunks before current */
+    private long filled;
+
+    /**
+     * Creates a new chunked byte array output stream.  The first chunk is
+     * allocated with the first write, and is 256 bytes long.
+     */
+    public ChunkedByteArrayOutputStream() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new chunked byte array output stream whose first chunk is
+     * of the specified size.  The chunk is allocated with the first write.
+     *
+     * @param   chunkSize   the size of the first chunk, in bytes.
+     * @exception  IllegalArgumentException if chunkSize is not positive.
+     */
+    public ChunkedByteArrayOutputStream(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Non-positive chunk size: "
+                                               + chunkSize);
+        }
+        initialChunkSize = chunkSize;
+        chunks = new byte[8][];
+    }
+
+    /**
+     * Appends a new chunk of at least the given size, which becomes the
+     * current chunk.
+     */
+    private void addChunk(int minCapacity) {
+        int size;
+        if (current == null) {
+            size = initialChunkSize;
+        } else {
+            size = Math.min(current.length, MAX_CHUNK_SIZE >> 1) << 1;
+            filled += pos;
+        }
+        if (size < minCapacity) {
+            size = Math.min(minCapacity, MAX_ARRAY_SIZE);
+        }
+        if (nchunks == chunks.length) {
+            chunks = Arrays.copyOf(chunks, nchunks << 1);
+        }
+        current = new byte[size];
+        chunks[nchunks++] = current;
+        pos = 0;
+    }
+
+    /**
+     * Writes the specified byte to this stream.
+     *
+     * @param   b   the byte to be written.
+     */
+    public void write(int b) {
+        if (current == null || pos == current.length) {
+            addChunk(1);
+        }
+        current[pos++] = (byte) b;
+    }
+
+    /**
+     * Writes <code>len</code> bytes from the specified byte array
+     * starting at offset <code>off</code> to this stream.
+     *
+     * @param   b     the data.
+     * @param   off   the start offset in the data.
+     * @param   len   the number of bytes to write.
+     */
+    public void write(byte b[], int off, int len) {
+        if ((off < 0) || (off > b.length) || (len < 0) ||
+            ((off + len) - b.length > 0)) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (current == null || pos == current.length) {
+                addChunk(len);
+            }
+            int n = Math.min(len, current.length - pos);
+            System.arraycopy(b, off, current, pos, n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes the complete contents of this stream to the specified output
+     * stream argument, as if by calling the output stream's write method
+     * once per chunk.
+     *
+     * @param      out   the output stream to which to write the data.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < nchunks; i++) {
+            byte[] chunk = chunks[i];
+            out.write(chunk, 0, (chunk == current) ? pos : chunk.length);
+        }
+    }
+
+    /**
+     * Writes the complete contents of this stream to the specified channel.
+     * If the channel is a {@link GatheringByteChannel}, the chunks are
+     * written with as few gathering writes as the channel allows.
+     *
+     * @param      ch   the channel to which to write the data.
+     * @exception  IllegalBlockingModeException  if the channel is selectable
+     *             and configured non-blocking.
+     * @exception  IOException  if an I/O error occurs.
+     */
+    public void writeTo(WritableByteChannel ch) throws IOException {
+        if (ch instanceof SelectableChannel) {
+            SelectableChannel sc = (SelectableChannel) ch;
+            synchronized (sc.blockingLock()) {
+                if (!sc.isBlocking()) {
+                    throw new IllegalBlockingModeException();
+                }
+                writeFully(ch, toByteBuffers());
+            }
+        } else {
+            writeFully(ch, toByteBuffers());
+        }
+    }
+
+    /**
+     * Writes all remaining bytes in the given buffers to the given blocking
+     * channel.
+     */
+    private static void writeFully(WritableByteChannel ch, ByteBuffer[] bufs)
+        throws IOException
+    {
+        int i = 0;
+        if (ch instanceof GatheringByteChannel) {
+            GatheringByteChannel gch = (GatheringByteChannel) ch;
+            while (i < bufs.length) {
+                gch.write(bufs, i, bufs.length - i);
+                while (i < bufs.length && !bufs[i].hasRemaining()) {
+                    i++;
+                }
+            }
+        } else {
+            for (; i < bufs.length; i++) {
+                while (bufs[i].hasRemaining()) {
+                    ch.write(bufs[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resets this stream to be empty.  The chunks holding the current
+     * content are released rather than reused, so buffers and input streams
+     * obtained from this stream remain valid.
+     */
+    public void reset() {
+        Arrays.fill(chunks, 0, nchunks, null);
+        nchunks = 0;
+        current = null;
+        pos = 0;
+        filled = 0;
+    }
+
+    /**
+     * Creates a newly allocated byte array holding a copy of the contents
+     * of this stream.
+     *
+     * @return  the current contents of this stream, as a byte array.
+     * @exception  OutOfMemoryError  if the contents are too large for an
+     *             array.
+     * @see     #size()
+     */
+    public byte[] toByteArray() {
+        long size = size();
+        if (size > MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError("Required array size too large");
+        }
+        byte[] result = new byte[(int) size];
+        int off = 0;
+        for (int i = 0; i < nchunks; i++) {
+            byte[] chunk = chunks[i];
+            int len = (chunk == current) ? pos : chunk.length;
+            System.arraycopy(chunk, 0, result, off, len);
+            off += len;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the contents of this stream as an array of read-only byte
+     * buffers, one for each non-empty chunk, which wrap the chunks of this
+     * stream without copying them.  The position of each buffer is zero and
+     * its limit is the number of bytes in the chunk.  The array may be
+     * passed to {@link GatheringByteChannel#write(ByteBuffer[])}.
+     *
+     * @return  the current contents of this stream, as byte buffers.
+     */
+    public ByteBuffer[] toByteBuffers() {
+        int n = (pos == 0) ? nchunks - 1 : nchunks;
+        ByteBuffer[] bufs = new ByteBuffer[Math.max(n, 0)];
+        for (int i = 0; i < bufs.length; i++) {
+            byte[] chunk = chunks[i];
+            int len = (chunk == current) ? pos : chunk.length;
+            bufs[i] = ByteBuffer.wrap(chunk, 0, len).asReadOnlyBuffer();
+        }
+        return bufs;
+    }
+
+    /**
+     * Returns an input stream which reads the contents of this stream
+     * directly from its chunks, without copying them.  The returned stream
+     * is not synchronized and does not support {@link InputStream#mark
+     * mark} and {@link InputStream#reset reset}.
+     *
+     * @return  an input stream over the current contents of this stream.
+     */
+    public InputStream toInputStream() {
+        return new ChunkInputStream(Arrays.copyOf(chunks, nchunks), pos);
+    }
+
+    /**
+     * Returns the current size of this stream.
+     *
+     * @return  the number of bytes written to this stream since it was
+     *          created or last reset.
+     */
+    public long size() {
+        return filled + pos;
+    }
+
+    /**
+     * Converts the contents of this stream into a string, decoding bytes
+     * using the platform's default character set.
+     *
+     * @return  String decoded from the contents of this stream.
+     */
+    public String toString() {
+        return new String(toByteArray());
+    }
+
+    /**
+     * Converts the contents of this stream into a string by decoding the
+     * bytes using the specified {@link java.nio.charset.Charset charset}.
+     *
+     * @param   charset  the charset to be used to decode the bytes.
+     * @return  String decoded from the contents of this stream.
+     */
+    public String toString(Charset charset) {
+        return new String(toByteArray(), charset);
+    }
+
+    /**
+     * Closing a <tt>ChunkedByteArrayOutputStream</tt> has no effect.  The
+     * methods in this class can be called after the stream has been closed
+     * without generating an <tt>IOException</tt>.
+     */
+    public void close() {
+    }
+
+    /**
+     * Input stream over a snapshot of the chunk list.
+     */
+    private static final class ChunkInputStream extends InputStream {
+
+        /** chunks to read; all but the last are full */
+        private final byte[][] chunks;
+        /** number of bytes in the last chunk */
+        private final int lastLength;
+        /** index of the chunk being read */
+        private int index;
+        /** position in the chunk being read */
+        private int pos;
+
+        ChunkInputStream(byte[][] chunks, int lastLength) {
+            this.chunks = chunks;
+            this.lastLength = lastLength;
+        }
+
+        /**
+         * Returns the number of bytes in the given chunk.
+         */
+        private int length(int i) {
+            return (i == chunks.length - 1) ? lastLength : chunks[i].length;
+        }
+
+        /**
+         * Advances past exhausted chunks.  Returns false at end of stream.
+         */
+        private boolean advance() {
+            while (index < chunks.length) {
+                if (pos < length(index)) {
+                    return true;
+                }
+                index++;
+                pos = 0;
+            }
+            return false;
+        }
+
+        public int read() {
+            return advance() ? (chunks[index][pos++] & 0xff) : -1;
+        }
+
+        public int read(byte b[], int off, int len) {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int count = 0;
+            while (count < len && advance()) {
+                int n = Math.min(len - count, length(index) - pos);
+                System.arraycopy(chunks[index], pos, b, off + count, n);
+                pos += n;
+                count += n;
+            }
+            return (count == 0) ? -1 : count;
+        }
+
+        public long skip(long n) {
+            long skipped = 0;
+            while (skipped < n && advance()) {
+                int k = (int) Math.min(n - skipped, length(index) - pos);
+                pos += k;
+                skipped += k;
+            }
+            return skipped;
+        }
+
+        public int available() {
+            long remaining = 0;
+            for (int i = index; i < chunks.length; i++) {
+                remaining += length(i);
+                if (i == index) {
+                    remaining -= pos;
+                }
+                if (remaining >= Integer.MAX_VALUE) {
+                    return Integer.MAX_VALUE;
+                }
+            }
+            return (int) remaining;
+        }
+    }
+}
@@ -25,6 +25,8 @@
 
 package java.io;
 
+import java.nio.ByteOrder;
+
 /**
  * The {@code DataInput} interface provides
  * for reading bytes from a binary stream and
@@ -586,4 +588,208 @@ interface DataInput {
      *               valid modified UTF-8 encoding of a string.
      */
     String readUTF() throws IOException;
+
+    /**
+     * Reads {@code a.length} {@code int} values, each as four bytes in
+     * big-endian order as if by {@link #readInt()}, into the array {@code a}.
+     *
+     * @param      a   the array into which the values are read.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(int[] a) throws IOException {
+        readFully(a, 0, a.length, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Reads {@code len} {@code int} values, each as four bytes in
+     * big-endian order as if by {@link #readInt()}, into the array {@code a}
+     * starting at index {@code off}.
+     *
+     * @param      a     the array into which the values are read.
+     * @param      off   the index of the first value to read.
+     * @param      len   the number of values to read.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(int[] a, int off, int len) throws IOException {
+        readFully(a, off, len, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Reads {@code len} {@code int} values, each as four bytes in the
+     * given byte order, into the array {@code a} starting at index
+     * {@code off}.  The bytes are read as if by
+     * {@link #readFully(byte[], int, int)}; in big-endian order they are
+     * those {@link #readInt()} reads as specified by this interface, and in
+     * little-endian order the same bytes reversed.  The result does not
+     * depend on the byte order {@code readInt()} actually uses in an
+     * implementation such as {@code javax.imageio.stream.ImageInputStream}.
+     *
+     * @implSpec
+     * The default implementation reads the values in chunks of at most
+     * 8192 bytes into a temporary buffer.  Implementations in this package
+     * override it to reuse a buffer kept by the stream.
+     *
+     * @param      a      the array into which the values are read.
+     * @param      off    the index of the first value to read.
+     * @param      len    the number of values to read.
+     * @param      order  the byte order of the values in the stream.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(int[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        BulkDataBuffer.checkBounds(a.length, off, len);
+        BulkDataBuffer.forValues(len, 4).readFully(this, a, off, len, order);
+    }
+
+    /**
+     * Reads {@code a.length} {@code long} values, each as eight bytes in
+     * big-endian order as if by {@link #readLong()}, into the array {@code a}.
+     *
+     * @param      a   the array into which the values are read.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(long[] a) throws IOException {
+        readFully(a, 0, a.length, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Reads {@code len} {@code long} values, each as eight bytes in
+     * big-endian order as if by {@link #readLong()}, into the array {@code a}
+     * starting at index {@code off}.
+     *
+     * @param      a     the array into which the values are read.
+     * @param      off   the index of the first value to read.
+     * @param      len   the number of values to read.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(long[] a, int off, int len) throws IOException {
+        readFully(a, off, len, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Reads {@code len} {@code long} values, each as eight bytes in the
+     * given byte order, into the array {@code a} starting at index
+     * {@code off}.  The bytes are read as if by
+     * {@link #readFully(byte[], int, int)}; in big-endian order they are
+     * those {@link #readLong()} reads as specified by this interface, and in
+     * little-endian order the same bytes reversed.  The result does not
+     * depend on the byte order {@code readLong()} actually uses in an
+     * implementation such as {@code javax.imageio.stream.ImageInputStream}.
+     *
+     * @implSpec
+     * The default implementation reads the values in chunks of at most
+     * 8192 bytes into a temporary buffer.  Implementations in this package
+     * override it to reuse a buffer kept by the stream.
+     *
+     * @param      a      the array into which the values are read.
+     * @param      off    the index of the first value to read.
+     * @param      len    the number of values to read.
+     * @param      order  the byte order of the values in the stream.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(long[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        BulkDataBuffer.checkBounds(a.length, off, len);
+        BulkDataBuffer.forValues(len, 8).readFully(this, a, off, len, order);
+    }
+
+    /**
+     * Reads {@code a.length} {@code double} values, each as eight bytes in
+     * big-endian order as if by {@link #readDouble()}, into the array {@code a}.
+     *
+     * @param      a   the array into which the values are read.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(double[] a) throws IOException {
+        readFully(a, 0, a.length, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Reads {@code len} {@code double} values, each as eight bytes in
+     * big-endian order as if by {@link #readDouble()}, into the array {@code a}
+     * starting at index {@code off}.
+     *
+     * @param      a     the array into which the values are read.
+     * @param      off   the index of the first value to read.
+     * @param      len   the number of values to read.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(double[] a, int off, int len) throws IOException {
+        readFully(a, off, len, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Reads {@code len} {@code double} values, each as eight bytes in the
+     * given byte order, into the array {@code a} starting at index
+     * {@code off}.  The bytes are read as if by
+     * {@link #readFully(byte[], int, int)}; in big-endian order they are
+     * those {@link #readDouble()} reads as specified by this interface, and in
+     * little-endian order the same bytes reversed.  The result does not
+     * depend on the byte order {@code readDouble()} actually uses in an
+     * implementation such as {@code javax.imageio.stream.ImageInputStream}.
+     *
+     * @implSpec
+     * The default implementation reads the values in chunks of at most
+     * 8192 bytes into a temporary buffer.  Implementations in this package
+     * override it to reuse a buffer kept by the stream.
+     *
+     * @param      a      the array into which the values are read.
+     * @param      off    the index of the first value to read.
+     * @param      len    the number of values to read.
+     * @param      order  the byte order of the values in the stream.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     EOFException  if this stream reaches the end before reading
+     *               all the bytes.
+     * @throws     IOException   if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(double[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        BulkDataBuffer.checkBounds(a.length, off, len);
+        BulkDataBuffer.forValues(len, 8).readFully(this, a, off, len, order);
+    }
 }
@@ -25,6 +25,8 @@
 
 package java.io;
 
+import java.nio.ByteOrder;
+
 /**
  * A data input stream lets an application read primitive Java data
  * types from an underlying input stream in a machine-independent
@@ -52,6 +54,9 @@ class DataInputStream extends FilterInputStream implements DataInput {
         super(in);
     }
 
+    /** buffer for bulk primitive array reads, allocated on first use */
+    private BulkDataBuffer bulkBuffer;
+
     /**
      * working arrays initialized on demand by readUTF
      */
@@ -199,6 +204,62 @@ class DataInputStream extends FilterInputStream implements DataInput {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are read from the contained input
+     * stream a chunk at a time, through a buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(int[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().readFully(this, a, off, len, order);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are read from the contained input
+     * stream a chunk at a time, through a buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(long[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().readFully(this, a, off, len, order);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are read from the contained input
+     * stream a chunk at a time, through a buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(double[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().readFully(this, a, off, len, order);
+    }
+
+    /**
+     * Returns the buffer used by the bulk primitive array methods,
+     * allocating it on first use.
+     */
+    private BulkDataBuffer bulkBuffer() {
+        if (bulkBuffer == null) {
+            bulkBuffer = new BulkDataBuffer();
+        }
+        return bulkBuffer;
+    }
+
     /**
      * See the general contract of the <code>skipBytes</code>
      * method of <code>DataInput</code>.
@@ -25,6 +25,8 @@
 
 package java.io;
 
+import java.nio.ByteOrder;
+
 /**
  * The <code>DataOutput</code> interface provides
  * for converting data from any of the Java
@@ -351,4 +353,196 @@ interface DataOutput {
      * @throws     IOException  if an I/O error occurs.
      */
     void writeUTF(String s) throws IOException;
+
+    /**
+     * Writes all the {@code int} values of the array {@code a}, each as
+     * four bytes in big-endian order as if by {@link #writeInt(int)}.
+     *
+     * @param      a   the values to write.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(int[] a) throws IOException {
+        write(a, 0, a.length, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Writes {@code len} {@code int} values of the array {@code a},
+     * starting at index {@code off}, each as four bytes in big-endian
+     * order as if by {@link #writeInt(int)}.
+     *
+     * @param      a     the values to write.
+     * @param      off   the index of the first value to write.
+     * @param      len   the number of values to write.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(int[] a, int off, int len) throws IOException {
+        write(a, off, len, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Writes {@code len} {@code int} values of the array {@code a},
+     * starting at index {@code off}, each as four bytes in the given byte
+     * order.  The bytes are written as if by
+     * {@link #write(byte[], int, int)}; in big-endian order they are those
+     * {@link #writeInt(int)} writes as specified by this interface, and in
+     * little-endian order the same bytes reversed.  The result does not
+     * depend on the byte order {@code writeInt} actually uses in an
+     * implementation such as {@code javax.imageio.stream.ImageOutputStream}.
+     * The values may be read back with the {@code readFully} method of
+     * {@link DataInput} for the same type and byte order.
+     *
+     * @implSpec
+     * The default implementation writes the values in chunks of at most
+     * 8192 bytes from a temporary buffer.  Implementations in this package
+     * override it to reuse a buffer kept by the stream.
+     *
+     * @param      a      the values to write.
+     * @param      off    the index of the first value to write.
+     * @param      len    the number of values to write.
+     * @param      order  the byte order of the values in the stream.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(int[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        BulkDataBuffer.checkBounds(a.length, off, len);
+        BulkDataBuffer.forValues(len, 4).write(this, a, off, len, order);
+    }
+
+    /**
+     * Writes all the {@code long} values of the array {@code a}, each as
+     * eight bytes in big-endian order as if by {@link #writeLong(long)}.
+     *
+     * @param      a   the values to write.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(long[] a) throws IOException {
+        write(a, 0, a.length, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Writes {@code len} {@code long} values of the array {@code a},
+     * starting at index {@code off}, each as eight bytes in big-endian
+     * order as if by {@link #writeLong(long)}.
+     *
+     * @param      a     the values to write.
+     * @param      off   the index of the first value to write.
+     * @param      len   the number of values to write.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(long[] a, int off, int len) throws IOException {
+        write(a, off, len, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Writes {@code len} {@code long} values of the array {@code a},
+     * starting at index {@code off}, each as eight bytes in the given byte
+     * order.  The bytes are written as if by
+     * {@link #write(byte[], int, int)}; in big-endian order they are those
+     * {@link #writeLong(long)} writes as specified by this interface, and in
+     * little-endian order the same bytes reversed.  The result does not
+     * depend on the byte order {@code writeLong} actually uses in an
+     * implementation such as {@code javax.imageio.stream.ImageOutputStream}.
+     * The values may be read back with the {@code readFully} method of
+     * {@link DataInput} for the same type and byte order.
+     *
+     * @implSpec
+     * The default implementation writes the values in chunks of at most
+     * 8192 bytes from a temporary buffer.  Implementations in this package
+     * override it to reuse a buffer kept by the stream.
+     *
+     * @param      a      the values to write.
+     * @param      off    the index of the first value to write.
+     * @param      len    the number of values to write.
+     * @param      order  the byte order of the values in the stream.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(long[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        BulkDataBuffer.checkBounds(a.length, off, len);
+        BulkDataBuffer.forValues(len, 8).write(this, a, off, len, order);
+    }
+
+    /**
+     * Writes all the {@code double} values of the array {@code a}, each as
+     * eight bytes in big-endian order as if by {@link #writeDouble(double)}.
+     *
+     * @param      a   the values to write.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(double[] a) throws IOException {
+        write(a, 0, a.length, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Writes {@code len} {@code double} values of the array {@code a},
+     * starting at index {@code off}, each as eight bytes in big-endian
+     * order as if by {@link #writeDouble(double)}.
+     *
+     * @param      a     the values to write.
+     * @param      off   the index of the first value to write.
+     * @param      len   the number of values to write.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(double[] a, int off, int len) throws IOException {
+        write(a, off, len, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Writes {@code len} {@code double} values of the array {@code a},
+     * starting at index {@code off}, each as eight bytes in the given byte
+     * order.  The bytes are written as if by
+     * {@link #write(byte[], int, int)}; in big-endian order they are those
+     * {@link #writeDouble(double)} writes as specified by this interface, and in
+     * little-endian order the same bytes reversed.  The result does not
+     * depend on the byte order {@code writeDouble} actually uses in an
+     * implementation such as {@code javax.imageio.stream.ImageOutputStream}.
+     * The values may be read back with the {@code readFully} method of
+     * {@link DataInput} for the same type and byte order.
+     *
+     * @implSpec
+     * The default implementation writes the values in chunks of at most
+     * 8192 bytes from a temporary buffer.  Implementations in this package
+     * override it to reuse a buffer kept by the stream.
+     *
+     * @param      a      the values to write.
+     * @param      off    the index of the first value to write.
+     * @param      len    the number of values to write.
+     * @param      order  the byte order of the values in the stream.
+     * @throws     IndexOutOfBoundsException  if {@code off} or {@code len}
+     *               is negative, or {@code off+len} is greater than
+     *               {@code a.length}.
+     * @throws     IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(double[] a, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        BulkDataBuffer.checkBounds(a.length, off, len);
+        BulkDataBuffer.forValues(len, 8).write(this, a, off, len, order);
+    }
 }
@@ -25,6 +25,8 @@
 
 package java.io;
 
+import java.nio.ByteOrder;
+
 /**
  * A data output stream lets an application write primitive Java data
  * types to an output stream in a portable way. An application can
@@ -42,6 +44,9 @@ class DataOutputStream extends FilterOutputStream implements DataOutput {
      */
     protected int written;
 
+    /** buffer for bulk primitive array writes, allocated on first use */
+    private BulkDataBuffer bulkBuffer;
+
     /**
      * bytearr is initialized on demand by writeUTF
      */
@@ -108,6 +113,68 @@ class DataOutputStream extends FilterOutputStream implements DataOutput {
         incCount(len);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are written to the underlying output
+     * stream a chunk at a time, through a buffer kept by this stream.  The
+     * counter <code>written</code> is incremented by the number of bytes
+     * written.
+     *
+     * @since 1.8
+     */
+    public synchronized void write(int[] a, int off, int len,
+                                   ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().write(this, a, off, len, order);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are written to the underlying output
+     * stream a chunk at a time, through a buffer kept by this stream.  The
+     * counter <code>written</code> is incremented by the number of bytes
+     * written.
+     *
+     * @since 1.8
+     */
+    public synchronized void write(long[] a, int off, int len,
+                                   ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().write(this, a, off, len, order);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are written to the underlying output
+     * stream a chunk at a time, through a buffer kept by this stream.  The
+     * counter <code>written</code> is incremented by the number of bytes
+     * written.
+     *
+     * @since 1.8
+     */
+    public synchronized void write(double[] a, int off, int len,
+                                   ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().write(this, a, off, len, order);
+    }
+
+    /**
+     * Returns the buffer used by the bulk primitive array methods,
+     * allocating it on first use.
+     */
+    private BulkDataBuffer bulkBuffer() {
+        if (bulkBuffer == null) {
+            bulkBuffer = new BulkDataBuffer();
+        }
+        return bulkBuffer;
+    }
+
     /**
      * Flushes this data output stream. This forces any buffered output
      * bytes to be written out to the stream.
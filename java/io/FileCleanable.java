@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+import java.lang.ref.Cleaner;
+import sun.misc.SharedSecrets;
+
+/**
+ * Closes the file descriptor of a {@link FileDescriptor} that has become
+ * phantom reachable while still open. The cleanup is registered by the
+ * streams that open a file, and unregistered when the descriptor is
+ * closed.
+ *
+ * The cleanup holds the descriptor number, not the FileDescriptor, which
+ * refers to the streams sharing it.
+ */
+final class FileCleanable implements Runnable {
+
+    // the descriptor to close, or -1 once closed or unregistered
+    private int fd;
+
+    private Cleaner.Cleanable cleanable;
+
+    private FileCleanable(int fd) {
+        this.fd = fd;
+    }
+
+    /**
+     * Registers a cleanup that closes {@code fd} when {@code fdo}
+     * becomes phantom reachable.
+     */
+    static FileCleanable register(FileDescriptor fdo, int fd) {
+        FileCleanable fc = new FileCleanable(fd);
+        fc.cleanable = SharedSecrets.getJavaLangRefAccess().cleaner()
+                                    .register(fdo, fc);
+        return fc;
+    }
+
+    /**
+     * Unregisters the cleanup without closing the descriptor, which the
+     * caller is about to close.
+     */
+    void unregister() {
+        fd = -1;
+        cleanable.clean();
+    }
+
+    @Override
+    public void run() {
+        int fd = this.fd;
+        this.fd = -1;
+        if (fd != -1) {
+            try {
+                cleanupClose0(fd);
+            } catch (IOException ioe) {
+                // nothing to report it to
+            }
+        }
+    }
+
+    /*
+     * Closes the given descriptor, as FileInputStream.close0 closes the
+     * descriptor of a stream.
+     */
+    private static native void cleanupClose0(int fd) throws IOException;
+}
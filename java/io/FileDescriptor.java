@@ -44,6 +44,12 @@ public final class FileDescriptor {
      */
     private boolean closed;
 
+    /**
+     * The cleanup that closes fd if this FileDescriptor becomes unreachable
+     * while open; null unless registered by the stream that opened it.
+     */
+    private FileCleanable cleanup;
+
     /**
      * fd是由底层返回的非负整数，不应自己创建
      * 而且它的构造函数返回-1，不符合非负整数，所以new fd也没有意义
@@ -167,6 +173,17 @@ public final class FileDescriptor {
         }
     }
 
+    /*
+     * Registers a cleanup that closes fd when this FileDescriptor becomes
+     * phantom reachable without having been closed. Called by the streams
+     * that open a file, once it is open.
+     */
+    synchronized void registerCleanup() {
+        if (cleanup == null && fd != -1 && !closed) {
+            cleanup = FileCleanable.register(this, fd);
+        }
+    }
+
     /**
      * default修饰，此方法只能被本包中的FileInputStream、FileOutputStream、RandomAccessFile调用，
      * 在FileInputStream、FileOutputStream、RandomAccessFile关闭资源时，会调用fd.closeAll()，
@@ -176,6 +193,10 @@ public final class FileDescriptor {
     synchronized void closeAll(Closeable releaser) throws IOException {
         if (!closed) {
             closed = true;
+            if (cleanup != null) {
+                cleanup.unregister();
+                cleanup = null;
+            }
             IOException ioe = null;
             try (Closeable c = releaser) {
                 if (otherParents != null) {
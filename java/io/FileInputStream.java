@@ -51,6 +51,11 @@ public class FileInputStream extends InputStream
      */
     private volatile boolean closed = false;
 
+    /**
+     * Finalizer closing a stream of a subclass overriding close(), or null
+     */
+    private final Object altFinalizer;
+
     /**
      * name : 文件路径
      * 通过文件路径创建File对象，传给FileInputStream(File file)
@@ -85,6 +90,8 @@ public class FileInputStream extends InputStream
         fd.attach(this);
         path = name;
         open(name);
+        altFinalizer = AltFinalizer.get(this);
+        fd.registerCleanup();
     }
 
     /**
@@ -101,6 +108,7 @@ public class FileInputStream extends InputStream
         }
         fd = fdObj;
         path = null;
+        altFinalizer = AltFinalizer.get(this);
 
         /*
          * FileDescriptor is being shared by streams.
@@ -248,10 +256,67 @@ public class FileInputStream extends InputStream
 
     /**
      * 释放资源
+     *
+     * @deprecated The descriptor of a file opened by this class is closed
+     * by a cleanup once the stream is unreachable.  Subclasses overriding
+     * {@link #close} have {@code close} called when the stream is
+     * unreachable, as before.  This method does nothing and is kept only
+     * so that subclasses calling {@code super.finalize()} still compile.
+     *
+     * @exception  IOException  if an I/O error occurs.
      */
+    @Deprecated
     protected void finalize() throws IOException {
-        if ((fd != null) &&  (fd != FileDescriptor.in)) {
-            close();
+    }
+
+    /**
+     * Calls close() of a subclass overriding it when the stream becomes
+     * unreachable.  The cleanup closes only the descriptor and would
+     * bypass the override; it still runs after this finalizer, if close()
+     * left the descriptor open.  An empty finalize() leaves streams of
+     * this class off the finalizer queue.
+     */
+    private static class AltFinalizer {
+        private final FileInputStream fis;
+
+        private AltFinalizer(FileInputStream fis) {
+            this.fis = fis;
+        }
+
+        /*
+         * A subclass whose nearest override is of finalize() keeps its own
+         * finalizer, as before; those of the socket streams do nothing.
+         */
+        static AltFinalizer get(FileInputStream fis) {
+            for (Class<?> c = fis.getClass(); c != FileInputStream.class;
+                 c = c.getSuperclass()) {
+                if (declares(c, "finalize")) {
+                    return null;
+                }
+                if (declares(c, "close")) {
+                    return new AltFinalizer(fis);
+                }
+            }
+            return null;
+        }
+
+        private static boolean declares(Class<?> c, String name) {
+            try {
+                c.getDeclaredMethod(name);
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+
+        @Override
+        protected final void finalize() {
+            if (fis.fd != FileDescriptor.in) {
+                try {
+                    fis.close();
+                } catch (IOException ignore) {
+                }
+            }
         }
     }
 }
@@ -50,6 +50,11 @@ public class FileOutputStream extends OutputStream
     private final Object closeLock = new Object();
     private volatile boolean closed = false;
 
+    /**
+     * Finalizer closing a stream of a subclass overriding close(), or null
+     */
+    private final Object altFinalizer;
+
     /**
      * Creates a file output stream to write to the file with the
      * specified name. A new <code>FileDescriptor</code> object is
@@ -186,6 +191,8 @@ public class FileOutputStream extends OutputStream
         this.path = name;
         // 调用本地方法，打开文件
         open(name, append);
+        altFinalizer = AltFinalizer.get(this);
+        fd.registerCleanup();
     }
 
     /**
@@ -222,6 +229,7 @@ public class FileOutputStream extends OutputStream
         this.fd = fdObj;
         this.append = false;
         this.path = null;
+        this.altFinalizer = AltFinalizer.get(this);
 
         fd.attach(this);
     }
@@ -377,24 +385,71 @@ public class FileOutputStream extends OutputStream
     }
 
     /**
-     * Cleans up the connection to the file, and ensures that the
-     * <code>close</code> method of this file output stream is
-     * called when there are no more references to this stream.
+     * Cleans up the connection to the file.
+     *
+     * @deprecated The descriptor of a file opened by this class is closed
+     * by a cleanup once the stream is unreachable.  Subclasses overriding
+     * {@link #close} have {@code close} called when the stream is
+     * unreachable, as before.  This method does nothing and is kept only
+     * so that subclasses calling {@code super.finalize()} still compile.
      *
      * @exception  IOException  if an I/O error occurs.
      * @see        java.io.FileInputStream#close()
      */
+    @Deprecated
     protected void finalize() throws IOException {
-        if (fd != null) {
-            if (fd == FileDescriptor.out || fd == FileDescriptor.err) {
-                flush();
-            } else {
-                /* if fd is shared, the references in FileDescriptor
-                 * will ensure that finalizer is only called when
-                 * safe to do so. All references using the fd have
-                 * become unreachable. We can call close()
-                 */
-                close();
+    }
+
+    /**
+     * Calls close() of a subclass overriding it when the stream becomes
+     * unreachable, or flush() for the standard output and error streams.
+     * The cleanup closes only the descriptor and would bypass the
+     * override; it still runs after this finalizer, if close() left the
+     * descriptor open.  An empty finalize() leaves streams of this class
+     * off the finalizer queue.
+     */
+    private static class AltFinalizer {
+        private final FileOutputStream fos;
+
+        private AltFinalizer(FileOutputStream fos) {
+            this.fos = fos;
+        }
+
+        /*
+         * A subclass whose nearest override is of finalize() keeps its own
+         * finalizer, as before; those of the socket streams do nothing.
+         */
+        static AltFinalizer get(FileOutputStream fos) {
+            for (Class<?> c = fos.getClass(); c != FileOutputStream.class;
+                 c = c.getSuperclass()) {
+                if (declares(c, "finalize")) {
+                    return null;
+                }
+                if (declares(c, "close")) {
+                    return new AltFinalizer(fos);
+                }
+            }
+            return null;
+        }
+
+        private static boolean declares(Class<?> c, String name) {
+            try {
+                c.getDeclaredMethod(name);
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+
+        @Override
+        protected final void finalize() {
+            try {
+                if (fos.fd == FileDescriptor.out || fos.fd == FileDescriptor.err) {
+                    fos.flush();
+                } else {
+                    fos.close();
+                }
+            } catch (IOException ignore) {
             }
         }
     }
@@ -25,11 +25,10 @@
 
 package java.io;
 
-import java.io.ObjectStreamClass.WeakClassKey;
-import java.lang.ref.ReferenceQueue;
 import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.nio.ByteOrder;
 import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -37,9 +36,9 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import static java.io.ObjectStreamClass.processQueue;
+import java.util.concurrent.ConcurrentReferenceHashMap;
+import java.util.concurrent.ConcurrentReferenceHashMap.ReferenceType;
 import sun.misc.ObjectStreamClassValidator;
 import sun.misc.SharedSecrets;
 import sun.misc.Unsafe;
@@ -231,16 +230,14 @@ public class ObjectInputStream
 
     private static class Caches {
         /** cache of subclass security audit results */
-        static final ConcurrentMap<WeakClassKey,Boolean> subclassAudits =
-            new ConcurrentHashMap<>();
-
-        /** queue for WeakReferences to audited subclasses */
-        static final ReferenceQueue<Class<?>> subclassAuditsQueue =
-            new ReferenceQueue<>();
+        static final ConcurrentMap<Class<?>,Boolean> subclassAudits =
+            new ConcurrentReferenceHashMap<>(ReferenceType.WEAK, true);
     }
 
     /** filter stream for handling block data conversion */
     private final BlockDataInputStream bin;
+    /** buffer for little-endian bulk primitive array reads */
+    private BulkDataBuffer bulkBuffer;
     /** validation callback list */
     private final ValidationList vlist;
     /** recursion depth */
@@ -1035,6 +1032,80 @@ public class ObjectInputStream
         bin.readFully(buf, off, len, false);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Big-endian values are read directly from the block data
+     * buffer of this stream; little-endian values are read a chunk at a
+     * time through a second buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(int[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            BulkDataBuffer.checkBounds(a.length, off, len);
+            bin.readInts(a, off, len);
+        } else {
+            bulkBuffer().readFully(this, a, off, len, order);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Big-endian values are read directly from the block data
+     * buffer of this stream; little-endian values are read a chunk at a
+     * time through a second buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(long[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            BulkDataBuffer.checkBounds(a.length, off, len);
+            bin.readLongs(a, off, len);
+        } else {
+            bulkBuffer().readFully(this, a, off, len, order);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Big-endian values are read directly from the block data
+     * buffer of this stream; little-endian values are read a chunk at a
+     * time through a second buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(double[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            BulkDataBuffer.checkBounds(a.length, off, len);
+            bin.readDoubles(a, off, len);
+        } else {
+            bulkBuffer().readFully(this, a, off, len, order);
+        }
+    }
+
+    /**
+     * Returns the buffer used by the bulk primitive array methods,
+     * allocating it on first use.
+     */
+    private BulkDataBuffer bulkBuffer() {
+        if (bulkBuffer == null) {
+            bulkBuffer = new BulkDataBuffer();
+        }
+        return bulkBuffer;
+    }
+
     /**
      * Skips bytes.
      *
@@ -1243,12 +1314,10 @@ public class ObjectInputStream
         if (sm == null) {
             return;
         }
-        processQueue(Caches.subclassAuditsQueue, Caches.subclassAudits);
-        WeakClassKey key = new WeakClassKey(cl, Caches.subclassAuditsQueue);
-        Boolean result = Caches.subclassAudits.get(key);
+        Boolean result = Caches.subclassAudits.get(cl);
         if (result == null) {
             result = Boolean.valueOf(auditSubclass(cl));
-            Caches.subclassAudits.putIfAbsent(key, result);
+            Caches.subclassAudits.putIfAbsent(cl, result);
         }
         if (result.booleanValue()) {
             return;
@@ -1318,9 +1387,9 @@ public class ObjectInputStream
         }
 
         byte tc;
-        while ((tc = bin.peekByte()) == TC_RESET) {
+        while ((tc = bin.peekByte()) == TC_RESET || tc == TC_RESETOBJECTS) {
             bin.readByte();
-            handleReset();
+            handleReset(tc == TC_RESETOBJECTS);
         }
 
         depth++;
@@ -1551,6 +1620,9 @@ public class ObjectInputStream
 
         ObjectStreamClass desc = new ObjectStreamClass();
         int descHandle = handles.assign(unshared ? unsharedMarker : desc);
+        if (!unshared) {
+            handles.markClassDesc(descHandle);
+        }
         passHandle = NULL_HANDLE;
 
         int numIfaces = bin.readInt();
@@ -1602,6 +1674,9 @@ public class ObjectInputStream
 
         ObjectStreamClass desc = new ObjectStreamClass();
         int descHandle = handles.assign(unshared ? unsharedMarker : desc);
+        if (!unshared) {
+            handles.markClassDesc(descHandle);
+        }
         passHandle = NULL_HANDLE;
 
         ObjectStreamClass readDesc = null;
@@ -2042,14 +2117,22 @@ public class ObjectInputStream
     /**
      * If recursion depth is 0, clears internal data structures; otherwise,
      * throws a StreamCorruptedException.  This method is called when a
-     * TC_RESET typecode is encountered.
+     * TC_RESET or TC_RESETOBJECTS typecode is encountered; in the latter
+     * case the handles of shared class descriptors are retained.
      */
-    private void handleReset() throws StreamCorruptedException {
+    private void handleReset(boolean retainClassDescs)
+        throws StreamCorruptedException
+    {
         if (depth > 0) {
             throw new StreamCorruptedException(
                 "unexpected reset; recursion depth: " + depth);
         }
-        clear();
+        if (retainClassDescs) {
+            handles.retainClassDescs();
+            vlist.clear();
+        } else {
+            clear();
+        }
     }
 
     /**
@@ -2527,8 +2610,9 @@ public class ObjectInputStream
                          * reads may span data blocks separated by a TC_RESET.
                          */
                         case TC_RESET:
+                        case TC_RESETOBJECTS:
                             in.read();
-                            handleReset();
+                            handleReset(tc == TC_RESETOBJECTS);
                             break;
 
                         default:
@@ -3279,6 +3363,8 @@ public class ObjectInputStream
         int lowDep = -1;
         /** number of handles in table */
         int size = 0;
+        /** handles of shared class descriptors, in ascending order */
+        HandleList classDescs = new HandleList();
 
         /**
          * Creates handle table with the given initial capacity.
@@ -3474,6 +3560,39 @@ public class ObjectInputStream
             Arrays.fill(deps, 0, size, null);
             lowDep = -1;
             size = 0;
+            classDescs.clear();
+        }
+
+        /**
+         * Records that the given handle was assigned to a shared class
+         * descriptor, to be retained by retainClassDescs.
+         */
+        void markClassDesc(int handle) {
+            classDescs.add(handle);
+        }
+
+        /**
+         * Removes all handles except those of shared class descriptors,
+         * which are renumbered from 0 in ascending order of their previous
+         * handles, matching ObjectOutputStream's numbering after it writes
+         * TC_RESETOBJECTS.  Must only be called when no handle is open.
+         */
+        void retainClassDescs() {
+            int kept = classDescs.size();
+            for (int i = 0; i < kept; i++) {
+                int handle = classDescs.get(i);
+                status[i] = status[handle];
+                entries[i] = entries[handle];
+            }
+            Arrays.fill(status, kept, size, (byte) 0);
+            Arrays.fill(entries, kept, size, null);
+            Arrays.fill(deps, 0, size, null);
+            lowDep = -1;
+            size = kept;
+            classDescs.clear();
+            for (int i = 0; i < kept; i++) {
+                classDescs.add(i);
+            }
         }
 
         /**
@@ -3531,6 +3650,10 @@ public class ObjectInputStream
             public int size() {
                 return size;
             }
+
+            public void clear() {
+                size = 0;
+            }
         }
     }
 
@@ -25,17 +25,17 @@
 
 package java.io;
 
-import java.io.ObjectStreamClass.WeakClassKey;
-import java.lang.ref.ReferenceQueue;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import static java.io.ObjectStreamClass.processQueue;
+import java.util.concurrent.ConcurrentReferenceHashMap;
+import java.util.concurrent.ConcurrentReferenceHashMap.ReferenceType;
+import java.util.concurrent.atomic.AtomicReference;
 import java.io.SerialCallbackContext;
+import java.nio.ByteOrder;
 import sun.reflect.misc.ReflectUtil;
 
 /**
@@ -165,20 +165,33 @@ public class ObjectOutputStream
 
     private static class Caches {
         /** cache of subclass security audit results */
-        static final ConcurrentMap<WeakClassKey,Boolean> subclassAudits =
-            new ConcurrentHashMap<>();
+        static final ConcurrentMap<Class<?>,Boolean> subclassAudits =
+            new ConcurrentReferenceHashMap<>(ReferenceType.WEAK, true);
 
-        /** queue for WeakReferences to audited subclasses */
-        static final ReferenceQueue<Class<?>> subclassAuditsQueue =
-            new ReferenceQueue<>();
+        /** handle table released by a closed stream, for reuse */
+        static final AtomicReference<HandleTable> spareHandles =
+            new AtomicReference<>();
+
+        /** replacement table released by a closed stream, for reuse */
+        static final AtomicReference<ReplaceTable> spareSubs =
+            new AtomicReference<>();
+
+        /** tables with a larger capacity are not kept for reuse */
+        static final int MAX_SPARE_CAPACITY = 1 << 10;
     }
 
     /** filter stream for handling block data conversion */
     private final BlockDataOutputStream bout;
+    /** buffer for little-endian bulk primitive array writes */
+    private BulkDataBuffer bulkBuffer;
     /** obj -> wire handle map */
-    private final HandleTable handles;
+    private HandleTable handles;
     /** obj -> replacement obj map */
-    private final ReplaceTable subs;
+    private ReplaceTable subs;
+    /** if true, reset() retains class descriptors */
+    private boolean streamingMode;
+    /** object handles after which objects are reset, or 0 if unbounded */
+    private int maxObjectHandles;
     /** stream protocol version */
     private int protocol = PROTOCOL_VERSION_2;
     /** recursion depth */
@@ -240,8 +253,14 @@ public class ObjectOutputStream
     public ObjectOutputStream(OutputStream out) throws IOException {
         verifySubclass();
         bout = new BlockDataOutputStream(out);
-        handles = new HandleTable(10, (float) 3.00);
-        subs = new ReplaceTable(10, (float) 3.00);
+        handles = Caches.spareHandles.getAndSet(null);
+        if (handles == null) {
+            handles = new HandleTable(10, (float) 3.00);
+        }
+        subs = Caches.spareSubs.getAndSet(null);
+        if (subs == null) {
+            subs = new ReplaceTable(10, (float) 3.00);
+        }
         enableOverride = false;
         writeStreamHeader();
         bout.setBlockDataMode(true);
@@ -352,6 +371,7 @@ public class ObjectOutputStream
             }
             throw ex;
         }
+        checkHandleLimit();
     }
 
     /**
@@ -419,6 +439,7 @@ public class ObjectOutputStream
             }
             throw ex;
         }
+        checkHandleLimit();
     }
 
     /**
@@ -498,11 +519,73 @@ public class ObjectOutputStream
             throw new IOException("stream active");
         }
         bout.setBlockDataMode(false);
-        bout.writeByte(TC_RESET);
-        clear();
+        if (streamingMode) {
+            bout.writeByte(TC_RESETOBJECTS);
+            subs.clear();
+            handles.retainClassDescs();
+        } else {
+            bout.writeByte(TC_RESET);
+            clear();
+        }
         bout.setBlockDataMode(true);
     }
 
+    /**
+     * Enables or disables streaming mode.  In streaming mode {@link #reset()}
+     * forgets the objects already written to the stream, but not the class
+     * descriptors, which are referred to by handle as before instead of
+     * being written again.  This suits long-lived streams which are reset
+     * regularly to bound their memory use, such as those used for remote
+     * calls or replication, where resending the descriptors after every
+     * reset would dominate the traffic.  Streaming mode is disabled
+     * initially.
+     *
+     * <p>A reset in streaming mode is written as
+     * {@link ObjectStreamConstants#TC_RESETOBJECTS TC_RESETOBJECTS}, which
+     * is understood by the ObjectInputStream of this release and later
+     * releases only.
+     *
+     * @param   enable true to enable streaming mode, false to disable it
+     * @see     #setMaxObjectHandles(int)
+     * @since   1.8
+     */
+    public void setStreamingMode(boolean enable) {
+        streamingMode = enable;
+    }
+
+    /**
+     * Bounds the number of objects this stream remembers.  When a call to
+     * {@link #writeObject(Object)} or {@link #writeUnshared(Object)} leaves
+     * more than the given number of objects in the handle table, the stream
+     * is {@linkplain #reset() reset}, so that later objects never refer back
+     * to objects written before that point.  Class descriptors are not
+     * counted, and are retained if {@linkplain #setStreamingMode(boolean)
+     * streaming mode} is enabled.
+     *
+     * @param   max the maximum number of remembered objects, or 0 for no
+     *          limit, which is the initial setting
+     * @throws  IllegalArgumentException if {@code max} is negative
+     * @since   1.8
+     */
+    public void setMaxObjectHandles(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("negative limit: " + max);
+        }
+        maxObjectHandles = max;
+    }
+
+    /**
+     * Resets the stream after a top-level write if more objects than
+     * allowed by setMaxObjectHandles are remembered.
+     */
+    private void checkHandleLimit() throws IOException {
+        if (maxObjectHandles > 0 && depth == 0 && !enableOverride &&
+            handles.size() - handles.classDescCount() > maxObjectHandles)
+        {
+            reset();
+        }
+    }
+
     /**
      * Subclasses may implement this method to allow class data to be stored in
      * the stream. By default this method does nothing.  The corresponding
@@ -709,6 +792,80 @@ public class ObjectOutputStream
         bout.write(buf, off, len, false);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Big-endian values are copied directly into the block data
+     * buffer of this stream; little-endian values are written a chunk at a
+     * time through a second buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void write(int[] a, int off, int len,
+                      ByteOrder order)
+        throws IOException
+    {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            BulkDataBuffer.checkBounds(a.length, off, len);
+            bout.writeInts(a, off, len);
+        } else {
+            bulkBuffer().write(this, a, off, len, order);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Big-endian values are copied directly into the block data
+     * buffer of this stream; little-endian values are written a chunk at a
+     * time through a second buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void write(long[] a, int off, int len,
+                      ByteOrder order)
+        throws IOException
+    {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            BulkDataBuffer.checkBounds(a.length, off, len);
+            bout.writeLongs(a, off, len);
+        } else {
+            bulkBuffer().write(this, a, off, len, order);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Big-endian values are copied directly into the block data
+     * buffer of this stream; little-endian values are written a chunk at a
+     * time through a second buffer kept by this stream.
+     *
+     * @since 1.8
+     */
+    public void write(double[] a, int off, int len,
+                      ByteOrder order)
+        throws IOException
+    {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            BulkDataBuffer.checkBounds(a.length, off, len);
+            bout.writeDoubles(a, off, len);
+        } else {
+            bulkBuffer().write(this, a, off, len, order);
+        }
+    }
+
+    /**
+     * Returns the buffer used by the bulk primitive array methods,
+     * allocating it on first use.
+     */
+    private BulkDataBuffer bulkBuffer() {
+        if (bulkBuffer == null) {
+            bulkBuffer = new BulkDataBuffer();
+        }
+        return bulkBuffer;
+    }
+
     /**
      * Flushes the stream. This will write any buffered output bytes and flush
      * through to the underlying stream.
@@ -739,9 +896,35 @@ public class ObjectOutputStream
     public void close() throws IOException {
         flush();
         clear();
+        releaseTables();
         bout.close();
     }
 
+    /**
+     * Hands the (cleared) handle and replacement tables of this stream to
+     * the next stream to be constructed, so that applications opening many
+     * short-lived streams do not grow new tables for each of them.  This
+     * stream continues with new empty tables in case it is used after close.
+     * Tables that have grown past MAX_SPARE_CAPACITY are left to the garbage
+     * collector, since the static cache would keep them for the life of the
+     * VM.
+     */
+    private void releaseTables() {
+        if (handles == null) {
+            return;
+        }
+        if (handles.size() == 0 &&
+            handles.capacity() <= Caches.MAX_SPARE_CAPACITY &&
+            Caches.spareHandles.compareAndSet(null, handles)) {
+            handles = new HandleTable(10, (float) 3.00);
+        }
+        if (subs.size() == 0 &&
+            subs.capacity() <= Caches.MAX_SPARE_CAPACITY &&
+            Caches.spareSubs.compareAndSet(null, subs)) {
+            subs = new ReplaceTable(10, (float) 3.00);
+        }
+    }
+
     /**
      * Writes a boolean.
      *
@@ -1046,12 +1229,10 @@ public class ObjectOutputStream
         if (sm == null) {
             return;
         }
-        processQueue(Caches.subclassAuditsQueue, Caches.subclassAudits);
-        WeakClassKey key = new WeakClassKey(cl, Caches.subclassAuditsQueue);
-        Boolean result = Caches.subclassAudits.get(key);
+        Boolean result = Caches.subclassAudits.get(cl);
         if (result == null) {
             result = Boolean.valueOf(auditSubclass(cl));
-            Caches.subclassAudits.putIfAbsent(key, result);
+            Caches.subclassAudits.putIfAbsent(cl, result);
         }
         if (result.booleanValue()) {
             return;
@@ -2242,8 +2423,15 @@ public class ObjectOutputStream
      */
     private static class HandleTable {
 
+        /* entries retained by clear(); larger tables are shrunk */
+        private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
         /* number of mappings in table/next available handle */
         private int size;
+        /* number of mappings for class descriptors */
+        private int descs;
+        /* capacity the table was created with */
+        private final int initialCapacity;
         /* size threshold determining when to expand hash spine */
         private int threshold;
         /* factor for computing size threshold */
@@ -2259,6 +2447,7 @@ public class ObjectOutputStream
          * Creates new HandleTable with given capacity and load factor.
          */
         HandleTable(int initialCapacity, float loadFactor) {
+            this.initialCapacity = initialCapacity;
             this.loadFactor = loadFactor;
             spine = new int[initialCapacity];
             next = new int[initialCapacity];
@@ -2279,6 +2468,9 @@ public class ObjectOutputStream
                 growSpine();
             }
             insert(obj, size);
+            if (obj instanceof ObjectStreamClass) {
+                descs++;
+            }
             return size++;
         }
 
@@ -2303,9 +2495,39 @@ public class ObjectOutputStream
          * Resets table to its initial (empty) state.
          */
         void clear() {
+            if (next.length > MAX_RETAINED_CAPACITY) {
+                spine = new int[initialCapacity];
+                next = new int[initialCapacity];
+                objs = new Object[initialCapacity];
+                threshold = (int) (initialCapacity * loadFactor);
+            } else {
+                Arrays.fill(objs, 0, size, null);
+            }
             Arrays.fill(spine, -1);
-            Arrays.fill(objs, 0, size, null);
             size = 0;
+            descs = 0;
+        }
+
+        /**
+         * Removes all mappings except those for class descriptors, which are
+         * renumbered from 0 in ascending order of their previous handles.
+         * ObjectInputStream renumbers its descriptors the same way when it
+         * reads TC_RESETOBJECTS.
+         */
+        void retainClassDescs() {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                Object obj = objs[i];
+                objs[i] = null;
+                if (obj instanceof ObjectStreamClass) {
+                    objs[kept++] = obj;
+                }
+            }
+            size = kept;
+            Arrays.fill(spine, -1);
+            for (int i = 0; i < size; i++) {
+                insert(objs[i], i);
+            }
         }
 
         /**
@@ -2315,6 +2537,20 @@ public class ObjectOutputStream
             return size;
         }
 
+        /**
+         * Returns the number of mappings the table holds without growing.
+         */
+        int capacity() {
+            return next.length;
+        }
+
+        /**
+         * Returns the number of mappings for class descriptors.
+         */
+        int classDescCount() {
+            return descs;
+        }
+
         /**
          * Inserts mapping object -> handle mapping into table.  Assumes table
          * is large enough to accommodate new mapping.
@@ -2371,11 +2607,14 @@ public class ObjectOutputStream
         private final HandleTable htab;
         /* maps index -> replacement object */
         private Object[] reps;
+        /* capacity the table was created with */
+        private final int initialCapacity;
 
         /**
          * Creates new ReplaceTable with given capacity and load factor.
          */
         ReplaceTable(int initialCapacity, float loadFactor) {
+            this.initialCapacity = initialCapacity;
             htab = new HandleTable(initialCapacity, loadFactor);
             reps = new Object[initialCapacity];
         }
@@ -2404,7 +2643,12 @@ public class ObjectOutputStream
          * Resets table to its initial (empty) state.
          */
         void clear() {
-            Arrays.fill(reps, 0, htab.size(), null);
+            // shrink along with htab
+            if (reps.length > HandleTable.MAX_RETAINED_CAPACITY) {
+                reps = new Object[initialCapacity];
+            } else {
+                Arrays.fill(reps, 0, htab.size(), null);
+            }
             htab.clear();
         }
 
@@ -2415,6 +2659,13 @@ public class ObjectOutputStream
             return htab.size();
         }
 
+        /**
+         * Returns the number of mappings the table holds without growing.
+         */
+        int capacity() {
+            return Math.max(htab.capacity(), reps.length);
+        }
+
         /**
          * Increases table capacity.
          */
@@ -48,6 +48,8 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentReferenceHashMap;
+import java.util.concurrent.ConcurrentReferenceHashMap.ReferenceType;
 import sun.misc.Unsafe;
 import sun.reflect.CallerSensitive;
 import sun.reflect.Reflection;
@@ -86,16 +88,13 @@ public class ObjectStreamClass implements Serializable {
 
     private static class Caches {
         /** cache mapping local classes -> descriptors */
-        static final ConcurrentMap<WeakClassKey,Reference<?>> localDescs =
-            new ConcurrentHashMap<>();
+        static final ConcurrentMap<Class<?>,Reference<?>> localDescs =
+            new ConcurrentReferenceHashMap<>(ReferenceType.WEAK, true);
 
         /** cache mapping field group/local desc pairs -> field reflectors */
         static final ConcurrentMap<FieldReflectorKey,Reference<?>> reflectors =
             new ConcurrentHashMap<>();
 
-        /** queue for WeakReferences to local classes */
-        private static final ReferenceQueue<Class<?>> localDescsQueue =
-            new ReferenceQueue<>();
         /** queue for WeakReferences to field reflectors keys */
         private static final ReferenceQueue<Class<?>> reflectorsQueue =
             new ReferenceQueue<>();
@@ -322,9 +321,7 @@ public class ObjectStreamClass implements Serializable {
         if (!(all || Serializable.class.isAssignableFrom(cl))) {
             return null;
         }
-        processQueue(Caches.localDescsQueue, Caches.localDescs);
-        WeakClassKey key = new WeakClassKey(cl, Caches.localDescsQueue);
-        Reference<?> ref = Caches.localDescs.get(key);
+        Reference<?> ref = Caches.localDescs.get(cl);
         Object entry = null;
         if (ref != null) {
             entry = ref.get();
@@ -335,9 +332,9 @@ public class ObjectStreamClass implements Serializable {
             Reference<?> newRef = new SoftReference<>(newEntry);
             do {
                 if (ref != null) {
-                    Caches.localDescs.remove(key, ref);
+                    Caches.localDescs.remove(cl, ref);
                 }
-                ref = Caches.localDescs.putIfAbsent(key, newRef);
+                ref = Caches.localDescs.putIfAbsent(cl, newRef);
                 if (ref != null) {
                     entry = ref.get();
                 }
@@ -371,7 +368,7 @@ public class ObjectStreamClass implements Serializable {
                 entry = th;
             }
             if (future.set(entry)) {
-                Caches.localDescs.put(key, new SoftReference<Object>(entry));
+                Caches.localDescs.put(cl, new SoftReference<Object>(entry));
             } else {
                 // nested lookup call already set future
                 entry = future.get();
@@ -1896,8 +1893,9 @@ public class ObjectStreamClass implements Serializable {
 
     /**
      * Class for setting and retrieving serializable field values in batch.
+     * Once used often enough, a reflector hands the work to an accessor
+     * generated for its field layout; see SerialFieldAccessor.
      */
-    // REMIND: dynamically generate these?
     private static class FieldReflector {
 
         /** handle for performing unsafe operations */
@@ -1917,6 +1915,10 @@ public class ObjectStreamClass implements Serializable {
         private final char[] typeCodes;
         /** field types */
         private final Class<?>[] types;
+        /** generated accessor, or null if not (yet) generated */
+        private volatile SerialFieldAccessor accessor;
+        /** uses before an accessor is generated, negative once attempted */
+        private int uses;
 
         /**
          * Constructs FieldReflector capable of setting/getting values from the
@@ -1965,12 +1967,36 @@ public class ObjectStreamClass implements Serializable {
             return fields;
         }
 
+        /**
+         * Returns the generated accessor for this reflector's fields,
+         * generating it on the use that reaches the threshold, or null if
+         * the work is still to be done by this reflector.  The use count is
+         * not synchronized; a lost update merely delays generation.
+         */
+        private SerialFieldAccessor accessor() {
+            SerialFieldAccessor a = accessor;
+            if (a == null && uses >= 0 && SerialFieldAccessor.THRESHOLD >= 0 &&
+                ++uses > SerialFieldAccessor.THRESHOLD)
+            {
+                uses = -1;
+                accessor = a = SerialFieldAccessor.generate(
+                    fields, numPrimFields, readKeys, writeKeys,
+                    offsets, typeCodes);
+            }
+            return a;
+        }
+
         /**
          * Fetches the serializable primitive field values of object obj and
          * marshals them into byte array buf starting at offset 0.  The caller
          * is responsible for ensuring that obj is of the proper type.
          */
         void getPrimFieldValues(Object obj, byte[] buf) {
+            SerialFieldAccessor a = accessor();
+            if (a != null) {
+                a.getPrimFieldValues(obj, buf);
+                return;
+            }
             if (obj == null) {
                 throw new NullPointerException();
             }
@@ -2026,6 +2052,11 @@ public class ObjectStreamClass implements Serializable {
          * is responsible for ensuring that obj is of the proper type.
          */
         void setPrimFieldValues(Object obj, byte[] buf) {
+            SerialFieldAccessor a = accessor();
+            if (a != null) {
+                a.setPrimFieldValues(obj, buf);
+                return;
+            }
             if (obj == null) {
                 throw new NullPointerException();
             }
@@ -2080,6 +2111,11 @@ public class ObjectStreamClass implements Serializable {
          * responsible for ensuring that obj is of the proper type.
          */
         void getObjFieldValues(Object obj, Object[] vals) {
+            SerialFieldAccessor a = accessor();
+            if (a != null) {
+                a.getObjFieldValues(obj, vals);
+                return;
+            }
             if (obj == null) {
                 throw new NullPointerException();
             }
@@ -2108,6 +2144,11 @@ public class ObjectStreamClass implements Serializable {
          * ClassCastException.
          */
         void setObjFieldValues(Object obj, Object[] vals) {
+            SerialFieldAccessor a = accessor();
+            if (a != null) {
+                a.setObjFieldValues(obj, vals);
+                return;
+            }
             if (obj == null) {
                 throw new NullPointerException();
             }
@@ -2330,52 +2371,4 @@ public class ObjectStreamClass implements Serializable {
             map.remove(ref);
         }
     }
-
-    /**
-     *  Weak key for Class objects.
-     *
-     **/
-    static class WeakClassKey extends WeakReference<Class<?>> {
-        /**
-         * saved value of the referent's identity hash code, to maintain
-         * a consistent hash code after the referent has been cleared
-         */
-        private final int hash;
-
-        /**
-         * Create a new WeakClassKey to the given object, registered
-         * with a queue.
-         */
-        WeakClassKey(Class<?> cl, ReferenceQueue<Class<?>> refQueue) {
-            super(cl, refQueue);
-            hash = System.identityHashCode(cl);
-        }
-
-        /**
-         * Returns the identity hash code of the original referent.
-         */
-        public int hashCode() {
-            return hash;
-        }
-
-        /**
-         * Returns true if the given object is this identical
-         * WeakClassKey instance, or, if this object's referent has not
-         * been cleared, if the given object is another WeakClassKey
-         * instance with the identical non-null referent as this one.
-         */
-        public boolean equals(Object obj) {
-            if (obj == this) {
-                return true;
-            }
-
-            if (obj instanceof WeakClassKey) {
-                Object referent = get();
-                return (referent != null) &&
-                       (referent == ((WeakClassKey) obj).get());
-            } else {
-                return false;
-            }
-        }
-    }
 }
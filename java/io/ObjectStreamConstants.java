@@ -129,10 +129,17 @@ public interface ObjectStreamConstants {
      */
     final static byte TC_ENUM =         (byte)0x7E;
 
+    /**
+     * Reset object handles only. Handles of shared class descriptors are
+     * kept, and renumbered in ascending order from baseWireHandle.
+     * @since 1.8
+     */
+    final static byte TC_RESETOBJECTS = (byte)0x7F;
+
     /**
      * Last tag value.
      */
-    final static byte TC_MAX =          (byte)0x7E;
+    final static byte TC_MAX =          (byte)0x7F;
 
     /**
      * First wire handle to be assigned.
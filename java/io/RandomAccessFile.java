@@ -25,6 +25,7 @@
 
 package java.io;
 
+import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import sun.nio.ch.FileChannelImpl;
 
@@ -71,6 +72,9 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
     private Object closeLock = new Object();
     private volatile boolean closed = false;
 
+    /** buffer for bulk primitive array reads and writes */
+    private BulkDataBuffer bulkBuffer;
+
     private static final int O_RDONLY = 1;
     private static final int O_RDWR =   2;
     private static final int O_SYNC =   4;
@@ -440,6 +444,51 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
         } while (n < len);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are read from this file a chunk at a
+     * time, through a buffer kept by this file.
+     *
+     * @since 1.8
+     */
+    public void readFully(int[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().readFully(this, a, off, len, order);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are read from this file a chunk at a
+     * time, through a buffer kept by this file.
+     *
+     * @since 1.8
+     */
+    public void readFully(long[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().readFully(this, a, off, len, order);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are read from this file a chunk at a
+     * time, through a buffer kept by this file.
+     *
+     * @since 1.8
+     */
+    public void readFully(double[] a, int off, int len,
+                          ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().readFully(this, a, off, len, order);
+    }
+
     /**
      * Attempts to skip over {@code n} bytes of input discarding the
      * skipped bytes.
@@ -525,6 +574,62 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
         writeBytes(b, off, len);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are written to this file a chunk at a
+     * time, through a buffer kept by this file.
+     *
+     * @since 1.8
+     */
+    public void write(int[] a, int off, int len,
+                      ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().write(this, a, off, len, order);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are written to this file a chunk at a
+     * time, through a buffer kept by this file.
+     *
+     * @since 1.8
+     */
+    public void write(long[] a, int off, int len,
+                      ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().write(this, a, off, len, order);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Bytes for this operation are written to this file a chunk at a
+     * time, through a buffer kept by this file.
+     *
+     * @since 1.8
+     */
+    public void write(double[] a, int off, int len,
+                      ByteOrder order)
+        throws IOException
+    {
+        bulkBuffer().write(this, a, off, len, order);
+    }
+
+    /**
+     * Returns the buffer used by the bulk primitive array methods,
+     * allocating it on first use.
+     */
+    private BulkDataBuffer bulkBuffer() {
+        if (bulkBuffer == null) {
+            bulkBuffer = new BulkDataBuffer();
+        }
+        return bulkBuffer;
+    }
+
     // 'Random access' stuff
 
     /**
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+import jdk.internal.org.objectweb.asm.ClassWriter;
+import jdk.internal.org.objectweb.asm.Label;
+import jdk.internal.org.objectweb.asm.MethodVisitor;
+import sun.misc.Unsafe;
+
+import static jdk.internal.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Batch access to the serializable fields of one class, specialized for a
+ * fixed field layout.
+ *
+ * <p>{@code ObjectStreamClass.FieldReflector} marshals field values with a
+ * loop that dispatches on the type code of every field of every object.
+ * Once a reflector has been used often enough, it spins a subclass of this
+ * class whose methods are straight-line code: one unsafe field access and
+ * one {@link Bits} call per field, with the field offsets and buffer
+ * positions embedded as constants.  The generated class is defined as a VM
+ * anonymous class, so it is unloaded together with the reflector that
+ * caches it, and it refers to no user classes.  The values it reads and
+ * writes, and hence the stream format, are exactly those of the reflector.
+ *
+ * <p>The number of uses before an accessor is generated is given by the
+ * system property {@code sun.io.serialization.inflationThreshold}, 15 by
+ * default.  A negative value turns generation off.
+ */
+abstract class SerialFieldAccessor {
+
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+
+    /** uses of a field reflector after which an accessor is generated */
+    static final int THRESHOLD = AccessController.doPrivileged(
+        new PrivilegedAction<Integer>() {
+            public Integer run() {
+                return Integer.getInteger(
+                    "sun.io.serialization.inflationThreshold", 15);
+            }
+        });
+
+    /*
+     * Each batch method is emitted straight-line, so its size grows with the
+     * field count.  HotSpot does not compile methods over HugeMethodLimit
+     * (8000 bytes of bytecode), and an interpreted accessor is slower than
+     * the reflector it replaces, so layouts that would produce a method
+     * over that size are left to the reflector.  The per-field figures are
+     * the longest sequences spinClass emits: aload, sipush/ldc_w offset,
+     * getstatic, aload, ldc2_w key, invokevirtual and invokestatic for a
+     * primitive field; setObjFieldValues adds the checkType call for an
+     * object field.  The null check prologue and return take 13 bytes.
+     */
+    private static final int MAX_METHOD_SIZE = 8000 - 13;
+    private static final int PRIM_FIELD_SIZE = 17;
+    private static final int OBJ_FIELD_SIZE = 26;
+
+    private static final String BASE = "java/io/SerialFieldAccessor";
+    private static final String NAME = "java/io/SerialFieldAccessor$Generated";
+    private static final String BITS = "java/io/Bits";
+    private static final String UNSAFE_NAME = "sun/misc/Unsafe";
+    private static final String UNSAFE_DESC = "Lsun/misc/Unsafe;";
+    private static final String CTOR_DESC =
+        "([Ljava/io/ObjectStreamField;[Ljava/lang/Class;)V";
+
+    /** fields operated on, for error messages */
+    private final ObjectStreamField[] fields;
+    /** declared types of the fields, indexed like fields */
+    private final Class<?>[] types;
+
+    protected SerialFieldAccessor(ObjectStreamField[] fields, Class<?>[] types) {
+        this.fields = fields;
+        this.types = types;
+    }
+
+    /** See ObjectStreamClass.FieldReflector.getPrimFieldValues */
+    abstract void getPrimFieldValues(Object obj, byte[] buf);
+
+    /** See ObjectStreamClass.FieldReflector.setPrimFieldValues */
+    abstract void setPrimFieldValues(Object obj, byte[] buf);
+
+    /** See ObjectStreamClass.FieldReflector.getObjFieldValues */
+    abstract void getObjFieldValues(Object obj, Object[] vals);
+
+    /** See ObjectStreamClass.FieldReflector.setObjFieldValues */
+    abstract void setObjFieldValues(Object obj, Object[] vals);
+
+    /**
+     * Checks that val may be assigned to field i of obj, throwing the same
+     * ClassCastException as the reflector if it may not.  Called by the
+     * generated setObjFieldValues before each store.
+     */
+    final void checkType(Object obj, Object val, int i) {
+        if (val != null && !types[i].isInstance(val)) {
+            Field f = fields[i].getField();
+            throw new ClassCastException(
+                "cannot assign instance of " +
+                val.getClass().getName() + " to field " +
+                f.getDeclaringClass().getName() + "." +
+                f.getName() + " of type " +
+                f.getType().getName() + " in instance of " +
+                obj.getClass().getName());
+        }
+    }
+
+    /**
+     * Generates an accessor for the given layout, as computed by the
+     * FieldReflector constructor.  Returns null if the layout is not
+     * supported, in which case the reflector keeps doing the work.
+     */
+    static SerialFieldAccessor generate(ObjectStreamField[] fields,
+                                        int numPrimFields,
+                                        long[] readKeys, long[] writeKeys,
+                                        int[] offsets, char[] typeCodes)
+    {
+        int nfields = fields.length;
+        if (numPrimFields * PRIM_FIELD_SIZE > MAX_METHOD_SIZE ||
+            (nfields - numPrimFields) * OBJ_FIELD_SIZE > MAX_METHOD_SIZE) {
+            return null;
+        }
+        Class<?>[] types = new Class<?>[nfields];
+        for (int i = 0; i < nfields; i++) {
+            // filler fields are only found in deserialization layouts
+            // that the reflector handles well enough
+            Field rf = fields[i].getField();
+            if (rf == null || readKeys[i] == Unsafe.INVALID_FIELD_OFFSET) {
+                return null;
+            }
+            types[i] = rf.getType();
+        }
+
+        try {
+            byte[] bytes = spinClass(numPrimFields, readKeys, writeKeys,
+                                     offsets, typeCodes);
+            Class<?> c = UNSAFE.defineAnonymousClass(
+                SerialFieldAccessor.class, bytes, null);
+            final Constructor<?> ctor = c.getDeclaredConstructor(
+                ObjectStreamField[].class, Class[].class);
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                public Void run() {
+                    ctor.setAccessible(true);
+                    return null;
+                }
+            });
+            return (SerialFieldAccessor) ctor.newInstance(fields, types);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static byte[] spinClass(int numPrimFields,
+                                    long[] readKeys, long[] writeKeys,
+                                    int[] offsets, char[] typeCodes)
+    {
+        int nfields = readKeys.length;
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        cw.visit(V1_8, ACC_SUPER + ACC_FINAL + ACC_SYNTHETIC, NAME, null, BASE, null);
+        cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "UNSAFE",
+                      UNSAFE_DESC, null, null).visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        mv.visitMethodInsn(INVOKESTATIC, UNSAFE_NAME, "getUnsafe",
+                           "()" + UNSAFE_DESC, false);
+        mv.visitFieldInsn(PUTSTATIC, NAME, "UNSAFE", UNSAFE_DESC);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(ACC_PRIVATE, "<init>", CTOR_DESC, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitMethodInsn(INVOKESPECIAL, BASE, "<init>", CTOR_DESC, false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+
+        // getPrimFieldValues: Bits.putX(buf, off, UNSAFE.getX(obj, key))
+        mv = beginMethod(cw, "getPrimFieldValues", "(Ljava/lang/Object;[B)V");
+        for (int i = 0; i < numPrimFields; i++) {
+            char tc = typeCodes[i];
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitLdcInsn(offsets[i]);
+            loadUnsafeAndKey(mv, readKeys[i]);
+            mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE_NAME, "get" + typeName(tc),
+                               "(Ljava/lang/Object;J)" + tc, false);
+            if (tc == 'B') {
+                mv.visitInsn(BASTORE);
+            } else {
+                mv.visitMethodInsn(INVOKESTATIC, BITS, "put" + typeName(tc),
+                                   "([BI" + tc + ")V", false);
+            }
+        }
+        endMethod(mv);
+
+        // setPrimFieldValues: UNSAFE.putX(obj, key, Bits.getX(buf, off))
+        mv = beginMethod(cw, "setPrimFieldValues", "(Ljava/lang/Object;[B)V");
+        for (int i = 0; i < numPrimFields; i++) {
+            if (writeKeys[i] == Unsafe.INVALID_FIELD_OFFSET) {
+                continue;           // discard value
+            }
+            char tc = typeCodes[i];
+            loadUnsafeAndKey(mv, writeKeys[i]);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitLdcInsn(offsets[i]);
+            if (tc == 'B') {
+                mv.visitInsn(BALOAD);
+            } else {
+                mv.visitMethodInsn(INVOKESTATIC, BITS, "get" + typeName(tc),
+                                   "([BI)" + tc, false);
+            }
+            mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE_NAME, "put" + typeName(tc),
+                               "(Ljava/lang/Object;J" + tc + ")V", false);
+        }
+        endMethod(mv);
+
+        // getObjFieldValues: vals[off] = UNSAFE.getObject(obj, key)
+        mv = beginMethod(cw, "getObjFieldValues", "(Ljava/lang/Object;[Ljava/lang/Object;)V");
+        for (int i = numPrimFields; i < nfields; i++) {
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitLdcInsn(offsets[i]);
+            loadUnsafeAndKey(mv, readKeys[i]);
+            mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE_NAME, "getObject",
+                               "(Ljava/lang/Object;J)Ljava/lang/Object;", false);
+            mv.visitInsn(AASTORE);
+        }
+        endMethod(mv);
+
+        // setObjFieldValues: checkType(obj, val, i); UNSAFE.putObject(obj, key, val)
+        mv = beginMethod(cw, "setObjFieldValues", "(Ljava/lang/Object;[Ljava/lang/Object;)V");
+        for (int i = numPrimFields; i < nfields; i++) {
+            if (writeKeys[i] == Unsafe.INVALID_FIELD_OFFSET) {
+                continue;           // discard value
+            }
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitLdcInsn(offsets[i]);
+            mv.visitInsn(AALOAD);
+            mv.visitVarInsn(ASTORE, 3);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitLdcInsn(i);
+            mv.visitMethodInsn(INVOKEVIRTUAL, BASE, "checkType",
+                               "(Ljava/lang/Object;Ljava/lang/Object;I)V", false);
+            loadUnsafeAndKey(mv, writeKeys[i]);
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE_NAME, "putObject",
+                               "(Ljava/lang/Object;JLjava/lang/Object;)V", false);
+        }
+        endMethod(mv);
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Starts one of the batch methods with the null check the reflector
+     * performs on obj.
+     */
+    private static MethodVisitor beginMethod(ClassWriter cw, String name, String desc) {
+        MethodVisitor mv = cw.visitMethod(0, name, desc, null, null);
+        mv.visitCode();
+        Label nonNull = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitJumpInsn(IFNONNULL, nonNull);
+        mv.visitTypeInsn(NEW, "java/lang/NullPointerException");
+        mv.visitInsn(DUP);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/NullPointerException",
+                           "<init>", "()V", false);
+        mv.visitInsn(ATHROW);
+        mv.visitLabel(nonNull);
+        return mv;
+    }
+
+    private static void endMethod(MethodVisitor mv) {
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+
+    private static void loadUnsafeAndKey(MethodVisitor mv, long key) {
+        mv.visitFieldInsn(GETSTATIC, NAME, "UNSAFE", UNSAFE_DESC);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitLdcInsn(key);
+    }
+
+    /**
+     * Returns the suffix used by the Unsafe and Bits accessors for the
+     * given primitive type code.
+     */
+    private static String typeName(char tc) {
+        switch (tc) {
+            case 'Z': return "Boolean";
+            case 'B': return "Byte";
+            case 'C': return "Char";
+            case 'S': return "Short";
+            case 'I': return "Int";
+            case 'F': return "Float";
+            case 'J': return "Long";
+            case 'D': return "Double";
+            default:  throw new InternalError();
+        }
+    }
+}
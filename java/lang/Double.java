@@ -25,6 +25,8 @@
 
 package java.lang;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import sun.misc.FloatingDecimal;
 import sun.misc.FpUtils;
 import sun.misc.DoubleConsts;
@@ -197,11 +199,128 @@ public final class Double extends Number implements Comparable<Double> {
      * <p>To create localized string representations of a floating-point
      * value, use subclasses of {@link java.text.NumberFormat}.
      *
+     * @implNote Among the decimals that round to the argument, the one
+     * produced is the closest to the argument among those with the fewest
+     * digits, one- and two-digit decimals counting alike; ties go to the one
+     * with an even least significant digit. It is computed with {@code long}
+     * arithmetic only; besides the result, only a small scratch array is
+     * allocated.
+     *
      * @param   d   the {@code double} to be converted.
      * @return a string representation of the argument.
      */
     public static String toString(double d) {
-        return FloatingDecimal.toJavaFormatString(d);
+        return DoubleToDecimal.toString(d);
+    }
+
+    /**
+     * Writes the string representation of the {@code double} argument,
+     * as returned by {@link #toString(double)}, into a {@code char}
+     * array. The representation is at most 24 chars long.
+     *
+     * <p>No object is allocated when at least 24 chars are available
+     * from {@code dstBegin}. If the representation does not fit, nothing
+     * is written.
+     *
+     * @param   d          the {@code double} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first char.
+     * @return  the number of chars written.
+     * @throws  IndexOutOfBoundsException if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getChars(double d, char[] dst, int dstBegin) {
+        int room = dst.length - dstBegin;
+        if (dstBegin < 0 || room < 0) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + dst.length);
+        }
+        if (room >= DoubleToDecimal.MAX_CHARS) {
+            return DoubleToDecimal.toChars(d, null, dst, dstBegin) - dstBegin;
+        }
+        char[] buf = new char[DoubleToDecimal.MAX_CHARS];
+        int n = DoubleToDecimal.toChars(d, null, buf, 0);
+        if (n > room) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + dst.length +
+                                                ", needed " + n);
+        }
+        System.arraycopy(buf, 0, dst, dstBegin, n);
+        return n;
+    }
+
+    /**
+     * Writes the string representation of the {@code double} argument,
+     * as returned by {@link #toString(double)}, into a {@code byte}
+     * array, one ASCII char per byte. The representation is at most 24
+     * chars long.
+     *
+     * <p>No object is allocated when at least 24 bytes are available
+     * from {@code dstBegin}. If the representation does not fit, nothing
+     * is written.
+     *
+     * @param   d          the {@code double} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first byte.
+     * @return  the number of bytes written.
+     * @throws  IndexOutOfBoundsException if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getBytes(double d, byte[] dst, int dstBegin) {
+        int room = dst.length - dstBegin;
+        if (dstBegin < 0 || room < 0) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + dst.length);
+        }
+        if (room >= DoubleToDecimal.MAX_CHARS) {
+            return DoubleToDecimal.toChars(d, dst, null, dstBegin) - dstBegin;
+        }
+        byte[] buf = new byte[DoubleToDecimal.MAX_CHARS];
+        int n = DoubleToDecimal.toChars(d, buf, null, 0);
+        if (n > room) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + dst.length +
+                                                ", needed " + n);
+        }
+        System.arraycopy(buf, 0, dst, dstBegin, n);
+        return n;
+    }
+
+    /**
+     * Writes the string representation of the {@code double} argument,
+     * as returned by {@link #toString(double)}, into a char buffer at its
+     * current position, and advances the position. The representation is
+     * at most 24 chars long.
+     *
+     * <p>No object is allocated when the buffer is backed by an accessible
+     * array and at least 24 chars remain. If the representation does
+     * not fit, nothing is written.
+     *
+     * @param   d          the {@code double} to be converted.
+     * @param   dst        the destination buffer.
+     * @return  the number of chars written.
+     * @throws  java.nio.BufferOverflowException if the representation does
+     *          not fit in the remaining chars of {@code dst}.
+     * @throws  java.nio.ReadOnlyBufferException if {@code dst} is
+     *          read-only.
+     * @since 1.8
+     */
+    public static int getChars(double d, CharBuffer dst) {
+        int pos = dst.position();
+        if (dst.hasArray() && dst.limit() - pos >= DoubleToDecimal.MAX_CHARS) {
+            int off = dst.arrayOffset() + pos;
+            int n = DoubleToDecimal.toChars(d, null, dst.array(), off) - off;
+            dst.position(pos + n);
+            return n;
+        }
+        char[] buf = new char[DoubleToDecimal.MAX_CHARS];
+        int n = DoubleToDecimal.toChars(d, null, buf, 0);
+        dst.put(buf, 0, n);
+        return n;
     }
 
     /**
@@ -538,6 +657,216 @@ public final class Double extends Number implements Comparable<Double> {
         return FloatingDecimal.parseDouble(s);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a {@code double},
+     * beginning at the specified {@code beginIndex} and extending to
+     * {@code endIndex - 1}. The characters in the range are interpreted
+     * exactly as by {@link #parseDouble(String)}.
+     *
+     * @implNote A plain decimal of the form
+     * <i>[sign] digits [{@code .} digits] [{@code e}|{@code E} [sign]
+     * digits]</i> with at most 18 significant digits, whose value is an
+     * integer below 2<sup>53</sup> scaled by at most 10<sup>&plusmn;22</sup>,
+     * is converted without allocating, by a single correctly rounded
+     * multiplication or division. Every other form, including those with
+     * white space, type suffixes, hexadecimal significands and the
+     * {@code NaN} and {@code Infinity} strings, is parsed from a copy of
+     * the range.
+     *
+     * @param      s   the {@code CharSequence} to be parsed.
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @return     the {@code double} value represented by the subsequence.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException if the range does not contain
+     *             a parsable {@code double}.
+     * @since 1.8
+     */
+    public static double parseDouble(CharSequence s, int beginIndex, int endIndex)
+            throws NumberFormatException {
+        Integer.checkFromToIndex(beginIndex, endIndex, s.length());
+        return parseDouble(s, null, null, beginIndex, endIndex);
+    }
+
+    /**
+     * Parses a range of a {@code byte} array as a {@code double}. Each
+     * byte is taken to be an ISO-8859-1 character; the characters are
+     * then interpreted exactly as by {@link #parseDouble(String)}. Plain
+     * decimals are converted without allocating, as described for
+     * {@link #parseDouble(CharSequence, int, int)}.
+     *
+     * @param      bytes   the array to be parsed.
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @return     the {@code double} value represented by the range.
+     * @throws     NullPointerException  if {@code bytes} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code bytes.length}.
+     * @throws     NumberFormatException if the range does not contain
+     *             a parsable {@code double}.
+     * @since 1.8
+     */
+    public static double parseDouble(byte[] bytes, int beginIndex, int endIndex)
+            throws NumberFormatException {
+        Integer.checkFromToIndex(beginIndex, endIndex, bytes.length);
+        return parseDouble(null, bytes, null, beginIndex, endIndex);
+    }
+
+    /**
+     * Parses a range of a byte buffer as a {@code double}. The indexes
+     * are absolute, and neither the position nor the limit of the buffer
+     * is changed. Each byte is taken to be an ISO-8859-1 character, as by
+     * {@link #parseDouble(byte[], int, int)}.
+     *
+     * @param      buf   the buffer to be parsed.
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @return     the {@code double} value represented by the range.
+     * @throws     NullPointerException  if {@code buf} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code buf.limit()}.
+     * @throws     NumberFormatException if the range does not contain
+     *             a parsable {@code double}.
+     * @since 1.8
+     */
+    public static double parseDouble(ByteBuffer buf, int beginIndex, int endIndex)
+            throws NumberFormatException {
+        Integer.checkFromToIndex(beginIndex, endIndex, buf.limit());
+        if (buf.hasArray()) {
+            int off = buf.arrayOffset();
+            return parseDouble(null, buf.array(), null,
+                               off + beginIndex, off + endIndex);
+        }
+        return parseDouble(null, null, buf, beginIndex, endIndex);
+    }
+
+    /*
+     * Exactly representable powers of ten, 10^0 through 10^22.
+     */
+    private static final double[] SMALL_10_POW = {
+        1.0e0,  1.0e1,  1.0e2,  1.0e3,  1.0e4,  1.0e5,
+        1.0e6,  1.0e7,  1.0e8,  1.0e9,  1.0e10, 1.0e11,
+        1.0e12, 1.0e13, 1.0e14, 1.0e15, 1.0e16, 1.0e17,
+        1.0e18, 1.0e19, 1.0e20, 1.0e21, 1.0e22
+    };
+
+    /*
+     * Parses the range of the non-null one of cs, bytes and buf. The
+     * range has been checked by the caller.
+     */
+    private static double parseDouble(CharSequence cs, byte[] bytes, ByteBuffer buf,
+                                      int beginIndex, int endIndex) {
+        double v = parsePlainDecimal(cs, bytes, buf, beginIndex, endIndex);
+        if (v == v) {
+            return v;
+        }
+        return FloatingDecimal.parseDouble(
+                Integer.rangeToString(cs, bytes, buf, beginIndex, endIndex));
+    }
+
+    /*
+     * Converts a plain decimal whose significand m, without leading zeroes,
+     * has at most 18 digits and is below 2^53, and whose decimal exponent
+     * e satisfies |e| <= 22. Both m and 10^|e| are then exact doubles, so
+     * the single IEEE multiplication or division is correctly rounded
+     * (Clinger's fast path). Returns NaN, which no plain decimal denotes,
+     * when the range is of any other form.
+     */
+    private static double parsePlainDecimal(CharSequence cs, byte[] bytes, ByteBuffer buf,
+                                            int beginIndex, int endIndex) {
+        int i = beginIndex;
+        boolean negative = false;
+        char c = 0;
+        if (i < endIndex) {
+            c = Integer.charAt(cs, bytes, buf, i);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                i++;
+            }
+        }
+
+        long m = 0;          // significand
+        int nDigits = 0;     // significant digits in m
+        int exp = 0;         // decimal exponent
+        boolean sawDigit = false;
+        boolean inFraction = false;
+        for (; i < endIndex; i++) {
+            c = Integer.charAt(cs, bytes, buf, i);
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (inFraction) {
+                    exp--;
+                }
+                if (m == 0 && c == '0') {
+                    continue;
+                }
+                if (++nDigits > 18) {
+                    return Double.NaN;
+                }
+                m = 10 * m + (c - '0');
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!sawDigit) {
+            return Double.NaN;
+        }
+
+        if (i < endIndex && (c == 'e' || c == 'E')) {
+            i++;
+            boolean expNegative = false;
+            if (i < endIndex) {
+                c = Integer.charAt(cs, bytes, buf, i);
+                if (c == '-' || c == '+') {
+                    expNegative = c == '-';
+                    i++;
+                }
+            }
+            int e = 0;
+            int expStart = i;
+            for (; i < endIndex; i++) {
+                c = Integer.charAt(cs, bytes, buf, i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                if (e < 1000) {
+                    e = 10 * e + (c - '0');
+                }
+            }
+            if (i == expStart) {
+                return Double.NaN;
+            }
+            exp += expNegative ? -e : e;
+        }
+        if (i != endIndex) {
+            return Double.NaN;
+        }
+
+        if (m == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (m >= (1L << 53) || exp < -22 || exp > 22) {
+            return Double.NaN;
+        }
+        double v = (double) m;
+        if (exp > 0) {
+            v *= SMALL_10_POW[exp];
+        } else if (exp < 0) {
+            v /= SMALL_10_POW[-exp];
+        }
+        return negative ? -v : v;
+    }
+
     /**
      * Returns {@code true} if the specified number is a
      * Not-a-Number (NaN) value, {@code false} otherwise.
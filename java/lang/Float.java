@@ -25,6 +25,7 @@
 
 package java.lang;
 
+import java.nio.CharBuffer;
 import sun.misc.FloatingDecimal;
 import sun.misc.FloatConsts;
 import sun.misc.DoubleConsts;
@@ -199,11 +200,128 @@ public final class Float extends Number implements Comparable<Float> {
      * <p>To create localized string representations of a floating-point
      * value, use subclasses of {@link java.text.NumberFormat}.
      *
+     * @implNote Among the decimals that round to the argument, the one
+     * produced is the closest to the argument among those with the fewest
+     * digits, one- and two-digit decimals counting alike; ties go to the one
+     * with an even least significant digit. It is computed with {@code long}
+     * arithmetic only; besides the result, only a small scratch array is
+     * allocated.
+     *
      * @param   f   the float to be converted.
      * @return a string representation of the argument.
      */
     public static String toString(float f) {
-        return FloatingDecimal.toJavaFormatString(f);
+        return FloatToDecimal.toString(f);
+    }
+
+    /**
+     * Writes the string representation of the {@code float} argument,
+     * as returned by {@link #toString(float)}, into a {@code char}
+     * array. The representation is at most 15 chars long.
+     *
+     * <p>No object is allocated when at least 15 chars are available
+     * from {@code dstBegin}. If the representation does not fit, nothing
+     * is written.
+     *
+     * @param   f          the {@code float} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first char.
+     * @return  the number of chars written.
+     * @throws  IndexOutOfBoundsException if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getChars(float f, char[] dst, int dstBegin) {
+        int room = dst.length - dstBegin;
+        if (dstBegin < 0 || room < 0) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + dst.length);
+        }
+        if (room >= FloatToDecimal.MAX_CHARS) {
+            return FloatToDecimal.toChars(f, null, dst, dstBegin) - dstBegin;
+        }
+        char[] buf = new char[FloatToDecimal.MAX_CHARS];
+        int n = FloatToDecimal.toChars(f, null, buf, 0);
+        if (n > room) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + dst.length +
+                                                ", needed " + n);
+        }
+        System.arraycopy(buf, 0, dst, dstBegin, n);
+        return n;
+    }
+
+    /**
+     * Writes the string representation of the {@code float} argument,
+     * as returned by {@link #toString(float)}, into a {@code byte}
+     * array, one ASCII char per byte. The representation is at most 15
+     * chars long.
+     *
+     * <p>No object is allocated when at least 15 bytes are available
+     * from {@code dstBegin}. If the representation does not fit, nothing
+     * is written.
+     *
+     * @param   f          the {@code float} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first byte.
+     * @return  the number of bytes written.
+     * @throws  IndexOutOfBoundsException if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getBytes(float f, byte[] dst, int dstBegin) {
+        int room = dst.length - dstBegin;
+        if (dstBegin < 0 || room < 0) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + dst.length);
+        }
+        if (room >= FloatToDecimal.MAX_CHARS) {
+            return FloatToDecimal.toChars(f, dst, null, dstBegin) - dstBegin;
+        }
+        byte[] buf = new byte[FloatToDecimal.MAX_CHARS];
+        int n = FloatToDecimal.toChars(f, buf, null, 0);
+        if (n > room) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + dst.length +
+                                                ", needed " + n);
+        }
+        System.arraycopy(buf, 0, dst, dstBegin, n);
+        return n;
+    }
+
+    /**
+     * Writes the string representation of the {@code float} argument,
+     * as returned by {@link #toString(float)}, into a char buffer at its
+     * current position, and advances the position. The representation is
+     * at most 15 chars long.
+     *
+     * <p>No object is allocated when the buffer is backed by an accessible
+     * array and at least 15 chars remain. If the representation does
+     * not fit, nothing is written.
+     *
+     * @param   f          the {@code float} to be converted.
+     * @param   dst        the destination buffer.
+     * @return  the number of chars written.
+     * @throws  java.nio.BufferOverflowException if the representation does
+     *          not fit in the remaining chars of {@code dst}.
+     * @throws  java.nio.ReadOnlyBufferException if {@code dst} is
+     *          read-only.
+     * @since 1.8
+     */
+    public static int getChars(float f, CharBuffer dst) {
+        int pos = dst.position();
+        if (dst.hasArray() && dst.limit() - pos >= FloatToDecimal.MAX_CHARS) {
+            int off = dst.arrayOffset() + pos;
+            int n = FloatToDecimal.toChars(f, null, dst.array(), off) - off;
+            dst.position(pos + n);
+            return n;
+        }
+        char[] buf = new char[FloatToDecimal.MAX_CHARS];
+        int n = FloatToDecimal.toChars(f, null, buf, 0);
+        dst.put(buf, 0, n);
+        return n;
     }
 
     /**
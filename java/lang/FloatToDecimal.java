@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+
+import static java.lang.DoubleToDecimal.*;
+import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Integer.numberOfLeadingZeros;
+
+/**
+ * Converts {@code float} values to their shortest decimal representation,
+ * as specified by {@link Float#toString(float)}.
+ *
+ * <p>This is the {@code float} counterpart of {@link DoubleToDecimal}, and
+ * shares its table of powers of ten and its conventions for the destination
+ * arrays.
+ */
+final class FloatToDecimal {
+
+    /**
+     * The precision in bits.
+     */
+    static final int P = 24;
+
+    /**
+     * Exponent width in bits.
+     */
+    private static final int W = (Float.SIZE - 1) - (P - 1);
+
+    /**
+     * Minimum value of the exponent: -(2^(W-1)) - P + 3.
+     */
+    static final int Q_MIN = (-1 << W - 1) - P + 3;
+
+    /**
+     * Minimum value of the significand of a normal value: 2^(P-1).
+     */
+    private static final int C_MIN = 1 << P - 1;
+
+    /**
+     * Mask to extract the biased exponent.
+     */
+    private static final int BQ_MASK = (1 << W) - 1;
+
+    /**
+     * Mask to extract the fraction bits.
+     */
+    private static final int T_MASK = (1 << P - 1) - 1;
+
+    /**
+     * Used in rop().
+     */
+    private static final long MASK_32 = (1L << 32) - 1;
+
+    /**
+     * The subnormal significands below this value have fewer than 2 digits
+     * in their shortest decimal; they are scaled by 10 to get 2 digits.
+     */
+    private static final int C_TINY = 8;
+
+    /**
+     * Number of significand digits written: the number of decimal digits
+     * needed to round-trip any float, plus 1.
+     */
+    private static final int H = 9;
+
+    /**
+     * The maximum number of chars of the string representation of a
+     * {@code float}, as in {@code "-1.23456789E-30"}.
+     */
+    static final int MAX_CHARS = H + 6;
+
+    private FloatToDecimal() { }
+
+    /**
+     * Returns the string representation of {@code v}, as specified by
+     * {@link Float#toString(float)}.
+     */
+    static String toString(float v) {
+        byte[] buf = new byte[MAX_CHARS];
+        return newString(buf, toChars(v, buf, null, 0));
+    }
+
+    /**
+     * Writes the string representation of {@code v} at {@code index} of
+     * either {@code bytes} or {@code chars}, and returns the index after
+     * the last char written.
+     */
+    static int toChars(float v, byte[] bytes, char[] chars, int index) {
+        int bits = floatToRawIntBits(v);
+        int t = bits & T_MASK;
+        int bq = (bits >>> P - 1) & BQ_MASK;
+        if (bq < BQ_MASK) {
+            if (bits < 0) {
+                index = put(bytes, chars, index, '-');
+            }
+            if (bq != 0) {
+                // normal value. Here mq = -q
+                int mq = -Q_MIN + 1 - bq;
+                int c = C_MIN | t;
+                // The fast path for integer values below 2^24
+                if (0 < mq & mq < P) {
+                    int f = c >> mq;
+                    if (f << mq == c) {
+                        return toChars(f, 0, bytes, chars, index);
+                    }
+                }
+                return toDecimal(-mq, c, 0, bytes, chars, index);
+            }
+            if (t != 0) {
+                // subnormal value
+                return t < C_TINY
+                       ? toDecimal(Q_MIN, 10 * t, -1, bytes, chars, index)
+                       : toDecimal(Q_MIN, t, 0, bytes, chars, index);
+            }
+            return putString(bytes, chars, index, "0.0");
+        }
+        if (t != 0) {
+            return putString(bytes, chars, index, "NaN");
+        }
+        return putString(bytes, chars, index, bits > 0 ? "Infinity" : "-Infinity");
+    }
+
+    /**
+     * Computes the shortest decimal of c 2^q and writes it; dk is -1 when
+     * c has been scaled by 10, and 0 otherwise. See
+     * DoubleToDecimal.toDecimal for the names.
+     */
+    private static int toDecimal(int q, int c, int dk,
+                                 byte[] bytes, char[] chars, int index) {
+        int out = c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN | q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 33;
+
+        // g is the high 64 bits of the approximation of 10^-k, rounded up
+        long g = g1(k) + 1;
+
+        int vb = rop(g, cb << h);
+        int vbl = rop(g, cbl << h);
+        int vbr = rop(g, cbr << h);
+
+        int s = vb >> 2;
+        if (s >= 100) {
+            // s' = floor(s / 10) = floor(s 1_717_986_919 / 2^34)
+            int sp10 = 10 * (int)(s * 1_717_986_919L >>> 34);
+            int tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return toChars(upin ? sp10 : tp10, k, bytes, chars, index);
+            }
+        }
+
+        int t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            // Exactly one of u or w lies in the interval
+            return toChars(uin ? s : t, k + dk, bytes, chars, index);
+        }
+        // Both u and w lie in the interval: pick the one closest to v
+        int cmp = vb - (s + t << 1);
+        return toChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t,
+                       k + dk, bytes, chars, index);
+    }
+
+    /**
+     * Computes rop(cp g 2^(-95)): the round to odd of the product.
+     */
+    private static int rop(long g, long cp) {
+        long x1 = multiplyHigh(g, cp);
+        long vbp = x1 >>> 31;
+        return (int)(vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+    }
+
+    /**
+     * Writes the decimal f 10^e, where f has at most H digits, in the
+     * format of {@link Float#toString(float)}.
+     */
+    private static int toChars(int f, int e, byte[] bytes, char[] chars, int index) {
+        // Determine len such that 10^(len-1) <= f < 10^len
+        int len = flog10pow2(Integer.SIZE - numberOfLeadingZeros(f));
+        if (f >= pow10(len)) {
+            len += 1;
+        }
+
+        // Transform f and e to ensure 10^(H-1) <= f < 10^H
+        f *= (int)pow10(H - len);
+        e += len;
+
+        /*
+         * Split the H = 9 digits of f into
+         *     h = the most significant digit of f
+         *     l = the last 8, least significant digits of f
+         * using floor(f / 10^8) = floor(1_441_151_881 f / 2^57)
+         */
+        int h = (int)(f * 1_441_151_881L >>> 57);
+        int l = f - 100_000_000 * h;
+
+        if (0 < e && e <= 7) {
+            // plain format without leading zeroes
+            index = putDigit(bytes, chars, index, h);
+            int y = y(l);
+            int t;
+            int i = 1;
+            for (; i < e; ++i) {
+                t = 10 * y;
+                index = putDigit(bytes, chars, index, t >>> 28);
+                y = t & MASK_28;
+            }
+            index = put(bytes, chars, index, '.');
+            for (; i <= 8; ++i) {
+                t = 10 * y;
+                index = putDigit(bytes, chars, index, t >>> 28);
+                y = t & MASK_28;
+            }
+            return removeTrailingZeroes(bytes, chars, index);
+        }
+        if (-3 < e && e <= 0) {
+            // plain format with leading zeroes
+            index = putDigit(bytes, chars, index, 0);
+            index = put(bytes, chars, index, '.');
+            for (; e < 0; ++e) {
+                index = putDigit(bytes, chars, index, 0);
+            }
+            index = putDigit(bytes, chars, index, h);
+            index = put8Digits(bytes, chars, index, l);
+            return removeTrailingZeroes(bytes, chars, index);
+        }
+        // computerized scientific notation
+        index = putDigit(bytes, chars, index, h);
+        index = put(bytes, chars, index, '.');
+        index = put8Digits(bytes, chars, index, l);
+        index = removeTrailingZeroes(bytes, chars, index);
+        return exponent(bytes, chars, index, e - 1);
+    }
+}
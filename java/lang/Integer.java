@@ -26,6 +26,7 @@
 package java.lang;
 
 import java.lang.annotation.Native;
+import java.nio.ByteBuffer;
 
 /**
  * The {@code Integer} class wraps a value of the primitive type
@@ -474,6 +475,118 @@ public final class Integer extends Number implements Comparable<Integer> {
                 return i+1;
     }
 
+    /**
+     * Writes the string representation of the {@code int} argument, as
+     * returned by {@link #toString(int)}, into a {@code char} array. The
+     * representation is at most 11 chars long.
+     *
+     * <p>No object is allocated. If the representation does not fit,
+     * nothing is written.
+     *
+     * @param   i          an integer to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first char.
+     * @return  the number of chars written.
+     * @throws  IndexOutOfBoundsException if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getChars(int i, char[] dst, int dstBegin) {
+        int size = signedStringSize(i);
+        checkRoom(dstBegin, size, dst.length);
+        if (i == Integer.MIN_VALUE) {
+            "-2147483648".getChars(0, size, dst, dstBegin);
+        } else {
+            getChars(i, dstBegin + size, dst);
+        }
+        return size;
+    }
+
+    /**
+     * Writes the string representation of the {@code int} argument, as
+     * returned by {@link #toString(int)}, into a {@code byte} array as
+     * ASCII characters. The representation is at most 11 bytes long.
+     *
+     * <p>No object is allocated. If the representation does not fit,
+     * nothing is written.
+     *
+     * @param   i          an integer to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first byte.
+     * @return  the number of bytes written.
+     * @throws  IndexOutOfBoundsException if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getBytes(int i, byte[] dst, int dstBegin) {
+        int size = signedStringSize(i);
+        checkRoom(dstBegin, size, dst.length);
+        if (i == Integer.MIN_VALUE) {
+            "-2147483648".getBytes(dst, dstBegin, String.LATIN1);
+        } else {
+            getBytes(i, dstBegin + size, dst);
+        }
+        return size;
+    }
+
+    /**
+     * Same as {@link #getChars(int, int, char[])}, but places ASCII
+     * bytes into a byte array.
+     *
+     * Will fail if i == Integer.MIN_VALUE
+     */
+    static void getBytes(int i, int index, byte[] buf) {
+        int q, r;
+        int charPos = index;
+        byte sign = 0;
+
+        if (i < 0) {
+            sign = '-';
+            i = -i;
+        }
+
+        // Generate two digits per iteration
+        while (i >= 65536) {
+            q = i / 100;
+        // really: r = i - (q * 100);
+            r = i - ((q << 6) + (q << 5) + (q << 2));
+            i = q;
+            buf [--charPos] = (byte)DigitOnes[r];
+            buf [--charPos] = (byte)DigitTens[r];
+        }
+
+        // Fall thru to fast mode for smaller numbers
+        // assert(i <= 65536, i);
+        for (;;) {
+            q = (i * 52429) >>> (16+3);
+            r = i - ((q << 3) + (q << 1));  // r = i-(q*10) ...
+            buf [--charPos] = (byte)digits [r];
+            i = q;
+            if (i == 0) break;
+        }
+        if (sign != 0) {
+            buf [--charPos] = sign;
+        }
+    }
+
+    // Number of chars in the signed decimal representation of x
+    static int signedStringSize(int x) {
+        if (x == Integer.MIN_VALUE)
+            return 11;
+        return (x < 0) ? stringSize(-x) + 1 : stringSize(x);
+    }
+
+    // Requires non-negative size
+    static void checkRoom(int dstBegin, int size, int length) {
+        if (dstBegin < 0 || dstBegin > length - size) {
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", length " + length +
+                                                ", needed " + size);
+        }
+    }
+
     /**
      * Parses the string argument as a signed integer in the radix
      * specified by the second argument. The characters in the string
@@ -615,6 +728,221 @@ public final class Integer extends Number implements Comparable<Integer> {
         return parseInt(s,10);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code int} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}. The
+     * characters in the range are interpreted exactly as by
+     * {@link #parseInt(String, int)}.
+     *
+     * <p>Unlike parsing {@code s.subSequence(beginIndex, endIndex)
+     * .toString()}, this method allocates no object unless the range
+     * does not contain a parsable {@code int}. The method does not take
+     * steps to guard against the {@code CharSequence} being mutated
+     * while parsing.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code int} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code int} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  1.8
+     */
+    public static int parseInt(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        checkFromToIndex(beginIndex, endIndex, s.length());
+        return parseInt(s, null, null, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses a range of a {@code byte} array as a signed {@code int} in
+     * the specified {@code radix}. Each byte is taken to be an ISO-8859-1
+     * (and so, for all valid input, ASCII) character; the characters are
+     * then interpreted exactly as by {@link #parseInt(String, int)}.
+     *
+     * <p>This method allocates no object unless the range does not
+     * contain a parsable {@code int}.
+     *
+     * @param      bytes   the array containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing.
+     * @return     the signed {@code int} represented by the range in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code bytes} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code bytes.length}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code int} in the specified {@code radix}, or
+     *             if {@code radix} is out of range.
+     * @since  1.8
+     */
+    public static int parseInt(byte[] bytes, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        checkFromToIndex(beginIndex, endIndex, bytes.length);
+        return parseInt(null, bytes, null, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses a range of a byte buffer as a signed {@code int} in the
+     * specified {@code radix}. The indexes are absolute, and neither the
+     * position nor the limit of the buffer is changed. Each byte is taken
+     * to be an ISO-8859-1 character, as by
+     * {@link #parseInt(byte[], int, int, int)}.
+     *
+     * <p>This method allocates no object unless the range does not
+     * contain a parsable {@code int}.
+     *
+     * @param      buf   the buffer containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing.
+     * @return     the signed {@code int} represented by the range in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code buf} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code buf.limit()}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code int} in the specified {@code radix}, or
+     *             if {@code radix} is out of range.
+     * @since  1.8
+     */
+    public static int parseInt(ByteBuffer buf, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        checkFromToIndex(beginIndex, endIndex, buf.limit());
+        if (buf.hasArray()) {
+            int off = buf.arrayOffset();
+            return parseInt(null, buf.array(), null,
+                            off + beginIndex, off + endIndex, radix);
+        }
+        return parseInt(null, null, buf, beginIndex, endIndex, radix);
+    }
+
+    /*
+     * Parses the range of the non-null one of cs, bytes and buf. The
+     * range has been checked by the caller.
+     */
+    private static int parseInt(CharSequence cs, byte[] bytes, ByteBuffer buf,
+                                int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        checkRadix(radix);
+
+        boolean negative = false;
+        int i = beginIndex;
+        int limit = -Integer.MAX_VALUE;
+
+        if (i < endIndex) {
+            char firstChar = charAt(cs, bytes, buf, i);
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Integer.MIN_VALUE;
+                } else if (firstChar != '+') {
+                    throw NumberFormatException.forInputRange(cs, bytes, buf,
+                            beginIndex, endIndex, i);
+                }
+                i++;
+                if (i == endIndex) { // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forInputRange(cs, bytes, buf,
+                            beginIndex, endIndex, i);
+                }
+            }
+            int multmin = limit / radix;
+            int result = 0;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                int digit = Character.digit(charAt(cs, bytes, buf, i), radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forInputRange(cs, bytes, buf,
+                            beginIndex, endIndex, i);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forInputRange(cs, bytes, buf,
+                            beginIndex, endIndex, i);
+                }
+                i++;
+                result -= digit;
+            }
+            return negative ? result : -result;
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+    }
+
+    static void checkRadix(int radix) {
+        if (radix < Character.MIN_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " less than Character.MIN_RADIX");
+        }
+        if (radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " greater than Character.MAX_RADIX");
+        }
+    }
+
+    static void checkFromToIndex(int beginIndex, int endIndex, int length) {
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > length) {
+            throw new IndexOutOfBoundsException("begin " + beginIndex +
+                                                ", end " + endIndex +
+                                                ", length " + length);
+        }
+    }
+
+    /**
+     * Returns the character at {@code index} of the non-null one of
+     * {@code cs}, {@code bytes} and {@code buf}. A byte is taken to be
+     * an ISO-8859-1 character.
+     */
+    static char charAt(CharSequence cs, byte[] bytes, ByteBuffer buf, int index) {
+        if (bytes != null) {
+            return (char)(bytes[index] & 0xff);
+        }
+        if (buf != null) {
+            return (char)(buf.get(index) & 0xff);
+        }
+        return cs.charAt(index);
+    }
+
+    /**
+     * Returns the range of the non-null one of {@code cs}, {@code bytes}
+     * and {@code buf} as a string. Used only to report errors and by
+     * slow paths.
+     */
+    static String rangeToString(CharSequence cs, byte[] bytes, ByteBuffer buf,
+                                int beginIndex, int endIndex) {
+        if (cs != null) {
+            return cs.subSequence(beginIndex, endIndex).toString();
+        }
+        int len = endIndex - beginIndex;
+        if (bytes != null) {
+            return StringLatin1.newString(bytes, beginIndex, len);
+        }
+        byte[] val = new byte[len];
+        for (int i = 0; i < len; i++) {
+            val[i] = buf.get(beginIndex + i);
+        }
+        return StringLatin1.newString(val, 0, len);
+    }
+
     /**
      * Parses the string argument as an unsigned integer in the radix
      * specified by the second argument.  An unsigned integer maps the
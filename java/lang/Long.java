@@ -27,6 +27,7 @@ package java.lang;
 
 import java.lang.annotation.Native;
 import java.math.*;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -484,6 +485,105 @@ public final class Long extends Number implements Comparable<Long> {
         return 19;
     }
 
+    /**
+     * Writes the string representation of the {@code long} argument, as
+     * returned by {@link #toString(long)}, into a {@code char} array. The
+     * representation is at most 20 chars long.
+     *
+     * <p>No object is allocated. If the representation does not fit,
+     * nothing is written.
+     *
+     * @param   i          a {@code long} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first char.
+     * @return  the number of chars written.
+     * @throws  IndexOutOfBoundsException if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getChars(long i, char[] dst, int dstBegin) {
+        int size = signedStringSize(i);
+        Integer.checkRoom(dstBegin, size, dst.length);
+        if (i == Long.MIN_VALUE) {
+            "-9223372036854775808".getChars(0, size, dst, dstBegin);
+        } else {
+            getChars(i, dstBegin + size, dst);
+        }
+        return size;
+    }
+
+    /**
+     * Writes the string representation of the {@code long} argument, as
+     * returned by {@link #toString(long)}, into a {@code byte} array as
+     * ASCII characters. The representation is at most 20 bytes long.
+     *
+     * <p>No object is allocated. If the representation does not fit,
+     * nothing is written.
+     *
+     * @param   i          a {@code long} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first byte.
+     * @return  the number of bytes written.
+     * @throws  IndexOutOfBoundsException if {@code dstBegin} is negative
+     *          or the representation does not fit in {@code dst} from
+     *          {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getBytes(long i, byte[] dst, int dstBegin) {
+        int size = signedStringSize(i);
+        Integer.checkRoom(dstBegin, size, dst.length);
+        if (i == Long.MIN_VALUE) {
+            "-9223372036854775808".getBytes(dst, dstBegin, String.LATIN1);
+        } else {
+            getBytes(i, dstBegin + size, dst);
+        }
+        return size;
+    }
+
+    /**
+     * Same as {@link #getChars(long, int, char[])}, but places ASCII
+     * bytes into a byte array.
+     *
+     * Will fail if i == Long.MIN_VALUE
+     */
+    static void getBytes(long i, int index, byte[] buf) {
+        long q;
+        int r;
+        int charPos = index;
+        byte sign = 0;
+
+        if (i < 0) {
+            sign = '-';
+            i = -i;
+        }
+
+        // Get 2 digits/iteration using longs until quotient fits into an int
+        while (i > Integer.MAX_VALUE) {
+            q = i / 100;
+            // really: r = i - (q * 100);
+            r = (int)(i - ((q << 6) + (q << 5) + (q << 2)));
+            i = q;
+            buf[--charPos] = (byte)Integer.DigitOnes[r];
+            buf[--charPos] = (byte)Integer.DigitTens[r];
+        }
+
+        // Get 2 digits/iteration using ints, then fall thru to the
+        // int version for the rest
+        Integer.getBytes((int)i, charPos, buf);
+        if (sign != 0) {
+            charPos -= Integer.stringSize((int)i);
+            buf[--charPos] = sign;
+        }
+    }
+
+    // Number of chars in the signed decimal representation of x
+    static int signedStringSize(long x) {
+        if (x == Long.MIN_VALUE)
+            return 20;
+        return (x < 0) ? stringSize(-x) + 1 : stringSize(x);
+    }
+
     /**
      * Parses the string argument as a signed {@code long} in the
      * radix specified by the second argument. The characters in the
@@ -631,6 +731,166 @@ public final class Long extends Number implements Comparable<Long> {
         return parseLong(s, 10);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code long} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}. The
+     * characters in the range are interpreted exactly as by
+     * {@link #parseLong(String, int)}.
+     *
+     * <p>Unlike parsing {@code s.subSequence(beginIndex, endIndex)
+     * .toString()}, this method allocates no object unless the range
+     * does not contain a parsable {@code long}. The method does not take
+     * steps to guard against the {@code CharSequence} being mutated
+     * while parsing.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code long} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code long} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  1.8
+     */
+    public static long parseLong(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        Integer.checkFromToIndex(beginIndex, endIndex, s.length());
+        return parseLong(s, null, null, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses a range of a {@code byte} array as a signed {@code long} in
+     * the specified {@code radix}. Each byte is taken to be an ISO-8859-1
+     * (and so, for all valid input, ASCII) character; the characters are
+     * then interpreted exactly as by {@link #parseLong(String, int)}.
+     *
+     * <p>This method allocates no object unless the range does not
+     * contain a parsable {@code long}.
+     *
+     * @param      bytes   the array containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing.
+     * @return     the signed {@code long} represented by the range in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code bytes} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code bytes.length}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code long} in the specified {@code radix}, or
+     *             if {@code radix} is out of range.
+     * @since  1.8
+     */
+    public static long parseLong(byte[] bytes, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        Integer.checkFromToIndex(beginIndex, endIndex, bytes.length);
+        return parseLong(null, bytes, null, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses a range of a byte buffer as a signed {@code long} in the
+     * specified {@code radix}. The indexes are absolute, and neither the
+     * position nor the limit of the buffer is changed. Each byte is taken
+     * to be an ISO-8859-1 character, as by
+     * {@link #parseLong(byte[], int, int, int)}.
+     *
+     * <p>This method allocates no object unless the range does not
+     * contain a parsable {@code long}.
+     *
+     * @param      buf   the buffer containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing.
+     * @return     the signed {@code long} represented by the range in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code buf} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code buf.limit()}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code long} in the specified {@code radix}, or
+     *             if {@code radix} is out of range.
+     * @since  1.8
+     */
+    public static long parseLong(ByteBuffer buf, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        Integer.checkFromToIndex(beginIndex, endIndex, buf.limit());
+        if (buf.hasArray()) {
+            int off = buf.arrayOffset();
+            return parseLong(null, buf.array(), null,
+                             off + beginIndex, off + endIndex, radix);
+        }
+        return parseLong(null, null, buf, beginIndex, endIndex, radix);
+    }
+
+    /*
+     * Parses the range of the non-null one of cs, bytes and buf. The
+     * range has been checked by the caller.
+     */
+    private static long parseLong(CharSequence cs, byte[] bytes, ByteBuffer buf,
+                                  int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        Integer.checkRadix(radix);
+
+        boolean negative = false;
+        int i = beginIndex;
+        long limit = -Long.MAX_VALUE;
+
+        if (i < endIndex) {
+            char firstChar = Integer.charAt(cs, bytes, buf, i);
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Long.MIN_VALUE;
+                } else if (firstChar != '+') {
+                    throw NumberFormatException.forInputRange(cs, bytes, buf,
+                            beginIndex, endIndex, i);
+                }
+                i++;
+                if (i == endIndex) { // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forInputRange(cs, bytes, buf,
+                            beginIndex, endIndex, i);
+                }
+            }
+            long multmin = limit / radix;
+            long result = 0;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                int digit = Character.digit(Integer.charAt(cs, bytes, buf, i), radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forInputRange(cs, bytes, buf,
+                            beginIndex, endIndex, i);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forInputRange(cs, bytes, buf,
+                            beginIndex, endIndex, i);
+                }
+                i++;
+                result -= digit;
+            }
+            return negative ? result : -result;
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+    }
+
     /**
      * Parses the string argument as an unsigned {@code long} in the
      * radix specified by the second argument.  An unsigned integer
@@ -25,6 +25,8 @@
 
 package java.lang;
 
+import java.nio.ByteBuffer;
+
 /**
  * Thrown to indicate that the application has attempted to convert
  * a string to one of the numeric types, but that the string does not
@@ -64,4 +66,26 @@ class NumberFormatException extends IllegalArgumentException {
     static NumberFormatException forInputString(String s) {
         return new NumberFormatException("For input string: \"" + s + "\"");
     }
+
+    /**
+     * Factory method for making a <code>NumberFormatException</code>
+     * given a range of the input which caused the error, and the index
+     * at which the error was detected. Exactly one of <code>cs</code>,
+     * <code>bytes</code> and <code>buf</code> is non-null.
+     *
+     * @param   cs          the input sequence, or null
+     * @param   bytes       the input array, or null
+     * @param   buf         the input buffer, or null
+     * @param   beginIndex  the beginning index of the range, inclusive
+     * @param   endIndex    the ending index of the range, exclusive
+     * @param   errorIndex  the index of the offending character
+     */
+    static NumberFormatException forInputRange(CharSequence cs, byte[] bytes,
+                                               ByteBuffer buf, int beginIndex,
+                                               int endIndex, int errorIndex) {
+        return new NumberFormatException("Error at index "
+                + (errorIndex - beginIndex) + " in: \""
+                + Integer.rangeToString(cs, bytes, buf, beginIndex, endIndex)
+                + "\"");
+    }
 }
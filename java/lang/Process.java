@@ -26,6 +26,9 @@
 package java.lang;
 
 import java.io.*;
+import java.nio.channels.Pipe;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -141,6 +144,69 @@ public abstract class Process {
      */
     public abstract InputStream getErrorStream();
 
+    /**
+     * Returns the channel connected to the normal input of the subprocess.
+     *
+     * <p>The channel is only available if the subprocess was started by a
+     * process builder whose {@link ProcessBuilder#selectableChannels()
+     * selectableChannels} property was {@code true}, and the standard
+     * input of the subprocess was not redirected.  It may be switched to
+     * non-blocking mode and registered with a
+     * {@link java.nio.channels.Selector}, in which case the stream returned
+     * by {@link #getOutputStream()} must not be used.
+     *
+     * <p>The default implementation of this method returns {@code null}.
+     *
+     * @return the channel connected to the normal input of the subprocess,
+     *         or {@code null} if there is no such channel
+     * @since 1.8
+     */
+    public Pipe.SinkChannel getOutputChannel() {
+        return null;
+    }
+
+    /**
+     * Returns the channel connected to the normal output of the subprocess.
+     *
+     * <p>The channel is only available if the subprocess was started by a
+     * process builder whose {@link ProcessBuilder#selectableChannels()
+     * selectableChannels} property was {@code true}, and the standard
+     * output of the subprocess was not redirected.  It may be switched to
+     * non-blocking mode and registered with a
+     * {@link java.nio.channels.Selector}, in which case the stream returned
+     * by {@link #getInputStream()} must not be used.
+     *
+     * <p>The default implementation of this method returns {@code null}.
+     *
+     * @return the channel connected to the normal output of the subprocess,
+     *         or {@code null} if there is no such channel
+     * @since 1.8
+     */
+    public Pipe.SourceChannel getInputChannel() {
+        return null;
+    }
+
+    /**
+     * Returns the channel connected to the error output of the subprocess.
+     *
+     * <p>The channel is only available if the subprocess was started by a
+     * process builder whose {@link ProcessBuilder#selectableChannels()
+     * selectableChannels} property was {@code true}, and the standard
+     * error of the subprocess was neither redirected nor merged with the
+     * standard output.  It may be switched to non-blocking mode and
+     * registered with a {@link java.nio.channels.Selector}, in which case
+     * the stream returned by {@link #getErrorStream()} must not be used.
+     *
+     * <p>The default implementation of this method returns {@code null}.
+     *
+     * @return the channel connected to the error output of the subprocess,
+     *         or {@code null} if there is no such channel
+     * @since 1.8
+     */
+    public Pipe.SourceChannel getErrorChannel() {
+        return null;
+    }
+
     /**
      * Causes the current thread to wait, if necessary, until the
      * process represented by this {@code Process} object has
@@ -262,4 +328,64 @@ public abstract class Process {
             return true;
         }
     }
+
+    /**
+     * Returns a {@code CompletableFuture<Process>} for the termination of
+     * the subprocess.  The future is completed with this {@code Process}
+     * when the subprocess terminates, whatever its exit status, and may be
+     * used to trigger dependent actions without a thread waiting in
+     * {@link #waitFor()}.  Each call returns a new future; completing or
+     * cancelling it has no effect on the subprocess.
+     *
+     * <p>Dependent actions registered with the non-async methods of the
+     * returned future run in a thread of the
+     * {@linkplain ForkJoinPool#commonPool() common pool} or in the thread
+     * registering them, never in the thread that detects the termination.
+     *
+     * <p>The default implementation of this method waits for the
+     * subprocess with {@link #waitFor()} in a thread of the common pool.
+     * Concrete implementations of this class are strongly encouraged to
+     * override this method with one that needs no thread per call.
+     * For {@code Process} objects returned by {@link ProcessBuilder#start}
+     * and {@link Runtime#exec} the future is completed by the thread that
+     * already reaps the subprocess.
+     *
+     * @return a new {@code CompletableFuture<Process>} for the termination
+     *         of the subprocess
+     * @since 1.8
+     */
+    public CompletableFuture<Process> onExit() {
+        return CompletableFuture.supplyAsync(this::waitForInternal);
+    }
+
+    /**
+     * Waits for the subprocess to terminate, managing the blocking with
+     * the common pool and deferring interrupts until it has terminated.
+     */
+    private Process waitForInternal() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        waitFor();
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return !isAlive();
+                    }
+                });
+                break;
+            } catch (InterruptedException x) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return this;
+    }
 }
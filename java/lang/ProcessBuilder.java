@@ -121,6 +121,15 @@ import java.util.Map;
  * always be a <a href="#redirect-output">null input stream</a>
  * </ul>
  *
+ * <li>a <i>selectableChannels</i> property.  Initially, this property
+ * is {@code false}.  If it is set to {@code true}, each standard stream
+ * of a subprocess that is connected to a pipe is also available as a
+ * {@linkplain java.nio.channels.SelectableChannel selectable channel}
+ * through {@link Process#getOutputChannel()},
+ * {@link Process#getInputChannel()} and {@link Process#getErrorChannel()},
+ * so that the output of many subprocesses can be multiplexed with a single
+ * {@link java.nio.channels.Selector} instead of a thread per stream.
+ *
  * </ul>
  *
  * <p>Modifying a process builder's attributes will affect processes
@@ -181,6 +190,7 @@ public final class ProcessBuilder
     private File directory;
     private Map<String,String> environment;
     private boolean redirectErrorStream;
+    private boolean selectableChannels;
     private Redirect[] redirects;
 
     /**
@@ -927,6 +937,49 @@ public final class ProcessBuilder
         return this;
     }
 
+    /**
+     * Tells whether this process builder connects the piped standard
+     * streams of the subprocesses it starts to selectable channels.
+     *
+     * <p>If this property is {@code true}, then the pipes connected to the
+     * standard input, output and error of subprocesses subsequently
+     * started by this object's {@link #start()} method are
+     * {@link java.nio.channels.Pipe} channels, returned by
+     * {@link Process#getOutputChannel()}, {@link Process#getInputChannel()}
+     * and {@link Process#getErrorChannel()}.  The streams returned by
+     * {@link Process#getOutputStream()}, {@link Process#getInputStream()}
+     * and {@link Process#getErrorStream()} then read and write these
+     * channels, and so may only be used while the channels are in blocking
+     * mode.  Streams that are {@linkplain #redirectInput redirected} have
+     * no channel.  The initial value is {@code false}.
+     *
+     * @return this process builder's {@code selectableChannels} property
+     * @since 1.8
+     */
+    public boolean selectableChannels() {
+        return selectableChannels;
+    }
+
+    /**
+     * Sets this process builder's {@code selectableChannels} property.
+     *
+     * <p>If this property is {@code true}, then the pipes connected to the
+     * standard input, output and error of subprocesses subsequently
+     * started by this object's {@link #start()} method are
+     * {@link java.nio.channels.Pipe} channels, so that a single thread can
+     * service the streams of many subprocesses with a
+     * {@link java.nio.channels.Selector}.
+     * The initial value is {@code false}.
+     *
+     * @param  selectableChannels the new property value
+     * @return this process builder
+     * @since 1.8
+     */
+    public ProcessBuilder selectableChannels(boolean selectableChannels) {
+        this.selectableChannels = selectableChannels;
+        return this;
+    }
+
     /**
      * Starts a new process using the attributes of this process builder.
      *
@@ -1030,7 +1083,8 @@ public final class ProcessBuilder
                                      environment,
                                      dir,
                                      redirects,
-                                     redirectErrorStream);
+                                     redirectErrorStream,
+                                     selectableChannels);
         } catch (IOException | IllegalArgumentException e) {
             String exceptionInfo = ": " + e.getMessage();
             Throwable cause = e;
@@ -30,6 +30,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.lang.ProcessBuilder.Redirect;
 import java.lang.ProcessBuilder.Redirect;
+import java.nio.channels.Channel;
+import java.nio.channels.Pipe;
 
 /**
  * This class is for the exclusive use of ProcessBuilder.start() to
@@ -56,12 +58,32 @@ final class ProcessImpl {
         return result;
     }
 
+    private static void closeAll(Channel[] channels) throws IOException {
+        if (channels == null)
+            return;
+        IOException exc = null;
+        for (Channel ch : channels) {
+            try {
+                if (ch != null)
+                    ch.close();
+            } catch (IOException e) {
+                if (exc == null)
+                    exc = e;
+                else
+                    exc.addSuppressed(e);
+            }
+        }
+        if (exc != null)
+            throw exc;
+    }
+
     // Only for use by ProcessBuilder.start()
     static Process start(String[] cmdarray,
                          java.util.Map<String,String> environment,
                          String dir,
                          ProcessBuilder.Redirect[] redirects,
-                         boolean redirectErrorStream)
+                         boolean redirectErrorStream,
+                         boolean selectableChannels)
         throws IOException
     {
         assert cmdarray != null && cmdarray.length > 0;
@@ -91,6 +113,11 @@ final class ProcessImpl {
         FileOutputStream f1 = null;
         FileOutputStream f2 = null;
 
+        // The child's ends of the selectable pipes, closed once the child
+        // has been started, and the parent's ends, handed to UNIXProcess.
+        Channel[] childEnds = null;
+        Channel[] parentEnds = null;
+
         try {
             if (redirects == null) {
                 std_fds = new int[] { -1, -1, -1 };
@@ -127,20 +154,48 @@ final class ProcessImpl {
                 }
             }
 
-        return new UNIXProcess
-            (toCString(cmdarray[0]),
-             argBlock, args.length,
-             envBlock, envc[0],
-             toCString(dir),
+            if (selectableChannels) {
+                childEnds = new Channel[3];
+                parentEnds = new Channel[3];
+                for (int fd = 0; fd < 3; fd++) {
+                    // A merged standard error has no pipe of its own
+                    if (std_fds[fd] != -1 || (fd == 2 && redirectErrorStream))
+                        continue;
+                    Pipe pipe = Pipe.open();
+                    if (fd == 0) {
+                        childEnds[fd] = pipe.source();
+                        parentEnds[fd] = pipe.sink();
+                    } else {
+                        childEnds[fd] = pipe.sink();
+                        parentEnds[fd] = pipe.source();
+                    }
+                    std_fds[fd] = ((sun.nio.ch.SelChImpl) childEnds[fd]).getFDVal();
+                }
+            }
+
+            Process p = new UNIXProcess
+                (toCString(cmdarray[0]),
+                 argBlock, args.length,
+                 envBlock, envc[0],
+                 toCString(dir),
                  std_fds,
-             redirectErrorStream);
+                 redirectErrorStream,
+                 parentEnds);
+            parentEnds = null;
+            return p;
         } finally {
             // In theory, close() can throw IOException
             // (although it is rather unlikely to happen here)
             try { if (f0 != null) f0.close(); }
             finally {
                 try { if (f1 != null) f1.close(); }
-                finally { if (f2 != null) f2.close(); }
+                finally {
+                    try { if (f2 != null) f2.close(); }
+                    finally {
+                        try { closeAll(childEnds); }
+                        finally { closeAll(parentEnds); }
+                    }
+                }
             }
         }
     }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+
+import java.lang.StackWalker.StackFrame;
+
+/**
+ * The {@link StackFrame} implementation of {@link StackWalker}.
+ *
+ * The VM fills in the declaring class, the method and the bytecode
+ * index when a batch of frames is fetched. Everything that needs a name
+ * is resolved from these, once, on first use.
+ */
+final class StackFrameInfo implements StackFrame {
+    private final boolean retainClassRef;
+
+    // Filled in by the VM
+    private Class<?> declaringClass;
+    private Object memberName;      // VM-internal method identity
+    private int bci;
+
+    // Resolved lazily
+    private volatile StackTraceElement ste;
+
+    StackFrameInfo(StackWalker walker) {
+        this.retainClassRef = walker.hasOption(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    }
+
+    // The name of the class is taken from the Class itself; it does not
+    // resolve the rest of the frame
+    @Override
+    public String getClassName() {
+        return declaringClass.getName();
+    }
+
+    @Override
+    public Class<?> getDeclaringClass() {
+        if (!retainClassRef) {
+            throw new UnsupportedOperationException("No access to RETAIN_CLASS_REFERENCE");
+        }
+        return declaringClass;
+    }
+
+    @Override
+    public String getMethodName() {
+        return toStackTraceElement().getMethodName();
+    }
+
+    @Override
+    public int getByteCodeIndex() {
+        // bci not available for native methods
+        if (isNativeMethod())
+            return -1;
+
+        return bci;
+    }
+
+    @Override
+    public String getFileName() {
+        return toStackTraceElement().getFileName();
+    }
+
+    @Override
+    public int getLineNumber() {
+        return toStackTraceElement().getLineNumber();
+    }
+
+    @Override
+    public boolean isNativeMethod() {
+        return toStackTraceElement().isNativeMethod();
+    }
+
+    @Override
+    public String toString() {
+        return toStackTraceElement().toString();
+    }
+
+    @Override
+    public StackTraceElement toStackTraceElement() {
+        StackTraceElement s = ste;
+        if (s == null) {
+            ste = s = toStackTraceElement0();
+        }
+        return s;
+    }
+
+    /*
+     * Creates the StackTraceElement of this frame from its declaring
+     * class, method and bytecode index, as Throwable.getStackTraceElement
+     * does for an element of a backtrace.
+     */
+    private native StackTraceElement toStackTraceElement0();
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+
+import java.lang.StackWalker.Option;
+import java.lang.StackWalker.StackFrame;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import sun.reflect.ConstructorAccessor;
+import sun.reflect.MethodAccessor;
+
+/**
+ * StackStreamFactory class provides static factory methods
+ * to get different kinds of stack walker/traverser.
+ *
+ * AbstractStackWalker provides the basic stack walking support
+ * fetching stack frames from the VM in batches.
+ *
+ * AbstractStackWalker subclass is specialized for a specific kind of stack traversal
+ * to avoid overhead of Stream/Lambda
+ * 1. Support traversing Stream<StackFrame>
+ * 2. StackWalker::getCallerClass
+ */
+final class StackStreamFactory {
+    private StackStreamFactory() {}
+
+    // Stack walk modes passed to the VM; they must be kept in sync with
+    // the VM's definitions.
+    static final int DEFAULT_MODE          = 0x0;
+    static final int FILL_CLASS_REFS_ONLY  = 0x2;
+    static final int SHOW_HIDDEN_FRAMES    = 0x20;  // LambdaForms are hidden by the VM
+
+    static final int MIN_BATCH_SIZE   = 8;
+    static final int SMALL_BATCH      = 8;
+    static final int BATCH_SIZE       = 32;
+    static final int LARGE_BATCH_SIZE = 256;
+
+    /*
+     * makeStackTraverser returns a stack traverser for the given walker
+     * that applies the function to the stream of stack frames.
+     */
+    static <T> StackFrameTraverser<T>
+        makeStackTraverser(StackWalker walker, Function<? super Stream<StackFrame>, ? extends T> function)
+    {
+        return new StackFrameTraverser<>(walker, function);
+    }
+
+    /*
+     * Returns a stack walker to find the caller class of the caller of
+     * StackWalker::getCallerClass.
+     */
+    static CallerClassFinder makeCallerFinder(StackWalker walker) {
+        return new CallerClassFinder(walker);
+    }
+
+    enum WalkerState {
+        NEW,     // the stream is new and stack walking has not started
+        OPEN,    // the stream is open when it is being traversed.
+        CLOSED;  // the stream is closed when the stack walking is done
+    }
+
+    /**
+     * Subclass of AbstractStackWalker implements a specific stack walking logic.
+     * It needs to set up the frame buffer and stack walking mode.
+     *
+     * It initiates the VM stack walking via the callStackWalk method that serves
+     * as the anchored frame and VM will call up to AbstractStackWalker::doStackWalk.
+     *
+     * @param <R> the type of the result returned from stack walking
+     */
+    static abstract class AbstractStackWalker<R> {
+        protected final StackWalker walker;
+        protected final Thread thread;
+        protected final int maxDepth;
+        protected final long mode;
+        protected int depth;    // traversed stack depth
+        protected Class<?>[] classes;      // the current batch
+        protected StackFrameInfo[] frames; // null if FILL_CLASS_REFS_ONLY
+        protected int start;    // index of the next frame in the batch
+        protected int end;      // end of the batch, exclusive
+        private boolean atBottom;
+        private long anchor;
+        private WalkerState state = WalkerState.NEW;
+
+        protected AbstractStackWalker(StackWalker walker, long mode) {
+            this(walker, mode, Integer.MAX_VALUE);
+        }
+        protected AbstractStackWalker(StackWalker walker, long mode, int maxDepth) {
+            this.thread = Thread.currentThread();
+            this.mode = toStackWalkMode(walker, mode);
+            this.walker = walker;
+            this.maxDepth = maxDepth;
+            this.depth = 0;
+        }
+
+        private long toStackWalkMode(StackWalker walker, long mode) {
+            long newMode = mode;
+            if (walker.hasOption(Option.SHOW_HIDDEN_FRAMES))
+                newMode |= SHOW_HIDDEN_FRAMES;
+            return newMode;
+        }
+
+        /**
+         * A callback method to consume the stack frames.  This method is invoked
+         * once stack walking begins (i.e. it is only invoked when walkFrame(0)
+         * returns a frame).
+         *
+         * Subclass should override this method to consume the stack frames.
+         *
+         * @return the result of the stack walking
+         */
+        protected abstract R consumeFrames();
+
+        /**
+         * Returns the size of the first batch to fetch.
+         */
+        protected abstract int batchSize(int lastBatchFrameCount);
+
+        /*
+         * Returns the next batch size, growing it geometrically up to
+         * LARGE_BATCH_SIZE as a stream is consumed further.
+         */
+        protected int getNextBatchSize() {
+            return batchSize(end);
+        }
+
+        /*
+         * Checks if this stream is in the given state. Otherwise, throws
+         * IllegalStateException.
+         *
+         * VM also validates this stream if it's anchored for stack walking
+         * when stack frames are fetched for each batch.
+         */
+        final void checkState(WalkerState state) {
+            if (thread != Thread.currentThread()) {
+                throw new IllegalStateException("Invalid thread walking this stack stream: " +
+                        Thread.currentThread().getName() + " " + thread.getName());
+            }
+            switch (state) {
+                case NEW:
+                    if (this.state != WalkerState.NEW) {
+                        throw new IllegalStateException("Stack stream has been traversed");
+                    }
+                    break;
+                case OPEN:
+                    if (this.state != WalkerState.OPEN || anchor == 0) {
+                        throw new IllegalStateException("Stack stream is not open");
+                    }
+                    break;
+                case CLOSED:
+                    if (this.state != WalkerState.CLOSED) {
+                        throw new IllegalStateException("Stack stream is not closed.");
+                    }
+            }
+        }
+
+        /*
+         * Close this stream.  This stream becomes unusable once it's closed.
+         *
+         * This method may be invoked by this stream after walking of
+         * the stack frames when there are no more frames to be traversed.
+         */
+        private void close() {
+            this.anchor = 0;
+            this.state = WalkerState.CLOSED;
+        }
+
+        /*
+         * Walks stack frames until {@link #consumeFrames} is done consuming
+         * the frames it is interested in.
+         */
+        final R walk() {
+            checkState(WalkerState.NEW);
+            try {
+                // VM will need to stablize the stack before walking.  It
+                // will invoke the AbstractStackWalker::doStackWalk method
+                // once it fetches the first batch of stack frames.
+                return beginStackWalk();
+            } finally {
+                close();  // done traversal; close the stream
+            }
+        }
+
+        /*
+         * Allocates the buffers for a batch of the given size.
+         */
+        private void allocateBuffers(int size) {
+            if (classes == null || classes.length < size) {
+                classes = new Class<?>[size];
+            }
+            if ((mode & FILL_CLASS_REFS_ONLY) == 0) {
+                // a fresh array per batch: consumers may retain the frames
+                StackFrameInfo[] fs = new StackFrameInfo[size];
+                for (int i = 0; i < size; i++) {
+                    fs[i] = new StackFrameInfo(walker);
+                }
+                frames = fs;
+            }
+        }
+
+        /*
+         * Begins stack walking.
+         */
+        private R beginStackWalk() {
+            int size = batchSize(0);
+            allocateBuffers(size);
+            // The VM fills in the first batch, the top frame being the
+            // caller of callStackWalk, and calls back doStackWalk.
+            return callStackWalk(mode, 0, size, 0, classes, frames);
+        }
+
+        /*
+         * This method is only invoked by VM.
+         *
+         * It will invoke the consumeFrames method to start the stack walking
+         * with the first batch of stack frames.  Any exception thrown from this
+         * method will be propagated out of callStackWalk.
+         */
+        private R doStackWalk(long anchor, int skipFrames, int batchSize,
+                                           int bufStartIndex, int bufEndIndex) {
+            checkState(WalkerState.NEW);
+
+            this.anchor = anchor;
+            this.state = WalkerState.OPEN;
+            this.start = bufStartIndex;
+            this.end = bufEndIndex;
+            this.atBottom = bufEndIndex - bufStartIndex < batchSize;
+
+            // skip the frames of the stack walking implementation
+            while (start < end || fetchStackFrames()) {
+                if (!isStackWalkerImpl(classes[start])) {
+                    break;
+                }
+                start++;
+            }
+
+            try {
+                return consumeFrames();
+            } finally {
+                this.anchor = 0;
+            }
+        }
+
+        /*
+         * Fetches the next batch, replacing the current one. Returns false
+         * if the bottom of the stack, or maxDepth, has been reached.
+         */
+        private boolean fetchStackFrames() {
+            checkState(WalkerState.OPEN);
+            if (atBottom || depth >= maxDepth) {
+                return false;
+            }
+            int size = getNextBatchSize();
+            allocateBuffers(size);
+            int n = fetchStackFrames(mode, anchor, size, 0, classes, frames);
+            start = 0;
+            end = n;
+            atBottom = n < size;
+            return n > 0;
+        }
+
+        /*
+         * Returns the class of the next frame to be traversed, or null at
+         * the bottom of the stack. Frames that are filtered are skipped.
+         */
+        final Class<?> peekFrame() {
+            while (start < end || fetchStackFrames()) {
+                Class<?> c = classes[start];
+                if (!filterFrame(c)) {
+                    return c;
+                }
+                start++;
+            }
+            return null;
+        }
+
+        /*
+         * Advances to the next frame, returning the current one as a
+         * StackFrameInfo, or null at the bottom of the stack.
+         */
+        final StackFrameInfo nextStackFrame() {
+            if (depth >= maxDepth || peekFrame() == null) {
+                return null;
+            }
+            depth++;
+            return frames[start++];
+        }
+
+        /*
+         * Returns true if a frame of the given class is to be skipped.
+         */
+        protected boolean filterFrame(Class<?> c) {
+            return !walker.hasOption(Option.SHOW_REFLECT_FRAMES) &&
+                   !walker.hasOption(Option.SHOW_HIDDEN_FRAMES) &&
+                   isReflectionFrame(c);
+        }
+
+        /**
+         * Begins stack walking.  This method anchors this frame and invokes
+         * AbstractStackWalker::doStackWalk after fetching the first batch
+         * of stack frames.
+         *
+         * @param mode        mode of stack walking
+         * @param skipframes  number of frames to be skipped before filling the frame buffer.
+         * @param batchSize   the batch size, max. number of elements to be filled in the frame buffers.
+         * @param startIndex  start index of the frame buffers to be filled.
+         * @param classes     Classes buffer of the stack frames
+         * @param frames      Frame buffer, or null
+         * @return            Result of AbstractStackWalker::doStackWalk
+         */
+        private native R callStackWalk(long mode, int skipframes,
+                                       int batchSize, int startIndex,
+                                       Class<?>[] classes,
+                                       StackFrameInfo[] frames);
+
+        /**
+         * Fetch the next batch of stack frames.
+         *
+         * @param mode        mode of stack walking
+         * @param anchor
+         * @param batchSize   the batch size, max. number of elements to be filled in the frame buffers.
+         * @param startIndex  start index of the frame buffers to be filled.
+         * @param classes     Classes buffer of the stack frames
+         * @param frames      Frame buffer, or null
+         *
+         * @return the end index to the frame buffers
+         */
+        private native int fetchStackFrames(long mode, long anchor,
+                                            int batchSize, int startIndex,
+                                            Class<?>[] classes,
+                                            StackFrameInfo[] frames);
+    }
+
+    /*
+     * This StackFrameTraverser supports {@link Stream} traversal.
+     *
+     * This class implements Spliterator::forEachRemaining and Spliterator::tryAdvance.
+     */
+    static class StackFrameTraverser<T> extends AbstractStackWalker<T>
+            implements Spliterator<StackFrame>
+    {
+        final Function<? super Stream<StackFrame>, ? extends T> function;  // callback
+
+        StackFrameTraverser(StackWalker walker,
+                            Function<? super Stream<StackFrame>, ? extends T> function) {
+            super(walker, DEFAULT_MODE);
+            this.function = function;
+        }
+
+        @Override
+        protected T consumeFrames() {
+            checkState(WalkerState.OPEN);
+            Stream<StackFrame> stream = StreamSupport.stream(this, false);
+            return function.apply(stream);
+        }
+
+        @Override
+        protected int batchSize(int lastBatchFrameCount) {
+            if (lastBatchFrameCount == 0) {
+                // First batch, use estimateDepth if not exceed the large batch size
+                int initialBatchSize = Math.max(walker.estimateDepth(), SMALL_BATCH);
+                return Math.min(initialBatchSize, LARGE_BATCH_SIZE);
+            } else {
+                if (lastBatchFrameCount > BATCH_SIZE) {
+                    return lastBatchFrameCount;
+                } else {
+                    return Math.min(lastBatchFrameCount*2, BATCH_SIZE);
+                }
+            }
+        }
+
+        // ------- Implementation of Spliterator
+
+        @Override
+        public Spliterator<StackFrame> trySplit() {
+            return null;   // ordered stream and do not allow to split
+        }
+
+        @Override
+        public long estimateSize() {
+            return maxDepth;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        private static final int CHARACTERISTICS = Spliterator.ORDERED |
+                                                   Spliterator.IMMUTABLE |
+                                                   Spliterator.NONNULL;
+
+        @Override
+        public void forEachRemaining(Consumer<? super StackFrame> action) {
+            checkState(WalkerState.OPEN);
+            for (StackFrame frame = nextStackFrame(); frame != null;
+                 frame = nextStackFrame()) {
+                action.accept(frame);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super StackFrame> action) {
+            checkState(WalkerState.OPEN);
+
+            StackFrame frame = nextStackFrame();
+            if (frame != null) {
+                action.accept(frame);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /*
+     * CallerClassFinder is specialized to return Class<?> for each stack frame.
+     * StackFrame is not requested.
+     */
+    static final class CallerClassFinder extends AbstractStackWalker<Integer> {
+        private Class<?> caller;
+
+        CallerClassFinder(StackWalker walker) {
+            super(walker, FILL_CLASS_REFS_ONLY);
+        }
+
+        Class<?> findCaller() {
+            walk();
+            return caller;
+        }
+
+        @Override
+        protected Integer consumeFrames() {
+            checkState(WalkerState.OPEN);
+            // The first frame is the method calling getCallerClass; skip it.
+            int n = 0;
+            Class<?> c;
+            while ((c = peekFrame()) != null) {
+                if (n++ == 1) {
+                    caller = c;
+                    return n;
+                }
+                start++;
+            }
+            throw new IllegalStateException("no caller frame");
+        }
+
+        @Override
+        protected boolean filterFrame(Class<?> c) {
+            // always skip reflection frames
+            return isReflectionFrame(c);
+        }
+
+        @Override
+        protected int batchSize(int lastBatchFrameCount) {
+            return MIN_BATCH_SIZE;
+        }
+    }
+
+    /*
+     * Returns true if c is one of the classes implementing
+     * java.lang.StackWalker, whose frames are never reported.
+     */
+    static boolean isStackWalkerImpl(Class<?> c) {
+        return c == StackWalker.class ||
+               c.getName().startsWith("java.lang.StackStreamFactory");
+    }
+
+    /*
+     * Returns true if c is a reflection class: Method, Constructor or an
+     * accessor generated to implement them.
+     */
+    static boolean isReflectionFrame(Class<?> c) {
+        return c == Method.class ||
+               c == Constructor.class ||
+               MethodAccessor.class.isAssignableFrom(c) ||
+               ConstructorAccessor.class.isAssignableFrom(c);
+    }
+}
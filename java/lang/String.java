@@ -21,9 +21,17 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     private static final ObjectStreamField[] serialPersistentFields = new ObjectStreamField[0];
 
     /**
-     * String 是用 char[] 存储数据的
+     * String 的字符存储在 byte[] 中，编码方式由 coder 决定：
+     * LATIN1 时每个字符占 1 个字节，UTF16 时每个字符占 2 个字节（高字节在前）
      */
-    private final char[] value;
+    private final byte[] value;
+
+    /**
+     * value 的编码方式，LATIN1 或 UTF16。
+     * 若 COMPACT_STRINGS 为 true，则所有字符都能用 Latin-1 表示的字符串一定是 LATIN1，
+     * 因此两个 coder 不同的字符串一定不相等
+     */
+    private final byte coder;
 
     /**
      * 这个属性的作用？？？
@@ -32,16 +40,31 @@ public final class String implements java.io.Serializable, Comparable<String>, C
      */
     private int hash;
 
+    /**
+     * 是否启用压缩字符串（Latin-1 存储）。
+     * 若为 false，value 总是 UTF16 编码
+     */
+    static final boolean COMPACT_STRINGS;
+
+    static {
+        COMPACT_STRINGS = true;
+    }
+
+    static final byte LATIN1 = 0;
+    static final byte UTF16  = 1;
+
     /**
      * 无参构造函数
      * 给value赋值：空字符串""的值
      */
     public String() {
         this.value = "".value;
+        this.coder = "".coder;
     }
 
     public String(String original) {
         this.value = original.value;
+        this.coder = original.coder;
         this.hash = original.hash;
     }
 
@@ -51,7 +74,7 @@ public final class String implements java.io.Serializable, Comparable<String>, C
      * new --> 调用构造函数 --> 给属性value、hash赋值
      */
     public String(char value[]) {
-        this.value = Arrays.copyOf(value, value.length);
+        this(value, 0, value.length, null);
     }
 
     /**
@@ -60,22 +83,43 @@ public final class String implements java.io.Serializable, Comparable<String>, C
      * 截取并创建一个内容为此的string对象
      */
     public String(char[] value, int offset, int count) {
+        this(value, offset, count, rangeCheck(value, offset, count));
+    }
+
+    private static Void rangeCheck(char[] value, int offset, int count) {
         if (offset < 0) {
             throw new StringIndexOutOfBoundsException(offset);
         }
-        if (count <= 0) {
-            if (count < 0) {
-                throw new StringIndexOutOfBoundsException(count);
-            }
-            if (offset <= value.length) {
-                this.value = "".value;
-                return;
-            }
+        if (count < 0) {
+            throw new StringIndexOutOfBoundsException(count);
         }
+        // Note: offset or count might be near -1>>>1.
         if (offset > value.length - count) {
             throw new StringIndexOutOfBoundsException(offset + count);
         }
-        this.value = Arrays.copyOfRange(value, offset, offset+count);
+        return null;
+    }
+
+    /**
+     * 已检查过下标的构造函数：能压缩成 Latin-1 的就压缩，否则存为 UTF16
+     * sig 参数只用于区分重载
+     */
+    String(char[] value, int off, int len, Void sig) {
+        if (len == 0) {
+            this.value = "".value;
+            this.coder = "".coder;
+            return;
+        }
+        if (COMPACT_STRINGS) {
+            byte[] val = StringUTF16.compress(value, off, len);
+            if (val != null) {
+                this.value = val;
+                this.coder = LATIN1;
+                return;
+            }
+        }
+        this.coder = UTF16;
+        this.value = StringUTF16.toBytes(value, off, len);
     }
 
     public String(int[] codePoints, int offset, int count) {
@@ -88,6 +132,7 @@ public final class String implements java.io.Serializable, Comparable<String>, C
             }
             if (offset <= codePoints.length) {
                 this.value = "".value;
+                this.coder = "".coder;
                 return;
             }
         }
@@ -98,6 +143,20 @@ public final class String implements java.io.Serializable, Comparable<String>, C
 
         final int end = offset + count;
 
+        // Pass 0: Latin-1 if every code point fits in a byte
+        if (COMPACT_STRINGS) {
+            byte[] val = new byte[count];
+            int i = offset;
+            for (; i < end && StringLatin1.canEncode(codePoints[i]); i++) {
+                val[i - offset] = (byte)codePoints[i];
+            }
+            if (i == end) {
+                this.value = val;
+                this.coder = LATIN1;
+                return;
+            }
+        }
+
         // Pass 1: Compute precise size of char[]
         int n = count;
         for (int i = offset; i < end; i++) {
@@ -120,25 +179,27 @@ public final class String implements java.io.Serializable, Comparable<String>, C
                 Character.toSurrogates(c, v, j++);
         }
 
-        this.value = v;
+        this.value = StringUTF16.toBytes(v, 0, n);
+        this.coder = UTF16;
     }
 
     @Deprecated
     public String(byte ascii[], int hibyte, int offset, int count) {
         checkBounds(ascii, offset, count);
-        char value[] = new char[count];
-
-        if (hibyte == 0) {
-            for (int i = count; i-- > 0;) {
-                value[i] = (char)(ascii[i + offset] & 0xff);
-            }
+        // 只有 hibyte 的低 8 位会影响结果字符
+        hibyte &= 0xff;
+        if (COMPACT_STRINGS && hibyte == 0) {
+            this.value = Arrays.copyOfRange(ascii, offset, offset + count);
+            this.coder = LATIN1;
         } else {
             hibyte <<= 8;
-            for (int i = count; i-- > 0;) {
-                value[i] = (char)(hibyte | (ascii[i + offset] & 0xff));
+            byte[] val = StringUTF16.newBytesFor(count);
+            for (int i = 0; i < count; i++) {
+                StringUTF16.putChar(val, i, hibyte | (ascii[offset++] & 0xff));
             }
+            this.value = val;
+            this.coder = UTF16;
         }
-        this.value = value;
     }
 
     @Deprecated
@@ -164,7 +225,10 @@ public final class String implements java.io.Serializable, Comparable<String>, C
             throw new NullPointerException("charsetName");
         }
         checkBounds(bytes, offset, length);
-        this.value = StringCoding.decode(charsetName, bytes, offset, length);
+        StringCoding.Result ret =
+            StringCoding.decode(charsetName, bytes, offset, length);
+        this.value = ret.value;
+        this.coder = ret.coder;
     }
 
     public String(byte bytes[], int offset, int length, Charset charset) {
@@ -172,7 +236,10 @@ public final class String implements java.io.Serializable, Comparable<String>, C
             throw new NullPointerException("charset");
         }
         checkBounds(bytes, offset, length);
-        this.value =  StringCoding.decode(charset, bytes, offset, length);
+        StringCoding.Result ret =
+            StringCoding.decode(charset, bytes, offset, length);
+        this.value = ret.value;
+        this.coder = ret.coder;
     }
 
     public String(byte bytes[], String charsetName)
@@ -186,7 +253,9 @@ public final class String implements java.io.Serializable, Comparable<String>, C
 
     public String(byte bytes[], int offset, int length) {
         checkBounds(bytes, offset, length);
-        this.value = StringCoding.decode(bytes, offset, length);
+        StringCoding.Result ret = StringCoding.decode(bytes, offset, length);
+        this.value = ret.value;
+        this.coder = ret.coder;
     }
 
     public String(byte bytes[]) {
@@ -194,17 +263,44 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     }
 
     public String(StringBuffer buffer) {
-        synchronized(buffer) {
-            this.value = Arrays.copyOf(buffer.getValue(), buffer.length());
-        }
+        this(buffer.toString());
     }
 
     public String(StringBuilder builder) {
-        this.value = Arrays.copyOf(builder.getValue(), builder.length());
+        this(builder.getValue(), 0, builder.length(), null);
     }
 
+    /**
+     * 共享 char[] 的构造函数。
+     * value 现在以 byte[] 存储，因此字符总是会被压缩或复制，share 参数不再起作用
+     */
     String(char[] value, boolean share) {
+        this(value, 0, value.length, null);
+    }
+
+    /**
+     * 直接使用给定 byte[] 的构造函数，调用方保证 value 不再被修改，
+     * 且 coder 为 LATIN1 或（在 COMPACT_STRINGS 时）value 中含有非 Latin-1 字符
+     */
+    String(byte[] value, byte coder) {
         this.value = value;
+        this.coder = coder;
+    }
+
+    byte coder() {
+        return COMPACT_STRINGS ? coder : UTF16;
+    }
+
+    private boolean isLatin1() {
+        return COMPACT_STRINGS && coder == LATIN1;
+    }
+
+    /**
+     * 返回 value 中下标为 index 的字符，不检查下标
+     */
+    private static char getChar(byte[] value, byte coder, int index) {
+        return (coder == LATIN1) ? (char)(value[index] & 0xff)
+                                 : StringUTF16.getChar(value, index);
     }
 
     public boolean isEmpty() {
@@ -214,65 +310,111 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     /* =================  实现CharSequence  ==================== */
     @Override
     public int length() {
-        return value.length;
+        return value.length >> coder();
     }
     @Override
     public char charAt(int index) {
-        if ((index < 0) || (index >= value.length)) {
-            throw new StringIndexOutOfBoundsException(index);
+        if (isLatin1()) {
+            return StringLatin1.charAt(value, index);
+        } else {
+            return StringUTF16.charAt(value, index);
         }
-        return value[index];
     }
     @Override
     public CharSequence subSequence(int beginIndex, int endIndex) {
         return this.substring(beginIndex, endIndex);
     }
 
+    /**
+     * Latin-1 字符串中没有代理字符，码点即字符
+     */
     public int codePointAt(int index) {
-        if ((index < 0) || (index >= value.length)) {
+        if (isLatin1()) {
+            return StringLatin1.charAt(value, index);
+        }
+        int length = value.length >> 1;
+        if ((index < 0) || (index >= length)) {
             throw new StringIndexOutOfBoundsException(index);
         }
-        return Character.codePointAtImpl(value, index, value.length);
+        return StringUTF16.codePointAt(value, index, length);
     }
 
     public int codePointBefore(int index) {
         int i = index - 1;
-        if ((i < 0) || (i >= value.length)) {
+        if ((i < 0) || (i >= length())) {
             throw new StringIndexOutOfBoundsException(index);
         }
-        return Character.codePointBeforeImpl(value, index, 0);
+        if (isLatin1()) {
+            return value[i] & 0xff;
+        }
+        return StringUTF16.codePointBefore(value, index);
     }
 
     public int codePointCount(int beginIndex, int endIndex) {
-        if (beginIndex < 0 || endIndex > value.length || beginIndex > endIndex) {
+        if (beginIndex < 0 || endIndex > length() || beginIndex > endIndex) {
             throw new IndexOutOfBoundsException();
         }
-        return Character.codePointCountImpl(value, beginIndex, endIndex - beginIndex);
+        if (isLatin1()) {
+            return endIndex - beginIndex;
+        }
+        return StringUTF16.codePointCount(value, beginIndex, endIndex);
     }
 
     public int offsetByCodePoints(int index, int codePointOffset) {
-        if (index < 0 || index > value.length) {
+        int length = length();
+        if (index < 0 || index > length) {
             throw new IndexOutOfBoundsException();
         }
-        return Character.offsetByCodePointsImpl(value, 0, value.length,
-                index, codePointOffset);
+        if (isLatin1()) {
+            long x = (long)index + codePointOffset;
+            if (x < 0 || x > length) {
+                throw new IndexOutOfBoundsException();
+            }
+            return (int)x;
+        }
+        return StringUTF16.offsetByCodePoints(value, index, codePointOffset);
     }
 
     void getChars(char dst[], int dstBegin) {
-        System.arraycopy(value, 0, dst, dstBegin, value.length);
+        if (isLatin1()) {
+            StringLatin1.getChars(value, 0, value.length, dst, dstBegin);
+        } else {
+            StringUTF16.getChars(value, 0, value.length >> 1, dst, dstBegin);
+        }
+    }
+
+    /**
+     * 把字符复制到 dst 的 dstBegin（按字符计）处，dst 的编码为 coder。
+     * 调用方保证 coder 不低于本字符串的 coder 且 dst 空间足够
+     */
+    void getBytes(byte dst[], int dstBegin, byte coder) {
+        if (coder() == coder) {
+            System.arraycopy(value, 0, dst, dstBegin << coder, value.length);
+        } else {    // this.coder == LATIN1 && coder == UTF16
+            StringLatin1.inflate(value, 0, dst, dstBegin, value.length);
+        }
     }
 
     public void getChars(int srcBegin, int srcEnd, char dst[], int dstBegin) {
         if (srcBegin < 0) {
             throw new StringIndexOutOfBoundsException(srcBegin);
         }
-        if (srcEnd > value.length) {
+        if (srcEnd > length()) {
             throw new StringIndexOutOfBoundsException(srcEnd);
         }
         if (srcBegin > srcEnd) {
             throw new StringIndexOutOfBoundsException(srcEnd - srcBegin);
         }
-        System.arraycopy(value, srcBegin, dst, dstBegin, srcEnd - srcBegin);
+        // 与 System.arraycopy 一致：目标越界时抛出 ArrayIndexOutOfBoundsException
+        int n = srcEnd - srcBegin;
+        if (dstBegin < 0 || dstBegin > dst.length - n) {
+            throw new ArrayIndexOutOfBoundsException(dstBegin);
+        }
+        if (isLatin1()) {
+            StringLatin1.getChars(value, srcBegin, srcEnd, dst, dstBegin);
+        } else {
+            StringUTF16.getChars(value, srcBegin, srcEnd, dst, dstBegin);
+        }
     }
 
     @Deprecated
@@ -280,7 +422,7 @@ public final class String implements java.io.Serializable, Comparable<String>, C
         if (srcBegin < 0) {
             throw new StringIndexOutOfBoundsException(srcBegin);
         }
-        if (srcEnd > value.length) {
+        if (srcEnd > length()) {
             throw new StringIndexOutOfBoundsException(srcEnd);
         }
         if (srcBegin > srcEnd) {
@@ -288,13 +430,18 @@ public final class String implements java.io.Serializable, Comparable<String>, C
         }
         Objects.requireNonNull(dst);
 
+        if (isLatin1()) {
+            System.arraycopy(value, srcBegin, dst, dstBegin, srcEnd - srcBegin);
+            return;
+        }
+
         int j = dstBegin;
         int n = srcEnd;
         int i = srcBegin;
-        char[] val = value;   /* avoid getfield opcode */
+        byte[] val = value;   /* avoid getfield opcode */
 
         while (i < n) {
-            dst[j++] = (byte)val[i++];
+            dst[j++] = (byte)StringUTF16.getChar(val, i++);
         }
     }
 
@@ -303,39 +450,34 @@ public final class String implements java.io.Serializable, Comparable<String>, C
         if (charsetName == null) {
             throw new NullPointerException();
         }
-        return StringCoding.encode(charsetName, value, 0, value.length);
+        return StringCoding.encode(charsetName, coder(), value);
     }
 
     public byte[] getBytes(Charset charset) {
         if (charset == null) {
             throw new NullPointerException();
         }
-        return StringCoding.encode(charset, value, 0, value.length);
+        return StringCoding.encode(charset, coder(), value);
     }
 
     public byte[] getBytes() {
-        return StringCoding.encode(value, 0, value.length);
+        return StringCoding.encode(coder(), value);
     }
 
+    /**
+     * 压缩字符串下，coder 不同的两个字符串内容一定不同，
+     * coder 相同时直接逐字节比较
+     */
     @Override
     public boolean equals(Object anObject) {
         if (this == anObject) {
             return true;
         }
         if (anObject instanceof String) {
-            String anotherString = (String)anObject;
-            int n = value.length;
-            if (n == anotherString.value.length) {
-                char v1[] = value;
-                char v2[] = anotherString.value;
-                int i = 0;
-                while (n-- != 0) {
-                    if (v1[i] != v2[i]) {
-                        return false;
-                    }
-                    i++;
-                }
-                return true;
+            String aString = (String)anObject;
+            if (coder() == aString.coder()) {
+                return isLatin1() ? StringLatin1.equals(value, aString.value)
+                                  : StringUTF16.equals(value, aString.value);
             }
         }
         return false;
@@ -346,15 +488,23 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     }
 
     private boolean nonSyncContentEquals(AbstractStringBuilder sb) {
-        char v1[] = value;
+        byte v1[] = value;
         char v2[] = sb.getValue();
-        int n = v1.length;
+        int n = length();
         if (n != sb.length()) {
             return false;
         }
-        for (int i = 0; i < n; i++) {
-            if (v1[i] != v2[i]) {
-                return false;
+        if (isLatin1()) {
+            for (int i = 0; i < n; i++) {
+                if ((v1[i] & 0xff) != v2[i]) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (StringUTF16.getChar(v1, i) != v2[i]) {
+                    return false;
+                }
             }
         }
         return true;
@@ -376,13 +526,14 @@ public final class String implements java.io.Serializable, Comparable<String>, C
             return equals(cs);
         }
         // Argument is a generic CharSequence
-        char v1[] = value;
-        int n = v1.length;
+        byte v1[] = value;
+        byte coder = coder();
+        int n = length();
         if (n != cs.length()) {
             return false;
         }
         for (int i = 0; i < n; i++) {
-            if (v1[i] != cs.charAt(i)) {
+            if (getChar(v1, coder, i) != cs.charAt(i)) {
                 return false;
             }
         }
@@ -392,8 +543,8 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     public boolean equalsIgnoreCase(String anotherString) {
         return (this == anotherString) ? true
                 : (anotherString != null)
-                && (anotherString.value.length == value.length)
-                && regionMatches(true, 0, anotherString, 0, value.length);
+                && (anotherString.length() == length())
+                && regionMatches(true, 0, anotherString, 0, length());
     }
 
     /**
@@ -410,22 +561,14 @@ public final class String implements java.io.Serializable, Comparable<String>, C
      */
     @Override
     public int compareTo(String anotherString) {
-        int len1 = value.length;
-        int len2 = anotherString.value.length;
-        int lim = Math.min(len1, len2);
-        char v1[] = value;
-        char v2[] = anotherString.value;
-
-        int k = 0;
-        while (k < lim) {
-            char c1 = v1[k];
-            char c2 = v2[k];
-            if (c1 != c2) {
-                return c1 - c2;
-            }
-            k++;
+        byte v1[] = value;
+        byte v2[] = anotherString.value;
+        if (coder() == anotherString.coder()) {
+            return isLatin1() ? StringLatin1.compareTo(v1, v2)
+                              : StringUTF16.compareTo(v1, v2);
         }
-        return len1 - len2;
+        return isLatin1() ? StringLatin1.compareToUTF16(v1, v2)
+                          : StringUTF16.compareToLatin1(v1, v2);
     }
 
     public static final Comparator<String> CASE_INSENSITIVE_ORDER = new CaseInsensitiveComparator();
@@ -465,18 +608,28 @@ public final class String implements java.io.Serializable, Comparable<String>, C
 
     public boolean regionMatches(int toffset, String other, int ooffset,
             int len) {
-        char ta[] = value;
+        byte ta[] = value;
+        byte tc = coder();
         int to = toffset;
-        char pa[] = other.value;
+        byte pa[] = other.value;
+        byte pc = other.coder();
         int po = ooffset;
         // Note: toffset, ooffset, or len might be near -1>>>1.
         if ((ooffset < 0) || (toffset < 0)
-                || (toffset > (long)value.length - len)
-                || (ooffset > (long)other.value.length - len)) {
+                || (toffset > (long)length() - len)
+                || (ooffset > (long)other.length() - len)) {
             return false;
         }
+        if (tc == LATIN1 && pc == LATIN1) {
+            while (len-- > 0) {
+                if (ta[to++] != pa[po++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
         while (len-- > 0) {
-            if (ta[to++] != pa[po++]) {
+            if (getChar(ta, tc, to++) != getChar(pa, pc, po++)) {
                 return false;
             }
         }
@@ -485,19 +638,21 @@ public final class String implements java.io.Serializable, Comparable<String>, C
 
     public boolean regionMatches(boolean ignoreCase, int toffset,
             String other, int ooffset, int len) {
-        char ta[] = value;
+        byte ta[] = value;
+        byte tc = coder();
         int to = toffset;
-        char pa[] = other.value;
+        byte pa[] = other.value;
+        byte pc = other.coder();
         int po = ooffset;
         // Note: toffset, ooffset, or len might be near -1>>>1.
         if ((ooffset < 0) || (toffset < 0)
-                || (toffset > (long)value.length - len)
-                || (ooffset > (long)other.value.length - len)) {
+                || (toffset > (long)length() - len)
+                || (ooffset > (long)other.length() - len)) {
             return false;
         }
         while (len-- > 0) {
-            char c1 = ta[to++];
-            char c2 = pa[po++];
+            char c1 = getChar(ta, tc, to++);
+            char c2 = getChar(pa, pc, po++);
             if (c1 == c2) {
                 continue;
             }
@@ -517,19 +672,32 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     }
 
     public boolean startsWith(String prefix, int toffset) {
-        char ta[] = value;
-        int to = toffset;
-        char pa[] = prefix.value;
-        int po = 0;
-        int pc = prefix.value.length;
         // Note: toffset might be near -1>>>1.
-        if ((toffset < 0) || (toffset > value.length - pc)) {
+        if (toffset < 0 || toffset > length() - prefix.length()) {
             return false;
         }
-        while (--pc >= 0) {
-            if (ta[to++] != pa[po++]) {
+        byte ta[] = value;
+        byte pa[] = prefix.value;
+        int po = 0;
+        int pc = pa.length;
+        if (coder() == prefix.coder()) {
+            int to = isLatin1() ? toffset : toffset << 1;
+            while (po < pc) {
+                if (ta[to++] != pa[po++]) {
+                    return false;
+                }
+            }
+        } else {
+            // 压缩字符串下，Latin-1 字符串不可能以含非 Latin-1 字符的前缀开头
+            if (isLatin1()) {
                 return false;
             }
+            // coder == UTF16 && prefix.coder == LATIN1
+            while (po < pc) {
+                if (StringUTF16.getChar(ta, toffset++) != (pa[po++] & 0xff)) {
+                    return false;
+                }
+            }
         }
         return true;
     }
@@ -539,7 +707,7 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     }
 
     public boolean endsWith(String suffix) {
-        return startsWith(suffix, value.length - suffix.value.length);
+        return startsWith(suffix, length() - suffix.length());
     }
 
     @Override
@@ -548,11 +716,8 @@ public final class String implements java.io.Serializable, Comparable<String>, C
         /* 参数传入代码块和方法是不一样的 */
         int h = hash;
         if (h == 0 && value.length > 0) {
-            char val[] = value;
-
-            for (int i = 0; i < value.length; i++) {
-                h = 31 * h + val[i];
-            }
+            h = isLatin1() ? StringLatin1.hashCode(value)
+                           : StringUTF16.hashCode(value);
             hash = h;
         }
         return h;
@@ -563,88 +728,43 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     }
 
     public int indexOf(int ch, int fromIndex) {
-        final int max = value.length;
-        if (fromIndex < 0) {
-            fromIndex = 0;
-        } else if (fromIndex >= max) {
-            return -1;
-        }
-
-        if (ch < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
-            final char[] value = this.value;
-            for (int i = fromIndex; i < max; i++) {
-                if (value[i] == ch) {
-                    return i;
-                }
-            }
-            return -1;
-        } else {
-            return indexOfSupplementary(ch, fromIndex);
-        }
-    }
-
-    private int indexOfSupplementary(int ch, int fromIndex) {
-        if (Character.isValidCodePoint(ch)) {
-            final char[] value = this.value;
-            final char hi = Character.highSurrogate(ch);
-            final char lo = Character.lowSurrogate(ch);
-            final int max = value.length - 1;
-            for (int i = fromIndex; i < max; i++) {
-                if (value[i] == hi && value[i + 1] == lo) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+        return isLatin1() ? StringLatin1.indexOf(value, ch, fromIndex)
+                          : StringUTF16.indexOf(value, ch, fromIndex);
     }
 
     public int lastIndexOf(int ch) {
-        return lastIndexOf(ch, value.length - 1);
+        return lastIndexOf(ch, length() - 1);
     }
 
     public int lastIndexOf(int ch, int fromIndex) {
-        if (ch < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
-            final char[] value = this.value;
-            int i = Math.min(fromIndex, value.length - 1);
-            for (; i >= 0; i--) {
-                if (value[i] == ch) {
-                    return i;
-                }
-            }
-            return -1;
-        } else {
-            return lastIndexOfSupplementary(ch, fromIndex);
-        }
-    }
-
-    private int lastIndexOfSupplementary(int ch, int fromIndex) {
-        if (Character.isValidCodePoint(ch)) {
-            final char[] value = this.value;
-            char hi = Character.highSurrogate(ch);
-            char lo = Character.lowSurrogate(ch);
-            int i = Math.min(fromIndex, value.length - 2);
-            for (; i >= 0; i--) {
-                if (value[i] == hi && value[i + 1] == lo) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+        return isLatin1() ? StringLatin1.lastIndexOf(value, ch, fromIndex)
+                          : StringUTF16.lastIndexOf(value, ch, fromIndex);
     }
 
     public int indexOf(String str) {
         return indexOf(str, 0);
     }
 
+    /**
+     * Latin-1 字符串中不可能找到含非 Latin-1 字符的 str
+     */
     public int indexOf(String str, int fromIndex) {
-        return indexOf(value, 0, value.length,
-                str.value, 0, str.value.length, fromIndex);
+        byte coder = coder();
+        if (coder == str.coder()) {
+            return isLatin1() ? StringLatin1.indexOf(value, str.value, fromIndex)
+                              : StringUTF16.indexOf(value, str.value, fromIndex);
+        }
+        if (coder == LATIN1) {  // str.coder == UTF16
+            return -1;
+        }
+        return StringUTF16.indexOfLatin1(value, str.value, fromIndex);
     }
 
     static int indexOf(char[] source, int sourceOffset, int sourceCount,
             String target, int fromIndex) {
+        char[] tgt = target.toCharArray();
         return indexOf(source, sourceOffset, sourceCount,
-                       target.value, 0, target.value.length,
+                       tgt, 0, tgt.length,
                        fromIndex);
     }
 
@@ -691,18 +811,26 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     }
 
     public int lastIndexOf(String str) {
-        return lastIndexOf(str, value.length);
+        return lastIndexOf(str, length());
     }
 
     public int lastIndexOf(String str, int fromIndex) {
-        return lastIndexOf(value, 0, value.length,
-                str.value, 0, str.value.length, fromIndex);
+        byte coder = coder();
+        if (coder == str.coder()) {
+            return isLatin1() ? StringLatin1.lastIndexOf(value, str.value, fromIndex)
+                              : StringUTF16.lastIndexOf(value, str.value, UTF16, fromIndex);
+        }
+        if (coder == LATIN1) {  // str.coder == UTF16
+            return -1;
+        }
+        return StringUTF16.lastIndexOf(value, str.value, LATIN1, fromIndex);
     }
 
     static int lastIndexOf(char[] source, int sourceOffset, int sourceCount,
             String target, int fromIndex) {
+        char[] tgt = target.toCharArray();
         return lastIndexOf(source, sourceOffset, sourceCount,
-                       target.value, 0, target.value.length,
+                       tgt, 0, tgt.length,
                        fromIndex);
     }
 
@@ -756,61 +884,94 @@ public final class String implements java.io.Serializable, Comparable<String>, C
         if (beginIndex < 0) {
             throw new StringIndexOutOfBoundsException(beginIndex);
         }
-        int subLen = value.length - beginIndex;
+        int subLen = length() - beginIndex;
         if (subLen < 0) {
             throw new StringIndexOutOfBoundsException(subLen);
         }
-        return (beginIndex == 0) ? this : new String(value, beginIndex, subLen);
+        if (beginIndex == 0) {
+            return this;
+        }
+        return isLatin1() ? StringLatin1.newString(value, beginIndex, subLen)
+                          : StringUTF16.newString(value, beginIndex, subLen);
     }
 
     public String substring(int beginIndex, int endIndex) {
+        int length = length();
         if (beginIndex < 0) {
             throw new StringIndexOutOfBoundsException(beginIndex);
         }
-        if (endIndex > value.length) {
+        if (endIndex > length) {
             throw new StringIndexOutOfBoundsException(endIndex);
         }
         int subLen = endIndex - beginIndex;
         if (subLen < 0) {
             throw new StringIndexOutOfBoundsException(subLen);
         }
-        return ((beginIndex == 0) && (endIndex == value.length)) ? this
-                : new String(value, beginIndex, subLen);
+        if (beginIndex == 0 && endIndex == length) {
+            return this;
+        }
+        return isLatin1() ? StringLatin1.newString(value, beginIndex, subLen)
+                          : StringUTF16.newString(value, beginIndex, subLen);
     }
 
+    /**
+     * coder 相同时直接拼接两个 byte[]，否则把 Latin-1 的一方展开成 UTF16
+     */
     public String concat(String str) {
-        int otherLen = str.length();
-        if (otherLen == 0) {
+        if (str.isEmpty()) {
             return this;
         }
-        int len = value.length;
-        char buf[] = Arrays.copyOf(value, len + otherLen);
-        str.getChars(buf, len);
-        return new String(buf, true);
+        if (coder() == str.coder()) {
+            byte[] val = this.value;
+            byte[] oval = str.value;
+            int len = val.length + oval.length;
+            byte[] buf = Arrays.copyOf(val, len);
+            System.arraycopy(oval, 0, buf, val.length, oval.length);
+            return new String(buf, coder());
+        }
+        int len = length();
+        int olen = str.length();
+        byte[] buf = StringUTF16.newBytesFor(len + olen);
+        if (isLatin1()) {
+            StringLatin1.inflate(value, 0, buf, 0, len);
+            System.arraycopy(str.value, 0, buf, len << 1, olen << 1);
+        } else {
+            System.arraycopy(value, 0, buf, 0, len << 1);
+            StringLatin1.inflate(str.value, 0, buf, len, olen);
+        }
+        return new String(buf, UTF16);
     }
 
     public String replace(char oldChar, char newChar) {
         if (oldChar != newChar) {
-            int len = value.length;
+            int len = length();
+            byte coder = coder();
+            byte[] val = value; /* avoid getfield opcode */
             int i = -1;
-            char[] val = value; /* avoid getfield opcode */
 
             while (++i < len) {
-                if (val[i] == oldChar) {
+                if (getChar(val, coder, i) == oldChar) {
                     break;
                 }
             }
             if (i < len) {
-                char buf[] = new char[len];
-                for (int j = 0; j < i; j++) {
-                    buf[j] = val[j];
+                if (coder == LATIN1 && StringLatin1.canEncode(newChar)) {
+                    byte buf[] = Arrays.copyOf(val, len);
+                    while (i < len) {
+                        if ((char)(val[i] & 0xff) == oldChar) {
+                            buf[i] = (byte)newChar;
+                        }
+                        i++;
+                    }
+                    return new String(buf, LATIN1);
                 }
-                while (i < len) {
-                    char c = val[i];
-                    buf[i] = (c == oldChar) ? newChar : c;
-                    i++;
+                char buf[] = new char[len];
+                for (int j = 0; j < len; j++) {
+                    char c = getChar(val, coder, j);
+                    buf[j] = (j >= i && c == oldChar) ? newChar : c;
                 }
-                return new String(buf, true);
+                // 替换后的结果可能全部为 Latin-1 字符
+                return StringUTF16.newString(buf, 0, len);
             }
         }
         return this;
@@ -839,7 +1000,7 @@ public final class String implements java.io.Serializable, Comparable<String>, C
 
     public String[] split(String regex, int limit) {
         char ch = 0;
-        if (((regex.value.length == 1 &&
+        if (((regex.length() == 1 &&
              ".$|()[{^?*+\\".indexOf(ch = regex.charAt(0)) == -1) ||
              (regex.length() == 2 &&
               regex.charAt(0) == '\\' &&
@@ -859,8 +1020,9 @@ public final class String implements java.io.Serializable, Comparable<String>, C
                     off = next + 1;
                 } else {    // last one
                     //assert (list.size() == limit - 1);
-                    list.add(substring(off, value.length));
-                    off = value.length;
+                    int last = length();
+                    list.add(substring(off, last));
+                    off = last;
                     break;
                 }
             }
@@ -871,7 +1033,7 @@ public final class String implements java.io.Serializable, Comparable<String>, C
 
             // Add remaining segment
             if (!limited || list.size() < limit) {
-                list.add(substring(off, value.length));
+                list.add(substring(off, length()));
             }
 
             // Construct result
@@ -921,6 +1083,12 @@ public final class String implements java.io.Serializable, Comparable<String>, C
             throw new NullPointerException();
         }
 
+        /* Latin-1 字符的小写仍是 Latin-1 字符，区域相关的语言除外 */
+        if (isLatin1() && !isLocaleDependent(locale)) {
+            return StringLatin1.toLowerCase(this, value);
+        }
+
+        final char[] value = toCharArray();
         int firstUpper;
         final int len = value.length;
 
@@ -1017,6 +1185,15 @@ public final class String implements java.io.Serializable, Comparable<String>, C
             throw new NullPointerException();
         }
 
+        /* 少数 Latin-1 字符（如 ß、ÿ）的大写不在 Latin-1 中，此时走通用路径 */
+        if (isLatin1() && !isLocaleDependent(locale)) {
+            String upper = StringLatin1.toUpperCase(this, value);
+            if (upper != null) {
+                return upper;
+            }
+        }
+
+        final char[] value = toCharArray();
         int firstLower;
         final int len = value.length;
 
@@ -1108,18 +1285,24 @@ public final class String implements java.io.Serializable, Comparable<String>, C
         return toUpperCase(Locale.getDefault());
     }
 
+    private static boolean isLocaleDependent(Locale locale) {
+        String lang = locale.getLanguage();
+        return lang == "tr" || lang == "az" || lang == "lt";
+    }
+
     public String trim() {
-        int len = value.length;
+        int len = length();
         int st = 0;
-        char[] val = value;    /* avoid getfield opcode */
+        byte coder = coder();
+        byte[] val = value;    /* avoid getfield opcode */
 
-        while ((st < len) && (val[st] <= ' ')) {
+        while ((st < len) && (getChar(val, coder, st) <= ' ')) {
             st++;
         }
-        while ((st < len) && (val[len - 1] <= ' ')) {
+        while ((st < len) && (getChar(val, coder, len - 1) <= ' ')) {
             len--;
         }
-        return ((st > 0) || (len < value.length)) ? substring(st, len) : this;
+        return ((st > 0) || (len < length())) ? substring(st, len) : this;
     }
 
     @Override
@@ -1128,10 +1311,8 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     }
 
     public char[] toCharArray() {
-        // Cannot use Arrays.copyOf because of class initialization order issues
-        char result[] = new char[value.length];
-        System.arraycopy(value, 0, result, 0, value.length);
-        return result;
+        return isLatin1() ? StringLatin1.toChars(value)
+                          : StringUTF16.toChars(value);
     }
 
     public static String format(String format, Object... args) {
@@ -1167,8 +1348,10 @@ public final class String implements java.io.Serializable, Comparable<String>, C
     }
 
     public static String valueOf(char c) {
-        char data[] = {c};
-        return new String(data, true);
+        if (COMPACT_STRINGS && StringLatin1.canEncode(c)) {
+            return new String(new byte[]{(byte)c}, LATIN1);
+        }
+        return new String(StringUTF16.toBytes(c), UTF16);
     }
 
     public static String valueOf(int i) {
@@ -25,7 +25,6 @@
 
 package java.lang;
 
-import java.util.Arrays;
 
 /**
  * A thread-safe, mutable sequence of characters.
@@ -103,7 +102,7 @@ import java.util.Arrays;
      * A cache of the last value returned by toString. Cleared
      * whenever the StringBuffer is modified.
      */
-    private transient char[] toStringCache;
+    private transient String toStringCache;
 
     /** use serialVersionUID from JDK 1.0.2 for interoperability */
     static final long serialVersionUID = 3388685877147921107L;
@@ -666,9 +665,9 @@ import java.util.Arrays;
     @Override
     public synchronized String toString() {
         if (toStringCache == null) {
-            toStringCache = Arrays.copyOfRange(value, 0, count);
+            toStringCache = new String(value, 0, count);
         }
-        return new String(toStringCache, true);
+        return new String(toStringCache);
     }
 
     /**
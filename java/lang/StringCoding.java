@@ -43,6 +43,10 @@ import sun.nio.cs.HistoricallyNamedCharset;
 import sun.nio.cs.ArrayDecoder;
 import sun.nio.cs.ArrayEncoder;
 
+import static java.lang.String.COMPACT_STRINGS;
+import static java.lang.String.LATIN1;
+import static java.lang.String.UTF16;
+
 /**
  * Utility class for string encoding and decoding.
  */
@@ -117,6 +121,90 @@ class StringCoding {
         }
     }
 
+    /**
+     * The value and coder of a decoded string.
+     */
+    static final class Result {
+        final byte[] value;
+        final byte coder;
+
+        Result(byte[] value, byte coder) {
+            this.value = value;
+            this.coder = coder;
+        }
+
+        /**
+         * Wraps decoded chars, compressing them to Latin-1 if possible.
+         */
+        Result(char[] ca) {
+            byte[] val = COMPACT_STRINGS ? StringUTF16.compress(ca, 0, ca.length)
+                                         : null;
+            if (val != null) {
+                this.value = val;
+                this.coder = LATIN1;
+            } else {
+                this.value = StringUTF16.toBytes(ca, 0, ca.length);
+                this.coder = UTF16;
+            }
+        }
+    }
+
+    private static boolean hasNegatives(byte[] ba, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            if (ba[i] < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if every byte sequence whose bytes are all in the range
+     * 0x00-0x7F decodes in the given charset to the same Latin-1 chars,
+     * and every Latin-1 string with no char above 0x7F encodes to its bytes.
+     */
+    private static boolean isASCIICompatible(Charset cs) {
+        String name = cs.name();
+        return name.equals("UTF-8") || name.equals("US-ASCII");
+    }
+
+    private static boolean isLatin1(Charset cs) {
+        return cs.name().equals("ISO-8859-1");
+    }
+
+    /**
+     * Decodes directly into a Latin-1 value when the charset maps each byte
+     * of the input to the char of the same value, or returns null.
+     */
+    private static Result decodeLatin1(Charset cs, byte[] ba, int off, int len) {
+        if (!COMPACT_STRINGS) {
+            return null;
+        }
+        if (isLatin1(cs) || (isASCIICompatible(cs) && !hasNegatives(ba, off, len))) {
+            return new Result(Arrays.copyOfRange(ba, off, off + len), LATIN1);
+        }
+        return null;
+    }
+
+    /**
+     * Encodes a Latin-1 value by copying when the charset maps each of its
+     * chars to the byte of the same value, or returns null.
+     */
+    private static byte[] encodeLatin1(Charset cs, byte coder, byte[] val) {
+        if (coder != LATIN1) {
+            return null;
+        }
+        if (isLatin1(cs) || (isASCIICompatible(cs) && !hasNegatives(val, 0, val.length))) {
+            return Arrays.copyOf(val, val.length);
+        }
+        return null;
+    }
+
+    private static char[] toChars(byte coder, byte[] val) {
+        return (coder == LATIN1) ? StringLatin1.toChars(val)
+                                 : StringUTF16.toChars(val);
+    }
+
 
     // -- Decoding --
     private static class StringDecoder {
@@ -173,7 +261,7 @@ class StringCoding {
         }
     }
 
-    static char[] decode(String charsetName, byte[] ba, int off, int len)
+    static Result decode(String charsetName, byte[] ba, int off, int len)
         throws UnsupportedEncodingException
     {
         StringDecoder sd = deref(decoder);
@@ -190,10 +278,11 @@ class StringCoding {
                 throw new UnsupportedEncodingException(csn);
             set(decoder, sd);
         }
-        return sd.decode(ba, off, len);
+        Result ret = decodeLatin1(sd.cs, ba, off, len);
+        return (ret != null) ? ret : new Result(sd.decode(ba, off, len));
     }
 
-    static char[] decode(Charset cs, byte[] ba, int off, int len) {
+    static Result decode(Charset cs, byte[] ba, int off, int len) {
         // (1)We never cache the "external" cs, the only benefit of creating
         // an additional StringDe/Encoder object to wrap it is to share the
         // de/encode() method. These SD/E objects are short-lifed, the young-gen
@@ -210,11 +299,14 @@ class StringCoding {
         // check (... && (isTrusted || SM == null || getClassLoader0())) in trim
         // but it then can be argued that the SM is null when the opertaion
         // is started...
+        Result ret = decodeLatin1(cs, ba, off, len);
+        if (ret != null)
+            return ret;
         CharsetDecoder cd = cs.newDecoder();
         int en = scale(len, cd.maxCharsPerByte());
         char[] ca = new char[en];
         if (len == 0)
-            return ca;
+            return new Result(ca);
         boolean isTrusted = false;
         if (System.getSecurityManager() != null) {
             if (!(isTrusted = (cs.getClass().getClassLoader0() == null))) {
@@ -227,7 +319,7 @@ class StringCoding {
           .reset();
         if (cd instanceof ArrayDecoder) {
             int clen = ((ArrayDecoder)cd).decode(ba, off, len, ca);
-            return safeTrim(ca, clen, cs, isTrusted);
+            return new Result(safeTrim(ca, clen, cs, isTrusted));
         } else {
             ByteBuffer bb = ByteBuffer.wrap(ba, off, len);
             CharBuffer cb = CharBuffer.wrap(ca);
@@ -243,11 +335,11 @@ class StringCoding {
                 // so this shouldn't happen
                 throw new Error(x);
             }
-            return safeTrim(ca, cb.position(), cs, isTrusted);
+            return new Result(safeTrim(ca, cb.position(), cs, isTrusted));
         }
     }
 
-    static char[] decode(byte[] ba, int off, int len) {
+    static Result decode(byte[] ba, int off, int len) {
         String csn = Charset.defaultCharset().name();
         try {
             // use charset name decode() variant which provides caching.
@@ -324,7 +416,7 @@ class StringCoding {
         }
     }
 
-    static byte[] encode(String charsetName, char[] ca, int off, int len)
+    static byte[] encode(String charsetName, byte coder, byte[] val)
         throws UnsupportedEncodingException
     {
         StringEncoder se = deref(encoder);
@@ -341,10 +433,20 @@ class StringCoding {
                 throw new UnsupportedEncodingException (csn);
             set(encoder, se);
         }
-        return se.encode(ca, off, len);
+        byte[] ba = encodeLatin1(se.cs, coder, val);
+        if (ba != null)
+            return ba;
+        char[] ca = toChars(coder, val);
+        return se.encode(ca, 0, ca.length);
     }
 
-    static byte[] encode(Charset cs, char[] ca, int off, int len) {
+    static byte[] encode(Charset cs, byte coder, byte[] val) {
+        byte[] fast = encodeLatin1(cs, coder, val);
+        if (fast != null)
+            return fast;
+        char[] ca = toChars(coder, val);
+        int off = 0;
+        int len = ca.length;
         CharsetEncoder ce = cs.newEncoder();
         int en = scale(len, ce.maxBytesPerChar());
         byte[] ba = new byte[en];
@@ -380,16 +482,16 @@ class StringCoding {
         }
     }
 
-    static byte[] encode(char[] ca, int off, int len) {
+    static byte[] encode(byte coder, byte[] val) {
         String csn = Charset.defaultCharset().name();
         try {
             // use charset name encode() variant which provides caching.
-            return encode(csn, ca, off, len);
+            return encode(csn, coder, val);
         } catch (UnsupportedEncodingException x) {
             warnUnsupportedCharset(csn);
         }
         try {
-            return encode("ISO-8859-1", ca, off, len);
+            return encode("ISO-8859-1", coder, val);
         } catch (UnsupportedEncodingException x) {
             // If this code is hit during VM initialization, MessageUtils is
             // the only way we will be able to get any kind of error message.
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+
+import static java.lang.String.COMPACT_STRINGS;
+import static java.lang.String.LATIN1;
+import static java.lang.String.UTF16;
+
+/**
+ * Helper methods for the strategies of
+ * {@link java.lang.invoke.StringConcatFactory}. A concatenation is evaluated
+ * in three steps: the {@code mixLen} and {@code mixCoder} methods fold the
+ * arguments into the exact length and coder of the result, {@code newArray}
+ * allocates the value, and the {@code prepend} methods fill it from the end.
+ * {@code newString} then wraps the value without copying it.
+ */
+final class StringConcatHelper {
+
+    private StringConcatHelper() {
+        // no instantiation
+    }
+
+    /**
+     * Returns the coder to start mixing from: the narrowest one available.
+     */
+    static byte initialCoder() {
+        return COMPACT_STRINGS ? LATIN1 : UTF16;
+    }
+
+    private static int checkOverflow(int length) {
+        if (length < 0) {
+            throw new OutOfMemoryError("Overflow: String length out of range");
+        }
+        return length;
+    }
+
+    static int mixLen(int current, boolean value) {
+        return checkOverflow(current + (value ? 4 : 5));
+    }
+
+    static int mixLen(int current, char value) {
+        return checkOverflow(current + 1);
+    }
+
+    static int mixLen(int current, int value) {
+        int size;
+        if (value == Integer.MIN_VALUE) {
+            size = 11;
+        } else {
+            size = (value < 0) ? Integer.stringSize(-value) + 1
+                               : Integer.stringSize(value);
+        }
+        return checkOverflow(current + size);
+    }
+
+    static int mixLen(int current, long value) {
+        int size;
+        if (value == Long.MIN_VALUE) {
+            size = 20;
+        } else {
+            size = (value < 0) ? Long.stringSize(-value) + 1
+                               : Long.stringSize(value);
+        }
+        return checkOverflow(current + size);
+    }
+
+    static int mixLen(int current, String value) {
+        return checkOverflow(current + value.length());
+    }
+
+    static byte mixCoder(byte current, char value) {
+        if (COMPACT_STRINGS && !StringLatin1.canEncode(value)) {
+            return UTF16;
+        }
+        return current;
+    }
+
+    static byte mixCoder(byte current, String value) {
+        return (byte)(current | value.coder());
+    }
+
+    static byte[] newArray(int length, byte coder) {
+        if (coder == UTF16 && length > StringUTF16.MAX_LENGTH) {
+            throw new OutOfMemoryError("Overflow: String length out of range");
+        }
+        return new byte[length << coder];
+    }
+
+    private static void putChar(byte[] buf, int index, byte coder, int c) {
+        if (coder == LATIN1) {
+            buf[index] = (byte)c;
+        } else {
+            StringUTF16.putChar(buf, index, c);
+        }
+    }
+
+    static int prepend(int index, byte[] buf, byte coder, boolean value) {
+        return prepend(index, buf, coder, value ? "true" : "false");
+    }
+
+    static int prepend(int index, byte[] buf, byte coder, char value) {
+        putChar(buf, --index, coder, value);
+        return index;
+    }
+
+    static int prepend(int index, byte[] buf, byte coder, int value) {
+        if (value == Integer.MIN_VALUE) {
+            return prepend(index, buf, coder, "-2147483648");
+        }
+        boolean negative = value < 0;
+        if (negative) {
+            value = -value;
+        }
+        do {
+            int q = value / 10;
+            putChar(buf, --index, coder, '0' + (value - q * 10));
+            value = q;
+        } while (value != 0);
+        if (negative) {
+            putChar(buf, --index, coder, '-');
+        }
+        return index;
+    }
+
+    static int prepend(int index, byte[] buf, byte coder, long value) {
+        if (value == Long.MIN_VALUE) {
+            return prepend(index, buf, coder, "-9223372036854775808");
+        }
+        boolean negative = value < 0;
+        if (negative) {
+            value = -value;
+        }
+        // Use long division only while the value does not fit an int
+        while (value > Integer.MAX_VALUE) {
+            long q = value / 10;
+            putChar(buf, --index, coder, '0' + (int)(value - q * 10));
+            value = q;
+        }
+        index = prepend(index, buf, coder, (int)value);
+        if (negative) {
+            putChar(buf, --index, coder, '-');
+        }
+        return index;
+    }
+
+    static int prepend(int index, byte[] buf, byte coder, String value) {
+        index -= value.length();
+        value.getBytes(buf, index, coder);
+        return index;
+    }
+
+    /**
+     * Wraps a completely filled value into a string.
+     */
+    static String newString(int index, byte[] buf, byte coder) {
+        if (index != 0) {
+            throw new InternalError("Storage is not completely initialized, " +
+                                    index + " chars left");
+        }
+        return new String(buf, coder);
+    }
+
+    /**
+     * Converts an argument to its string form, as {@link String#valueOf(Object)}
+     * does. Each non-primitive argument is converted exactly once, before the
+     * length is computed.
+     */
+    static String stringOf(Object value) {
+        String s;
+        return (value == null || (s = value.toString()) == null) ? "null" : s;
+    }
+
+    /**
+     * Returns a new string for a single-argument concatenation. The result
+     * shares the value of the argument's string form.
+     */
+    static String newStringOf(Object value) {
+        return new String(stringOf(value));
+    }
+}
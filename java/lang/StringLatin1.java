@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang;
+
+import java.util.Arrays;
+
+import static java.lang.String.LATIN1;
+
+/**
+ * Operations on the {@code byte[]} value of a {@code String} whose coder is
+ * {@link String#LATIN1}, holding one ISO-8859-1 character per byte.
+ */
+final class StringLatin1 {
+
+    private StringLatin1() { }
+
+    static char charAt(byte[] value, int index) {
+        if (index < 0 || index >= value.length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return (char)(value[index] & 0xff);
+    }
+
+    static boolean canEncode(int cp) {
+        return cp >>> 8 == 0;
+    }
+
+    static char[] toChars(byte[] value) {
+        char[] dst = new char[value.length];
+        inflate(value, 0, dst, 0, value.length);
+        return dst;
+    }
+
+    static void getChars(byte[] value, int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        inflate(value, srcBegin, dst, dstBegin, srcEnd - srcBegin);
+    }
+
+    /**
+     * Copies Latin-1 characters into a {@code char[]}.
+     */
+    static void inflate(byte[] src, int srcOff, char[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++) {
+            dst[dstOff++] = (char)(src[srcOff++] & 0xff);
+        }
+    }
+
+    /**
+     * Copies Latin-1 characters into a UTF-16 {@code byte[]}.
+     */
+    static void inflate(byte[] src, int srcOff, byte[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++) {
+            StringUTF16.putChar(dst, dstOff++, src[srcOff++] & 0xff);
+        }
+    }
+
+    static byte[] inflate(byte[] value) {
+        byte[] dst = StringUTF16.newBytesFor(value.length);
+        inflate(value, 0, dst, 0, value.length);
+        return dst;
+    }
+
+    static boolean equals(byte[] value, byte[] other) {
+        if (value.length == other.length) {
+            for (int i = 0; i < value.length; i++) {
+                if (value[i] != other[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static int compareTo(byte[] value, byte[] other) {
+        int len1 = value.length;
+        int len2 = other.length;
+        int lim = Math.min(len1, len2);
+        for (int k = 0; k < lim; k++) {
+            if (value[k] != other[k]) {
+                return (value[k] & 0xff) - (other[k] & 0xff);
+            }
+        }
+        return len1 - len2;
+    }
+
+    static int compareToUTF16(byte[] value, byte[] other) {
+        int len1 = value.length;
+        int len2 = StringUTF16.length(other);
+        int lim = Math.min(len1, len2);
+        for (int k = 0; k < lim; k++) {
+            char c1 = (char)(value[k] & 0xff);
+            char c2 = StringUTF16.getChar(other, k);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return len1 - len2;
+    }
+
+    static int hashCode(byte[] value) {
+        int h = 0;
+        for (byte v : value) {
+            h = 31 * h + (v & 0xff);
+        }
+        return h;
+    }
+
+    static int indexOf(byte[] value, int ch, int fromIndex) {
+        if (!canEncode(ch)) {
+            return -1;
+        }
+        int max = value.length;
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        } else if (fromIndex >= max) {
+            // Note: fromIndex might be near -1>>>1.
+            return -1;
+        }
+        byte c = (byte)ch;
+        for (int i = fromIndex; i < max; i++) {
+            if (value[i] == c) {
+               return i;
+            }
+        }
+        return -1;
+    }
+
+    static int lastIndexOf(byte[] value, int ch, int fromIndex) {
+        if (!canEncode(ch)) {
+            return -1;
+        }
+        byte c = (byte)ch;
+        int i = Math.min(fromIndex, value.length - 1);
+        for (; i >= 0; i--) {
+            if (value[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the Latin-1 target at or
+     * after {@code fromIndex}, following the rules of
+     * {@link String#indexOf(String, int)}.
+     */
+    static int indexOf(byte[] value, byte[] str, int fromIndex) {
+        int valueCount = value.length;
+        int strCount = str.length;
+        if (fromIndex >= valueCount) {
+            return (strCount == 0 ? valueCount : -1);
+        }
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        if (strCount == 0) {
+            return fromIndex;
+        }
+        byte first = str[0];
+        int max = valueCount - strCount;
+        for (int i = fromIndex; i <= max; i++) {
+            // Look for first character.
+            if (value[i] != first) {
+                while (++i <= max && value[i] != first);
+            }
+            // Found first character, now look at the rest of value
+            if (i <= max) {
+                int j = i + 1;
+                int end = j + strCount - 1;
+                for (int k = 1; j < end && value[j] == str[k]; j++, k++);
+                if (j == end) {
+                    // Found whole string.
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the Latin-1 target at or
+     * before {@code fromIndex}, following the rules of
+     * {@link String#lastIndexOf(String, int)}.
+     */
+    static int lastIndexOf(byte[] value, byte[] str, int fromIndex) {
+        int rightIndex = value.length - str.length;
+        if (fromIndex < 0) {
+            return -1;
+        }
+        if (fromIndex > rightIndex) {
+            fromIndex = rightIndex;
+        }
+        // Empty string always matches.
+        if (str.length == 0) {
+            return fromIndex;
+        }
+        int strLastIndex = str.length - 1;
+        byte strLastChar = str[strLastIndex];
+        int min = strLastIndex;
+        int i = min + fromIndex;
+
+    startSearchForLastChar:
+        while (true) {
+            while (i >= min && value[i] != strLastChar) {
+                i--;
+            }
+            if (i < min) {
+                return -1;
+            }
+            int j = i - 1;
+            int start = j - strLastIndex;
+            int k = strLastIndex - 1;
+            while (j > start) {
+                if (value[j--] != str[k--]) {
+                    i--;
+                    continue startSearchForLastChar;
+                }
+            }
+            return start + 1;
+        }
+    }
+
+    /**
+     * Lower-cases a Latin-1 string for a locale without special casing rules.
+     * Every Latin-1 character lower-cases to a Latin-1 character.
+     */
+    static String toLowerCase(String str, byte[] value) {
+        int len = value.length;
+        int first;
+        for (first = 0; first < len; first++) {
+            int cp = value[first] & 0xff;
+            if (cp != Character.toLowerCase(cp)) {
+                break;
+            }
+        }
+        if (first == len) {
+            return str;
+        }
+        byte[] result = new byte[len];
+        System.arraycopy(value, 0, result, 0, first);
+        for (int i = first; i < len; i++) {
+            result[i] = (byte)Character.toLowerCase(value[i] & 0xff);
+        }
+        return new String(result, LATIN1);
+    }
+
+    /**
+     * Upper-cases a Latin-1 string for a locale without special casing rules,
+     * or returns {@code null} if some character upper-cases to a character
+     * outside Latin-1 or to more than one character.
+     */
+    static String toUpperCase(String str, byte[] value) {
+        int len = value.length;
+        int first;
+        for (first = 0; first < len; first++) {
+            int cp = value[first] & 0xff;
+            if (cp != Character.toUpperCaseEx(cp)) {
+                break;
+            }
+        }
+        if (first == len) {
+            return str;
+        }
+        byte[] result = new byte[len];
+        System.arraycopy(value, 0, result, 0, first);
+        for (int i = first; i < len; i++) {
+            int upper = Character.toUpperCaseEx(value[i] & 0xff);
+            if (!canEncode(upper)) {
+                return null;
+            }
+            result[i] = (byte)upper;
+        }
+        return new String(result, LATIN1);
+    }
+
+    static String newString(byte[] value, int index, int len) {
+        return new String(Arrays.copyOfRange(value, index, index + len), LATIN1);
+    }
+}
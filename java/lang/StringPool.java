@@ -0,0 +1,572 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent pool of canonical strings, for deduplicating the many equal
+ * strings produced by parsers and decoders.
+ *
+ * <p>Unlike {@link String#intern()}, a {@code StringPool} is an ordinary heap
+ * object: its table grows with its contents, several independent pools can
+ * coexist, and a pool may be dropped as a whole. Strings in the pool are held
+ * through weak references, so a string that is no longer reachable from
+ * outside the pool is evicted once the garbage collector clears it. The
+ * strings returned by a pool are not necessarily the ones returned by
+ * {@code String.intern()}; code that compares strings with {@code ==} must
+ * only compare strings obtained from the same pool.
+ *
+ * <p>Besides strings, a pool accepts ranges of {@code char} arrays, of
+ * Latin-1 or UTF-8 encoded {@code byte} arrays, and of arbitrary
+ * {@link CharSequence}s. For these a new {@code String} is only created when
+ * no equal string is already in the pool.
+ *
+ * <p>The table is split into independently locked stripes. Lookups of
+ * strings already in the pool do not lock; adding a string locks a single
+ * stripe. Hit, miss and eviction counts are kept for monitoring.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @since 1.8
+ */
+public final class StringPool {
+
+    /**
+     * The default number of stripes.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The maximum number of stripes.
+     */
+    private static final int MAX_STRIPES = 1 << 16;
+
+    /**
+     * The initial capacity of the table of each stripe; a power of two.
+     */
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    /**
+     * The maximum capacity of the table of each stripe.
+     */
+    private static final int MAX_STRIPE_CAPACITY = 1 << 30;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty pool with the default number of stripes.
+     */
+    public StringPool() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates an empty pool sized for the given number of threads adding
+     * strings concurrently.
+     *
+     * @param concurrencyLevel the estimated number of concurrently adding
+     *        threads
+     * @throws IllegalArgumentException if {@code concurrencyLevel} is not
+     *         positive
+     */
+    public StringPool(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Illegal concurrency level: " +
+                                               concurrencyLevel);
+        }
+        int n = 1;
+        int shift = 0;
+        while (n < concurrencyLevel && n < MAX_STRIPES) {
+            n <<= 1;
+            shift++;
+        }
+        stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeShift = 32 - shift;
+    }
+
+    // -- Keys --
+
+    /**
+     * A sequence of chars being looked up. Implementations compute the
+     * {@link String#hashCode()} of their chars and compare them with a
+     * string without creating a string of their own.
+     */
+    private static abstract class Key {
+        abstract int length();
+        abstract char charAt(int index);
+        abstract String newString();
+
+        final int hash() {
+            int h = 0;
+            for (int i = 0, n = length(); i < n; i++) {
+                h = 31 * h + charAt(i);
+            }
+            return h;
+        }
+
+        final boolean matches(String s) {
+            int n = length();
+            if (s.length() != n) {
+                return false;
+            }
+            for (int i = 0; i < n; i++) {
+                if (s.charAt(i) != charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class CharArrayKey extends Key {
+        private final char[] value;
+        private final int offset;
+        private final int count;
+
+        CharArrayKey(char[] value, int offset, int count) {
+            this.value = value;
+            this.offset = offset;
+            this.count = count;
+        }
+
+        int length()            { return count; }
+        char charAt(int index)  { return value[offset + index]; }
+        String newString()      { return new String(value, offset, count); }
+    }
+
+    private static final class Latin1Key extends Key {
+        private final byte[] value;
+        private final int offset;
+        private final int count;
+
+        Latin1Key(byte[] value, int offset, int count) {
+            this.value = value;
+            this.offset = offset;
+            this.count = count;
+        }
+
+        int length()            { return count; }
+        char charAt(int index)  { return (char)(value[offset + index] & 0xff); }
+
+        @SuppressWarnings("deprecation")
+        String newString() {
+            return new String(value, 0, offset, count);
+        }
+    }
+
+    private static final class CharSequenceKey extends Key {
+        private final CharSequence value;
+        private final int start;
+        private final int count;
+
+        CharSequenceKey(CharSequence value, int start, int end) {
+            this.value = value;
+            this.start = start;
+            this.count = end - start;
+        }
+
+        int length()            { return count; }
+        char charAt(int index)  { return value.charAt(start + index); }
+        String newString()      { return value.subSequence(start, start + count).toString(); }
+    }
+
+    // -- Table --
+
+    /**
+     * An entry of the table. The hash is that of the string, so a cleared
+     * entry can still be found for unlinking.
+     */
+    private static final class Entry extends WeakReference<String> {
+        final int hash;
+        volatile Entry next;
+
+        Entry(String s, int hash, Entry next, ReferenceQueue<String> queue) {
+            super(s, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * One independently locked part of the table. Readers traverse the
+     * chains without locking and may miss an entry while the stripe is
+     * resized; they then retry under the lock before adding anything.
+     */
+    @SuppressWarnings("serial") // Not serialized
+    private final class Stripe extends ReentrantLock {
+        private final ReferenceQueue<String> queue = new ReferenceQueue<>();
+        private volatile AtomicReferenceArray<Entry> table =
+            new AtomicReferenceArray<>(INITIAL_STRIPE_CAPACITY);
+        private volatile int count;
+
+        /**
+         * Returns the pooled string equal to the key, or null.
+         */
+        String find(Key key, int hash) {
+            AtomicReferenceArray<Entry> tab = table;
+            for (Entry e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+                if (e.hash == hash) {
+                    String s = e.get();
+                    if (s != null && key.matches(s)) {
+                        return s;
+                    }
+                }
+            }
+            return null;
+        }
+
+        String findOrAdd(Key key, String str, int hash) {
+            lock();
+            try {
+                expungeStaleEntries();
+                String s = find(key, hash);
+                if (s != null) {
+                    hits.increment();
+                    return s;
+                }
+                misses.increment();
+                if (str == null) {
+                    str = key.newString();
+                }
+                if (count >= threshold()) {
+                    resize();
+                }
+                AtomicReferenceArray<Entry> tab = table;
+                int i = hash & (tab.length() - 1);
+                tab.set(i, new Entry(str, hash, tab.get(i), queue));
+                count++;
+                return str;
+            } finally {
+                unlock();
+            }
+        }
+
+        private int threshold() {
+            int capacity = table.length();
+            return (capacity >= MAX_STRIPE_CAPACITY) ? Integer.MAX_VALUE
+                                                     : capacity - (capacity >>> 2);
+        }
+
+        /**
+         * Doubles the table, relinking the live entries. Called with the
+         * lock held.
+         */
+        private void resize() {
+            AtomicReferenceArray<Entry> oldTab = table;
+            int oldCapacity = oldTab.length();
+            AtomicReferenceArray<Entry> newTab =
+                new AtomicReferenceArray<>(oldCapacity << 1);
+            int mask = newTab.length() - 1;
+            int live = 0;
+            for (int j = 0; j < oldCapacity; j++) {
+                Entry e = oldTab.get(j);
+                while (e != null) {
+                    Entry next = e.next;
+                    if (e.get() != null) {
+                        int i = e.hash & mask;
+                        e.next = newTab.get(i);
+                        newTab.set(i, e);
+                        live++;
+                    }
+                    e = next;
+                }
+            }
+            // Entries dropped here are still queued; unlinking them later is
+            // a no-op, so count them as evicted now.
+            evictions.add(count - live);
+            count = live;
+            table = newTab;
+        }
+
+        /**
+         * Unlinks the entries whose strings have been collected. Called with
+         * the lock held.
+         */
+        void expungeStaleEntries() {
+            for (Object x; (x = queue.poll()) != null; ) {
+                Entry stale = (Entry)x;
+                AtomicReferenceArray<Entry> tab = table;
+                int i = stale.hash & (tab.length() - 1);
+                Entry prev = null;
+                for (Entry e = tab.get(i); e != null; prev = e, e = e.next) {
+                    if (e == stale) {
+                        if (prev == null) {
+                            tab.set(i, e.next);
+                        } else {
+                            prev.next = e.next;
+                        }
+                        count--;
+                        evictions.increment();
+                        break;
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                table = new AtomicReferenceArray<>(INITIAL_STRIPE_CAPACITY);
+                count = 0;
+                while (queue.poll() != null) {
+                    // discard
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        int size() {
+            lock();
+            try {
+                expungeStaleEntries();
+                return count;
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    private Stripe stripeFor(int hash) {
+        // The stripe uses the high bits, the table within it the low bits
+        int h = hash * 0x9E3779B9;
+        return stripes[(stripeShift == 32) ? 0 : h >>> stripeShift];
+    }
+
+    private String lookup(Key key, String str) {
+        int hash = (str != null) ? str.hashCode() : key.hash();
+        Stripe stripe = stripeFor(hash);
+        String s = stripe.find(key, hash);
+        if (s != null) {
+            hits.increment();
+            return s;
+        }
+        return stripe.findOrAdd(key, str, hash);
+    }
+
+    // -- Public operations --
+
+    /**
+     * Returns the canonical representation of the given string in this pool,
+     * adding the string itself if the pool holds no equal string.
+     *
+     * @param s a string
+     * @return a string equal to {@code s}, the same for all equal arguments
+     *         while it remains reachable
+     * @throws NullPointerException if {@code s} is null
+     */
+    public String intern(String s) {
+        return lookup(new CharSequenceKey(s, 0, s.length()), s);
+    }
+
+    /**
+     * Returns the canonical string in this pool equal to the chars of the
+     * given sequence, creating it only if the pool holds no equal string.
+     *
+     * @param cs a char sequence
+     * @return a string equal to {@code cs.toString()}
+     * @throws NullPointerException if {@code cs} is null
+     */
+    public String intern(CharSequence cs) {
+        if (cs instanceof String) {
+            return intern((String)cs);
+        }
+        return intern(cs, 0, cs.length());
+    }
+
+    /**
+     * Returns the canonical string in this pool equal to the given range of
+     * chars of a sequence, creating it only if the pool holds no equal string.
+     *
+     * @param cs a char sequence
+     * @param start the index of the first char, inclusive
+     * @param end the index of the last char, exclusive
+     * @return a string equal to {@code cs.subSequence(start, end).toString()}
+     * @throws NullPointerException if {@code cs} is null
+     * @throws IndexOutOfBoundsException if {@code start} is negative,
+     *         {@code end} is greater than {@code cs.length()}, or
+     *         {@code start} is greater than {@code end}
+     */
+    public String intern(CharSequence cs, int start, int end) {
+        if (start < 0 || start > end || end > cs.length()) {
+            throw new IndexOutOfBoundsException(
+                "start " + start + ", end " + end + ", length " + cs.length());
+        }
+        return lookup(new CharSequenceKey(cs, start, end), null);
+    }
+
+    /**
+     * Returns the canonical string in this pool equal to the given range of a
+     * char array, creating it only if the pool holds no equal string.
+     *
+     * @param value a char array
+     * @param offset the index of the first char
+     * @param count the number of chars
+     * @return a string equal to {@code new String(value, offset, count)}
+     * @throws NullPointerException if {@code value} is null
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code count}
+     *         is negative, or {@code offset + count} is greater than
+     *         {@code value.length}
+     */
+    public String intern(char[] value, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > value.length - count) {
+            throw new IndexOutOfBoundsException(
+                "offset " + offset + ", count " + count + ", length " + value.length);
+        }
+        return lookup(new CharArrayKey(value, offset, count), null);
+    }
+
+    /**
+     * Returns the canonical string in this pool equal to the given range of a
+     * byte array decoded as ISO-8859-1, creating it only if the pool holds no
+     * equal string.
+     *
+     * @param bytes a byte array holding one ISO-8859-1 char per byte
+     * @param offset the index of the first byte
+     * @param count the number of bytes
+     * @return a string equal to {@code new String(bytes, offset, count,
+     *         StandardCharsets.ISO_8859_1)}
+     * @throws NullPointerException if {@code bytes} is null
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code count}
+     *         is negative, or {@code offset + count} is greater than
+     *         {@code bytes.length}
+     */
+    public String internLatin1(byte[] bytes, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > bytes.length - count) {
+            throw new IndexOutOfBoundsException(
+                "offset " + offset + ", count " + count + ", length " + bytes.length);
+        }
+        return lookup(new Latin1Key(bytes, offset, count), null);
+    }
+
+    /**
+     * Returns the canonical string in this pool equal to the given range of a
+     * byte array decoded as UTF-8. When the range is all ASCII the string is
+     * created only if the pool holds no equal string; otherwise the range is
+     * decoded first.
+     *
+     * @param bytes a byte array holding UTF-8 encoded chars
+     * @param offset the index of the first byte
+     * @param count the number of bytes
+     * @return a string equal to {@code new String(bytes, offset, count,
+     *         StandardCharsets.UTF_8)}
+     * @throws NullPointerException if {@code bytes} is null
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code count}
+     *         is negative, or {@code offset + count} is greater than
+     *         {@code bytes.length}
+     */
+    public String internUTF8(byte[] bytes, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > bytes.length - count) {
+            throw new IndexOutOfBoundsException(
+                "offset " + offset + ", count " + count + ", length " + bytes.length);
+        }
+        for (int i = offset, end = offset + count; i < end; i++) {
+            if (bytes[i] < 0) {
+                return intern(new String(bytes, offset, count,
+                                         StandardCharsets.UTF_8));
+            }
+        }
+        return lookup(new Latin1Key(bytes, offset, count), null);
+    }
+
+    /**
+     * Returns the number of strings in this pool. Strings that have been
+     * collected but not yet evicted are not counted.
+     *
+     * @return the number of strings in this pool
+     */
+    public int size() {
+        long n = 0;
+        for (Stripe stripe : stripes) {
+            n += stripe.size();
+        }
+        return (int)Math.min(n, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes all strings from this pool. The statistics are not reset.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found an equal string in this pool.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that added a string to this pool.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of strings evicted from this pool after being
+     * collected.
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns a string describing the size and statistics of this pool.
+     *
+     * @return a string describing this pool
+     */
+    @Override
+    public String toString() {
+        return "StringPool[size=" + size() +
+               ", hits=" + hitCount() +
+               ", misses=" + missCount() +
+               ", evictions=" + evictionCount() + "]";
+    }
+}
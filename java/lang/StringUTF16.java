@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang;
+
+import java.util.Arrays;
+
+import static java.lang.String.COMPACT_STRINGS;
+import static java.lang.String.LATIN1;
+import static java.lang.String.UTF16;
+
+/**
+ * Operations on the {@code byte[]} value of a {@code String} whose coder is
+ * {@link String#UTF16}, holding each UTF-16 code unit in two bytes, high
+ * byte first.
+ */
+final class StringUTF16 {
+
+    /** The maximum number of chars in a UTF-16 value */
+    static final int MAX_LENGTH = Integer.MAX_VALUE >> 1;
+
+    static final int HI_BYTE_SHIFT = 8;
+    static final int LO_BYTE_SHIFT = 0;
+
+    private StringUTF16() { }
+
+    static byte[] newBytesFor(int len) {
+        if (len < 0) {
+            throw new NegativeArraySizeException();
+        }
+        if (len > MAX_LENGTH) {
+            throw new OutOfMemoryError("UTF16 String size is " + len +
+                                       ", should be less than " + MAX_LENGTH);
+        }
+        return new byte[len << 1];
+    }
+
+    static void putChar(byte[] val, int index, int c) {
+        index <<= 1;
+        val[index++] = (byte)(c >> HI_BYTE_SHIFT);
+        val[index]   = (byte)(c >> LO_BYTE_SHIFT);
+    }
+
+    static char getChar(byte[] val, int index) {
+        index <<= 1;
+        return (char)(((val[index++] & 0xff) << HI_BYTE_SHIFT) |
+                      ((val[index]   & 0xff) << LO_BYTE_SHIFT));
+    }
+
+    static int length(byte[] value) {
+        return value.length >> 1;
+    }
+
+    static char charAt(byte[] value, int index) {
+        if (index < 0 || index >= value.length >> 1) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return getChar(value, index);
+    }
+
+    static byte[] toBytes(char[] value, int off, int len) {
+        byte[] val = newBytesFor(len);
+        for (int i = 0; i < len; i++) {
+            putChar(val, i, value[off++]);
+        }
+        return val;
+    }
+
+    static byte[] toBytes(char c) {
+        byte[] result = new byte[2];
+        putChar(result, 0, c);
+        return result;
+    }
+
+    /**
+     * Returns the Latin-1 encoding of the given chars, or {@code null} if any
+     * of them is not a Latin-1 character.
+     */
+    static byte[] compress(char[] val, int off, int len) {
+        byte[] ret = new byte[len];
+        for (int i = 0; i < len; i++) {
+            char c = val[off++];
+            if (c > 0xFF) {
+                return null;
+            }
+            ret[i] = (byte)c;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the Latin-1 encoding of the given range of a UTF-16 value, or
+     * {@code null} if any of its chars is not a Latin-1 character.
+     */
+    static byte[] compress(byte[] val, int off, int len) {
+        byte[] ret = new byte[len];
+        for (int i = 0; i < len; i++) {
+            char c = getChar(val, off++);
+            if (c > 0xFF) {
+                return null;
+            }
+            ret[i] = (byte)c;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a string of the given chars, compressed to Latin-1 if possible.
+     */
+    static String newString(char[] value, int off, int len) {
+        if (COMPACT_STRINGS) {
+            byte[] buf = compress(value, off, len);
+            if (buf != null) {
+                return new String(buf, LATIN1);
+            }
+        }
+        return new String(toBytes(value, off, len), UTF16);
+    }
+
+    /**
+     * Returns a string of the given range of a UTF-16 value, compressed to
+     * Latin-1 if possible.
+     */
+    static String newString(byte[] val, int index, int len) {
+        if (COMPACT_STRINGS) {
+            byte[] buf = compress(val, index, len);
+            if (buf != null) {
+                return new String(buf, LATIN1);
+            }
+        }
+        int last = index + len;
+        return new String(Arrays.copyOfRange(val, index << 1, last << 1), UTF16);
+    }
+
+    static char[] toChars(byte[] value) {
+        char[] dst = new char[value.length >> 1];
+        getChars(value, 0, dst.length, dst, 0);
+        return dst;
+    }
+
+    static void getChars(byte[] value, int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        for (int i = srcBegin; i < srcEnd; i++) {
+            dst[dstBegin++] = getChar(value, i);
+        }
+    }
+
+    static boolean equals(byte[] value, byte[] other) {
+        return StringLatin1.equals(value, other);
+    }
+
+    static int compareTo(byte[] value, byte[] other) {
+        int len1 = length(value);
+        int len2 = length(other);
+        int lim = Math.min(len1, len2);
+        for (int k = 0; k < lim; k++) {
+            char c1 = getChar(value, k);
+            char c2 = getChar(other, k);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return len1 - len2;
+    }
+
+    static int compareToLatin1(byte[] value, byte[] other) {
+        return -StringLatin1.compareToUTF16(other, value);
+    }
+
+    static int hashCode(byte[] value) {
+        int h = 0;
+        int length = value.length >> 1;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + getChar(value, i);
+        }
+        return h;
+    }
+
+    static int indexOf(byte[] value, int ch, int fromIndex) {
+        int max = value.length >> 1;
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        } else if (fromIndex >= max) {
+            // Note: fromIndex might be near -1>>>1.
+            return -1;
+        }
+        if (ch < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            // handle most cases here (ch is a BMP code point or a
+            // negative value (invalid code point))
+            for (int i = fromIndex; i < max; i++) {
+                if (getChar(value, i) == ch) {
+                    return i;
+                }
+            }
+            return -1;
+        } else {
+            return indexOfSupplementary(value, ch, fromIndex, max);
+        }
+    }
+
+    private static int indexOfSupplementary(byte[] value, int ch, int fromIndex, int max) {
+        if (Character.isValidCodePoint(ch)) {
+            final char hi = Character.highSurrogate(ch);
+            final char lo = Character.lowSurrogate(ch);
+            for (int i = fromIndex; i < max - 1; i++) {
+                if (getChar(value, i) == hi && getChar(value, i + 1 ) == lo) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    static int lastIndexOf(byte[] value, int ch, int fromIndex) {
+        if (ch < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            // handle most cases here (ch is a BMP code point or a
+            // negative value (invalid code point))
+            int i = Math.min(fromIndex, (value.length >> 1) - 1);
+            for (; i >= 0; i--) {
+                if (getChar(value, i) == ch) {
+                    return i;
+                }
+            }
+            return -1;
+        } else {
+            return lastIndexOfSupplementary(value, ch, fromIndex);
+        }
+    }
+
+    private static int lastIndexOfSupplementary(byte[] value, int ch, int fromIndex) {
+        if (Character.isValidCodePoint(ch)) {
+            char hi = Character.highSurrogate(ch);
+            char lo = Character.lowSurrogate(ch);
+            int i = Math.min(fromIndex, (value.length >> 1) - 2);
+            for (; i >= 0; i--) {
+                if (getChar(value, i) == hi && getChar(value, i + 1) == lo) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the UTF-16 target at or
+     * after {@code fromIndex}, following the rules of
+     * {@link String#indexOf(String, int)}.
+     */
+    static int indexOf(byte[] value, byte[] str, int fromIndex) {
+        int valueCount = length(value);
+        int strCount = length(str);
+        if (fromIndex >= valueCount) {
+            return (strCount == 0 ? valueCount : -1);
+        }
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        if (strCount == 0) {
+            return fromIndex;
+        }
+        char first = getChar(str, 0);
+        int max = valueCount - strCount;
+        for (int i = fromIndex; i <= max; i++) {
+            // Look for first character.
+            if (getChar(value, i) != first) {
+                while (++i <= max && getChar(value, i) != first);
+            }
+            // Found first character, now look at the rest of value
+            if (i <= max) {
+                int j = i + 1;
+                int end = j + strCount - 1;
+                for (int k = 1; j < end && getChar(value, j) == getChar(str, k); j++, k++);
+                if (j == end) {
+                    // Found whole string.
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the Latin-1 target at or
+     * after {@code fromIndex}, following the rules of
+     * {@link String#indexOf(String, int)}.
+     */
+    static int indexOfLatin1(byte[] value, byte[] str, int fromIndex) {
+        int valueCount = length(value);
+        int strCount = str.length;
+        if (fromIndex >= valueCount) {
+            return (strCount == 0 ? valueCount : -1);
+        }
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        if (strCount == 0) {
+            return fromIndex;
+        }
+        char first = (char)(str[0] & 0xff);
+        int max = valueCount - strCount;
+        for (int i = fromIndex; i <= max; i++) {
+            // Look for first character.
+            if (getChar(value, i) != first) {
+                while (++i <= max && getChar(value, i) != first);
+            }
+            // Found first character, now look at the rest of value
+            if (i <= max) {
+                int j = i + 1;
+                int end = j + strCount - 1;
+                for (int k = 1;
+                     j < end && getChar(value, j) == (str[k] & 0xff);
+                     j++, k++);
+                if (j == end) {
+                    // Found whole string.
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the target, UTF-16 if
+     * {@code strCoder} is {@code UTF16} and Latin-1 otherwise, at or before
+     * {@code fromIndex}, following the rules of
+     * {@link String#lastIndexOf(String, int)}.
+     */
+    static int lastIndexOf(byte[] value, byte[] str, byte strCoder, int fromIndex) {
+        int strCount = (strCoder == UTF16) ? length(str) : str.length;
+        int rightIndex = length(value) - strCount;
+        if (fromIndex < 0) {
+            return -1;
+        }
+        if (fromIndex > rightIndex) {
+            fromIndex = rightIndex;
+        }
+        // Empty string always matches.
+        if (strCount == 0) {
+            return fromIndex;
+        }
+        int strLastIndex = strCount - 1;
+        char strLastChar = charOf(str, strCoder, strLastIndex);
+        int min = strLastIndex;
+        int i = min + fromIndex;
+
+    startSearchForLastChar:
+        while (true) {
+            while (i >= min && getChar(value, i) != strLastChar) {
+                i--;
+            }
+            if (i < min) {
+                return -1;
+            }
+            int j = i - 1;
+            int start = j - strLastIndex;
+            int k = strLastIndex - 1;
+            while (j > start) {
+                if (getChar(value, j--) != charOf(str, strCoder, k--)) {
+                    i--;
+                    continue startSearchForLastChar;
+                }
+            }
+            return start + 1;
+        }
+    }
+
+    private static char charOf(byte[] str, byte coder, int index) {
+        return (coder == UTF16) ? getChar(str, index) : (char)(str[index] & 0xff);
+    }
+
+    static int codePointAt(byte[] value, int index, int end) {
+        char c1 = getChar(value, index);
+        if (Character.isHighSurrogate(c1) && ++index < end) {
+            char c2 = getChar(value, index);
+            if (Character.isLowSurrogate(c2)) {
+               return Character.toCodePoint(c1, c2);
+            }
+        }
+        return c1;
+    }
+
+    static int codePointBefore(byte[] value, int index) {
+        char c2 = getChar(value, --index);
+        if (Character.isLowSurrogate(c2) && index > 0) {
+            char c1 = getChar(value, --index);
+            if (Character.isHighSurrogate(c1)) {
+               return Character.toCodePoint(c1, c2);
+            }
+        }
+        return c2;
+    }
+
+    static int codePointCount(byte[] value, int beginIndex, int endIndex) {
+        int count = endIndex - beginIndex;
+        for (int i = beginIndex; i < endIndex; ) {
+            if (Character.isHighSurrogate(getChar(value, i++)) &&
+                i < endIndex &&
+                Character.isLowSurrogate(getChar(value, i))) {
+                count--;
+                i++;
+            }
+        }
+        return count;
+    }
+
+    static int offsetByCodePoints(byte[] value, int index, int codePointOffset) {
+        int length = length(value);
+        int x = index;
+        if (codePointOffset >= 0) {
+            int i;
+            for (i = 0; x < length && i < codePointOffset; i++) {
+                if (Character.isHighSurrogate(getChar(value, x++)) && x < length &&
+                    Character.isLowSurrogate(getChar(value, x))) {
+                    x++;
+                }
+            }
+            if (i < codePointOffset) {
+                throw new IndexOutOfBoundsException();
+            }
+        } else {
+            int i;
+            for (i = codePointOffset; x > 0 && i < 0; i++) {
+                if (Character.isLowSurrogate(getChar(value, --x)) && x > 0 &&
+                    Character.isHighSurrogate(getChar(value, x - 1))) {
+                    x--;
+                }
+            }
+            if (i < 0) {
+                throw new IndexOutOfBoundsException();
+            }
+        }
+        return x;
+    }
+}
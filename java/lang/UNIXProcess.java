@@ -34,14 +34,19 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channel;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.security.AccessController;
 import static java.security.AccessController.doPrivileged;
 import java.security.PrivilegedAction;
@@ -68,6 +73,15 @@ final class UNIXProcess extends Process {
     private /* final */ InputStream  stdout;
     private /* final */ InputStream  stderr;
 
+    // only used if the pipes are selectable channels
+    private /* final */ Pipe.SinkChannel   stdinChannel;
+    private /* final */ Pipe.SourceChannel stdoutChannel;
+    private /* final */ Pipe.SourceChannel stderrChannel;
+
+    // completed by the process reaper, see onExit()
+    private final CompletableFuture<Process> exitFuture =
+        new CompletableFuture<>();
+
     // only used on Solaris
     private /* final */ DeferredCloseInputStream stdout_inner_stream;
 
@@ -241,7 +255,8 @@ final class UNIXProcess extends Process {
                 final byte[] envBlock, final int envc,
                 final byte[] dir,
                 final int[] fds,
-                final boolean redirectErrorStream)
+                final boolean redirectErrorStream,
+                final Channel[] channels)
             throws IOException {
 
         pid = forkAndExec(launchMechanism.ordinal() + 1,
@@ -255,7 +270,10 @@ final class UNIXProcess extends Process {
 
         try {
             doPrivileged((PrivilegedExceptionAction<Void>) () -> {
-                initStreams(fds);
+                if (channels != null)
+                    initChannels(channels);
+                else
+                    initStreams(fds);
                 return null;
             });
         } catch (PrivilegedActionException ex) {
@@ -269,6 +287,42 @@ final class UNIXProcess extends Process {
         return fileDescriptor;
     }
 
+    /**
+     * Uses the selectable pipes created by ProcessImpl, whose child ends
+     * have already been closed.  The parent ends belong to the caller from
+     * now on, so unlike the pipes created by forkAndExec there is nothing
+     * for the reaper to reclaim when the process exits.
+     */
+    void initChannels(Channel[] channels) {
+        stdinChannel  = (Pipe.SinkChannel)   channels[0];
+        stdoutChannel = (Pipe.SourceChannel) channels[1];
+        stderrChannel = (Pipe.SourceChannel) channels[2];
+
+        stdin = (stdinChannel == null) ?
+                ProcessBuilder.NullOutputStream.INSTANCE :
+                new BufferedOutputStream(Channels.newOutputStream(stdinChannel));
+
+        stdout = (stdoutChannel == null) ?
+                 ProcessBuilder.NullInputStream.INSTANCE :
+                 new BufferedInputStream(Channels.newInputStream(stdoutChannel));
+
+        stderr = (stderrChannel == null) ?
+                 ProcessBuilder.NullInputStream.INSTANCE :
+                 new BufferedInputStream(Channels.newInputStream(stderrChannel));
+
+        processReaperExecutor.execute(() -> {
+            int exitcode = waitForProcessExit(pid);
+
+            synchronized (this) {
+                this.exitcode = exitcode;
+                this.hasExited = true;
+                this.notifyAll();
+            }
+
+            exitFuture.complete(this);
+        });
+    }
+
     void initStreams(int[] fds) throws IOException {
         switch (platform) {
             case LINUX:
@@ -302,6 +356,8 @@ final class UNIXProcess extends Process {
 
                     if (stdin instanceof ProcessPipeOutputStream)
                         ((ProcessPipeOutputStream) stdin).processExited();
+
+                    exitFuture.complete(this);
                 });
                 break;
 
@@ -338,6 +394,8 @@ final class UNIXProcess extends Process {
                         this.hasExited = true;
                         this.notifyAll();
                     }
+
+                    exitFuture.complete(this);
                 });
                 break;
 
@@ -371,6 +429,8 @@ final class UNIXProcess extends Process {
 
                     if (stdin instanceof ProcessPipeOutputStream)
                         ((ProcessPipeOutputStream) stdin).processExited();
+
+                    exitFuture.complete(this);
                 });
                 break;
 
@@ -390,6 +450,21 @@ final class UNIXProcess extends Process {
         return stderr;
     }
 
+    @Override
+    public Pipe.SinkChannel getOutputChannel() {
+        return stdinChannel;
+    }
+
+    @Override
+    public Pipe.SourceChannel getInputChannel() {
+        return stdoutChannel;
+    }
+
+    @Override
+    public Pipe.SourceChannel getErrorChannel() {
+        return stderrChannel;
+    }
+
     public synchronized int waitFor() throws InterruptedException {
         while (!hasExited) {
             wait();
@@ -428,6 +503,18 @@ final class UNIXProcess extends Process {
     private static native void destroyProcess(int pid, boolean force);
 
     private void destroy(boolean force) {
+        if (stdoutChannel != null || stderrChannel != null || stdinChannel != null) {
+            // Closing a channel never blocks on a pending read, so the
+            // Solaris and AIX deferred close is not needed here.
+            synchronized (this) {
+                if (!hasExited)
+                    destroyProcess(pid, force);
+            }
+            try { stdin.close();  } catch (IOException ignored) {}
+            try { stdout.close(); } catch (IOException ignored) {}
+            try { stderr.close(); } catch (IOException ignored) {}
+            return;
+        }
         switch (platform) {
             case LINUX:
             case BSD:
@@ -489,6 +576,18 @@ final class UNIXProcess extends Process {
         return !hasExited;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The future is completed from the reaper task that already waits
+     * for this process, after any pipes have been reclaimed; dependent
+     * actions never run in the reaper itself.
+     */
+    @Override
+    public CompletableFuture<Process> onExit() {
+        return exitFuture.thenApplyAsync(Function.identity());
+    }
+
     private static native void init();
 
     static {
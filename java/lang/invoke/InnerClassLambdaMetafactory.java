@@ -247,6 +247,15 @@ import static jdk.internal.org.objectweb.asm.Opcodes.*;
      * is not found
      */
     private Class<?> spinInnerClass() throws LambdaConversionException {
+        // Define the class recorded by a training run, if there is one
+        final String archiveKey = SpunClassArchive.ENABLED ? archiveKey() : null;
+        if (archiveKey != null) {
+            byte[] archivedBytes = SpunClassArchive.lookup(archiveKey);
+            if (archivedBytes != null) {
+                return UNSAFE.defineAnonymousClass(targetClass, archivedBytes, null);
+            }
+        }
+
         String[] interfaces;
         String samIntf = samBase.getName().replace('.', '/');
         boolean accidentallySerializable = !isSerializable && Serializable.class.isAssignableFrom(samBase);
@@ -323,9 +332,36 @@ import static jdk.internal.org.objectweb.asm.Opcodes.*;
             new PropertyPermission("user.dir", "read"));
         }
 
+        if (archiveKey != null) {
+            SpunClassArchive.record(archiveKey, classBytes);
+        }
+
         return UNSAFE.defineAnonymousClass(targetClass, classBytes, null);
     }
 
+    /**
+     * Returns the key under which {@link SpunClassArchive} records the
+     * class spun for this call site.  Apart from the counter in the class
+     * name, the generated bytes depend on nothing else.
+     */
+    private String archiveKey() {
+        StringBuilder buf = new StringBuilder("lambda ");
+        buf.append(targetClass.getName())
+           .append(' ').append(invokedType.toMethodDescriptorString())
+           .append(' ').append(samMethodName).append(samMethodType.toMethodDescriptorString())
+           .append(' ').append(implKind).append(' ').append(implMethodClassName)
+           .append('.').append(implMethodName).append(implMethodDesc)
+           .append(' ').append(instantiatedMethodType.toMethodDescriptorString())
+           .append(' ').append(isSerializable);
+        for (Class<?> markerInterface : markerInterfaces) {
+            buf.append(" +").append(markerInterface.getName());
+        }
+        for (MethodType mt : additionalBridges) {
+            buf.append(" &").append(mt.toMethodDescriptorString());
+        }
+        return buf.toString();
+    }
+
     /**
      * Generate the factory method for the class
      */
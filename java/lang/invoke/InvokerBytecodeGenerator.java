@@ -277,6 +277,32 @@ class InvokerBytecodeGenerator {
         return resolveInvokerMember(invokerClass, invokerName, invokerType);
     }
 
+    /**
+     * Generates the class for {@code archiveKey} unless a training run
+     * recorded it, and extracts the MemberName of its method.  Classes
+     * that need constant pool patches are neither looked up nor
+     * recorded, as the archive cannot hold the patched objects.
+     */
+    private MemberName loadMethod(String archiveKey, Generator generator) {
+        if (archiveKey != null) {
+            byte[] archived = SpunClassArchive.lookup(archiveKey);
+            if (archived != null) {
+                Class<?> invokerClass = loadAndInitializeInvokerClass(archived, null);
+                return resolveInvokerMember(invokerClass, invokerName, invokerType);
+            }
+        }
+        byte[] classFile = generator.generate();
+        if (archiveKey != null && cpPatches.isEmpty()) {
+            SpunClassArchive.record(archiveKey, classFile);
+        }
+        return loadMethod(classFile);
+    }
+
+    /** One of the class file generators, for {@link #loadMethod(String, Generator)}. */
+    private interface Generator {
+        byte[] generate();
+    }
+
     /**
      * Define a given class as anonymous class in the runtime system.
      */
@@ -614,8 +640,62 @@ class InvokerBytecodeGenerator {
      * Generate customized bytecode for a given LambdaForm.
      */
     static MemberName generateCustomizedCode(LambdaForm form, MethodType invokerType) {
-        InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("MH", form, invokerType);
-        return g.loadMethod(g.generateCustomizedCodeBytes());
+        final InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("MH", form, invokerType);
+        String archiveKey = SpunClassArchive.ENABLED ? archiveKey(form, invokerType) : null;
+        return g.loadMethod(archiveKey, new Generator() {
+            @Override
+            public byte[] generate() {
+                return g.generateCustomizedCodeBytes();
+            }
+        });
+    }
+
+    /**
+     * Returns the key under which {@link SpunClassArchive} records the
+     * code generated for {@code form}, or {@code null} if the form is
+     * customized to a method handle.  The key spells out everything the
+     * generated bytes depend on, with classes and members by name.
+     */
+    private static String archiveKey(LambdaForm form, MethodType invokerType) {
+        if (form.customized != null)  return null;
+        StringBuilder buf = new StringBuilder("MH ");
+        buf.append(form.debugName).append(' ')
+           .append(invokerType.toMethodDescriptorString()).append(' ')
+           .append(form.arity).append(' ').append(form.result).append(' ')
+           .append(form.forceInline);
+        for (Name name : form.names) {
+            buf.append('\n').append(name.type.basicTypeChar());
+            if (name.constraint != null)
+                buf.append('/').append(constantKey(name.constraint));
+            NamedFunction function = name.function;
+            if (function == null)  continue;
+            buf.append('=').append(function.intrinsicName())
+               .append(' ').append(function.methodType().toMethodDescriptorString());
+            MemberName member = function.member();
+            if (member != null) {
+                buf.append(' ').append(member.getDeclaringClass().getName())
+                   .append('.').append(member.getName())
+                   .append(member.getMethodOrFieldType().toMethodDescriptorString())
+                   .append('/').append(member.getReferenceKind())
+                   .append(isStaticallyInvocable(member) ? 'S' : 'V');
+            }
+            for (Object arg : name.arguments) {
+                buf.append(' ');
+                if (arg instanceof Name)
+                    buf.append(((Name) arg).index());
+                else
+                    buf.append(constantKey(arg));
+            }
+        }
+        return buf.toString();
+    }
+
+    private static String constantKey(Object c) {
+        if (c instanceof Class) {
+            Class<?> cls = (Class<?>) c;
+            return "class " + cls.getName() + (isStaticallyNameable(cls) ? "" : "?");
+        }
+        return c.getClass().getName() + " " + c;
     }
 
     /** Generates code to check that actual receiver and LambdaForm matches */
@@ -1309,8 +1389,14 @@ class InvokerBytecodeGenerator {
         String name = "interpret_"+signatureReturn(sig).basicTypeChar();
         MethodType type = signatureType(sig);  // sig includes leading argument
         type = type.changeParameterType(0, MethodHandle.class);
-        InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("LFI", name, type);
-        return g.loadMethod(g.generateLambdaFormInterpreterEntryPointBytes());
+        final InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("LFI", name, type);
+        String archiveKey = SpunClassArchive.ENABLED ? "LFI " + sig : null;
+        return g.loadMethod(archiveKey, new Generator() {
+            @Override
+            public byte[] generate() {
+                return g.generateLambdaFormInterpreterEntryPointBytes();
+            }
+        });
     }
 
     private byte[] generateLambdaFormInterpreterEntryPointBytes() {
@@ -1367,8 +1453,15 @@ class InvokerBytecodeGenerator {
     static MemberName generateNamedFunctionInvoker(MethodTypeForm typeForm) {
         MethodType invokerType = NamedFunction.INVOKER_METHOD_TYPE;
         String invokerName = "invoke_" + shortenSignature(basicTypeSignature(typeForm.erasedType()));
-        InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("NFI", invokerName, invokerType);
-        return g.loadMethod(g.generateNamedFunctionInvokerImpl(typeForm));
+        final InvokerBytecodeGenerator g = new InvokerBytecodeGenerator("NFI", invokerName, invokerType);
+        String archiveKey = SpunClassArchive.ENABLED
+            ? "NFI " + typeForm.erasedType().toMethodDescriptorString() : null;
+        return g.loadMethod(archiveKey, new Generator() {
+            @Override
+            public byte[] generate() {
+                return g.generateNamedFunctionInvokerImpl(typeForm);
+            }
+        });
     }
 
     private byte[] generateNamedFunctionInvokerImpl(MethodTypeForm typeForm) {
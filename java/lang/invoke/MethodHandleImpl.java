@@ -25,6 +25,9 @@
 
 package java.lang.invoke;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -61,6 +64,34 @@ import static java.lang.invoke.MethodHandles.Lookup.IMPL_LOOKUP;
         MAX_ARITY = (Integer) values[0];
     }
 
+    static {
+        // Lets core reflection and proxies build their accessors out of
+        // direct method handles.  The trusted lookup is used because java.lang.reflect
+        // has already done the language-level access checks.
+        sun.misc.SharedSecrets.setJavaLangInvokeAccess(new sun.misc.JavaLangInvokeAccess() {
+            @Override
+            public MethodHandle unreflect(Method m) throws IllegalAccessException {
+                return IMPL_LOOKUP.unreflect(m);
+            }
+            @Override
+            public MethodHandle unreflectConstructor(Constructor<?> c) throws IllegalAccessException {
+                return IMPL_LOOKUP.unreflectConstructor(c);
+            }
+            @Override
+            public MethodHandle unreflectSpecial(Method m, Class<?> specialCaller) throws IllegalAccessException {
+                return IMPL_LOOKUP.unreflectSpecial(m, specialCaller);
+            }
+            @Override
+            public MethodHandle unreflectField(Field f, boolean isSetter) throws IllegalAccessException {
+                return isSetter ? IMPL_LOOKUP.unreflectSetter(f) : IMPL_LOOKUP.unreflectGetter(f);
+            }
+            @Override
+            public boolean isCallerSensitive(Method m) {
+                return MethodHandleNatives.isCallerSensitive(new MemberName(m));
+            }
+        });
+    }
+
     /// Factory methods to create method handles:
 
     static void initStatics() {
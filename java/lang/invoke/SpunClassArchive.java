@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.invoke;
+
+import sun.security.action.GetPropertyAction;
+import sun.util.logging.PlatformLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilePermission;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PropertyPermission;
+
+/**
+ * An archive of the lambda proxy classes spun by InnerClassLambdaMetafactory
+ * and the LambdaForm classes spun by InvokerBytecodeGenerator, keyed by a
+ * string that determines the generated bytes.
+ *
+ * <p>A training run started with
+ * {@code -Djdk.internal.lambda.archive.dump=<file>} records every class it
+ * spins, in the same places where
+ * {@code jdk.internal.lambda.dumpProxyClasses} dumps them, into
+ * {@code <file>}.  Later runs started with
+ * {@code -Djdk.internal.lambda.archive=<file>} define the recorded bytes
+ * directly when the same key is requested, and spin classes only for
+ * keys the training run did not see.  An archive written by a different
+ * Java runtime version is ignored.
+ *
+ * <p>The archive is trusted as much as the runtime image: its classes are
+ * defined as anonymous classes of their host classes without further
+ * checks.
+ *
+ * <p>The file consists of a header, followed by any number of records:
+ * <pre>
+ *     int    magic
+ *     UTF    runtime version
+ *     { UTF key; int length; byte[length] classBytes }*
+ * </pre>
+ *
+ * @implNote
+ * <p> Like ProxyClassesDumper, this class must not use lambdas or method
+ * references, as they would recursively enter the metafactory.
+ */
+final class SpunClassArchive {
+    private static final int MAGIC = 0xCAFEA7C1;
+
+    private static final String ARCHIVE_KEY = "jdk.internal.lambda.archive";
+    private static final String DUMP_KEY = "jdk.internal.lambda.archive.dump";
+
+    /** Classes recorded by a training run, or null. */
+    private static final Map<String, byte[]> archived;
+
+    /** Recording stream of a training run, or null. */
+    private static final DataOutputStream recorder;
+
+    /** True if keys need to be computed at all. */
+    static final boolean ENABLED;
+
+    static {
+        String archivePath = getProperty(ARCHIVE_KEY);
+        String dumpPath = getProperty(DUMP_KEY);
+        String version = getProperty("java.runtime.version") + " " +
+                         getProperty("java.vm.version");
+        archived = (archivePath == null) ? null : load(archivePath.trim(), version);
+        recorder = (dumpPath == null) ? null : open(dumpPath.trim(), version);
+        ENABLED = (archived != null || recorder != null);
+    }
+
+    private SpunClassArchive() {}
+
+    /**
+     * Returns the class bytes recorded for {@code key}, or {@code null}.
+     */
+    static byte[] lookup(String key) {
+        Map<String, byte[]> map = archived;
+        // null while the archive itself is being loaded
+        return (map == null) ? null : map.get(key);
+    }
+
+    /**
+     * Records the class bytes spun for {@code key} during a training run.
+     */
+    static void record(String key, byte[] classBytes) {
+        DataOutputStream out = recorder;
+        if (out == null) {
+            return;
+        }
+        synchronized (out) {
+            try {
+                out.writeUTF(key);
+                out.writeInt(classBytes.length);
+                out.write(classBytes);
+                out.flush();
+            } catch (UTFDataFormatException e) {
+                // key too long to record; nothing was written
+            } catch (IOException e) {
+                PlatformLogger.getLogger(SpunClassArchive.class.getName())
+                              .warning("Exception writing to " + DUMP_KEY, e);
+            }
+        }
+    }
+
+    private static String getProperty(final String key) {
+        return AccessController.doPrivileged(
+                new GetPropertyAction(key), null,
+                new PropertyPermission(key, "read"));
+    }
+
+    private static Map<String, byte[]> load(final String path, final String version) {
+        return AccessController.doPrivileged(new PrivilegedAction<Map<String, byte[]>>() {
+            @Override
+            public Map<String, byte[]> run() {
+                Map<String, byte[]> map = new HashMap<>();
+                try (DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(new FileInputStream(path)))) {
+                    if (in.readInt() != MAGIC || !in.readUTF().equals(version)) {
+                        PlatformLogger.getLogger(SpunClassArchive.class.getName())
+                                      .warning("Archive " + path + " was not written by this runtime - ignored");
+                        return null;
+                    }
+                    for (;;) {
+                        String key;
+                        try {
+                            key = in.readUTF();
+                        } catch (EOFException eof) {
+                            break;
+                        }
+                        byte[] classBytes = new byte[in.readInt()];
+                        in.readFully(classBytes);
+                        map.putIfAbsent(key, classBytes);
+                    }
+                } catch (EOFException e) {
+                    // a truncated last record, e.g. from a training run that
+                    // was killed; keep the complete ones
+                } catch (IOException e) {
+                    PlatformLogger.getLogger(SpunClassArchive.class.getName())
+                                  .warning("Cannot read archive " + path + " - ignored", e);
+                    return null;
+                }
+                return map;
+            }
+        }, null, new FilePermission(path, "read"));
+    }
+
+    private static DataOutputStream open(final String path, final String version) {
+        return AccessController.doPrivileged(new PrivilegedAction<DataOutputStream>() {
+            @Override
+            public DataOutputStream run() {
+                try {
+                    DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(path)));
+                    out.writeInt(MAGIC);
+                    out.writeUTF(version);
+                    out.flush();
+                    return out;
+                } catch (IOException e) {
+                    PlatformLogger.getLogger(SpunClassArchive.class.getName())
+                                  .warning("Cannot write " + path + " - recording disabled", e);
+                    return null;
+                }
+            }
+        }, null, new FilePermission(path, "write"));
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.invoke;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static java.lang.invoke.MethodHandleStatics.*;
+import static java.lang.invoke.MethodHandles.Lookup.IMPL_LOOKUP;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * <p>Methods to facilitate the creation of String concatenation methods, that
+ * can be used to efficiently concatenate a known number of arguments of known
+ * types, possibly after type adaptation and partial evaluation of arguments.
+ * These methods are typically used as <em>bootstrap methods</em> for {@code
+ * invokedynamic} call sites, to support the <em>string concatenation</em>
+ * feature of the Java Programming Language.
+ *
+ * <p>A compiler emitting a single {@code invokedynamic} per concatenation
+ * expression, instead of a chain of {@link StringBuilder#append} calls, lets
+ * the strategy be chosen once, when the call site is linked. The strategy
+ * linked here computes the exact length and coder of the result from the
+ * argument values, allocates the result storage once, fills it from the end
+ * and wraps it into a {@code String} without copying. Unlike the builder
+ * chain, it never over-allocates, resizes or copies the result.
+ *
+ * <p>Concatenation evaluates each argument's string form exactly once and
+ * left to right: reference arguments are converted as if by
+ * {@link String#valueOf(Object)}, primitive arguments as if by the
+ * corresponding {@code String.valueOf} method. Only the arguments and
+ * constants described by the recipe take part; nothing else is observable.
+ *
+ * @since 1.8
+ */
+public final class StringConcatFactory {
+
+    /**
+     * Tag used to demarcate an ordinary argument.
+     */
+    private static final char TAG_ARG = '\u0001';
+
+    /**
+     * Tag used to demarcate a constant.
+     */
+    private static final char TAG_CONST = '\u0002';
+
+    /**
+     * Maximum number of argument slots in String Concat call.
+     *
+     * While the maximum number of argument slots that indy call can handle is 253,
+     * we do not use all those slots, to let the strategies with MethodHandle
+     * combinators to use some arguments.
+     */
+    private static final int MAX_INDY_CONCAT_ARG_SLOTS = 200;
+
+    /**
+     * The Latin-1 coder of {@code java.lang.String}.
+     */
+    private static final byte LATIN1_CODER = 0;
+
+    private static final Class<?> STRING_HELPER;
+
+    private static final MethodHandle NEW_STRING;
+    private static final MethodHandle NEW_STRING_OF;
+    private static final MethodHandle NEW_ARRAY;
+    private static final MethodHandle STRING_OF;
+    private static final MethodHandle FLOAT_STRING;
+    private static final MethodHandle DOUBLE_STRING;
+    private static final MethodHandle INITIAL_CODER;
+
+    static {
+        try {
+            STRING_HELPER = Class.forName("java.lang.StringConcatHelper");
+            NEW_STRING    = lookupStatic(STRING_HELPER, "newString",
+                                         String.class, int.class, byte[].class, byte.class);
+            NEW_STRING_OF = lookupStatic(STRING_HELPER, "newStringOf",
+                                         String.class, Object.class);
+            NEW_ARRAY     = lookupStatic(STRING_HELPER, "newArray",
+                                         byte[].class, int.class, byte.class);
+            STRING_OF     = lookupStatic(STRING_HELPER, "stringOf",
+                                         String.class, Object.class);
+            INITIAL_CODER = lookupStatic(STRING_HELPER, "initialCoder",
+                                         byte.class);
+            FLOAT_STRING  = lookupStatic(String.class, "valueOf",
+                                         String.class, float.class);
+            DOUBLE_STRING = lookupStatic(String.class, "valueOf",
+                                         String.class, double.class);
+        } catch (ClassNotFoundException ex) {
+            throw newInternalError(ex);
+        }
+    }
+
+    /**
+     * The argument types the helper methods are specialized for. Every other
+     * argument is converted to one of these before it reaches them.
+     */
+    private static final Class<?>[] HELPER_TYPES = {
+        boolean.class, char.class, int.class, long.class, String.class
+    };
+
+    private static final MethodHandle[] MIX_LEN = new MethodHandle[HELPER_TYPES.length];
+    private static final MethodHandle[] MIX_CODER = new MethodHandle[HELPER_TYPES.length];
+    private static final MethodHandle[] PREPEND = new MethodHandle[HELPER_TYPES.length];
+
+    static {
+        for (int i = 0; i < HELPER_TYPES.length; i++) {
+            Class<?> t = HELPER_TYPES[i];
+            MIX_LEN[i] = lookupStatic(STRING_HELPER, "mixLen",
+                                      int.class, int.class, t);
+            PREPEND[i] = lookupStatic(STRING_HELPER, "prepend",
+                                      int.class, int.class, byte[].class, byte.class, t);
+            // Only chars and strings can widen the coder
+            if (t == char.class || t == String.class) {
+                MIX_CODER[i] = lookupStatic(STRING_HELPER, "mixCoder",
+                                            byte.class, byte.class, t);
+            }
+        }
+    }
+
+    private static MethodHandle lookupStatic(Class<?> refc, String name,
+                                             Class<?> rtype, Class<?>... ptypes) {
+        try {
+            return IMPL_LOOKUP.findStatic(refc, name, methodType(rtype, ptypes));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw newInternalError(ex);
+        }
+    }
+
+    private StringConcatFactory() {
+        // no instantiation
+    }
+
+    /**
+     * Facilitates the creation of optimized String concatenation methods, that
+     * can be used to efficiently concatenate a known number of arguments of
+     * known types, possibly after type adaptation and partial evaluation of
+     * arguments. Typically used as a <em>bootstrap method</em> for {@code
+     * invokedynamic} call sites, to support the <em>string concatenation</em>
+     * feature of the Java Programming Language.
+     *
+     * <p>The result of the returned call site's target is the concatenation of
+     * the string forms of all its arguments, in order.
+     *
+     * @param lookup     Represents a lookup context with the accessibility
+     *                   privileges of the caller. When used with {@code
+     *                   invokedynamic}, this is stacked automatically by the VM.
+     * @param name       The name of the method to implement. This name is
+     *                   arbitrary, and has no meaning for this linkage method.
+     *                   When used with {@code invokedynamic}, this is provided
+     *                   by the {@code NameAndType} of the {@code InvokeDynamic}
+     *                   structure and is stacked automatically by the VM.
+     * @param concatType The expected signature of the {@code CallSite}. The
+     *                   parameter types represent the types of concatenation
+     *                   arguments; the return type is always assignable from
+     *                   {@link java.lang.String}. When used with {@code
+     *                   invokedynamic}, this is provided by the {@code
+     *                   NameAndType} of the {@code InvokeDynamic} structure and
+     *                   is stacked automatically by the VM.
+     * @return a CallSite whose target can be used to perform String
+     * concatenation, with dynamic concatenation arguments described by the given
+     * {@code concatType}.
+     * @throws StringConcatException If any of the linkage invariants described
+     *                               here are violated: the return type is not
+     *                               {@code String}, or the parameters take more
+     *                               than 200 slots.
+     * @throws NullPointerException If any of the incoming arguments is null.
+     */
+    public static CallSite makeConcat(MethodHandles.Lookup lookup,
+                                      String name,
+                                      MethodType concatType) throws StringConcatException {
+        Objects.requireNonNull(lookup, "Lookup is null");
+        Objects.requireNonNull(name, "Name is null");
+        Objects.requireNonNull(concatType, "Concat type is null");
+
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; i < concatType.parameterCount(); i++) {
+            elements.add(i);
+        }
+        return doStringConcat(concatType, elements);
+    }
+
+    /**
+     * Facilitates the creation of optimized String concatenation methods, that
+     * can be used to efficiently concatenate a known number of arguments of
+     * known types, possibly after type adaptation and partial evaluation of
+     * arguments. Typically used as a <em>bootstrap method</em> for {@code
+     * invokedynamic} call sites, to support the <em>string concatenation</em>
+     * feature of the Java Programming Language.
+     *
+     * <p>The result of the returned call site's target is the concatenation
+     * described by {@code recipe}: each {@code "\1"} stands for the next
+     * dynamic argument, each {@code "\2"} for the next value of {@code
+     * constants}, and every other character stands for itself.
+     *
+     * @param lookup     Represents a lookup context with the accessibility
+     *                   privileges of the caller. When used with {@code
+     *                   invokedynamic}, this is stacked automatically by the VM.
+     * @param name       The name of the method to implement. This name is
+     *                   arbitrary, and has no meaning for this linkage method.
+     * @param concatType The expected signature of the {@code CallSite}. The
+     *                   parameter types represent the types of dynamic
+     *                   concatenation arguments; the return type is always
+     *                   assignable from {@link java.lang.String}.
+     * @param recipe     Concatenation recipe, described above.
+     * @param constants  A vararg parameter representing the constants passed
+     *                   to the linkage method. Their string forms are taken
+     *                   once, at link time.
+     * @return a CallSite whose target can be used to perform String
+     * concatenation, with dynamic concatenation arguments described by the given
+     * {@code concatType}.
+     * @throws StringConcatException If any of the linkage invariants described
+     *                               here are violated: the return type is not
+     *                               {@code String}, the parameters take more
+     *                               than 200 slots, or the recipe does not
+     *                               use exactly the given arguments and
+     *                               constants.
+     * @throws NullPointerException If any of the incoming arguments is null, or
+     *                              any constant in {@code recipe} is null.
+     */
+    public static CallSite makeConcatWithConstants(MethodHandles.Lookup lookup,
+                                                   String name,
+                                                   MethodType concatType,
+                                                   String recipe,
+                                                   Object... constants) throws StringConcatException {
+        Objects.requireNonNull(lookup, "Lookup is null");
+        Objects.requireNonNull(name, "Name is null");
+        Objects.requireNonNull(concatType, "Concat type is null");
+        Objects.requireNonNull(recipe, "Recipe is null");
+        Objects.requireNonNull(constants, "Constants are null");
+
+        for (Object o : constants) {
+            Objects.requireNonNull(o, "Cannot accept null constants");
+        }
+        return doStringConcat(concatType, parseRecipe(concatType, recipe, constants));
+    }
+
+    /**
+     * Parses the recipe into a list of argument indexes (Integer) and
+     * constants (String), merging adjacent constants.
+     */
+    private static List<Object> parseRecipe(MethodType concatType,
+                                            String recipe,
+                                            Object[] constants) throws StringConcatException {
+        List<Object> elements = new ArrayList<>();
+        StringBuilder acc = new StringBuilder();
+        int argC = 0;
+        int constC = 0;
+        for (int i = 0; i < recipe.length(); i++) {
+            char c = recipe.charAt(i);
+            if (c == TAG_CONST) {
+                if (constC >= constants.length) {
+                    throw new StringConcatException("Constant index is out of bounds: " +
+                            concatType + ", " + recipe + ", " + Arrays.toString(constants));
+                }
+                acc.append(constants[constC++]);
+            } else if (c == TAG_ARG) {
+                if (argC >= concatType.parameterCount()) {
+                    throw new StringConcatException("Argument index is out of bounds: " +
+                            concatType + ", " + recipe);
+                }
+                if (acc.length() > 0) {
+                    elements.add(acc.toString());
+                    acc.setLength(0);
+                }
+                elements.add(argC++);
+            } else {
+                acc.append(c);
+            }
+        }
+        if (acc.length() > 0) {
+            elements.add(acc.toString());
+        }
+        if (argC != concatType.parameterCount()) {
+            throw new StringConcatException("Mismatched number of concat arguments: recipe wants " +
+                    argC + " arguments, but signature provides " + concatType.parameterCount());
+        }
+        if (constC != constants.length) {
+            throw new StringConcatException("Mismatched number of concat constants: recipe wants " +
+                    constC + " constants, but only " + constants.length + " are passed");
+        }
+        return elements;
+    }
+
+    private static CallSite doStringConcat(MethodType concatType,
+                                           List<Object> elements) throws StringConcatException {
+        if (!concatType.returnType().isAssignableFrom(String.class)) {
+            throw new StringConcatException("The return type should be compatible with String, but it is " +
+                    concatType.returnType());
+        }
+        if (concatType.parameterSlotCount() > MAX_INDY_CONCAT_ARG_SLOTS) {
+            throw new StringConcatException("MethodType should not have more than " +
+                    MAX_INDY_CONCAT_ARG_SLOTS + " parameter slots, but " +
+                    concatType + " has " + concatType.parameterSlotCount());
+        }
+        MethodHandle mh = generate(concatType, elements);
+        return new ConstantCallSite(mh.asType(concatType));
+    }
+
+    /**
+     * Selects and builds the strategy for one call site: a constant when the
+     * recipe has no arguments, a single conversion when it is exactly one
+     * reference argument, and the exact-size strategy otherwise.
+     */
+    private static MethodHandle generate(MethodType concatType,
+                                         List<Object> elements) throws StringConcatException {
+        int count = concatType.parameterCount();
+        if (count == 0) {
+            String constant = elements.isEmpty() ? "" : (String)elements.get(0);
+            return MethodHandles.constant(String.class, constant);
+        }
+        if (elements.size() == 1 && !concatType.parameterType(0).isPrimitive()) {
+            return NEW_STRING_OF;
+        }
+
+        // Arguments are handed to the helpers as one of the HELPER_TYPES
+        Class<?>[] ptypes = new Class<?>[count];
+        for (int i = 0; i < count; i++) {
+            ptypes[i] = helperType(concatType.parameterType(i));
+        }
+        List<Class<?>> ptypeList = Arrays.asList(ptypes);
+
+        // Mix the constants in at link time
+        long constLen = 0;
+        byte constCoder;
+        try {
+            constCoder = (byte) INITIAL_CODER.invokeExact();
+            MethodHandle mixCoder = MIX_CODER[helperIndex(String.class)];
+            for (Object el : elements) {
+                if (el instanceof String) {
+                    String s = (String)el;
+                    constLen += s.length();
+                    constCoder = (byte) mixCoder.invokeExact(constCoder, s);
+                }
+            }
+        } catch (Throwable t) {
+            throw new StringConcatException("Cannot mix recipe constants", t);
+        }
+        if (constLen > Integer.MAX_VALUE) {
+            throw new StringConcatException("Recipe constants are too long: " + constLen);
+        }
+
+        // (int index, byte[] buf, byte coder, args...) -> String: prepend
+        // every element, the last one first, then wrap the filled storage.
+        MethodHandle mh = MethodHandles.dropArguments(NEW_STRING, 3, ptypeList);
+        for (Object el : elements) {
+            MethodHandle prepender;
+            if (el instanceof String) {
+                prepender = MethodHandles.insertArguments(
+                        PREPEND[helperIndex(String.class)], 3, el);
+                prepender = MethodHandles.dropArguments(prepender, 3, ptypeList);
+            } else {
+                int arg = (Integer)el;
+                prepender = onArgument(PREPEND[helperIndex(ptypes[arg])], 3, arg, ptypes);
+            }
+            mh = MethodHandles.foldArguments(
+                    MethodHandles.dropArguments(mh, 1, int.class), prepender);
+        }
+
+        // (int length, byte coder, args...) -> String: allocate the storage;
+        // the initial index is the length.
+        MethodType allocType = mh.type().dropParameterTypes(0, 2)
+                                        .insertParameterTypes(0, byte[].class, int.class);
+        mh = MethodHandles.permuteArguments(mh, allocType, reorder(1, 0, 2, count));
+        mh = MethodHandles.foldArguments(mh, NEW_ARRAY);
+
+        // (int length, args...) -> String: compute the coder
+        MethodType coderType = mh.type().dropParameterTypes(0, 2)
+                                        .insertParameterTypes(0, byte.class, int.class);
+        mh = MethodHandles.permuteArguments(mh, coderType, reorder(1, 0, count));
+        mh = MethodHandles.foldArguments(mh,
+                MethodHandles.dropArguments(mixCoders(constCoder, ptypes), 0, int.class));
+
+        // (args...) -> String: compute the length
+        mh = MethodHandles.foldArguments(mh, mixLengths((int)constLen, ptypes));
+
+        // Convert the arguments the helpers have no overload for
+        for (int i = 0; i < count; i++) {
+            MethodHandle filter = stringifier(concatType.parameterType(i));
+            if (filter != null) {
+                mh = MethodHandles.filterArguments(mh, i, filter);
+            }
+        }
+        return mh;
+    }
+
+    /**
+     * Returns a handle of type {@code (byte coder, args...) -> byte}, bound
+     * to the given initial coder, which mixes in every argument that can
+     * widen it.
+     */
+    private static MethodHandle mixCoders(byte initial, Class<?>[] ptypes) {
+        MethodHandle mh = MethodHandles.dropArguments(
+                MethodHandles.identity(byte.class), 1, ptypes);
+        // Once a constant needs UTF16, no argument can change the coder
+        if (initial == LATIN1_CODER) {
+            for (int i = 0; i < ptypes.length; i++) {
+                MethodHandle mix = MIX_CODER[helperIndex(ptypes[i])];
+                if (mix != null) {
+                    mh = MethodHandles.foldArguments(
+                            MethodHandles.dropArguments(mh, 1, byte.class),
+                            onArgument(mix, 1, i, ptypes));
+                }
+            }
+        }
+        return MethodHandles.insertArguments(mh, 0, initial);
+    }
+
+    /**
+     * Returns a handle of type {@code (args...) -> int} computing the length
+     * of the result, starting from the given length of the constants.
+     */
+    private static MethodHandle mixLengths(int initial, Class<?>[] ptypes) {
+        MethodHandle mh = MethodHandles.dropArguments(
+                MethodHandles.identity(int.class), 1, ptypes);
+        for (int i = 0; i < ptypes.length; i++) {
+            mh = MethodHandles.foldArguments(
+                    MethodHandles.dropArguments(mh, 1, int.class),
+                    onArgument(MIX_LEN[helperIndex(ptypes[i])], 1, i, ptypes));
+        }
+        return MethodHandles.insertArguments(mh, 0, initial);
+    }
+
+    /**
+     * Adapts {@code helper}, taking {@code leading} parameters and then one
+     * argument value, to take the leading parameters and then all the
+     * arguments, passing it only argument {@code arg}.
+     */
+    private static MethodHandle onArgument(MethodHandle helper, int leading,
+                                           int arg, Class<?>[] ptypes) {
+        MethodType newType = helper.type().dropParameterTypes(leading, leading + 1)
+                                          .appendParameterTypes(ptypes);
+        int[] reorder = new int[leading + 1];
+        for (int i = 0; i < leading; i++) {
+            reorder[i] = i;
+        }
+        reorder[leading] = leading + arg;
+        return MethodHandles.permuteArguments(helper, newType, reorder);
+    }
+
+    /**
+     * Returns a permutation starting with the given leading indexes and
+     * followed by {@code count} indexes past them, in order.
+     */
+    private static int[] reorder(int... leadingAndCount) {
+        int leading = leadingAndCount.length - 1;
+        int count = leadingAndCount[leading];
+        int[] reorder = new int[leading + count];
+        System.arraycopy(leadingAndCount, 0, reorder, 0, leading);
+        for (int i = 0; i < count; i++) {
+            reorder[leading + i] = leading + i;
+        }
+        return reorder;
+    }
+
+    private static Class<?> helperType(Class<?> t) {
+        if (t == byte.class || t == short.class) {
+            return int.class;
+        }
+        if (t == boolean.class || t == char.class || t == int.class || t == long.class) {
+            return t;
+        }
+        return String.class;
+    }
+
+    private static int helperIndex(Class<?> t) {
+        for (int i = 0; i < HELPER_TYPES.length; i++) {
+            if (HELPER_TYPES[i] == t) {
+                return i;
+            }
+        }
+        throw newInternalError("No helper for " + t);
+    }
+
+    /**
+     * Returns the conversion of an argument of the given type to String, or
+     * null if the helpers take it as is or after primitive widening.
+     */
+    private static MethodHandle stringifier(Class<?> t) {
+        if (t == float.class) {
+            return FLOAT_STRING;
+        }
+        if (t == double.class) {
+            return DOUBLE_STRING;
+        }
+        if (!t.isPrimitive()) {
+            return STRING_OF.asType(methodType(String.class, t));
+        }
+        return null;
+    }
+}
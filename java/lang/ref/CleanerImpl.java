@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.ref;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CleanerImpl manages a set of object references and corresponding cleaning actions.
+ * CleanerImpl provides the functionality of {@link java.lang.ref.Cleaner}.
+ */
+final class CleanerImpl implements Runnable {
+
+    /**
+     * Heads of a CleanableList for each reference type.
+     */
+    final PhantomCleanable<?> phantomCleanableList;
+
+    // The ReferenceQueue of pending cleaning actions
+    final ReferenceQueue<Object> queue;
+
+    /**
+     * Constructor for CleanerImpl.
+     */
+    CleanerImpl() {
+        queue = new ReferenceQueue<>();
+        phantomCleanableList = new PhantomCleanableRef();
+    }
+
+    /**
+     * Starts the Cleaner implementation.
+     * Ensure this is the CleanerImpl for the Cleaner.
+     * When started waits for Cleanables to be queued.
+     * @param cleaner the cleaner
+     * @param threadFactory the thread factory
+     * @param nThreads the number of threads
+     */
+    void start(Cleaner cleaner, ThreadFactory threadFactory, int nThreads) {
+        if (cleaner.impl != this) {
+            throw new AssertionError("wrong cleaner");
+        }
+        // schedule a nop cleaning action for the cleaner, so the associated thread
+        // will continue to run at least until the cleaner is reclaimable.
+        new PhantomCleanableRef(cleaner, cleaner, NOP);
+
+        for (int i = 0; i < nThreads; i++) {
+            Thread thread = threadFactory.newThread(this);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Process queued Cleanables as long as the cleanable lists are not empty.
+     * A Cleanable is in one of the lists for each Object and for the Cleaner
+     * itself.
+     * Terminates when the Cleaner is no longer reachable and
+     * has been cleaned and there are no more Cleanable instances
+     * for which the object is reachable.
+     * <p>
+     * Several threads may run this method; they share the queue.
+     */
+    @Override
+    public void run() {
+        while (!phantomCleanableList.isListEmpty()) {
+            try {
+                // Wait for a Ref, with a timeout to avoid getting hung
+                // due to a race with clear/clean
+                Cleaner.Cleanable ref = (Cleaner.Cleanable) queue.remove(60 * 1000L);
+                if (ref != null) {
+                    ref.clean();
+                }
+            } catch (Throwable e) {
+                // ignore exceptions from the cleanup action
+                // (including interruption of cleanup thread)
+            }
+        }
+    }
+
+    private static final Runnable NOP = new Runnable() {
+        public void run() {
+        }
+    };
+
+    /**
+     * PhantomCleanable subclasses efficiently encapsulate cleanup state and
+     * the cleaning action.
+     * Subclasses implement the abstract {@link #performCleanup()}  method
+     * to provide the cleaning action.
+     * When constructed, the object reference and the {@link Cleaner.Cleanable Cleanable}
+     * are registered with the {@link Cleaner}.
+     * The Cleaner invokes {@link Cleaner.Cleanable#clean() clean} after the
+     * referent becomes phantom reachable.
+     */
+    abstract static class PhantomCleanable<T> extends PhantomReference<T>
+            implements Cleaner.Cleanable {
+
+        /**
+         * Links to previous and next in a doubly-linked list.
+         */
+        PhantomCleanable<?> prev = this, next = this;
+
+        /**
+         * The list of PhantomCleanable; synchronizes insert and remove.
+         */
+        private final PhantomCleanable<?> list;
+
+        /**
+         * Constructs new {@code PhantomCleanable} with
+         * {@code non-null referent} and {@code non-null cleaner}.
+         * The {@code cleaner} is not retained; it is only used to
+         * register the newly constructed {@link Cleaner.Cleanable Cleanable}.
+         *
+         * @param referent the referent to track
+         * @param cleaner  the {@code Cleaner} to register with
+         */
+        PhantomCleanable(T referent, Cleaner cleaner) {
+            super(Objects.requireNonNull(referent), cleaner.impl.queue);
+            this.list = cleaner.impl.phantomCleanableList;
+            insert();
+        }
+
+        /**
+         * Construct a new root of the list; not inserted.
+         */
+        PhantomCleanable() {
+            super(null, null);
+            this.list = this;
+        }
+
+        /**
+         * Insert this PhantomCleanable after the list head.
+         */
+        private void insert() {
+            synchronized (list) {
+                prev = list;
+                next = list.next;
+                next.prev = this;
+                list.next = this;
+            }
+        }
+
+        /**
+         * Remove this PhantomCleanable from the list.
+         *
+         * @return true if Cleanable was removed or false if not because
+         * it had already been removed before
+         */
+        private boolean remove() {
+            synchronized (list) {
+                if (next != this) {
+                    next.prev = prev;
+                    prev.next = next;
+                    prev = this;
+                    next = this;
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        /**
+         * Returns true if the list's next reference refers to itself.
+         *
+         * @return true if the list is empty
+         */
+        boolean isListEmpty() {
+            synchronized (list) {
+                return list == list.next;
+            }
+        }
+
+        /**
+         * Unregister this PhantomCleanable and invoke {@link #performCleanup()},
+         * ensuring at-most-once semantics.
+         */
+        @Override
+        public final void clean() {
+            if (remove()) {
+                super.clear();
+                performCleanup();
+            }
+        }
+
+        /**
+         * Unregister this PhantomCleanable and clear the reference.
+         * Due to inherent concurrency, {@link #performCleanup()} may still be invoked.
+         */
+        @Override
+        public void clear() {
+            if (remove()) {
+                super.clear();
+            }
+        }
+
+        /**
+         * The {@code performCleanup} abstract method is overridden
+         * to implement the cleaning logic.
+         * The {@code performCleanup} method should not be called except
+         * by the {@link #clean} method which ensures at most once semantics.
+         */
+        protected abstract void performCleanup();
+
+        /**
+         * This method always throws {@link UnsupportedOperationException}.
+         * Enqueuing details of {@link Cleaner.Cleanable}
+         * are a private implementation detail.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public final boolean isEnqueued() {
+            throw new UnsupportedOperationException("isEnqueued");
+        }
+
+        /**
+         * This method always throws {@link UnsupportedOperationException}.
+         * Enqueuing details of {@link Cleaner.Cleanable}
+         * are a private implementation detail.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public final boolean enqueue() {
+            throw new UnsupportedOperationException("enqueue");
+        }
+    }
+
+    /**
+     * Perform cleaning on an unreachable PhantomReference.
+     */
+    static final class PhantomCleanableRef extends PhantomCleanable<Object> {
+        private final Runnable action;
+
+        /**
+         * Constructor for a phantom cleanable reference.
+         * @param obj the object to monitor
+         * @param cleaner the cleaner
+         * @param action the action Runnable
+         */
+        PhantomCleanableRef(Object obj, Cleaner cleaner, Runnable action) {
+            super(obj, cleaner);
+            this.action = action;
+        }
+
+        /**
+         * Constructor used only for root of phantom cleanable list.
+         */
+        PhantomCleanableRef() {
+            super();
+            this.action = null;
+        }
+
+        @Override
+        protected void performCleanup() {
+            action.run();
+        }
+    }
+
+    /**
+     * Returns the factory of the threads of a {@link Cleaner#create()
+     * default Cleaner}: daemon threads named "Cleaner-<i>n</i>", with the
+     * system class loader as context class loader.
+     */
+    static ThreadFactory defaultThreadFactory() {
+        return DefaultThreadFactory.INSTANCE;
+    }
+
+    private static final class DefaultThreadFactory implements ThreadFactory {
+        static final DefaultThreadFactory INSTANCE = new DefaultThreadFactory();
+
+        private final AtomicInteger nextId = new AtomicInteger();
+
+        public Thread newThread(final Runnable r) {
+            return AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+                public Thread run() {
+                    Thread t = new Thread(r, "Cleaner-" + nextId.getAndIncrement());
+                    t.setContextClassLoader(ClassLoader.getSystemClassLoader());
+                    t.setPriority(Thread.MAX_PRIORITY - 2);
+                    return t;
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the Cleaner shared by the core libraries, for objects whose
+     * cleaning actions are short and only release native resources. Its
+     * thread is created on first use.
+     */
+    static Cleaner commonCleaner() {
+        return CommonCleaner.INSTANCE;
+    }
+
+    private static final class CommonCleaner implements ThreadFactory {
+        static final Cleaner INSTANCE = AccessController.doPrivileged(
+            new PrivilegedAction<Cleaner>() {
+                public Cleaner run() {
+                    return Cleaner.create(new CommonCleaner(), 1);
+                }
+            });
+
+        // The thread runs in the system thread group, like the Finalizer.
+        public Thread newThread(Runnable r) {
+            ThreadGroup tg = Thread.currentThread().getThreadGroup();
+            for (ThreadGroup tgn = tg;
+                 tgn != null;
+                 tg = tgn, tgn = tg.getParent());
+            Thread t = new Thread(tg, r, "Common-Cleaner");
+            t.setContextClassLoader(null);
+            t.setPriority(Thread.MAX_PRIORITY - 2);
+            return t;
+        }
+    }
+}
@@ -237,6 +237,11 @@ public abstract class Reference<T> {
             public boolean tryHandlePendingReference() {
                 return tryHandlePending(false);
             }
+
+            @Override
+            public java.lang.ref.Cleaner cleaner() {
+                return CleanerImpl.commonCleaner();
+            }
         });
     }
 
@@ -457,7 +457,7 @@ public final class Constructor<T> extends Executable {
             constructorAccessor = tmp;
         } else {
             // Otherwise fabricate one and propagate it up to the root
-            tmp = reflectionFactory.newConstructorAccessor(this);
+            tmp = MethodHandleAccessorFactory.newConstructorAccessor(this);
             setConstructorAccessor(tmp);
         }
 
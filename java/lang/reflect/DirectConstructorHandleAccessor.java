@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import sun.reflect.ConstructorAccessor;
+
+/**
+ * A {@code ConstructorAccessor} that creates instances through a direct
+ * method handle.  As with {@link DirectMethodHandleAccessor}, the
+ * arguments are checked up front and any exception thrown by the handle
+ * is reported as an {@code InvocationTargetException}.
+ */
+final class DirectConstructorHandleAccessor implements ConstructorAccessor {
+    private final Class<?>[] paramTypes;
+    // (Object,Object[])Object, the leading argument is ignored
+    private final MethodHandle target;
+
+    DirectConstructorHandleAccessor(Constructor<?> ctor, MethodHandle target) {
+        this.paramTypes = ctor.getParameterTypes();
+        this.target = MethodHandleAccessorFactory.spreadInvoker(target, true,
+                                                                paramTypes.length);
+    }
+
+    public Object newInstance(Object[] args)
+        throws InstantiationException, IllegalArgumentException,
+               InvocationTargetException
+    {
+        args = MethodHandleAccessorFactory.checkArguments(paramTypes, args);
+        try {
+            return (Object) target.invokeExact((Object) null, args);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import sun.reflect.MethodAccessor;
+
+/**
+ * A {@code MethodAccessor} that invokes the method through a direct
+ * method handle.  The receiver and arguments are checked before the
+ * call, so any exception thrown by the handle comes from the method
+ * itself and is reported as an {@code InvocationTargetException}.
+ */
+final class DirectMethodHandleAccessor implements MethodAccessor {
+    private final Class<?> declaringClass;
+    private final Class<?>[] paramTypes;
+    private final boolean isStatic;
+    // (Object,Object[])Object
+    private final MethodHandle target;
+
+    DirectMethodHandleAccessor(Method method, MethodHandle target) {
+        this.declaringClass = method.getDeclaringClass();
+        this.paramTypes = method.getParameterTypes();
+        this.isStatic = Modifier.isStatic(method.getModifiers());
+        this.target = MethodHandleAccessorFactory.spreadInvoker(target, isStatic,
+                                                                paramTypes.length);
+    }
+
+    public Object invoke(Object obj, Object[] args)
+        throws IllegalArgumentException, InvocationTargetException
+    {
+        if (!isStatic) {
+            if (obj == null)
+                throw new NullPointerException();
+            if (!declaringClass.isInstance(obj))
+                throw new IllegalArgumentException(
+                    "object is not an instance of declaring class");
+        }
+        args = MethodHandleAccessorFactory.checkArguments(paramTypes, args);
+        try {
+            return (Object) target.invokeExact(obj, args);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
@@ -561,7 +561,7 @@ public final class Method extends Executable {
             methodAccessor = tmp;
         } else {
             // Otherwise fabricate one and propagate it up to the root
-            tmp = reflectionFactory.newMethodAccessor(this);
+            tmp = MethodHandleAccessorFactory.newMethodAccessor(this);
             setMethodAccessor(tmp);
         }
 
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.security.AccessController;
+import sun.misc.JavaLangInvokeAccess;
+import sun.misc.SharedSecrets;
+import sun.misc.VM;
+import sun.reflect.ConstructorAccessor;
+import sun.reflect.FieldAccessor;
+import sun.reflect.MethodAccessor;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * Creates method, constructor and field accessors backed by direct
+ * method handles.  Compared with the accessors generated by
+ * {@code sun.reflect.ReflectionFactory}, these need no inflation
+ * threshold, do not define a class per member and are inlined by the
+ * JIT through the method handle.
+ *
+ * <p>The {@code sun.reflect.ReflectionFactory} accessors are still used
+ * while the VM is booting, for members of {@code java.lang.invoke} (which
+ * the method handle machinery itself reflects on), for caller-sensitive
+ * methods, and whenever a handle cannot be created.  Setting the system
+ * property {@code sun.reflect.useDirectMethodHandle} to {@code false}
+ * selects them unconditionally.
+ */
+final class MethodHandleAccessorFactory {
+    private MethodHandleAccessorFactory() {}
+
+    // Read lazily; system properties are not available during early boot.
+    private static volatile int useDirectMethodHandle;  // 0 unknown, 1 yes, -1 no
+
+    static MethodAccessor newMethodAccessor(Method method) {
+        if (useNativeAccessor(method)) {
+            return AccessibleObject.reflectionFactory.newMethodAccessor(method);
+        }
+        try {
+            JavaLangInvokeAccess jlia = SharedSecrets.getJavaLangInvokeAccess();
+            if (!jlia.isCallerSensitive(method)) {
+                MethodHandle target = jlia.unreflect(method);
+                ensureClassInitialized(method);
+                return new DirectMethodHandleAccessor(method, target);
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Fall through, e.g. too many parameters to spread
+        }
+        return AccessibleObject.reflectionFactory.newMethodAccessor(method);
+    }
+
+    static ConstructorAccessor newConstructorAccessor(Constructor<?> ctor) {
+        // Abstract classes are left to the native accessor, which
+        // throws InstantiationException as specified.
+        if (useNativeAccessor(ctor) ||
+                Modifier.isAbstract(ctor.getDeclaringClass().getModifiers())) {
+            return AccessibleObject.reflectionFactory.newConstructorAccessor(ctor);
+        }
+        try {
+            MethodHandle target = SharedSecrets.getJavaLangInvokeAccess()
+                                               .unreflectConstructor(ctor);
+            ensureClassInitialized(ctor);
+            return new DirectConstructorHandleAccessor(ctor, target);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Fall through
+        }
+        return AccessibleObject.reflectionFactory.newConstructorAccessor(ctor);
+    }
+
+    static FieldAccessor newFieldAccessor(Field field, boolean override) {
+        if (useNativeAccessor(field)) {
+            return AccessibleObject.reflectionFactory.newFieldAccessor(field, override);
+        }
+        try {
+            JavaLangInvokeAccess jlia = SharedSecrets.getJavaLangInvokeAccess();
+            boolean isStatic = Modifier.isStatic(field.getModifiers());
+            boolean isFinal = Modifier.isFinal(field.getModifiers());
+            boolean isReadOnly = isFinal && (isStatic || !override);
+            MethodHandle getter = jlia.unreflectField(field, false);
+            MethodHandle setter = isReadOnly ? null : jlia.unreflectField(field, true);
+            ensureClassInitialized(field);
+            return new MethodHandleFieldAccessor(field, getter, setter, isReadOnly);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Fall through
+        }
+        return AccessibleObject.reflectionFactory.newFieldAccessor(field, override);
+    }
+
+    private static boolean useNativeAccessor(Member member) {
+        if (!VM.isBooted())
+            return true;
+        int use = useDirectMethodHandle;
+        if (use == 0) {
+            String s = AccessController.doPrivileged(
+                new GetPropertyAction("sun.reflect.useDirectMethodHandle"));
+            useDirectMethodHandle = use = "false".equals(s) ? -1 : 1;
+        }
+        if (use < 0)
+            return true;
+        // The method handle implementation reflects on its own members
+        // while it is being initialized.
+        Class<?> declaringClass = member.getDeclaringClass();
+        return declaringClass.getName().startsWith("java.lang.invoke.");
+    }
+
+    // Reflective access initializes the declaring class of a static
+    // member and reports a failure without wrapping it in an
+    // InvocationTargetException; do the same before the first call.
+    private static void ensureClassInitialized(Member member) {
+        if (member instanceof Constructor ||
+                Modifier.isStatic(member.getModifiers())) {
+            sun.misc.Unsafe.getUnsafe()
+                .ensureClassInitialized(member.getDeclaringClass());
+        }
+    }
+
+    /**
+     * Adapts {@code target} to take the receiver, or an ignored
+     * {@code null} for a static member, followed by {@code paramCount}
+     * arguments spread from an {@code Object[]}, and to return
+     * {@code Object}.
+     */
+    static MethodHandle spreadInvoker(MethodHandle target, boolean isStatic, int paramCount) {
+        if (isStatic)
+            target = MethodHandles.dropArguments(target, 0, Object.class);
+        target = target.asType(MethodType.genericMethodType(paramCount + 1));
+        return target.asSpreader(Object[].class, paramCount);
+    }
+
+    /**
+     * Checks and converts the arguments of a reflective invocation the way
+     * the native accessors do.  Returns {@code args}, an empty array for
+     * a {@code null} argument list, or a copy holding widened wrappers
+     * where a primitive widening conversion was needed.
+     *
+     * @throws IllegalArgumentException if the number of arguments is wrong,
+     *         or an argument cannot be converted to its parameter type
+     */
+    static Object[] checkArguments(Class<?>[] paramTypes, Object[] args) {
+        if (args == null) {
+            if (paramTypes.length != 0)
+                throw new IllegalArgumentException("wrong number of arguments");
+            return EMPTY_ARGS;
+        }
+        if (args.length != paramTypes.length)
+            throw new IllegalArgumentException("wrong number of arguments");
+        Object[] result = args;
+        for (int i = 0; i < paramTypes.length; i++) {
+            Class<?> type = paramTypes[i];
+            Object arg = args[i];
+            if (type.isPrimitive()) {
+                Object value = widen(arg, type);
+                if (value == null)
+                    throw new IllegalArgumentException("argument type mismatch");
+                if (value != arg) {
+                    if (result == args)
+                        result = args.clone();
+                    result[i] = value;
+                }
+            } else if (arg != null && !type.isInstance(arg)) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+        }
+        return result;
+    }
+
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    /**
+     * Converts a wrapper object to the wrapper of primitive {@code type},
+     * applying an identity or widening primitive conversion.  Returns
+     * {@code null} if {@code value} is {@code null} or no such conversion
+     * exists.
+     */
+    static Object widen(Object value, Class<?> type) {
+        if (value == null)
+            return null;
+        Class<?> from = value.getClass();
+        if (type == int.class) {
+            if (from == Integer.class)   return value;
+            if (from == Byte.class)      return (int) (Byte) value;
+            if (from == Short.class)     return (int) (Short) value;
+            if (from == Character.class) return (int) (Character) value;
+        } else if (type == long.class) {
+            if (from == Long.class)      return value;
+            if (from == Integer.class)   return (long) (Integer) value;
+            if (from == Byte.class)      return (long) (Byte) value;
+            if (from == Short.class)     return (long) (Short) value;
+            if (from == Character.class) return (long) (Character) value;
+        } else if (type == double.class) {
+            if (from == Double.class)    return value;
+            if (from == Float.class)     return (double) (Float) value;
+            if (from == Long.class)      return (double) (Long) value;
+            if (from == Integer.class)   return (double) (Integer) value;
+            if (from == Byte.class)      return (double) (Byte) value;
+            if (from == Short.class)     return (double) (Short) value;
+            if (from == Character.class) return (double) (Character) value;
+        } else if (type == float.class) {
+            if (from == Float.class)     return value;
+            if (from == Long.class)      return (float) (Long) value;
+            if (from == Integer.class)   return (float) (Integer) value;
+            if (from == Byte.class)      return (float) (Byte) value;
+            if (from == Short.class)     return (float) (Short) value;
+            if (from == Character.class) return (float) (Character) value;
+        } else if (type == boolean.class) {
+            if (from == Boolean.class)   return value;
+        } else if (type == byte.class) {
+            if (from == Byte.class)      return value;
+        } else if (type == short.class) {
+            if (from == Short.class)     return value;
+            if (from == Byte.class)      return (short) (Byte) value;
+        } else if (type == char.class) {
+            if (from == Character.class) return value;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import sun.reflect.FieldAccessor;
+
+/**
+ * A {@code FieldAccessor} that reads and writes the field through direct
+ * method handles.  The primitive getters and setters share the generic
+ * handles and apply the widening conversions of the Java language, as
+ * the {@code sun.reflect} accessors do.
+ */
+final class MethodHandleFieldAccessor implements FieldAccessor {
+    private final Field field;
+    private final Class<?> type;
+    private final boolean isStatic;
+    private final boolean isReadOnly;
+    // (Object)Object, the argument is ignored for a static field
+    private final MethodHandle getter;
+    // (Object,Object)void, or null if the field is read-only
+    private final MethodHandle setter;
+
+    MethodHandleFieldAccessor(Field field, MethodHandle getter,
+                              MethodHandle setter, boolean isReadOnly) {
+        this.field = field;
+        this.type = field.getType();
+        this.isStatic = Modifier.isStatic(field.getModifiers());
+        this.isReadOnly = isReadOnly;
+        if (isStatic) {
+            getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            if (setter != null)
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+        }
+        this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
+        this.setter = (setter == null) ? null
+            : setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    }
+
+    private void ensureObj(Object obj) {
+        if (!isStatic && !field.getDeclaringClass().isAssignableFrom(obj.getClass()))
+            throw newSetIllegalArgumentException(obj.getClass().getName());
+    }
+
+    public Object get(Object obj) throws IllegalArgumentException {
+        ensureObj(obj);
+        try {
+            return (Object) getter.invokeExact(obj);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InternalError(e);
+        }
+    }
+
+    public boolean getBoolean(Object obj) throws IllegalArgumentException {
+        if (type != boolean.class)
+            throw newGetIllegalArgumentException("boolean");
+        return (Boolean) get(obj);
+    }
+
+    public byte getByte(Object obj) throws IllegalArgumentException {
+        if (type != byte.class)
+            throw newGetIllegalArgumentException("byte");
+        return (Byte) get(obj);
+    }
+
+    public char getChar(Object obj) throws IllegalArgumentException {
+        if (type != char.class)
+            throw newGetIllegalArgumentException("char");
+        return (Character) get(obj);
+    }
+
+    public short getShort(Object obj) throws IllegalArgumentException {
+        return (Short) getWidened(obj, short.class, "short");
+    }
+
+    public int getInt(Object obj) throws IllegalArgumentException {
+        return (Integer) getWidened(obj, int.class, "int");
+    }
+
+    public long getLong(Object obj) throws IllegalArgumentException {
+        return (Long) getWidened(obj, long.class, "long");
+    }
+
+    public float getFloat(Object obj) throws IllegalArgumentException {
+        return (Float) getWidened(obj, float.class, "float");
+    }
+
+    public double getDouble(Object obj) throws IllegalArgumentException {
+        return (Double) getWidened(obj, double.class, "double");
+    }
+
+    private Object getWidened(Object obj, Class<?> to, String name) {
+        if (!type.isPrimitive())
+            throw newGetIllegalArgumentException(name);
+        Object value = MethodHandleAccessorFactory.widen(get(obj), to);
+        if (value == null)
+            throw newGetIllegalArgumentException(name);
+        return value;
+    }
+
+    public void set(Object obj, Object value)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        if (isReadOnly)
+            throw new IllegalAccessException(setMessage(valueTypeName(value)));
+        ensureObj(obj);
+        if (type.isPrimitive()) {
+            Object v = MethodHandleAccessorFactory.widen(value, type);
+            if (v == null)
+                throw newSetIllegalArgumentException(valueTypeName(value));
+            value = v;
+        } else if (value != null && !type.isInstance(value)) {
+            throw newSetIllegalArgumentException(value.getClass().getName());
+        }
+        try {
+            setter.invokeExact(obj, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InternalError(e);
+        }
+    }
+
+    public void setBoolean(Object obj, boolean z)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        set(obj, Boolean.valueOf(z));
+    }
+
+    public void setByte(Object obj, byte b)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        set(obj, Byte.valueOf(b));
+    }
+
+    public void setChar(Object obj, char c)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        set(obj, Character.valueOf(c));
+    }
+
+    public void setShort(Object obj, short s)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        set(obj, Short.valueOf(s));
+    }
+
+    public void setInt(Object obj, int i)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        set(obj, Integer.valueOf(i));
+    }
+
+    public void setLong(Object obj, long l)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        set(obj, Long.valueOf(l));
+    }
+
+    public void setFloat(Object obj, float f)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        set(obj, Float.valueOf(f));
+    }
+
+    public void setDouble(Object obj, double d)
+        throws IllegalArgumentException, IllegalAccessException
+    {
+        set(obj, Double.valueOf(d));
+    }
+
+    private static String valueTypeName(Object value) {
+        return (value == null) ? "null value" : value.getClass().getName();
+    }
+
+    // The messages below match those of the sun.reflect field accessors.
+
+    private IllegalArgumentException newGetIllegalArgumentException(String to) {
+        return new IllegalArgumentException(
+            "Attempt to get " + type.getName() + " field \"" +
+            field.getDeclaringClass().getName() + "." + field.getName() +
+            "\" with illegal data type conversion to " + to);
+    }
+
+    private IllegalArgumentException newSetIllegalArgumentException(String from) {
+        return new IllegalArgumentException(setMessage(from));
+    }
+
+    private String setMessage(String from) {
+        int mods = field.getModifiers();
+        return "Can not set " +
+            (Modifier.isStatic(mods) ? "static " : "") +
+            (Modifier.isFinal(mods) ? "final " : "") +
+            type.getName() + " field " +
+            field.getDeclaringClass().getName() + "." + field.getName() +
+            " to " + from;
+    }
+}
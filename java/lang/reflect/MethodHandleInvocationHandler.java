@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * An {@link InvocationHandler} that supplies a method handle for each
+ * method of a proxy class instead of handling every invocation through
+ * {@link InvocationHandler#invoke invoke}.
+ *
+ * <p>When {@link Proxy#newProxyInstance Proxy.newProxyInstance} is given
+ * a {@code MethodHandleInvocationHandler}, the proxy instance obtains a
+ * handle for each of its methods through {@link #bind bind} as it is
+ * created, and each invocation on the proxy then calls the handle
+ * directly with the proxy instance and the arguments.  No argument array
+ * is allocated and primitive arguments and return values are not boxed.
+ * The handle most recently returned by a handler for a method of a proxy
+ * class may be reused, without calling {@code bind} again, when the same
+ * handler is asked for that method again, for another proxy instance or
+ * by {@code invoke}; {@code bind} should therefore return equivalent
+ * handles whenever it is called.
+ *
+ * <p>The handle returned by {@code bind} for a method with parameter
+ * types {@code P1, ..., Pn} and return type {@code R} must be convertible
+ * by {@link MethodHandle#asType asType} to the type
+ * {@code (Object,P1,...,Pn)R}; its leading argument is the proxy
+ * instance.  Exceptions thrown by the handle are handled as described
+ * for {@code invoke}: a checked exception not declared by the interface
+ * method is wrapped in an {@link UndeclaredThrowableException}.
+ *
+ * <p>Proxy instances of a proxy class obtained through
+ * {@link Proxy#getProxyClass Proxy.getProxyClass}, and those whose
+ * interfaces {@code newProxyInstance} cannot dispatch this way (for
+ * instance when duplicate methods have different return or exception
+ * types), call {@code invoke} as usual.  The default {@code invoke}
+ * method binds the method and calls the handle with
+ * {@link MethodHandle#invokeWithArguments invokeWithArguments}.  So do
+ * deserialized proxy instances, which are instances of the proxy class
+ * returned by {@code getProxyClass}.
+ *
+ * @see Proxy
+ * @since 1.8
+ */
+public interface MethodHandleInvocationHandler extends InvocationHandler {
+
+    /**
+     * Returns the method handle to call when {@code method} is invoked
+     * on a proxy instance.
+     *
+     * <p>For a default method of a proxy interface, and for the
+     * {@code hashCode}, {@code equals} and {@code toString} methods of
+     * {@code java.lang.Object}, {@code implementation} is a handle of
+     * type {@code (Object,P1,...,Pn)R} that runs the implementation the
+     * proxy class would otherwise inherit.  It may be returned as is, or
+     * combined with other handles, to delegate to that implementation
+     * without reflection.  For abstract methods it is {@code null}.
+     *
+     * @param  method the {@code Method} object that would be passed to
+     *         {@code invoke} for invocations of this method
+     * @param  implementation the inherited implementation of the method,
+     *         or {@code null} if there is none
+     * @return a method handle convertible to type {@code (Object,P1,...,Pn)R}
+     */
+    MethodHandle bind(Method method, MethodHandle implementation);
+
+    /**
+     * Processes a method invocation on a proxy instance that does not
+     * call the handles returned by {@link #bind bind} directly.
+     *
+     * @implSpec
+     * The default implementation calls {@code bind} for {@code method}
+     * and invokes the resulting handle with {@code proxy} and
+     * {@code args}.
+     *
+     * @param  proxy the proxy instance that the method was invoked on
+     * @param  method the {@code Method} instance corresponding to the
+     *         method invoked on the proxy instance
+     * @param  args the arguments of the invocation, or {@code null} if
+     *         the method takes no arguments
+     * @return the value to return from the method invocation
+     * @throws Throwable the exception to throw from the method invocation
+     */
+    @Override
+    default Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable
+    {
+        return Proxy.invokeBound(this, proxy, method, args);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jdk.internal.org.objectweb.asm.ClassWriter;
+import jdk.internal.org.objectweb.asm.Label;
+import jdk.internal.org.objectweb.asm.MethodVisitor;
+import jdk.internal.org.objectweb.asm.Type;
+
+import static jdk.internal.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates proxy classes that dispatch through method handles, for
+ * {@link MethodHandleInvocationHandler}s.
+ *
+ * <p>The generated class has a constructor taking the invocation handler
+ * and an array of method handles, one per element of
+ * {@link #proxyMethods proxyMethods(interfaces)}, each of type
+ * {@code (Object,P1,...,Pn)R}.  Method {@code i} loads handle {@code i}
+ * and calls it with {@code invokeExact}, then wraps undeclared checked
+ * exceptions as the {@code sun.misc.ProxyGenerator} classes do.
+ */
+final class MethodHandleProxyGenerator {
+    private MethodHandleProxyGenerator() {}
+
+    private static final String PROXY = "java/lang/reflect/Proxy";
+    private static final String HANDLE = "java/lang/invoke/MethodHandle";
+    private static final String HANDLES_FIELD = "mh";
+    private static final String HANDLES_DESC = "[Ljava/lang/invoke/MethodHandle;";
+    private static final String CTOR_DESC =
+        "(Ljava/lang/reflect/InvocationHandler;" + HANDLES_DESC + ")V";
+    private static final String UNDECLARED = "java/lang/reflect/UndeclaredThrowableException";
+
+    // Slots left for the receiver and the arguments of invokeExact
+    private static final int MAX_SLOTS = 253;
+
+    /**
+     * Returns the methods a proxy class for {@code interfaces} implements,
+     * in the order of its handles, or {@code null} if the class cannot be
+     * generated in this form.  That is the case when two interfaces
+     * declare a method with the same signature but different return or
+     * exception types, or when a method has too many parameters.
+     */
+    static Method[] proxyMethods(Class<?>[] interfaces) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        try {
+            addMethod(methods, Object.class.getMethod("hashCode"));
+            addMethod(methods, Object.class.getMethod("equals", Object.class));
+            addMethod(methods, Object.class.getMethod("toString"));
+        } catch (NoSuchMethodException e) {
+            throw new InternalError(e.toString(), e);
+        }
+        for (Class<?> intf : interfaces) {
+            for (Method m : intf.getMethods()) {
+                if (Modifier.isStatic(m.getModifiers()))
+                    continue;
+                if (!addMethod(methods, m))
+                    return null;
+            }
+        }
+        for (Method m : methods.values()) {
+            int slots = 1;
+            for (Class<?> p : m.getParameterTypes())
+                slots += (p == long.class || p == double.class) ? 2 : 1;
+            if (slots > MAX_SLOTS)
+                return null;
+        }
+        return methods.values().toArray(new Method[methods.size()]);
+    }
+
+    private static boolean addMethod(Map<String, Method> methods, Method m) {
+        String key = m.getName() +
+            MethodType.methodType(void.class, m.getParameterTypes())
+                      .toMethodDescriptorString();
+        Method prev = methods.putIfAbsent(key, m);
+        return prev == null ||
+            (prev.getReturnType() == m.getReturnType() &&
+             Arrays.equals(prev.getExceptionTypes(), m.getExceptionTypes()));
+    }
+
+    /**
+     * Generates the class file of a proxy class implementing
+     * {@code methods}, as returned by {@link #proxyMethods proxyMethods}.
+     */
+    static byte[] generateProxyClass(String name, Class<?>[] interfaces,
+                                     int accessFlags, Method[] methods) {
+        String[] intfNames = new String[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++)
+            intfNames[i] = Type.getInternalName(interfaces[i]);
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        String className = name.replace('.', '/');
+        cw.visit(V1_8, accessFlags | ACC_SUPER, className, null, PROXY, intfNames);
+        // transient: proxy instances are serializable, method handles are
+        // not, and a deserialized proxy is an instance of the classic proxy
+        // class anyway, see ObjectInputStream.resolveProxyClass
+        cw.visitField(ACC_PRIVATE | ACC_FINAL | ACC_TRANSIENT, HANDLES_FIELD,
+                      HANDLES_DESC, null, null)
+          .visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(ACC_PRIVATE, "<init>", CTOR_DESC, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKESPECIAL, PROXY, "<init>",
+                           "(Ljava/lang/reflect/InvocationHandler;)V", false);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitFieldInsn(PUTFIELD, className, HANDLES_FIELD, HANDLES_DESC);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+
+        for (int i = 0; i < methods.length; i++)
+            generateMethod(cw, className, methods[i], i);
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void generateMethod(ClassWriter cw, String className,
+                                       Method m, int index) {
+        Class<?>[] params = m.getParameterTypes();
+        Class<?>[] exceptions = m.getExceptionTypes();
+        String[] exceptionNames = new String[exceptions.length];
+        boolean catchAll = true;
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptionNames[i] = Type.getInternalName(exceptions[i]);
+            if (exceptions[i] == Throwable.class)
+                catchAll = false;
+        }
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, m.getName(),
+                                          Type.getMethodDescriptor(m), null,
+                                          exceptionNames);
+        mv.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        Label wrap = new Label();
+        // One rethrow handler per caught type: with a shared handler the
+        // frame computation would merge the types through
+        // ClassWriter.getCommonSuperClass, which loads them with the
+        // bootstrap loader and fails for application exception classes.
+        Label[] rethrow = null;
+        if (catchAll) {
+            String[] rethrown = new String[exceptionNames.length + 2];
+            rethrown[0] = "java/lang/Error";
+            rethrown[1] = "java/lang/RuntimeException";
+            System.arraycopy(exceptionNames, 0, rethrown, 2, exceptionNames.length);
+            rethrow = new Label[rethrown.length];
+            for (int i = 0; i < rethrown.length; i++) {
+                rethrow[i] = new Label();
+                mv.visitTryCatchBlock(start, end, rethrow[i], rethrown[i]);
+            }
+            mv.visitTryCatchBlock(start, end, wrap, "java/lang/Throwable");
+        }
+
+        mv.visitLabel(start);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, HANDLES_FIELD, HANDLES_DESC);
+        pushInt(mv, index);
+        mv.visitInsn(AALOAD);
+        mv.visitVarInsn(ALOAD, 0);
+        int slot = 1;
+        Type[] argTypes = new Type[params.length + 1];
+        argTypes[0] = Type.getType(Object.class);
+        for (int i = 0; i < params.length; i++) {
+            Type t = Type.getType(params[i]);
+            argTypes[i + 1] = t;
+            mv.visitVarInsn(t.getOpcode(ILOAD), slot);
+            slot += t.getSize();
+        }
+        Type returnType = Type.getType(m.getReturnType());
+        mv.visitMethodInsn(INVOKEVIRTUAL, HANDLE, "invokeExact",
+                           Type.getMethodDescriptor(returnType, argTypes), false);
+        mv.visitLabel(end);
+        mv.visitInsn(returnType.getOpcode(IRETURN));
+
+        if (catchAll) {
+            for (Label l : rethrow) {
+                mv.visitLabel(l);
+                mv.visitInsn(ATHROW);
+            }
+
+            mv.visitLabel(wrap);
+            mv.visitVarInsn(ASTORE, slot);
+            mv.visitTypeInsn(NEW, UNDECLARED);
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ALOAD, slot);
+            mv.visitMethodInsn(INVOKESPECIAL, UNDECLARED, "<init>",
+                               "(Ljava/lang/Throwable;)V", false);
+            mv.visitInsn(ATHROW);
+        }
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+}
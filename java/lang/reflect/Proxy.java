@@ -25,6 +25,9 @@
 
 package java.lang.reflect;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -32,9 +35,11 @@ import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import sun.misc.ProxyGenerator;
+import sun.misc.SharedSecrets;
 import sun.misc.VM;
 import sun.reflect.CallerSensitive;
 import sun.reflect.Reflection;
@@ -139,6 +144,14 @@ import sun.security.util.SecurityConstants;
  * constructor with an invocation handler.
  * </ul>
  *
+ * <p>A proxy instance created by {@code Proxy.newProxyInstance} with a
+ * {@link MethodHandleInvocationHandler} may instead be an instance of a
+ * proxy class that calls a method handle per method, obtained from the
+ * handler when the instance is created.  Such a proxy class has the
+ * properties above, except that its constructor is not public and takes
+ * the method handles in addition to the invocation handler; it is not
+ * returned by {@code Proxy.getProxyClass}.
+ *
  * <p>A proxy instance has the following properties:
  *
  * <ul>
@@ -237,7 +250,38 @@ public class Proxy implements java.io.Serializable {
      * a cache of proxy classes
      */
     private static final WeakCache<ClassLoader, Class<?>[], Class<?>>
-        proxyClassCache = new WeakCache<>(new KeyFactory(), new ProxyClassFactory());
+        proxyClassCache = new WeakCache<>(new KeyFactory(), new ProxyClassFactory(false));
+
+    /**
+     * a cache of proxy classes for {@code MethodHandleInvocationHandler}s;
+     * holds the classic proxy class where one cannot be generated
+     */
+    private static final WeakCache<ClassLoader, Class<?>[], Class<?>>
+        methodHandleProxyClassCache = new WeakCache<>(new KeyFactory(), new ProxyClassFactory(true));
+
+    /**
+     * the methods and constructor of the proxy classes that dispatch
+     * through method handles, or null for other proxy classes
+     */
+    private static final ClassValue<MethodHandleProxyClass> methodHandleProxyClasses =
+        new ClassValue<MethodHandleProxyClass>() {
+            @Override
+            protected MethodHandleProxyClass computeValue(Class<?> cl) {
+                return MethodHandleProxyClass.of(cl);
+            }
+        };
+
+    /**
+     * the method bindings of the proxy classes whose instances have
+     * {@code MethodHandleInvocationHandler}s, by method
+     */
+    private static final ClassValue<ConcurrentHashMap<Method, MethodBinding>> methodBindings =
+        new ClassValue<ConcurrentHashMap<Method, MethodBinding>>() {
+            @Override
+            protected ConcurrentHashMap<Method, MethodBinding> computeValue(Class<?> cl) {
+                return new ConcurrentHashMap<>();
+            }
+        };
 
     /**
      * the invocation handler for this proxy instance.
@@ -419,6 +463,20 @@ public class Proxy implements java.io.Serializable {
         return proxyClassCache.get(loader, interfaces);
     }
 
+    /**
+     * Returns the proxy class dispatching through method handles for the
+     * given interfaces, or the classic proxy class if the interfaces do
+     * not allow it.  Must call the checkProxyAccess method to perform
+     * permission checks before calling this.
+     */
+    private static Class<?> getMethodHandleProxyClass0(ClassLoader loader,
+                                                       Class<?>... interfaces) {
+        if (interfaces.length > 65535) {
+            throw new IllegalArgumentException("interface limit exceeded");
+        }
+        return methodHandleProxyClassCache.get(loader, interfaces);
+    }
+
     /*
      * a key used for proxy class with 0 implemented interfaces
      */
@@ -563,6 +621,13 @@ public class Proxy implements java.io.Serializable {
         // next number to use for generation of unique proxy class names
         private static final AtomicLong nextUniqueNumber = new AtomicLong();
 
+        // whether to generate classes dispatching through method handles
+        private final boolean methodHandles;
+
+        ProxyClassFactory(boolean methodHandles) {
+            this.methodHandles = methodHandles;
+        }
+
         @Override
         public Class<?> apply(ClassLoader loader, Class<?>[] interfaces) {
 
@@ -627,6 +692,15 @@ public class Proxy implements java.io.Serializable {
                 proxyPkg = ReflectUtil.PROXY_PACKAGE + ".";
             }
 
+            Method[] methods = null;
+            if (methodHandles) {
+                methods = MethodHandleProxyGenerator.proxyMethods(interfaces);
+                if (methods == null) {
+                    // share the classic proxy class
+                    return getProxyClass0(loader, interfaces);
+                }
+            }
+
             /*
              * Choose a name for the proxy class to generate.
              */
@@ -636,8 +710,20 @@ public class Proxy implements java.io.Serializable {
             /*
              * Generate the specified proxy class.
              */
-            byte[] proxyClassFile = ProxyGenerator.generateProxyClass(
-                proxyName, interfaces, accessFlags);
+            byte[] proxyClassFile;
+            if (methods != null) {
+                try {
+                    proxyClassFile = MethodHandleProxyGenerator.generateProxyClass(
+                        proxyName, interfaces, accessFlags, methods);
+                } catch (RuntimeException | LinkageError e) {
+                    // the generator could not spin the class; share the
+                    // classic proxy class rather than fail
+                    return getProxyClass0(loader, interfaces);
+                }
+            } else {
+                proxyClassFile = ProxyGenerator.generateProxyClass(
+                    proxyName, interfaces, accessFlags);
+            }
             try {
                 return defineClass0(loader, proxyName,
                                     proxyClassFile, 0, proxyClassFile.length);
@@ -716,7 +802,14 @@ public class Proxy implements java.io.Serializable {
         /*
          * Look up or generate the designated proxy class.
          */
-        Class<?> cl = getProxyClass0(loader, intfs);
+        Class<?> cl;
+        MethodHandleProxyClass mhpc = null;
+        if (h instanceof MethodHandleInvocationHandler) {
+            cl = getMethodHandleProxyClass0(loader, intfs);
+            mhpc = methodHandleProxyClasses.get(cl);
+        } else {
+            cl = getProxyClass0(loader, intfs);
+        }
 
         /*
          * Invoke its constructor with the designated invocation handler.
@@ -726,6 +819,10 @@ public class Proxy implements java.io.Serializable {
                 checkNewProxyPermission(Reflection.getCallerClass(), cl);
             }
 
+            if (mhpc != null) {
+                return mhpc.newInstance((MethodHandleInvocationHandler) h);
+            }
+
             final Constructor<?> cons = cl.getConstructor(constructorParams);
             final InvocationHandler ih = h;
             if (!Modifier.isPublic(cl.getModifiers())) {
@@ -788,7 +885,154 @@ public class Proxy implements java.io.Serializable {
      * @throws  NullPointerException if {@code cl} is {@code null}
      */
     public static boolean isProxyClass(Class<?> cl) {
-        return Proxy.class.isAssignableFrom(cl) && proxyClassCache.containsValue(cl);
+        return Proxy.class.isAssignableFrom(cl) &&
+            (proxyClassCache.containsValue(cl) ||
+             methodHandleProxyClassCache.containsValue(cl));
+    }
+
+    /**
+     * The constructor and methods of a proxy class generated by
+     * {@code MethodHandleProxyGenerator}.
+     */
+    private static final class MethodHandleProxyClass {
+        private final Constructor<?> cons;
+        private final MethodBinding[] bindings;
+
+        private MethodHandleProxyClass(Constructor<?> cons,
+                                       MethodBinding[] bindings) {
+            this.cons = cons;
+            this.bindings = bindings;
+        }
+
+        static MethodHandleProxyClass of(Class<?> cl) {
+            final Constructor<?> cons;
+            try {
+                cons = cl.getDeclaredConstructor(InvocationHandler.class,
+                                                 MethodHandle[].class);
+            } catch (NoSuchMethodException e) {
+                return null;  // a classic proxy class
+            }
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                public Void run() {
+                    cons.setAccessible(true);
+                    return null;
+                }
+            });
+            // the generator orders the handles the same way
+            Method[] methods = MethodHandleProxyGenerator.proxyMethods(cl.getInterfaces());
+            MethodBinding[] bindings = new MethodBinding[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                bindings[i] = methodBinding(cl, methods[i]);
+            }
+            return new MethodHandleProxyClass(cons, bindings);
+        }
+
+        Object newInstance(MethodHandleInvocationHandler h)
+            throws IllegalAccessException, InstantiationException,
+                   InvocationTargetException
+        {
+            MethodHandle[] handles = new MethodHandle[bindings.length];
+            for (int i = 0; i < bindings.length; i++) {
+                handles[i] = bindings[i].bind(h);
+            }
+            return cons.newInstance(h, handles);
+        }
+    }
+
+    /**
+     * Returns the binding of {@code method} in {@code proxyClass}.
+     */
+    private static MethodBinding methodBinding(Class<?> proxyClass, Method method) {
+        ConcurrentHashMap<Method, MethodBinding> bindings = methodBindings.get(proxyClass);
+        MethodBinding b = bindings.get(method);
+        if (b == null) {
+            MethodBinding nb = new MethodBinding(proxyClass, method);
+            b = bindings.putIfAbsent(method, nb);
+            if (b == null) {
+                b = nb;
+            }
+        }
+        return b;
+    }
+
+    /**
+     * The binding of one method of a proxy class: the type its handle is
+     * adapted to, the handle of the implementation the proxy class inherits,
+     * if any, and the handle most recently bound by a handler, which is
+     * reused while the same handler binds the method again.  The latter is
+     * softly referenced so that the cache does not keep handlers alive
+     * when memory is short.
+     */
+    private static final class MethodBinding {
+        private final Method method;
+        private final MethodType type;
+        private final MethodHandle implementation;
+        private volatile SoftReference<BoundHandle> last;
+
+        MethodBinding(Class<?> proxyClass, Method method) {
+            this.method = method;
+            this.type = MethodType.methodType(method.getReturnType(),
+                                              method.getParameterTypes())
+                                  .insertParameterTypes(0, Object.class);
+            MethodHandle implementation = null;
+            if (method.isDefault() || method.getDeclaringClass() == Object.class) {
+                try {
+                    implementation = SharedSecrets.getJavaLangInvokeAccess()
+                        .unreflectSpecial(method, proxyClass).asType(type);
+                } catch (IllegalAccessException e) {
+                    throw new InternalError(e.toString(), e);
+                }
+            }
+            this.implementation = implementation;
+        }
+
+        /**
+         * Asks {@code h} for the handle of the method, unless it has just
+         * done so, and adapts it to type {@code (Object,P1,...,Pn)R}.
+         */
+        MethodHandle bind(MethodHandleInvocationHandler h) {
+            SoftReference<BoundHandle> ref = last;
+            BoundHandle b = (ref != null) ? ref.get() : null;
+            if (b != null && b.handler == h) {
+                return b.target;
+            }
+            MethodHandle target = h.bind(method, implementation);
+            if (target == null) {
+                throw new NullPointerException("no method handle bound for " + method);
+            }
+            target = target.asType(type);
+            last = new SoftReference<>(new BoundHandle(h, target));
+            return target;
+        }
+    }
+
+    /**
+     * A handle bound by a handler.
+     */
+    private static final class BoundHandle {
+        final MethodHandleInvocationHandler handler;
+        final MethodHandle target;
+
+        BoundHandle(MethodHandleInvocationHandler handler, MethodHandle target) {
+            this.handler = handler;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Dispatches an invocation through {@code h.bind}, for proxy classes
+     * that call {@code InvocationHandler.invoke}.
+     */
+    static Object invokeBound(MethodHandleInvocationHandler h, Object proxy,
+                              Method method, Object[] args) throws Throwable {
+        MethodHandle target = methodBinding(proxy.getClass(), method).bind(h);
+        int n = (args == null) ? 0 : args.length;
+        Object[] arguments = new Object[n + 1];
+        arguments[0] = proxy;
+        if (n > 0) {
+            System.arraycopy(args, 0, arguments, 1, n);
+        }
+        return target.invokeWithArguments(arguments);
     }
 
     /**
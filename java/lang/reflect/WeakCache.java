@@ -29,6 +29,8 @@ import java.lang.ref.WeakReference;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentReferenceHashMap;
+import java.util.concurrent.ConcurrentReferenceHashMap.ReferenceType;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
@@ -42,12 +44,13 @@ import java.util.function.Supplier;
  * Keys can be {@code null} and are compared by identity while sub-keys returned by
  * {@code subKeyFactory} or values returned by {@code valueFactory}
  * can not be null. Sub-keys are compared using their {@link #equals} method.
- * Entries are expunged from cache lazily on each invocation to {@link #get},
- * {@link #containsValue} or {@link #size} methods when the WeakReferences to
- * keys are cleared. Cleared WeakReferences to individual values don't cause
- * expunging, but such entries are logically treated as non-existent and
- * trigger re-evaluation of {@code valueFactory} on request for their
- * key/subKey.
+ * The first level of the cache is a weak, identity-keyed
+ * {@link ConcurrentReferenceHashMap}, which expunges entries incrementally
+ * once their keys are cleared. Cleared WeakReferences to individual values
+ * are expunged from the reverse map on each invocation to {@link #get},
+ * {@link #containsValue} or {@link #size}; in the values map they are
+ * logically treated as non-existent and trigger re-evaluation of
+ * {@code valueFactory} on request for their key/subKey.
  *
  * @author Peter Levart
  * @param <K> type of keys
@@ -56,10 +59,12 @@ import java.util.function.Supplier;
  */
 final class WeakCache<K, P, V> {
 
-    private final ReferenceQueue<K> refQueue
+    private final ReferenceQueue<V> refQueue
         = new ReferenceQueue<>();
-    // the key type is Object for supporting null key
-    private final ConcurrentMap<Object, ConcurrentMap<Object, Supplier<V>>> map
+    private final ConcurrentMap<K, ConcurrentMap<Object, Supplier<V>>> map
+        = new ConcurrentReferenceHashMap<>(ReferenceType.WEAK, true);
+    // a null key can't be weakly referenced, so it gets its own values map
+    private final ConcurrentMap<Object, Supplier<V>> nullKeyValuesMap
         = new ConcurrentHashMap<>();
     private final ConcurrentMap<Supplier<V>, Boolean> reverseMap
         = new ConcurrentHashMap<>();
@@ -102,13 +107,12 @@ final class WeakCache<K, P, V> {
 
         expungeStaleEntries();
 
-        Object cacheKey = CacheKey.valueOf(key, refQueue);
-
-        // lazily install the 2nd level valuesMap for the particular cacheKey
-        ConcurrentMap<Object, Supplier<V>> valuesMap = map.get(cacheKey);
+        // lazily install the 2nd level valuesMap for the particular key
+        ConcurrentMap<Object, Supplier<V>> valuesMap =
+            key == null ? nullKeyValuesMap : map.get(key);
         if (valuesMap == null) {
             ConcurrentMap<Object, Supplier<V>> oldValuesMap
-                = map.putIfAbsent(cacheKey,
+                = map.putIfAbsent(key,
                                   valuesMap = new ConcurrentHashMap<>());
             if (oldValuesMap != null) {
                 valuesMap = oldValuesMap;
@@ -185,9 +189,10 @@ final class WeakCache<K, P, V> {
     }
 
     private void expungeStaleEntries() {
-        CacheKey<K> cacheKey;
-        while ((cacheKey = (CacheKey<K>)refQueue.poll()) != null) {
-            cacheKey.expungeFrom(map, reverseMap);
+        Object cacheValue;
+        while ((cacheValue = refQueue.poll()) != null) {
+            // a cleared CacheValue is only equal to itself
+            reverseMap.remove(cacheValue);
         }
     }
 
@@ -237,7 +242,7 @@ final class WeakCache<K, P, V> {
             assert value != null;
 
             // wrap value with CacheValue (WeakReference)
-            CacheValue<V> cacheValue = new CacheValue<>(value);
+            CacheValue<V> cacheValue = new CacheValue<>(value, refQueue);
 
             // try replacing us with CacheValue (this should always succeed)
             if (valuesMap.replace(subKey, this, cacheValue)) {
@@ -291,15 +296,17 @@ final class WeakCache<K, P, V> {
     }
 
     /**
-     * A {@link Value} that weakly references the referent.
+     * A {@link Value} that weakly references the referent. It registers
+     * itself with the {@code refQueue} so that it can be used to expunge
+     * the reverse map entry when the {@link WeakReference} is cleared.
      */
     private static final class CacheValue<V>
         extends WeakReference<V> implements Value<V>
     {
         private final int hash;
 
-        CacheValue(V value) {
-            super(value);
+        CacheValue(V value, ReferenceQueue<V> refQueue) {
+            super(value, refQueue);
             this.hash = System.identityHashCode(value); // compare by identity
         }
 
@@ -318,62 +325,4 @@ final class WeakCache<K, P, V> {
                    value == ((Value<?>) obj).get(); // compare by identity
         }
     }
-
-    /**
-     * CacheKey containing a weakly referenced {@code key}. It registers
-     * itself with the {@code refQueue} so that it can be used to expunge
-     * the entry when the {@link WeakReference} is cleared.
-     */
-    private static final class CacheKey<K> extends WeakReference<K> {
-
-        // a replacement for null keys
-        private static final Object NULL_KEY = new Object();
-
-        static <K> Object valueOf(K key, ReferenceQueue<K> refQueue) {
-            return key == null
-                   // null key means we can't weakly reference it,
-                   // so we use a NULL_KEY singleton as cache key
-                   ? NULL_KEY
-                   // non-null key requires wrapping with a WeakReference
-                   : new CacheKey<>(key, refQueue);
-        }
-
-        private final int hash;
-
-        private CacheKey(K key, ReferenceQueue<K> refQueue) {
-            super(key, refQueue);
-            this.hash = System.identityHashCode(key);  // compare by identity
-        }
-
-        @Override
-        public int hashCode() {
-            return hash;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            K key;
-            return obj == this ||
-                   obj != null &&
-                   obj.getClass() == this.getClass() &&
-                   // cleared CacheKey is only equal to itself
-                   (key = this.get()) != null &&
-                   // compare key by identity
-                   key == ((CacheKey<K>) obj).get();
-        }
-
-        void expungeFrom(ConcurrentMap<?, ? extends ConcurrentMap<?, ?>> map,
-                         ConcurrentMap<?, Boolean> reverseMap) {
-            // removing just by key is always safe here because after a CacheKey
-            // is cleared and enqueue-ed it is only equal to itself
-            // (see equals method)...
-            ConcurrentMap<?, ?> valuesMap = map.remove(this);
-            // remove also from reverseMap if needed
-            if (valuesMap != null) {
-                for (Object cacheValue : valuesMap.values()) {
-                    reverseMap.remove(cacheValue);
-                }
-            }
-        }
-    }
 }
@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import sun.misc.Resource;
+import sun.misc.URLClassPath;
+import sun.net.www.ParseUtil;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * A persistent index of the search path of a {@link URLClassLoader},
+ * enabled by setting the system property
+ * {@code java.net.URLClassLoader.indexDir} to a writable directory.
+ *
+ * <p>For every directory of every jar file on the initial search path,
+ * including the jar files named by their {@code Class-Path} manifest
+ * attributes, the index records which search path elements contain
+ * entries in or below that directory.  A lookup then only visits the
+ * elements that may hold the name, each through a
+ * {@code URLClassPath} of its own, so names that are not on the path are
+ * rejected without opening or probing any jar file.  Elements that
+ * cannot be indexed, such as directories and non-{@code file} URLs, and
+ * elements appended with {@code addURL} are always visited.
+ *
+ * <p>The index is stored in the index directory under a name derived
+ * from the search path, together with the size and modification time of
+ * every jar file it covers.  If no up-to-date index exists when the
+ * loader first looks up a name, the loader searches the path as usual
+ * for its lifetime and a background thread writes a fresh index for the
+ * next run.  Search paths containing a jar file with a
+ * {@code META-INF/INDEX.LIST} are not indexed.
+ */
+final class ClassPathIndex {
+    private static final String INDEX_DIR_KEY = "java.net.URLClassLoader.indexDir";
+
+    private static final int MAGIC = 0x55434c49;  // "UCLI"
+    private static final int VERSION = 1;
+    private static final int[] NONE = new int[0];
+
+    private static final int UNLOADED = 0, ACTIVE = 1, INACTIVE = 2;
+
+    private final File indexDir;
+    private final URLStreamHandlerFactory factory;
+    // the number of search path elements the index describes
+    private final int indexedCount;
+
+    // search path elements, including those appended by addURL
+    private volatile URL[] urls;
+    // one search path per element, created on first use; copied on write
+    private volatile URLClassPath[] paths;
+
+    private volatile int state;
+    // sorted element indices for each directory, merged with unindexed
+    private Map<String, int[]> candidates;
+    // sorted indices of the elements that could not be indexed
+    private int[] unindexed;
+    private boolean closed;
+
+    private ClassPathIndex(File indexDir, URL[] urls, URLStreamHandlerFactory factory) {
+        this.indexDir = indexDir;
+        this.factory = factory;
+        this.indexedCount = urls.length;
+        this.urls = urls;
+        this.paths = new URLClassPath[urls.length];
+    }
+
+    /**
+     * Returns an index for the given initial search path, or {@code null}
+     * if indexing is not enabled.
+     */
+    static ClassPathIndex forURLs(URL[] urls, URLStreamHandlerFactory factory) {
+        if (urls == null) {
+            return null;
+        }
+        String dir = AccessController.doPrivileged(
+            new GetPropertyAction(INDEX_DIR_KEY));
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        return new ClassPathIndex(new File(dir), urls.clone(), factory);
+    }
+
+    /**
+     * Finds a resource like {@code ucp.getResource(name, false)}.
+     */
+    Resource getResource(String name, URLClassPath ucp) {
+        if (!isActive()) {
+            return ucp.getResource(name, false);
+        }
+        int[] indices = candidates(name);
+        for (int i : indices) {
+            Resource res = path(i).getResource(name, false);
+            if (res != null) {
+                return res;
+            }
+        }
+        for (int i = indexedCount; i < urls.length; i++) {
+            Resource res = path(i).getResource(name, false);
+            if (res != null) {
+                return res;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds a resource like {@code ucp.findResource(name, true)}.
+     */
+    URL findResource(String name, URLClassPath ucp) {
+        if (!isActive()) {
+            return ucp.findResource(name, true);
+        }
+        int[] indices = candidates(name);
+        for (int i : indices) {
+            URL url = path(i).findResource(name, true);
+            if (url != null) {
+                return url;
+            }
+        }
+        for (int i = indexedCount; i < urls.length; i++) {
+            URL url = path(i).findResource(name, true);
+            if (url != null) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends an element to the search path; it is not covered by the
+     * index and is always visited.
+     */
+    synchronized void addURL(URL url) {
+        if (url == null || closed) {
+            return;
+        }
+        URL[] current = urls;
+        for (URL u : current) {
+            if (u.toString().equals(url.toString())) {
+                return;
+            }
+        }
+        URL[] newURLs = Arrays.copyOf(current, current.length + 1);
+        newURLs[current.length] = url;
+        paths = Arrays.copyOf(paths, newURLs.length);
+        urls = newURLs;
+    }
+
+    /**
+     * Closes the search paths opened by this index, adding any exception
+     * to {@code errors}.
+     */
+    void close(List<IOException> errors) {
+        URLClassPath[] opened;
+        synchronized (this) {
+            closed = true;
+            opened = paths;
+        }
+        for (URLClassPath path : opened) {
+            if (path != null) {
+                errors.addAll(path.closeLoaders());
+            }
+        }
+    }
+
+    private int[] candidates(String name) {
+        String dir = name.substring(0, name.lastIndexOf('/') + 1);
+        int[] indices = candidates.get(dir);
+        return (indices != null) ? indices : unindexed;
+    }
+
+    private URLClassPath path(int i) {
+        URLClassPath path = paths[i];
+        if (path == null) {
+            synchronized (this) {
+                URLClassPath[] current = paths;
+                path = current[i];
+                if (path == null) {
+                    URL[] single = { urls[i] };
+                    path = (factory != null) ? new URLClassPath(single, factory)
+                                             : new URLClassPath(single);
+                    if (closed) {
+                        path.closeLoaders();
+                    }
+                    URLClassPath[] newPaths = current.clone();
+                    newPaths[i] = path;
+                    paths = newPaths;
+                }
+            }
+        }
+        return path;
+    }
+
+    private boolean isActive() {
+        int s = state;
+        if (s == UNLOADED) {
+            synchronized (this) {
+                s = state;
+                if (s == UNLOADED) {
+                    s = AccessController.doPrivileged(new PrivilegedAction<Integer>() {
+                        public Integer run() {
+                            if (load()) {
+                                return ACTIVE;
+                            }
+                            startBuild();
+                            return INACTIVE;
+                        }
+                    });
+                    state = s;
+                }
+            }
+        }
+        return s == ACTIVE;
+    }
+
+    private File indexFile() {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < indexedCount; i++) {
+            key.append(urls[i]).append('\n');
+        }
+        return new File(indexDir, "classpath-" + indexedCount + "-" +
+                        Integer.toHexString(key.toString().hashCode()) + ".idx");
+    }
+
+    /**
+     * Reads the index file, returning false if it is missing, was written
+     * for another search path, or any jar file it covers has changed.
+     */
+    private boolean load() {
+        File file = indexFile();
+        if (!file.isFile()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readInt() != indexedCount) {
+                return false;
+            }
+            for (int i = 0; i < indexedCount; i++) {
+                if (!in.readUTF().equals(urls[i].toString())) {
+                    return false;
+                }
+            }
+            for (int n = in.readInt(); n > 0; n--) {
+                File jar = new File(in.readUTF());
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                if (jar.length() != size || jar.lastModified() != lastModified) {
+                    return false;
+                }
+            }
+            int[] unindexed = readIndices(in);
+            int n = in.readInt();
+            Map<String, int[]> candidates = new HashMap<>(Math.max(n * 4 / 3 + 1, 16));
+            for (; n > 0; n--) {
+                String dir = in.readUTF();
+                candidates.put(dir, merge(readIndices(in), unindexed));
+            }
+            this.unindexed = unindexed;
+            this.candidates = candidates;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static int[] readIndices(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n == 0) {
+            return NONE;
+        }
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = in.readInt();
+        }
+        return indices;
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            result[k++] = (a[i] <= b[j]) ? a[i++] : b[j++];
+        }
+        while (i < a.length) {
+            result[k++] = a[i++];
+        }
+        while (j < b.length) {
+            result[k++] = b[j++];
+        }
+        return result;
+    }
+
+    private void startBuild() {
+        Thread t = new Thread(new Runnable() {
+            public void run() {
+                build();
+            }
+        }, "URLClassLoader-Indexer");
+        t.setDaemon(true);
+        t.setContextClassLoader(null);
+        t.start();
+    }
+
+    /** Thrown when the search path cannot be indexed at all. */
+    private static class NotIndexableException extends Exception {
+        private static final long serialVersionUID = 3178526389436536961L;
+    }
+
+    /**
+     * Scans the jar files on the initial search path and writes the index
+     * file.  Failures are ignored; the next run simply tries again.
+     */
+    private void build() {
+        Map<String, BitSet> dirs = new HashMap<>();
+        // path -> { size, lastModified } as seen before scanning
+        Map<String, long[]> jars = new HashMap<>();
+        BitSet unindexed = new BitSet();
+        try {
+            for (int i = 0; i < indexedCount; i++) {
+                if (!indexURL(urls[i], i, dirs, jars, new HashSet<String>())) {
+                    unindexed.set(i);
+                }
+            }
+            write(dirs, jars, unindexed);
+        } catch (NotIndexableException | IOException | RuntimeException e) {
+            // leave the index for the next run to build
+        }
+    }
+
+    /**
+     * Adds the entries reachable through search path element {@code i}
+     * to {@code dirs}.  Returns false if the element cannot be indexed.
+     */
+    private static boolean indexURL(URL url, int i, Map<String, BitSet> dirs,
+                                    Map<String, long[]> jars, Set<String> visited)
+        throws NotIndexableException
+    {
+        if (!"file".equals(url.getProtocol())) {
+            return false;
+        }
+        File file = new File(ParseUtil.decode(url.getFile()));
+        if (file.isDirectory() || url.getFile().endsWith("/")) {
+            return false;
+        }
+        if (!visited.add(file.getPath())) {
+            return true;
+        }
+        jars.put(file.getPath(), new long[] { file.length(), file.lastModified() });
+        if (!file.isFile()) {
+            return true;  // missing for now; recorded so that it is noticed
+        }
+        String classPath = null;
+        try (JarFile jar = new JarFile(file, false)) {
+            if (jar.getEntry("META-INF/INDEX.LIST") != null) {
+                throw new NotIndexableException();
+            }
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                addDirectories(entries.nextElement().getName(), i, dirs);
+            }
+            Manifest man = jar.getManifest();
+            if (man != null) {
+                classPath = man.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+            }
+        } catch (IOException e) {
+            return true;  // not searched by URLClassPath either
+        }
+        if (classPath != null) {
+            StringTokenizer st = new StringTokenizer(classPath);
+            while (st.hasMoreTokens()) {
+                URL ref;
+                try {
+                    ref = new URL(url, st.nextToken());
+                } catch (MalformedURLException e) {
+                    continue;
+                }
+                if (!indexURL(ref, i, dirs, jars, visited)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks element {@code i} as containing entries in the directory of
+     * {@code name} and in all of its parent directories.
+     */
+    private static void addDirectories(String name, int i, Map<String, BitSet> dirs) {
+        int end = name.lastIndexOf('/') + 1;
+        for (;;) {
+            String dir = name.substring(0, end);
+            BitSet bits = dirs.get(dir);
+            if (bits == null) {
+                bits = new BitSet();
+                dirs.put(dir, bits);
+            } else if (bits.get(i)) {
+                return;  // and so are the parents
+            }
+            bits.set(i);
+            if (end == 0) {
+                return;
+            }
+            end = name.lastIndexOf('/', end - 2) + 1;
+        }
+    }
+
+    private void write(Map<String, BitSet> dirs, Map<String, long[]> jars, BitSet unindexed)
+        throws IOException
+    {
+        File file = indexFile();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(indexedCount);
+            for (int i = 0; i < indexedCount; i++) {
+                out.writeUTF(urls[i].toString());
+            }
+            out.writeInt(jars.size());
+            for (Map.Entry<String, long[]> e : jars.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue()[0]);
+                out.writeLong(e.getValue()[1]);
+            }
+            writeIndices(out, unindexed);
+            out.writeInt(dirs.size());
+            for (Map.Entry<String, BitSet> e : dirs.entrySet()) {
+                out.writeUTF(e.getKey());
+                writeIndices(out, e.getValue());
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+            }
+        }
+    }
+
+    private static void writeIndices(DataOutputStream out, BitSet bits) throws IOException {
+        out.writeInt(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            out.writeInt(i);
+        }
+    }
+}
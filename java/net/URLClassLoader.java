@@ -74,6 +74,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
     /* The search path for classes and resources */
     private final URLClassPath ucp;
 
+    /* Index of the initial search path, or null if not enabled */
+    private final ClassPathIndex index;
+
     /* The context to be used when loading classes and resources */
     private final AccessControlContext acc;
 
@@ -104,6 +107,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls);
+        index = ClassPathIndex.forURLs(urls, null);
         this.acc = AccessController.getContext();
     }
 
@@ -116,6 +120,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls);
+        index = ClassPathIndex.forURLs(urls, null);
         this.acc = acc;
     }
 
@@ -148,6 +153,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls);
+        index = ClassPathIndex.forURLs(urls, null);
         this.acc = AccessController.getContext();
     }
 
@@ -159,6 +165,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls);
+        index = ClassPathIndex.forURLs(urls, null);
         this.acc = acc;
     }
 
@@ -192,6 +199,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkCreateClassLoader();
         }
         ucp = new URLClassPath(urls, factory);
+        index = ClassPathIndex.forURLs(urls, factory);
         acc = AccessController.getContext();
     }
 
@@ -289,6 +297,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkPermission(new RuntimePermission("closeClassLoader"));
         }
         List<IOException> errors = ucp.closeLoaders();
+        if (index != null) {
+            index.close(errors);
+        }
 
         // now close any remaining streams.
 
@@ -330,6 +341,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
      */
     protected void addURL(URL url) {
         ucp.addURL(url);
+        if (index != null) {
+            index.addURL(url);
+        }
     }
 
     /**
@@ -362,7 +376,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
                 new PrivilegedExceptionAction<Class<?>>() {
                     public Class<?> run() throws ClassNotFoundException {
                         String path = name.replace('.', '/').concat(".class");
-                        Resource res = ucp.getResource(path, false);
+                        Resource res = (index != null)
+                            ? index.getResource(path, ucp)
+                            : ucp.getResource(path, false);
                         if (res != null) {
                             try {
                                 return defineClass(name, res);
@@ -566,7 +582,9 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         URL url = AccessController.doPrivileged(
             new PrivilegedAction<URL>() {
                 public URL run() {
-                    return ucp.findResource(name, true);
+                    return (index != null)
+                        ? index.findResource(name, ucp)
+                        : ucp.findResource(name, true);
                 }
             }, acc);
 
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.nio.file;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * A file-based lines spliterator, leveraging a shared mapped view of the
+ * file for splitting and reading lines.
+ *
+ * <p> The file is mapped lazily, in segments of at most 1 GB, so files larger
+ * than 2 GB are supported.  Splitting halves the byte range covered by the
+ * spliterator and moves the split point forward to just after the next line
+ * terminator, scanning the mapped bytes directly.  This is only correct for
+ * charsets in which the encodings of line feed ({@code '\n'}) and carriage
+ * return ({@code '\r'}) cannot occur as part of the encoding of any other
+ * character, see {@link #SUPPORTED_CHARSET_NAMES}.
+ *
+ * <p> Once traversal has started, lines are decoded lazily with a
+ * {@code BufferedReader} reading from the mapped range, and further splitting
+ * is not supported.
+ *
+ * <p> The segments are unmapped by {@link #close}, which is invoked when the
+ * stream is closed, and must therefore not be called while the stream is
+ * being traversed.
+ */
+final class FileChannelLinesSpliterator implements Spliterator<String> {
+
+    /**
+     * The names of the charsets whose line terminators can be found by
+     * scanning bytes.
+     */
+    static final Set<String> SUPPORTED_CHARSET_NAMES;
+    static {
+        SUPPORTED_CHARSET_NAMES = Collections.unmodifiableSet(new HashSet<>(
+                Arrays.asList("UTF-8", "ISO-8859-1", "US-ASCII")));
+    }
+
+    // log2 of the size of each mapped segment
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    // number of bytes scanned for a line terminator per segment lookup
+    private static final int SCAN_CHUNK = 8192;
+
+    private final Mapping mapping;
+    private final Charset cs;
+    private long index;
+    private final long fence;
+
+    // Non-null when traversing
+    private BufferedReader reader;
+
+    FileChannelLinesSpliterator(FileChannel fc, Charset cs, long index, long fence) {
+        this(new Mapping(fc, fence), cs, index, fence);
+    }
+
+    private FileChannelLinesSpliterator(Mapping mapping, Charset cs, long index, long fence) {
+        this.mapping = mapping;
+        this.cs = cs;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        String line = readLine();
+        if (line != null) {
+            action.accept(line);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        String line;
+        while ((line = readLine()) != null) {
+            action.accept(line);
+        }
+    }
+
+    private BufferedReader getBufferedReader() {
+        ReadableByteChannel rrbc = new ReadableByteChannel() {
+            private long position = index;
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                long remaining = fence - position;
+                if (remaining <= 0)
+                    return -1;
+                ByteBuffer src = mapping.segment(position).duplicate();
+                int offset = (int) (position & SEGMENT_MASK);
+                int n = (int) Math.min(Math.min(remaining, dst.remaining()),
+                                       src.limit() - offset);
+                src.position(offset);
+                src.limit(offset + n);
+                dst.put(src);
+                position += n;
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return mapping.fc.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // The channel is closed when the stream is closed
+            }
+        };
+        return new BufferedReader(Channels.newReader(rrbc, cs.newDecoder(), -1));
+    }
+
+    private String readLine() {
+        if (reader == null) {
+            reader = getBufferedReader();
+        }
+
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        // Cannot split after partial traverse
+        if (reader != null)
+            return null;
+
+        long mid = index + ((fence - index) >>> 1);
+        if (mid <= index)
+            return null;
+        long split = nextLineStart(mid);
+        if (split < 0 || split >= fence)
+            return null;
+
+        // The left spliterator will report the line straddling the mid point
+        return new FileChannelLinesSpliterator(mapping, cs, index, index = split);
+    }
+
+    /**
+     * Returns the position just after the first line terminator found at or
+     * after {@code from}, or -1 if there is no line terminator before the
+     * fence.  A carriage return followed by a line feed is treated as a
+     * single terminator.
+     */
+    private long nextLineStart(long from) {
+        long pos = from;
+        while (pos < fence) {
+            ByteBuffer b = mapping.segment(pos);
+            int offset = (int) (pos & SEGMENT_MASK);
+            int end = (int) Math.min(Math.min(b.limit(), offset + (long) SCAN_CHUNK),
+                                     offset + (fence - pos));
+            for (int i = offset; i < end; i++) {
+                byte c = b.get(i);
+                if (c == '\n')
+                    return pos + (i - offset) + 1;
+                if (c == '\r') {
+                    long next = pos + (i - offset) + 1;
+                    if (next < fence && byteAt(next) == '\n')
+                        return next + 1;
+                    return next;
+                }
+            }
+            pos += end - offset;
+        }
+        return -1;
+    }
+
+    private byte byteAt(long pos) {
+        return mapping.segment(pos).get((int) (pos & SEGMENT_MASK));
+    }
+
+    /**
+     * Unmaps the segments mapped for this spliterator and the spliterators
+     * split from it.  Further traversal fails.
+     */
+    void close() {
+        mapping.close();
+    }
+
+    @Override
+    public long estimateSize() {
+        // Use the number of bytes as an estimate.
+        // We could divide by a constant that is the average number of
+        // characters per-line, but that constant will be factored out.
+        return fence - index;
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return -1;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+
+    /**
+     * The lazily mapped segments of a file, shared by a spliterator and all
+     * the spliterators split from it.  A segment is mapped under the lock
+     * of the mapping the first time it is needed, and published through an
+     * atomic array so that later lookups do not lock.
+     */
+    private static final class Mapping {
+        final FileChannel fc;
+        final long size;
+        private final AtomicReferenceArray<MappedByteBuffer> segments;
+        private boolean closed;
+
+        Mapping(FileChannel fc, long size) {
+            this.fc = fc;
+            this.size = size;
+            this.segments = new AtomicReferenceArray<>(
+                    (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT));
+        }
+
+        /**
+         * Returns the mapped segment containing the given position.  The
+         * returned buffer must not have its position or limit changed.
+         */
+        MappedByteBuffer segment(long position) {
+            int i = (int) (position >>> SEGMENT_SHIFT);
+            MappedByteBuffer b = segments.get(i);
+            return (b != null) ? b : map(i);
+        }
+
+        private synchronized MappedByteBuffer map(int i) {
+            MappedByteBuffer b = segments.get(i);
+            if (b == null) {
+                if (closed)
+                    throw new UncheckedIOException(new ClosedChannelException());
+                long start = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(size - start, SEGMENT_MASK + 1);
+                try {
+                    b = fc.map(FileChannel.MapMode.READ_ONLY, start, length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                segments.set(i, b);
+            }
+            return b;
+        }
+
+        /**
+         * Unmaps all mapped segments.  No segment may be in use.
+         */
+        synchronized void close() {
+            closed = true;
+            for (int i = 0; i < segments.length(); i++) {
+                MappedByteBuffer b = segments.getAndSet(i, null);
+                if (b instanceof DirectBuffer) {
+                    Cleaner c = ((DirectBuffer) b).cleaner();
+                    if (c != null)
+                        c.clean();
+                }
+            }
+        }
+    }
+}
@@ -3714,12 +3714,30 @@ public final class Files {
      * place. In case an {@code IOException} is thrown when closing the file,
      * it is also wrapped as an {@code UncheckedIOException}.
      *
-     * <p> The returned stream encapsulates a {@link Reader}.  If timely
-     * disposal of file system resources is required, the try-with-resources
-     * construct should be used to ensure that the stream's
-     * {@link Stream#close close} method is invoked after the stream operations
-     * are completed.
+     * <p> The returned stream encapsulates a {@link Reader} or a {@link
+     * FileChannel}.  If timely disposal of file system resources is required,
+     * the try-with-resources construct should be used to ensure that the
+     * stream's {@link Stream#close close} method is invoked after the stream
+     * operations are completed.
      *
+     * <p> The file contents should not be modified during the execution of
+     * the terminal stream operation.  Otherwise, the result of the terminal
+     * stream operation is undefined.
+     *
+     * @implNote
+     * For a file of the default file system and the standard charsets {@link
+     * StandardCharsets#UTF_8 UTF-8}, {@link StandardCharsets#US_ASCII
+     * US-ASCII} and {@link StandardCharsets#ISO_8859_1 ISO-8859-1}, this
+     * implementation maps the file into memory and the returned stream's
+     * spliterator splits the file at line terminators, approximately halving
+     * the number of bytes covered at each split.  In these charsets the bytes
+     * of a line feed ({@code '\n'}) or carriage return ({@code '\r'}) never
+     * occur within the encoding of another character, so line boundaries can
+     * be found without decoding.  This gives good parallel stream performance,
+     * assuming the file contains a regular sequence of lines.  Lines are
+     * decoded lazily as the stream is traversed.  For other charsets the
+     * spliterator has poor splitting properties, similar to those of the
+     * stream returned by {@link BufferedReader#lines()}.
      *
      * @param   path
      *          the path to the file
@@ -3741,7 +3759,52 @@ public final class Files {
      * @since   1.8
      */
     public static Stream<String> lines(Path path, Charset cs) throws IOException {
-        BufferedReader br = Files.newBufferedReader(path, cs);
+        // Use the good splitting spliterator if:
+        // 1) the path is associated with the default file system;
+        // 2) the character set is supported; and
+        // 3) the file is non-empty, since some special files report a
+        //    size of zero yet have content
+        if (path.getFileSystem() == FileSystems.getDefault() &&
+            FileChannelLinesSpliterator.SUPPORTED_CHARSET_NAMES.contains(cs.name())) {
+            FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+
+            Stream<String> lines = createFileChannelLinesStream(fc, cs);
+            if (lines != null) {
+                return lines;
+            }
+            fc.close();
+        }
+
+        return createBufferedReaderLinesStream(Files.newBufferedReader(path, cs));
+    }
+
+    private static Stream<String> createFileChannelLinesStream(FileChannel fc, Charset cs)
+        throws IOException
+    {
+        try {
+            long length = fc.size();
+            if (length > 0) {
+                FileChannelLinesSpliterator s =
+                        new FileChannelLinesSpliterator(fc, cs, 0, length);
+                return StreamSupport.stream(s, false)
+                        .onClose(s::close)
+                        .onClose(asUncheckedRunnable(fc));
+            }
+        } catch (Error|RuntimeException|IOException e) {
+            try {
+                fc.close();
+            } catch (IOException ex) {
+                try {
+                    e.addSuppressed(ex);
+                } catch (Throwable ignore) {
+                }
+            }
+            throw e;
+        }
+        return null;
+    }
+
+    private static Stream<String> createBufferedReaderLinesStream(BufferedReader br) {
         try {
             return br.lines().onClose(asUncheckedRunnable(br));
         } catch (Error|RuntimeException e) {
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.util.stream.Collector;
+
+/**
+ * A state object for collecting statistics such as count, min, max, sum, and
+ * average of {@code long} values grouped by an {@code int} key.  It behaves
+ * like a {@code Map<Integer, LongSummaryStatistics>} but neither boxes keys
+ * nor allocates an object per group: keys are held in an open-addressed
+ * {@code int} table and the statistics of each group in parallel
+ * {@code long} arrays.
+ *
+ * <p>{@code IntKeyedLongSummaryStatistics} can be used as a
+ * {@linkplain java.util.stream.Stream#collect(Collector) reduction}
+ * target for a {@linkplain java.util.stream.Stream stream}. For example:
+ *
+ * <pre> {@code
+ * IntKeyedLongSummaryStatistics salaryByDept
+ *     = employees.stream()
+ *                .collect(Collectors.groupingByInt(Employee::getDeptId,
+ *                                                  Employee::getSalary));
+ * long total = salaryByDept.getSum(42);
+ *}</pre>
+ *
+ * @implNote This implementation is not thread safe. However, it is safe to use
+ * {@link java.util.stream.Collectors#groupingByInt
+ * Collectors.groupingByInt()} and
+ * {@link java.util.stream.Collectors#groupingByIntConcurrent
+ * Collectors.groupingByIntConcurrent()} on a parallel stream, because they
+ * provide the necessary partitioning, isolation, and merging of results for
+ * safe and efficient parallel execution.
+ *
+ * <p>This implementation does not check for overflow of the sums.
+ * @see LongSummaryStatistics
+ * @since 1.8
+ */
+public class IntKeyedLongSummaryStatistics {
+    /** The initial capacity of the tables; a power of two */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The maximum capacity of the tables; a power of two */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    // Parallel tables indexed by slot.  A slot is free if its count is zero.
+    private int[] keys;
+    private long[] counts;
+    private long[] sums;
+    private long[] mins;
+    private long[] maxs;
+
+    /** The number of keys */
+    private int size;
+
+    /** The size at which the tables are doubled */
+    private int threshold;
+
+    /**
+     * Construct an empty instance with no keys.
+     */
+    public IntKeyedLongSummaryStatistics() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        counts = new long[capacity];
+        sums = new long[capacity];
+        mins = new long[capacity];
+        maxs = new long[capacity];
+        threshold = (capacity == MAXIMUM_CAPACITY) ? Integer.MAX_VALUE : capacity - (capacity >>> 2);
+    }
+
+    /**
+     * Returns the home slot of a key in a table of the given capacity, using
+     * multiplicative hashing so that runs of consecutive keys spread well.
+     */
+    private static int hash(int key, int capacity) {
+        return (key * 0x9E3779B9) >>> (Integer.numberOfLeadingZeros(capacity) + 1);
+    }
+
+    /**
+     * Returns the slot holding the key, or the free slot at which it would be
+     * inserted.
+     */
+    private int slot(int key) {
+        int[] k = keys;
+        long[] c = counts;
+        int mask = k.length - 1;
+        int i = hash(key, k.length);
+        while (c[i] != 0 && k[i] != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Returns the slot holding the key, inserting an empty group for it if
+     * absent.
+     */
+    private int slotForUpdate(int key) {
+        int i = slot(key);
+        if (counts[i] == 0) {
+            if (size >= threshold) {
+                resize();
+                i = slot(key);
+            }
+            keys[i] = key;
+            mins[i] = Long.MAX_VALUE;
+            maxs[i] = Long.MIN_VALUE;
+            size++;
+        }
+        return i;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        long[] oldCounts = counts, oldSums = sums, oldMins = mins, oldMaxs = maxs;
+        if (oldKeys.length >= MAXIMUM_CAPACITY)
+            throw new OutOfMemoryError("Required table size too large");
+        allocate(oldKeys.length << 1);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldCounts[j] != 0) {
+                int i = slot(oldKeys[j]);
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+                sums[i] = oldSums[j];
+                mins[i] = oldMins[j];
+                maxs[i] = oldMaxs[j];
+            }
+        }
+    }
+
+    /**
+     * Records a new value into the summary information of a key.
+     *
+     * @param key the key of the group of the value
+     * @param value the input value
+     */
+    public void accept(int key, long value) {
+        int i = slotForUpdate(key);
+        counts[i]++;
+        sums[i] += value;
+        mins[i] = Math.min(mins[i], value);
+        maxs[i] = Math.max(maxs[i], value);
+    }
+
+    /**
+     * Combines the state of another {@code IntKeyedLongSummaryStatistics}
+     * into this one, key by key.
+     *
+     * @param other another {@code IntKeyedLongSummaryStatistics}
+     * @throws NullPointerException if {@code other} is null
+     */
+    public void combine(IntKeyedLongSummaryStatistics other) {
+        int[] k = other.keys;
+        long[] c = other.counts;
+        for (int j = 0; j < k.length; j++) {
+            if (c[j] != 0) {
+                int i = slotForUpdate(k[j]);
+                counts[i] += c[j];
+                sums[i] += other.sums[j];
+                mins[i] = Math.min(mins[i], other.mins[j]);
+                maxs[i] = Math.max(maxs[i], other.maxs[j]);
+            }
+        }
+    }
+
+    /**
+     * Removes all keys and their statistics.
+     */
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of keys for which values have been recorded.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if no values have been recorded.
+     *
+     * @return {@code true} if no values have been recorded
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if values have been recorded for the key.
+     *
+     * @param key the key
+     * @return {@code true} if values have been recorded for the key
+     */
+    public boolean containsKey(int key) {
+        return counts[slot(key)] != 0;
+    }
+
+    /**
+     * Returns the keys for which values have been recorded, in no
+     * particular order.
+     *
+     * @return a new array of the keys
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int j = 0; j < keys.length; j++) {
+            if (counts[j] != 0)
+                result[n++] = keys[j];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the count of values recorded for the key.
+     *
+     * @param key the key
+     * @return the count of values, or zero if none
+     */
+    public long getCount(int key) {
+        return counts[slot(key)];
+    }
+
+    /**
+     * Returns the sum of values recorded for the key, or zero if no values
+     * have been recorded.
+     *
+     * @param key the key
+     * @return the sum of values, or zero if none
+     */
+    public long getSum(int key) {
+        int i = slot(key);
+        return counts[i] != 0 ? sums[i] : 0L;
+    }
+
+    /**
+     * Returns the minimum value recorded for the key, or
+     * {@code Long.MAX_VALUE} if no values have been recorded.
+     *
+     * @param key the key
+     * @return the minimum value, or {@code Long.MAX_VALUE} if none
+     */
+    public long getMin(int key) {
+        int i = slot(key);
+        return counts[i] != 0 ? mins[i] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the maximum value recorded for the key, or
+     * {@code Long.MIN_VALUE} if no values have been recorded.
+     *
+     * @param key the key
+     * @return the maximum value, or {@code Long.MIN_VALUE} if none
+     */
+    public long getMax(int key) {
+        int i = slot(key);
+        return counts[i] != 0 ? maxs[i] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the arithmetic mean of values recorded for the key, or zero if
+     * no values have been recorded.
+     *
+     * @param key the key
+     * @return the arithmetic mean of values, or zero if none
+     */
+    public double getAverage(int key) {
+        int i = slot(key);
+        return counts[i] != 0 ? (double) sums[i] / counts[i] : 0.0d;
+    }
+
+    /**
+     * Returns the statistics recorded for the key as a new
+     * {@code LongSummaryStatistics}, which is empty if no values have been
+     * recorded.
+     *
+     * @param key the key
+     * @return a new {@code LongSummaryStatistics} for the key
+     */
+    public LongSummaryStatistics getStatistics(int key) {
+        int i = slot(key);
+        return counts[i] != 0
+               ? new LongSummaryStatistics(counts[i], mins[i], maxs[i], sums[i])
+               : new LongSummaryStatistics();
+    }
+
+    /**
+     * Returns a new map from each key to its statistics.
+     *
+     * @return a new {@code Map} of the statistics of each key
+     */
+    public Map<Integer, LongSummaryStatistics> toMap() {
+        Map<Integer, LongSummaryStatistics> map = new HashMap<>();
+        for (int j = 0; j < keys.length; j++) {
+            if (counts[j] != 0)
+                map.put(keys[j], new LongSummaryStatistics(counts[j], mins[j], maxs[j], sums[j]));
+        }
+        return map;
+    }
+
+    @Override
+    /**
+     * {@inheritDoc}
+     *
+     * Returns a non-empty string representation of this object suitable for
+     * debugging. The exact presentation format is unspecified and may vary
+     * between implementations and versions.
+     */
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", getClass().getSimpleName() + "{", "}");
+        for (int j = 0; j < keys.length; j++) {
+            if (counts[j] != 0) {
+                sj.add(String.format("%d={count=%d, sum=%d, min=%d, average=%f, max=%d}",
+                                     keys[j], counts[j], sums[j], mins[j],
+                                     (double) sums[j] / counts[j], maxs[j]));
+            }
+        }
+        return sj.toString();
+    }
+}
@@ -0,0 +1,616 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A {@link ConcurrentMap} whose keys are held through weak or soft
+ * references, so that the presence of a mapping does not by itself keep
+ * its key from being reclaimed by the garbage collector.  Keys may be
+ * compared either with {@link Object#equals} (like {@link java.util.WeakHashMap})
+ * or by identity (like {@link java.util.IdentityHashMap}).
+ *
+ * <p>This class is intended to replace the common idiom of wrapping a
+ * {@code WeakHashMap} with {@link java.util.Collections#synchronizedMap}
+ * and the hand-rolled combinations of a {@code ConcurrentHashMap} and a
+ * {@link ReferenceQueue} found in caches keyed by classes or class loaders.
+ *
+ * <p>Mappings are stored in a {@link ConcurrentHashMap}, so retrieval
+ * operations ({@code get}, {@code containsKey}) do not block and never
+ * lock.  Once a key has been reclaimed its mapping is no longer visible
+ * through any operation.  The space it occupies is recovered incrementally:
+ * each update operation removes at most a bounded number of stale entries,
+ * and {@link #expungeStaleEntries()} may be called to remove all of them.
+ *
+ * <p>Like {@code ConcurrentHashMap}, this class does not allow {@code null}
+ * to be used as a key or value.  Values are strongly referenced; a value
+ * that refers back to its own key will therefore keep the key reachable.
+ *
+ * <p>Iterators and spliterators are <em>weakly consistent</em> and never
+ * return a mapping whose key has already been reclaimed.  Because the
+ * size of the map may shrink at any time as keys are collected, the
+ * result of {@link #size} is only an estimate.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @since 1.8
+ */
+public class ConcurrentReferenceHashMap<K,V> extends AbstractMap<K,V>
+    implements ConcurrentMap<K,V> {
+
+    /**
+     * The kind of reference through which keys are held.
+     */
+    public enum ReferenceType {
+        /** Keys are held through {@link WeakReference}s. */
+        WEAK,
+        /** Keys are held through {@link SoftReference}s. */
+        SOFT
+    }
+
+    /**
+     * The maximum number of stale entries removed by a single update
+     * operation.  Keeping this small bounds the latency of an update even
+     * right after a large number of keys has been collected; the remaining
+     * entries are removed by subsequent updates.
+     */
+    private static final int EXPUNGE_BATCH = 16;
+
+    private final ConcurrentHashMap<Object,V> map;
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+    private final ReferenceType keyType;
+    private final boolean identity;
+
+    // views
+    private transient Set<K> keySet;
+    private transient Collection<V> values;
+    private transient Set<Map.Entry<K,V>> entrySet;
+
+    /**
+     * Creates a new, empty map with weakly referenced keys that are
+     * compared using {@code equals}.
+     */
+    public ConcurrentReferenceHashMap() {
+        this(ReferenceType.WEAK, false, 16);
+    }
+
+    /**
+     * Creates a new, empty map with the given key reference type and
+     * key equivalence.
+     *
+     * @param keyType the kind of reference through which keys are held
+     * @param identity if {@code true}, keys are compared by identity,
+     *        otherwise with {@code equals}
+     * @throws NullPointerException if {@code keyType} is null
+     */
+    public ConcurrentReferenceHashMap(ReferenceType keyType, boolean identity) {
+        this(keyType, identity, 16);
+    }
+
+    /**
+     * Creates a new, empty map with the given key reference type, key
+     * equivalence and an initial table size accommodating the specified
+     * number of elements without the need to dynamically resize.
+     *
+     * @param keyType the kind of reference through which keys are held
+     * @param identity if {@code true}, keys are compared by identity,
+     *        otherwise with {@code equals}
+     * @param initialCapacity the implementation performs internal
+     *        sizing to accommodate this many elements
+     * @throws NullPointerException if {@code keyType} is null
+     * @throws IllegalArgumentException if the initial capacity of
+     *         elements is negative
+     */
+    public ConcurrentReferenceHashMap(ReferenceType keyType, boolean identity,
+                                      int initialCapacity) {
+        this.keyType = Objects.requireNonNull(keyType);
+        this.identity = identity;
+        this.map = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    /**
+     * Returns the kind of reference through which keys are held.
+     *
+     * @return the key reference type
+     */
+    public ReferenceType keyType() {
+        return keyType;
+    }
+
+    /**
+     * Returns {@code true} if keys are compared by identity.
+     *
+     * @return {@code true} if keys are compared by identity
+     */
+    public boolean isIdentity() {
+        return identity;
+    }
+
+    /* ---------------- Key wrappers -------------- */
+
+    /**
+     * Common interface of stored and lookup keys.  Two holders are equal
+     * if they hold the same (identity map) or equal (equality map)
+     * non-null referents; a holder whose referent has been cleared is
+     * equal only to itself.
+     */
+    interface KeyHolder<K> {
+        K key();
+    }
+
+    static int hash(Object k, boolean identity) {
+        return identity ? System.identityHashCode(k) : k.hashCode();
+    }
+
+    static boolean matches(KeyHolder<?> h, Object o, boolean identity) {
+        if (h == o)
+            return true;
+        if (!(o instanceof KeyHolder))
+            return false;
+        Object k1 = h.key(), k2;
+        return k1 != null && (k2 = ((KeyHolder<?>)o).key()) != null &&
+            (k1 == k2 || (!identity && k1.equals(k2)));
+    }
+
+    /** Transient key used only for lookups; never stored in the map. */
+    static final class LookupKey<K> implements KeyHolder<K> {
+        final K key;
+        final int hash;
+        final boolean identity;
+
+        LookupKey(K key, boolean identity) {
+            this.key = key;
+            this.hash = hash(key, identity);
+            this.identity = identity;
+        }
+
+        public K key() { return key; }
+
+        public int hashCode() { return hash; }
+
+        public boolean equals(Object o) { return matches(this, o, identity); }
+    }
+
+    static final class WeakKey<K> extends WeakReference<K> implements KeyHolder<K> {
+        final int hash;
+        final boolean identity;
+
+        WeakKey(K key, ReferenceQueue<? super K> q, boolean identity) {
+            super(key, q);
+            this.hash = hash(key, identity);
+            this.identity = identity;
+        }
+
+        public K key() { return get(); }
+
+        public int hashCode() { return hash; }
+
+        public boolean equals(Object o) { return matches(this, o, identity); }
+    }
+
+    static final class SoftKey<K> extends SoftReference<K> implements KeyHolder<K> {
+        final int hash;
+        final boolean identity;
+
+        SoftKey(K key, ReferenceQueue<? super K> q, boolean identity) {
+            super(key, q);
+            this.hash = hash(key, identity);
+            this.identity = identity;
+        }
+
+        public K key() { return get(); }
+
+        public int hashCode() { return hash; }
+
+        public boolean equals(Object o) { return matches(this, o, identity); }
+    }
+
+    private Object lookupKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        return new LookupKey<>(key, identity);
+    }
+
+    private Object storeKey(K key) {
+        if (key == null)
+            throw new NullPointerException();
+        return (keyType == ReferenceType.WEAK)
+            ? new WeakKey<>(key, queue, identity)
+            : new SoftKey<>(key, queue, identity);
+    }
+
+    /* ---------------- Expunging -------------- */
+
+    /**
+     * Removes a bounded number of entries whose keys have been reclaimed.
+     * Called by every update operation.
+     */
+    private void expungeSome() {
+        for (int i = 0; i < EXPUNGE_BATCH; i++) {
+            Reference<? extends K> ref = queue.poll();
+            if (ref == null)
+                break;
+            // a cleared key is only equal to itself, so removing by
+            // key cannot remove a different live mapping
+            map.remove(ref);
+        }
+    }
+
+    /**
+     * Removes all entries whose keys have been reclaimed and enqueued
+     * by the garbage collector.  This is never required for correctness;
+     * it may be used to release space promptly, for example after a
+     * class loader has been discarded.
+     */
+    public void expungeStaleEntries() {
+        Reference<? extends K> ref;
+        while ((ref = queue.poll()) != null)
+            map.remove(ref);
+    }
+
+    /* ---------------- Map operations -------------- */
+
+    /**
+     * Returns the number of mappings whose keys have not been found to be
+     * reclaimed.  Stale entries are removed first, but as keys may be
+     * collected at any time the result is only an estimate.
+     *
+     * @return the number of mappings in this map
+     */
+    public int size() {
+        expungeStaleEntries();
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        expungeStaleEntries();
+        return map.isEmpty();
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped,
+     * or {@code null} if this map contains no mapping for the key.
+     * This operation never blocks.
+     *
+     * @throws NullPointerException if the specified key is null
+     */
+    public V get(Object key) {
+        return map.get(lookupKey(key));
+    }
+
+    /**
+     * Tests if the specified object is a key in this map.
+     * This operation never blocks.
+     *
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean containsKey(Object key) {
+        return map.containsKey(lookupKey(key));
+    }
+
+    /**
+     * @throws NullPointerException if the specified value is null
+     */
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        for (Map.Entry<Object,V> e : map.entrySet()) {
+            if (((KeyHolder<?>)e.getKey()).key() != null &&
+                value.equals(e.getValue()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public V put(K key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        expungeSome();
+        Object k = storeKey(key);
+        V old = map.put(k, value);
+        if (old != null)
+            ((Reference<?>)k).clear(); // existing holder was kept
+        return old;
+    }
+
+    /**
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public V putIfAbsent(K key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        expungeSome();
+        Object lk = lookupKey(key);
+        V old = map.get(lk);
+        if (old != null)
+            return old;
+        Object k = storeKey(key);
+        old = map.putIfAbsent(k, value);
+        if (old != null)
+            ((Reference<?>)k).clear();
+        return old;
+    }
+
+    /**
+     * @throws NullPointerException if the specified key is null
+     */
+    public V remove(Object key) {
+        expungeSome();
+        return map.remove(lookupKey(key));
+    }
+
+    /**
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean remove(Object key, Object value) {
+        expungeSome();
+        Object k = lookupKey(key);
+        return value != null && map.remove(k, value);
+    }
+
+    /**
+     * @throws NullPointerException if any of the arguments are null
+     */
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (oldValue == null || newValue == null)
+            throw new NullPointerException();
+        expungeSome();
+        return map.replace(lookupKey(key), oldValue, newValue);
+    }
+
+    /**
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public V replace(K key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        expungeSome();
+        return map.replace(lookupKey(key), value);
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * attempts to compute its value using the given mapping function
+     * and enters it into this map unless {@code null}.  The entire
+     * method invocation is performed atomically, so the function is
+     * applied at most once per key.
+     *
+     * @throws NullPointerException if the specified key or mappingFunction
+     *         is null
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        V v = map.get(lookupKey(key));
+        if (v != null)
+            return v;
+        expungeSome();
+        Object k = storeKey(key);
+        return map.computeIfAbsent(k, x -> mappingFunction.apply(key));
+    }
+
+    /**
+     * If the value for the specified key is present, attempts to
+     * compute a new mapping given the key and its current mapped
+     * value.  The entire method invocation is performed atomically.
+     *
+     * @throws NullPointerException if the specified key or remappingFunction
+     *         is null
+     */
+    public V computeIfPresent(K key,
+                              BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        expungeSome();
+        return map.computeIfPresent(lookupKey(key),
+                                    (x, v) -> remappingFunction.apply(key, v));
+    }
+
+    /**
+     * Removes all of the mappings from this map.
+     */
+    public void clear() {
+        map.clear();
+        expungeStaleEntries();
+    }
+
+    /* ---------------- Views -------------- */
+
+    /**
+     * Returns a {@link Set} view of the live keys contained in this map.
+     * The set is backed by the map and supports element removal.
+     *
+     * @return the set view
+     */
+    public Set<K> keySet() {
+        Set<K> ks;
+        return (ks = keySet) != null ? ks : (keySet = new KeySetView());
+    }
+
+    /**
+     * Returns a {@link Collection} view of the values of mappings whose
+     * keys are still live.  The collection is backed by the map and
+     * supports element removal.
+     *
+     * @return the collection view
+     */
+    public Collection<V> values() {
+        Collection<V> vs;
+        return (vs = values) != null ? vs : (values = new ValuesView());
+    }
+
+    /**
+     * Returns a {@link Set} view of the live mappings contained in this
+     * map.  The {@code setValue} operation of the returned entries writes
+     * through to the map.
+     *
+     * @return the set view
+     */
+    public Set<Map.Entry<K,V>> entrySet() {
+        Set<Map.Entry<K,V>> es;
+        return (es = entrySet) != null ? es : (entrySet = new EntrySetView());
+    }
+
+    /**
+     * Base iterator that skips entries whose keys have been reclaimed,
+     * holding a strong reference to the key of the next entry so that it
+     * cannot disappear between {@code hasNext} and {@code next}.
+     */
+    abstract class BaseIterator<T> implements Iterator<T> {
+        final Iterator<Map.Entry<Object,V>> it = map.entrySet().iterator();
+        K nextKey;
+        V nextValue;
+        K lastKey;
+
+        public final boolean hasNext() {
+            while (nextKey == null && it.hasNext()) {
+                Map.Entry<Object,V> e = it.next();
+                @SuppressWarnings("unchecked")
+                K k = ((KeyHolder<K>)e.getKey()).key();
+                if (k != null) {
+                    nextKey = k;
+                    nextValue = e.getValue();
+                }
+            }
+            return nextKey != null;
+        }
+
+        final K advance() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            lastKey = nextKey;
+            nextKey = null;
+            return lastKey;
+        }
+
+        public final void remove() {
+            if (lastKey == null)
+                throw new IllegalStateException();
+            ConcurrentReferenceHashMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    final class KeyIterator extends BaseIterator<K> {
+        public K next() { return advance(); }
+    }
+
+    final class ValueIterator extends BaseIterator<V> {
+        public V next() {
+            V v = nextValue;
+            advance();
+            return v;
+        }
+    }
+
+    final class EntryIterator extends BaseIterator<Map.Entry<K,V>> {
+        public Map.Entry<K,V> next() {
+            V v = nextValue;
+            return new WriteThroughEntry(advance(), v);
+        }
+    }
+
+    /**
+     * Exported entry whose {@code setValue} writes through to the map.
+     */
+    final class WriteThroughEntry extends AbstractMap.SimpleEntry<K,V> {
+        private static final long serialVersionUID = 7249069246763182397L;
+
+        WriteThroughEntry(K k, V v) {
+            super(k, v);
+        }
+
+        public V setValue(V value) {
+            if (value == null)
+                throw new NullPointerException();
+            V v = super.setValue(value);
+            ConcurrentReferenceHashMap.this.put(getKey(), value);
+            return v;
+        }
+    }
+
+    final class KeySetView extends AbstractSet<K> {
+        public Iterator<K> iterator() { return new KeyIterator(); }
+        public int size() { return ConcurrentReferenceHashMap.this.size(); }
+        public boolean isEmpty() { return ConcurrentReferenceHashMap.this.isEmpty(); }
+        public boolean contains(Object o) { return containsKey(o); }
+        public boolean remove(Object o) {
+            return ConcurrentReferenceHashMap.this.remove(o) != null;
+        }
+        public void clear() { ConcurrentReferenceHashMap.this.clear(); }
+    }
+
+    final class ValuesView extends AbstractCollection<V> {
+        public Iterator<V> iterator() { return new ValueIterator(); }
+        public int size() { return ConcurrentReferenceHashMap.this.size(); }
+        public boolean isEmpty() { return ConcurrentReferenceHashMap.this.isEmpty(); }
+        public boolean contains(Object o) { return containsValue(o); }
+        public void clear() { ConcurrentReferenceHashMap.this.clear(); }
+    }
+
+    final class EntrySetView extends AbstractSet<Map.Entry<K,V>> {
+        public Iterator<Map.Entry<K,V>> iterator() { return new EntryIterator(); }
+        public int size() { return ConcurrentReferenceHashMap.this.size(); }
+        public boolean isEmpty() { return ConcurrentReferenceHashMap.this.isEmpty(); }
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+            Object k = e.getKey(), v = e.getValue();
+            Object r;
+            return k != null && v != null &&
+                (r = ConcurrentReferenceHashMap.this.get(k)) != null &&
+                (r == v || r.equals(v));
+        }
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+            Object k = e.getKey(), v = e.getValue();
+            return k != null && v != null &&
+                ConcurrentReferenceHashMap.this.remove(k, v);
+        }
+        public void clear() { ConcurrentReferenceHashMap.this.clear(); }
+    }
+}
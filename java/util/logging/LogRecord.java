@@ -27,6 +27,7 @@ package java.util.logging;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.io.*;
 
 import sun.misc.JavaLangAccess;
@@ -530,9 +531,36 @@ public class LogRecord implements java.io.Serializable {
         needToInferCaller = false;
     }
 
+    // Set once StackWalker has failed to link, on a VM without its natives
+    private static volatile boolean noStackWalker;
+
     // Private method to infer the caller's class and method names
     private void inferCaller() {
         needToInferCaller = false;
+        if (!noStackWalker) {
+            try {
+                // Only the frames down to the caller are fetched, and only
+                // the method name of the frame that is found is resolved.
+                Optional<StackWalker.StackFrame> frame = new CallerFinder().get();
+                if (frame.isPresent()) {
+                    StackWalker.StackFrame f = frame.get();
+                    String cname = f.getClassName();
+                    String mname = f.getMethodName();
+                    setSourceClassName(cname);
+                    setSourceMethodName(mname);
+                }
+                // We haven't found a suitable frame, so just punt.  This is
+                // OK as we are only committed to making a "best effort" here.
+                return;
+            } catch (LinkageError e) {
+                noStackWalker = true;
+            }
+        }
+        inferCallerFromBacktrace();
+    }
+
+    // Walks the backtrace of a Throwable, for VMs without StackWalker support
+    private void inferCallerFromBacktrace() {
         JavaLangAccess access = SharedSecrets.getJavaLangAccess();
         Throwable throwable = new Throwable();
         int depth = access.getStackTraceDepth(throwable);
@@ -566,7 +594,32 @@ public class LogRecord implements java.io.Serializable {
         // OK as we are only committed to making a "best effort" here.
     }
 
-    private boolean isLoggerImplFrame(String cname) {
+    /*
+     * A predicate that skips the frames above the first logger frame,
+     * then the logger frames, and accepts the frame that follows them.
+     * Reflection frames are skipped by the StackWalker.
+     */
+    private static final class CallerFinder implements Predicate<StackWalker.StackFrame> {
+        private boolean lookingForLogger = true;
+
+        Optional<StackWalker.StackFrame> get() {
+            return StackWalker.getInstance().walk(s -> s.filter(this).findFirst());
+        }
+
+        @Override
+        public boolean test(StackWalker.StackFrame t) {
+            final String cname = t.getClassName();
+            if (lookingForLogger) {
+                // Skip all frames until we have found the first logger frame.
+                lookingForLogger = !isLoggerImplFrame(cname);
+                return false;
+            }
+            // Continue walking until we've found the relevant calling frame.
+            return !isLoggerImplFrame(cname);
+        }
+    }
+
+    private static boolean isLoggerImplFrame(String cname) {
         // the log record could be created for a platform logger
         return (cname.equals("java.util.logging.Logger") ||
                 cname.startsWith("java.util.logging.LoggingProxyImpl") ||
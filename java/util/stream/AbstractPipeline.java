@@ -24,6 +24,8 @@
  */
 package java.util.stream;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.function.IntFunction;
@@ -148,6 +150,12 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     private boolean parallel;
 
+    /**
+     * The recorder of the terminal operation being evaluated, if profiling is
+     * enabled; only valid for the source stage.
+     */
+    private StreamProfiler.Recorder profileRecorder;
+
     /**
      * Constructor for the head of a stream pipeline.
      *
@@ -229,9 +237,16 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
             throw new IllegalStateException(MSG_STREAM_LINKED);
         linkedOrConsumed = true;
 
-        return isParallel()
-               ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
-               : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
+        StreamProfiler.Recorder recorder = beginProfile(terminalOp);
+        try {
+            return isParallel()
+                   ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
+                   : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
+        }
+        finally {
+            if (recorder != null)
+                endProfile(recorder);
+        }
     }
 
     /**
@@ -246,21 +261,62 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
             throw new IllegalStateException(MSG_STREAM_LINKED);
         linkedOrConsumed = true;
 
-        // If the last intermediate operation is stateful then
-        // evaluate directly to avoid an extra collection step
-        if (isParallel() && previousStage != null && opIsStateful()) {
-            // Set the depth of this, last, pipeline stage to zero to slice the
-            // pipeline such that this operation will not be included in the
-            // upstream slice and upstream operations will not be included
-            // in this slice
-            depth = 0;
-            return opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator);
+        StreamProfiler.Recorder recorder = beginProfile("toArray");
+        try {
+            // If the last intermediate operation is stateful then
+            // evaluate directly to avoid an extra collection step
+            if (isParallel() && previousStage != null && opIsStateful()) {
+                // Set the depth of this, last, pipeline stage to zero to slice the
+                // pipeline such that this operation will not be included in the
+                // upstream slice and upstream operations will not be included
+                // in this slice
+                depth = 0;
+                return opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator);
+            }
+            else {
+                return evaluate(sourceSpliterator(0), true, generator);
+            }
         }
-        else {
-            return evaluate(sourceSpliterator(0), true, generator);
+        finally {
+            if (recorder != null)
+                endProfile(recorder);
         }
     }
 
+    /**
+     * Starts profiling the evaluation of this pipeline if profiling is
+     * enabled.
+     *
+     * @param terminal the terminal operation, or a description of it
+     * @return the recorder for the evaluation, or {@code null} if profiling
+     *         is not enabled
+     */
+    private StreamProfiler.Recorder beginProfile(Object terminal) {
+        if (!StreamProfiler.shouldProfile())
+            return null;
+
+        List<Object> stages = new ArrayList<>();
+        for (@SuppressWarnings("rawtypes") AbstractPipeline p = sourceStage; p != null; p = p.nextStage)
+            stages.add(p);
+        StreamProfiler.Recorder recorder
+                = new StreamProfiler.Recorder(stages.toArray(), terminal, isParallel());
+        sourceStage.profileRecorder = recorder;
+        return recorder;
+    }
+
+    private void endProfile(StreamProfiler.Recorder recorder) {
+        sourceStage.profileRecorder = null;
+        recorder.finish();
+    }
+
+    /**
+     * Returns the recorder of the evaluation in progress if it is being
+     * profiled, otherwise {@code null}.
+     */
+    final StreamProfiler.Recorder profileRecorder() {
+        return sourceStage.profileRecorder;
+    }
+
     /**
      * Gets the source stage spliterator if this pipeline stage is the source
      * stage.  The pipeline is consumed after this method is called and
@@ -513,12 +569,53 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     final <P_IN> Sink<P_IN> wrapSink(Sink<E_OUT> sink) {
         Objects.requireNonNull(sink);
 
+        StreamProfiler.Recorder recorder = sourceStage.profileRecorder;
+        if (recorder != null)
+            sink = recorder.wrap(this, getOutputShape(), sink);
+
         for ( @SuppressWarnings("rawtypes") AbstractPipeline p=AbstractPipeline.this; p.depth > 0; p=p.previousStage) {
+            if (recorder != null) {
+                // Count and time each stage separately, so do not fuse
+                sink = p.opWrapSink(p.previousStage.combinedFlags, sink);
+                sink = recorder.wrap(p.previousStage, p.previousStage.getOutputShape(), sink);
+                continue;
+            }
+            if (StreamFusion.ENABLED && p.opFusionKind() != null) {
+                @SuppressWarnings("rawtypes") AbstractPipeline first = p;
+                int n = 1;
+                while (first.previousStage.depth > 0 && first.previousStage.opFusionKind() != null) {
+                    first = first.previousStage;
+                    n++;
+                }
+                Sink<?> fused = (n > 1) ? fuse(p, n, sink) : null;
+                if (fused != null) {
+                    sink = (Sink<E_OUT>) fused;
+                    p = first;
+                    continue;
+                }
+            }
             sink = p.opWrapSink(p.previousStage.combinedFlags, sink);
         }
         return (Sink<P_IN>) sink;
     }
 
+    /**
+     * Fuses the {@code n} consecutive fusible stages ending with
+     * {@code last} into a single sink, or returns {@code null} if they
+     * cannot be fused.
+     */
+    @SuppressWarnings("rawtypes")
+    private static Sink<?> fuse(AbstractPipeline last, int n, Sink<?> sink) {
+        StreamFusion.Kind[] kinds = new StreamFusion.Kind[n];
+        Object[] functions = new Object[n];
+        AbstractPipeline p = last;
+        for (int i = n - 1; i >= 0; i--, p = p.previousStage) {
+            kinds[i] = p.opFusionKind();
+            functions[i] = p.opFusionFunction();
+        }
+        return StreamFusion.fuse(kinds, functions, sink);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     final <P_IN> Spliterator<E_OUT> wrapSpliterator(Spliterator<P_IN> sourceSpliterator) {
@@ -636,6 +733,32 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     abstract boolean opIsStateful();
 
+    /**
+     * Returns the kind of this operation if it is a stateless map or filter
+     * stage that {@link StreamFusion} may fuse with its neighbours, or
+     * {@code null} if it cannot be fused.
+     *
+     * @implSpec The default implementation returns {@code null}.
+     *
+     * @return the fusion kind of this operation, or {@code null}
+     */
+    StreamFusion.Kind opFusionKind() {
+        return null;
+    }
+
+    /**
+     * Returns the function applied by this operation, if
+     * {@link #opFusionKind()} is non-null.  The function is an instance of
+     * the functional interface of that kind.
+     *
+     * @implSpec The default implementation returns {@code null}.
+     *
+     * @return the function of this operation, or {@code null}
+     */
+    Object opFusionFunction() {
+        return null;
+    }
+
     /**
      * Accepts a {@code Sink} which will receive the results of this operation,
      * and return a {@code Sink} which accepts elements of the input type of
@@ -125,6 +125,9 @@ abstract class AbstractTask<P_IN, P_OUT, R,
     /** The result of this node, if completed */
     private R localResult;
 
+    /** The profile of this node, if the computation is being profiled */
+    StreamProfiler.TaskNode profileNode;
+
     /**
      * Constructor for root nodes.
      *
@@ -294,11 +297,18 @@ abstract class AbstractTask<P_IN, P_OUT, R,
         long sizeThreshold = getTargetSize(sizeEstimate);
         boolean forkRight = false;
         @SuppressWarnings("unchecked") K task = (K) this;
+        StreamProfiler.Recorder recorder = profileRecorder();
+        if (recorder != null)
+            task.profileNode = recorder.taskStarted(task.profileNode, sizeEstimate);
         while (sizeEstimate > sizeThreshold && (ls = rs.trySplit()) != null) {
             K leftChild, rightChild, taskToFork;
             task.leftChild  = leftChild = task.makeChild(ls);
             task.rightChild = rightChild = task.makeChild(rs);
             task.setPendingCount(1);
+            if (recorder != null) {
+                leftChild.profileNode = recorder.taskCreated(task.profileNode, ls.estimateSize());
+                rightChild.profileNode = recorder.taskCreated(task.profileNode, rs.estimateSize());
+            }
             if (forkRight) {
                 forkRight = false;
                 rs = ls;
@@ -312,11 +322,30 @@ abstract class AbstractTask<P_IN, P_OUT, R,
             }
             taskToFork.fork();
             sizeEstimate = rs.estimateSize();
+            if (recorder != null)
+                recorder.taskStarted(task.profileNode, sizeEstimate);
+        }
+        if (recorder == null) {
+            task.setLocalResult(task.doLeaf());
+        }
+        else {
+            long start = System.nanoTime();
+            task.setLocalResult(task.doLeaf());
+            recorder.leafCompleted(task.profileNode, System.nanoTime() - start);
         }
-        task.setLocalResult(task.doLeaf());
         task.tryComplete();
     }
 
+    /**
+     * Returns the recorder of the computation if it is being profiled,
+     * otherwise {@code null}.
+     */
+    private StreamProfiler.Recorder profileRecorder() {
+        return (helper instanceof AbstractPipeline)
+               ? ((AbstractPipeline<?, ?, ?>) helper).profileRecorder()
+               : null;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -36,6 +36,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IntSummaryStatistics;
+import java.util.IntKeyedLongSummaryStatistics;
 import java.util.Iterator;
 import java.util.List;
 import java.util.LongSummaryStatistics;
@@ -45,6 +46,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -1091,6 +1093,114 @@ public final class Collectors {
         }
     }
 
+    /**
+     * Returns a {@code Collector} implementing a "group by" operation on
+     * input elements of type {@code T}, grouping elements according to an
+     * {@code int}-valued classification function and summarizing a
+     * {@code long}-valued function of the elements of each group.
+     *
+     * <p>The result is equivalent to that of
+     * {@code groupingBy(classifier, summarizingLong(mapper))}, but neither
+     * the keys nor the per-group statistics are boxed: they are held in the
+     * parallel arrays of an {@link IntKeyedLongSummaryStatistics}.
+     *
+     * <p>For example, to compute the total salary of each department:
+     * <pre>{@code
+     *     IntKeyedLongSummaryStatistics salaryByDept
+     *         = employees.stream()
+     *                    .collect(groupingByInt(Employee::getDeptId,
+     *                                           Employee::getSalary));
+     * }</pre>
+     *
+     * @param <T> the type of the input elements
+     * @param classifier a classifier function mapping input elements to keys
+     * @param mapper a function extracting the value to summarize from an
+     *               element
+     * @return a {@code Collector} implementing the group-by operation
+     *
+     * @see #groupingByIntConcurrent(ToIntFunction, ToLongFunction)
+     * @see #groupingBy(Function, Collector)
+     * @see #summarizingLong(ToLongFunction)
+     */
+    public static <T>
+    Collector<T, ?, IntKeyedLongSummaryStatistics> groupingByInt(ToIntFunction<? super T> classifier,
+                                                                 ToLongFunction<? super T> mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return new CollectorImpl<T, IntKeyedLongSummaryStatistics, IntKeyedLongSummaryStatistics>(
+                IntKeyedLongSummaryStatistics::new,
+                (r, t) -> r.accept(classifier.applyAsInt(t), mapper.applyAsLong(t)),
+                (l, r) -> { l.combine(r); return l; }, CH_ID);
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} implementing a "group by"
+     * operation on input elements of type {@code T}, grouping elements
+     * according to an {@code int}-valued classification function and
+     * summarizing a {@code long}-valued function of the elements of each
+     * group.
+     *
+     * <p>This is a {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered} Collector.  Unlike
+     * {@link #groupingByConcurrent(Function, Collector)}, the threads
+     * accumulating elements do not share a table: each thread accumulates
+     * into its own {@link IntKeyedLongSummaryStatistics}, and the tables are
+     * merged once accumulation is complete, so threads never contend on a
+     * common group.
+     *
+     * @param <T> the type of the input elements
+     * @param classifier a classifier function mapping input elements to keys
+     * @param mapper a function extracting the value to summarize from an
+     *               element
+     * @return a concurrent, unordered {@code Collector} implementing the
+     *         group-by operation
+     *
+     * @see #groupingByInt(ToIntFunction, ToLongFunction)
+     * @see #groupingByConcurrent(Function, Collector)
+     */
+    public static <T>
+    Collector<T, ?, IntKeyedLongSummaryStatistics> groupingByIntConcurrent(ToIntFunction<? super T> classifier,
+                                                                           ToLongFunction<? super T> mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return new CollectorImpl<T, PerThreadStatistics, IntKeyedLongSummaryStatistics>(
+                PerThreadStatistics::new,
+                (r, t) -> r.local().accept(classifier.applyAsInt(t), mapper.applyAsLong(t)),
+                (l, r) -> { l.tables.addAll(r.tables); return l; },
+                PerThreadStatistics::merge,
+                CH_CONCURRENT_NOID);
+    }
+
+    /**
+     * Result container of {@link #groupingByIntConcurrent}, holding a table
+     * for each thread that has accumulated into it.
+     */
+    private static final class PerThreadStatistics {
+        final Collection<IntKeyedLongSummaryStatistics> tables = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<IntKeyedLongSummaryStatistics> local
+                = ThreadLocal.withInitial(() -> {
+                    IntKeyedLongSummaryStatistics t = new IntKeyedLongSummaryStatistics();
+                    tables.add(t);
+                    return t;
+                });
+
+        IntKeyedLongSummaryStatistics local() {
+            return local.get();
+        }
+
+        IntKeyedLongSummaryStatistics merge() {
+            IntKeyedLongSummaryStatistics result = new IntKeyedLongSummaryStatistics();
+            for (IntKeyedLongSummaryStatistics t : tables) {
+                result.combine(t);
+                // Release the table, which remains reachable from the
+                // thread-local maps of the threads that accumulated into it
+                t.clear();
+            }
+            tables.clear();
+            return result;
+        }
+    }
+
     /**
      * Returns a {@code Collector} which partitions the input elements according
      * to a {@code Predicate}, and organizes them into a
@@ -189,6 +189,16 @@ abstract class DoublePipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE,
                                        StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.DOUBLE_MAP;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
                 return new Sink.ChainedDouble<Double>(sink) {
@@ -206,6 +216,16 @@ abstract class DoublePipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new ReferencePipeline.StatelessOp<Double, U>(this, StreamShape.DOUBLE_VALUE,
                                                             StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.DOUBLE_MAP_TO_OBJ;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Double> opWrapSink(int flags, Sink<U> sink) {
                 return new Sink.ChainedDouble<U>(sink) {
@@ -223,6 +243,16 @@ abstract class DoublePipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new IntPipeline.StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE,
                                                    StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.DOUBLE_MAP_TO_INT;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Double> opWrapSink(int flags, Sink<Integer> sink) {
                 return new Sink.ChainedDouble<Integer>(sink) {
@@ -240,6 +270,16 @@ abstract class DoublePipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new LongPipeline.StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE,
                                                     StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.DOUBLE_MAP_TO_LONG;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Double> opWrapSink(int flags, Sink<Long> sink) {
                 return new Sink.ChainedDouble<Long>(sink) {
@@ -294,6 +334,16 @@ abstract class DoublePipeline<E_IN>
         Objects.requireNonNull(predicate);
         return new StatelessOp<Double>(this, StreamShape.DOUBLE_VALUE,
                                        StreamOpFlag.NOT_SIZED) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.DOUBLE_FILTER;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return predicate;
+            }
+
             @Override
             Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
                 return new Sink.ChainedDouble<Double>(sink) {
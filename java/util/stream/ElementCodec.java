@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.stream;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts stream elements to and from a binary form so that they can be
+ * written to temporary storage by the spilling variants of
+ * {@link Stream#sorted(java.util.Comparator, SpillOptions) sorted} and
+ * {@link Stream#distinct(SpillOptions) distinct}.
+ *
+ * <p>An element read back by {@link #read} must be equal to, and order
+ * identically with, the element that was passed to {@link #write}.
+ * Elements are never {@code null} when passed to a codec; the stream
+ * records the presence of {@code null} elements itself.
+ *
+ * @param <T> the type of elements handled by this codec
+ * @see SpillOptions
+ * @since 1.8
+ */
+public interface ElementCodec<T> {
+
+    /**
+     * Writes the given non-null element to the output.
+     *
+     * @param element the element to write
+     * @param out the destination
+     * @throws IOException if an I/O error occurs
+     */
+    void write(T element, DataOutput out) throws IOException;
+
+    /**
+     * Reads an element previously written by {@link #write}.
+     *
+     * @param in the source
+     * @return the element read
+     * @throws IOException if an I/O error occurs
+     */
+    T read(DataInput in) throws IOException;
+}
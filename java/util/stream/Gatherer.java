@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.stream;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * An intermediate operation that transforms a stream of input elements into
+ * a stream of output elements, optionally applying a final action when the
+ * end of the upstream is reached.  Gatherers are applied with
+ * {@link Stream#gather(Gatherer)}.
+ *
+ * <p>A gatherer is specified by four functions that work together:
+ * <ul>
+ *     <li>the <em>initializer</em> creates a new, potentially mutable,
+ *     state object;</li>
+ *     <li>the <em>integrator</em> integrates a new input element, possibly
+ *     using the state and possibly pushing elements to the
+ *     {@link Downstream}, and returns {@code false} if no further input
+ *     elements are wanted;</li>
+ *     <li>the <em>combiner</em> merges two states into one, which allows
+ *     the gatherer to be evaluated in parallel;</li>
+ *     <li>the <em>finisher</em> performs a final action on the state once
+ *     there are no more input elements, possibly pushing further elements
+ *     downstream.</li>
+ * </ul>
+ *
+ * <p>A gatherer whose combiner is {@link #defaultCombiner()} is
+ * <em>sequential</em>: in a parallel pipeline its upstream is still
+ * evaluated in parallel, but the gatherer itself is applied to the
+ * upstream's output in encounter order.  Otherwise each parallel leaf
+ * integrates its portion of the input into its own state, the elements
+ * pushed by the leaves are concatenated in encounter order, the states
+ * are combined, and the finisher is applied once to the combined state.
+ *
+ * <p>An integrator returning {@code false}, or a downstream rejecting an
+ * element pushed to it, short-circuits the pipeline: no further input
+ * elements are integrated.  Integrators that never short-circuit may be
+ * declared {@linkplain Integrator.Greedy greedy}, which lets the pipeline
+ * traverse its source without checking for cancellation.
+ *
+ * @param <T> the type of input elements to the gatherer
+ * @param <A> the potentially mutable state type of the gatherer
+ * @param <R> the type of output elements from the gatherer
+ * @see Gatherers
+ * @since 1.8
+ */
+public interface Gatherer<T, A, R> {
+
+    /**
+     * Returns the function that creates a new state for this gatherer.
+     *
+     * @implSpec The default implementation returns
+     * {@link #defaultInitializer()}.
+     *
+     * @return the initializer function
+     */
+    default Supplier<A> initializer() {
+        return defaultInitializer();
+    }
+
+    /**
+     * Returns the function that integrates input elements.
+     *
+     * @return the integrator
+     */
+    Integrator<A, T, R> integrator();
+
+    /**
+     * Returns the function that combines two states into one when the
+     * gatherer is evaluated in parallel.
+     *
+     * @implSpec The default implementation returns
+     * {@link #defaultCombiner()}, which makes the gatherer sequential.
+     *
+     * @return the combiner function
+     */
+    default BinaryOperator<A> combiner() {
+        return defaultCombiner();
+    }
+
+    /**
+     * Returns the function that performs the final action on the state
+     * after the last input element has been integrated.
+     *
+     * @implSpec The default implementation returns
+     * {@link #defaultFinisher()}.
+     *
+     * @return the finisher function
+     */
+    default BiConsumer<A, Downstream<? super R>> finisher() {
+        return defaultFinisher();
+    }
+
+    /**
+     * Returns an initializer denoting a stateless gatherer.  It
+     * produces {@code null} states.
+     *
+     * @param <A> the type of the state
+     * @return the default initializer
+     */
+    @SuppressWarnings("unchecked")
+    static <A> Supplier<A> defaultInitializer() {
+        return (Supplier<A>) Gatherers.DEFAULT_INITIALIZER;
+    }
+
+    /**
+     * Returns a combiner denoting a sequential gatherer.  It throws
+     * {@code UnsupportedOperationException} if invoked.
+     *
+     * @param <A> the type of the state
+     * @return the default combiner
+     */
+    @SuppressWarnings("unchecked")
+    static <A> BinaryOperator<A> defaultCombiner() {
+        return (BinaryOperator<A>) Gatherers.DEFAULT_COMBINER;
+    }
+
+    /**
+     * Returns a finisher that performs no action.
+     *
+     * @param <A> the type of the state
+     * @param <R> the type of the downstream elements
+     * @return the default finisher
+     */
+    @SuppressWarnings("unchecked")
+    static <A, R> BiConsumer<A, Downstream<? super R>> defaultFinisher() {
+        return (BiConsumer<A, Downstream<? super R>>) (BiConsumer<?, ?>) Gatherers.DEFAULT_FINISHER;
+    }
+
+    /**
+     * Returns a new, sequential and stateless gatherer.
+     *
+     * @param <T> the type of input elements
+     * @param <R> the type of output elements
+     * @param integrator the integrator
+     * @return the new gatherer
+     * @throws NullPointerException if {@code integrator} is null
+     */
+    static <T, R> Gatherer<T, Void, R> ofSequential(Integrator<Void, T, R> integrator) {
+        return of(defaultInitializer(), integrator, defaultCombiner(), defaultFinisher());
+    }
+
+    /**
+     * Returns a new, sequential gatherer.
+     *
+     * @param <T> the type of input elements
+     * @param <A> the type of the state
+     * @param <R> the type of output elements
+     * @param initializer the initializer
+     * @param integrator the integrator
+     * @return the new gatherer
+     * @throws NullPointerException if any argument is null
+     */
+    static <T, A, R> Gatherer<T, A, R> ofSequential(Supplier<A> initializer,
+                                                    Integrator<A, T, R> integrator) {
+        return of(initializer, integrator, defaultCombiner(), defaultFinisher());
+    }
+
+    /**
+     * Returns a new, sequential gatherer.
+     *
+     * @param <T> the type of input elements
+     * @param <A> the type of the state
+     * @param <R> the type of output elements
+     * @param initializer the initializer
+     * @param integrator the integrator
+     * @param finisher the finisher
+     * @return the new gatherer
+     * @throws NullPointerException if any argument is null
+     */
+    static <T, A, R> Gatherer<T, A, R> ofSequential(Supplier<A> initializer,
+                                                    Integrator<A, T, R> integrator,
+                                                    BiConsumer<A, Downstream<? super R>> finisher) {
+        return of(initializer, integrator, defaultCombiner(), finisher);
+    }
+
+    /**
+     * Returns a new, parallelizable and stateless gatherer.
+     *
+     * @param <T> the type of input elements
+     * @param <R> the type of output elements
+     * @param integrator the integrator
+     * @return the new gatherer
+     * @throws NullPointerException if {@code integrator} is null
+     */
+    static <T, R> Gatherer<T, Void, R> of(Integrator<Void, T, R> integrator) {
+        return of(defaultInitializer(), integrator, (l, r) -> l, defaultFinisher());
+    }
+
+    /**
+     * Returns a new gatherer described by the given functions.  The
+     * gatherer is sequential if {@code combiner} is
+     * {@link #defaultCombiner()}.
+     *
+     * @param <T> the type of input elements
+     * @param <A> the type of the state
+     * @param <R> the type of output elements
+     * @param initializer the initializer
+     * @param integrator the integrator
+     * @param combiner the combiner
+     * @param finisher the finisher
+     * @return the new gatherer
+     * @throws NullPointerException if any argument is null
+     */
+    static <T, A, R> Gatherer<T, A, R> of(Supplier<A> initializer,
+                                          Integrator<A, T, R> integrator,
+                                          BinaryOperator<A> combiner,
+                                          BiConsumer<A, Downstream<? super R>> finisher) {
+        return new Gatherers.GathererImpl<>(Objects.requireNonNull(initializer),
+                                            Objects.requireNonNull(integrator),
+                                            Objects.requireNonNull(combiner),
+                                            Objects.requireNonNull(finisher));
+    }
+
+    /**
+     * The destination of the elements produced by a gatherer.
+     *
+     * @param <T> the type of elements accepted by this downstream
+     */
+    @FunctionalInterface
+    interface Downstream<T> {
+
+        /**
+         * Pushes an element to the next stage of the pipeline.
+         *
+         * @param element the element to push
+         * @return {@code true} if more elements may be pushed, {@code false}
+         *         if the downstream rejects further elements
+         */
+        boolean push(T element);
+
+        /**
+         * Returns whether the downstream rejects further elements, so that
+         * a gatherer can avoid work whose results would be discarded.
+         *
+         * @implSpec The default implementation returns {@code false}.
+         *
+         * @return {@code true} if further elements would be rejected
+         */
+        default boolean isRejecting() {
+            return false;
+        }
+    }
+
+    /**
+     * Integrates an input element into a state, optionally pushing output
+     * elements downstream.
+     *
+     * @param <A> the type of the state
+     * @param <T> the type of input elements
+     * @param <R> the type of output elements
+     */
+    @FunctionalInterface
+    interface Integrator<A, T, R> {
+
+        /**
+         * Integrates the given element.
+         *
+         * @param state the state of the gatherer
+         * @param element the input element
+         * @param downstream the downstream to push output elements to
+         * @return {@code true} if further input elements are wanted,
+         *         {@code false} otherwise
+         */
+        boolean integrate(A state, T element, Downstream<? super R> downstream);
+
+        /**
+         * Returns the given integrator, typed as an {@code Integrator}.
+         * Useful for target-typing lambdas.
+         *
+         * @param <A> the type of the state
+         * @param <T> the type of input elements
+         * @param <R> the type of output elements
+         * @param integrator the integrator
+         * @return the integrator
+         */
+        static <A, T, R> Integrator<A, T, R> of(Integrator<A, T, R> integrator) {
+            return integrator;
+        }
+
+        /**
+         * Returns the given greedy integrator, typed as a {@code Greedy}.
+         * Useful for target-typing lambdas.
+         *
+         * @param <A> the type of the state
+         * @param <T> the type of input elements
+         * @param <R> the type of output elements
+         * @param greedy the greedy integrator
+         * @return the greedy integrator
+         */
+        static <A, T, R> Greedy<A, T, R> ofGreedy(Greedy<A, T, R> greedy) {
+            return greedy;
+        }
+
+        /**
+         * An integrator that only stops consuming input when the downstream
+         * rejects further elements.  Declaring an integrator greedy lets
+         * the pipeline avoid checking for cancellation between elements.
+         *
+         * @param <A> the type of the state
+         * @param <T> the type of input elements
+         * @param <R> the type of output elements
+         */
+        @FunctionalInterface
+        interface Greedy<A, T, R> extends Integrator<A, T, R> { }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.stream;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.CountedCompleter;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Factory for the stream stage that applies a {@link Gatherer}.
+ *
+ * <p>Sequentially the stage is a {@link Sink} that integrates each element
+ * into the gatherer's state and forwards pushed elements downstream.  In
+ * parallel, a sequential gatherer is applied lazily, in encounter order, by
+ * a {@link GatherSpliterator} pulling elements from the upstream as they
+ * are needed, so that short-circuiting terminal operations still stop the
+ * upstream, even an infinite one.  A gatherer with a combiner is evaluated
+ * eagerly by a {@link GatherTask} that integrates each leaf into its own
+ * state and combines the states and outputs of sibling leaves.
+ *
+ * @param <T> the type of input elements
+ * @param <A> the type of the gatherer state
+ * @param <R> the type of output elements
+ * @since 1.8
+ */
+final class GathererOp<T, A, R> extends ReferencePipeline.StatefulOp<T, R> {
+
+    /**
+     * Appends a "gather" operation to the provided stream.
+     *
+     * @param <T> the type of input elements
+     * @param <A> the type of the gatherer state
+     * @param <R> the type of output elements
+     * @param upstream a reference stream with element type T
+     * @param gatherer the gatherer to apply
+     */
+    static <T, A, R> Stream<R> of(AbstractPipeline<?, T, ?> upstream,
+                                  Gatherer<T, A, R> gatherer) {
+        return new GathererOp<>(upstream, gatherer);
+    }
+
+    private final Supplier<A> initializer;
+    private final Gatherer.Integrator<A, T, R> integrator;
+    private final BinaryOperator<A> combiner;
+    private final BiConsumer<A, Gatherer.Downstream<? super R>> finisher;
+
+    private GathererOp(AbstractPipeline<?, T, ?> upstream, Gatherer<T, A, R> gatherer) {
+        super(upstream, StreamShape.REFERENCE, opFlags(gatherer));
+        this.initializer = Objects.requireNonNull(gatherer.initializer());
+        this.integrator = Objects.requireNonNull(gatherer.integrator());
+        this.combiner = Objects.requireNonNull(gatherer.combiner());
+        this.finisher = Objects.requireNonNull(gatherer.finisher());
+    }
+
+    private static int opFlags(Gatherer<?, ?, ?> gatherer) {
+        int flags = StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT | StreamOpFlag.NOT_SIZED;
+        // only a greedy integrator never asks to stop early
+        return (gatherer.integrator() instanceof Gatherer.Integrator.Greedy)
+               ? flags
+               : flags | StreamOpFlag.IS_SHORT_CIRCUIT;
+    }
+
+    private boolean isSequential() {
+        return combiner == Gatherer.<A>defaultCombiner();
+    }
+
+    private boolean hasFinisher() {
+        return finisher != Gatherer.<A, R>defaultFinisher();
+    }
+
+    @Override
+    Sink<T> opWrapSink(int flags, Sink<R> sink) {
+        return new GatherSink(Objects.requireNonNull(sink));
+    }
+
+    @Override
+    <P_IN> Node<R> opEvaluateParallel(PipelineHelper<R> helper,
+                                      Spliterator<P_IN> spliterator,
+                                      IntFunction<R[]> generator) {
+        if (isSequential()) {
+            Spliterator<R> s = opEvaluateParallelLazy(helper, spliterator);
+            Node.Builder<R> nb = Nodes.builder(-1, generator);
+            nb.begin(-1);
+            s.forEachRemaining(nb);
+            nb.end();
+            return nb.build();
+        }
+
+        // the helper is the upstream pipeline, producing T elements
+        @SuppressWarnings("unchecked")
+        PipelineHelper<T> upstream = (PipelineHelper<T>) (PipelineHelper<?>) helper;
+        Leaf root = new GatherTask<>(upstream, spliterator, generator).invoke();
+        if (!hasFinisher())
+            return root.node;
+        Node.Builder<R> nb = Nodes.builder(-1, generator);
+        nb.begin(-1);
+        finisher.accept(root.state, r -> {
+            nb.accept(r);
+            return true;
+        });
+        nb.end();
+        return Nodes.conc(StreamShape.REFERENCE, root.node, nb.build());
+    }
+
+    @Override
+    <P_IN> Spliterator<R> opEvaluateParallelLazy(PipelineHelper<R> helper,
+                                                 Spliterator<P_IN> spliterator) {
+        if (!isSequential())
+            return super.opEvaluateParallelLazy(helper, spliterator);
+        // the helper is the upstream pipeline, producing T elements
+        @SuppressWarnings("unchecked")
+        PipelineHelper<T> upstream = (PipelineHelper<T>) (PipelineHelper<?>) helper;
+        return new GatherSpliterator(upstream.wrapSpliterator(spliterator));
+    }
+
+    /**
+     * Spliterator applying a sequential gatherer to the elements of the
+     * upstream spliterator, in encounter order, as its own elements are
+     * requested.  Elements pushed by the gatherer, which may be null, are
+     * buffered until they are consumed.  It does not split.
+     */
+    private final class GatherSpliterator
+            implements Spliterator<R>, Gatherer.Downstream<R>, Consumer<T> {
+        private final Spliterator<T> upstream;
+        private final ArrayList<R> buffer = new ArrayList<>();
+        /** index of the next buffered element to deliver */
+        private int next;
+        private A state;
+        private boolean proceed = true;
+        private boolean finished;
+
+        GatherSpliterator(Spliterator<T> upstream) {
+            this.upstream = upstream;
+            this.state = initializer.get();
+        }
+
+        @Override
+        public void accept(T t) {
+            if (!integrator.integrate(state, t, this))
+                proceed = false;
+        }
+
+        @Override
+        public boolean push(R r) {
+            buffer.add(r);
+            return true;
+        }
+
+        /**
+         * Removes and returns the next buffered element.
+         */
+        private R poll() {
+            R r = buffer.get(next++);
+            if (next == buffer.size()) {
+                buffer.clear();
+                next = 0;
+            }
+            return r;
+        }
+
+        /**
+         * Integrates upstream elements until an element has been pushed or
+         * the input is exhausted.  Returns false if there is no more output.
+         */
+        private boolean fill() {
+            while (next == buffer.size()) {
+                if (finished)
+                    return false;
+                if (!proceed || !upstream.tryAdvance(this)) {
+                    finisher.accept(state, this);
+                    state = null;
+                    finished = true;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            Objects.requireNonNull(action);
+            if (!fill())
+                return false;
+            action.accept(poll());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            Objects.requireNonNull(action);
+            while (fill())
+                action.accept(poll());
+        }
+
+        @Override
+        public Spliterator<R> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return finished ? buffer.size() - next : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return upstream.characteristics() & Spliterator.ORDERED;
+        }
+    }
+
+    /**
+     * {@link Sink} applying the gatherer sequentially.  It acts as the
+     * {@link Gatherer.Downstream} of the gatherer, forwarding pushed elements
+     * to the next sink.
+     */
+    private final class GatherSink extends Sink.ChainedReference<T, R>
+            implements Gatherer.Downstream<R> {
+        private A state;
+        private boolean proceed;
+
+        GatherSink(Sink<? super R> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void begin(long size) {
+            state = initializer.get();
+            proceed = true;
+            downstream.begin(-1);
+        }
+
+        @Override
+        public void accept(T t) {
+            if (proceed && !integrator.integrate(state, t, this))
+                proceed = false;
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            return !proceed || downstream.cancellationRequested();
+        }
+
+        @Override
+        public void end() {
+            finisher.accept(state, this);
+            state = null;
+            downstream.end();
+        }
+
+        @Override
+        public boolean push(R r) {
+            if (downstream.cancellationRequested())
+                return false;
+            downstream.accept(r);
+            return true;
+        }
+
+        @Override
+        public boolean isRejecting() {
+            return downstream.cancellationRequested();
+        }
+    }
+
+    /**
+     * Result of evaluating the gatherer over a portion of the input: the
+     * state after integration and the elements pushed meanwhile.  A leaf
+     * that stopped integrating discards the input to its right when
+     * combined.
+     */
+    private final class Leaf implements Sink<T>, Gatherer.Downstream<R> {
+        A state;
+        Node<R> node;
+        boolean proceed = true;
+        private Node.Builder<R> builder;
+
+        Leaf(IntFunction<R[]> generator) {
+            state = initializer.get();
+            builder = Nodes.builder(-1, generator);
+            builder.begin(-1);
+        }
+
+        @Override
+        public void accept(T t) {
+            if (proceed && !integrator.integrate(state, t, this))
+                proceed = false;
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            return !proceed;
+        }
+
+        @Override
+        public boolean push(R r) {
+            builder.accept(r);
+            return true;
+        }
+
+        void complete() {
+            builder.end();
+            node = builder.build();
+            builder = null;
+        }
+
+        void combine(Leaf right) {
+            if (!proceed)
+                return;
+            state = combiner.apply(state, right.state);
+            node = Nodes.conc(StreamShape.REFERENCE, node, right.node);
+            proceed = right.proceed;
+        }
+    }
+
+    /**
+     * Task evaluating a combinable gatherer in parallel.
+     */
+    @SuppressWarnings("serial")
+    private final class GatherTask<P_IN>
+            extends AbstractTask<P_IN, T, Leaf, GatherTask<P_IN>> {
+        private final IntFunction<R[]> generator;
+
+        GatherTask(PipelineHelper<T> helper, Spliterator<P_IN> spliterator,
+                   IntFunction<R[]> generator) {
+            super(helper, spliterator);
+            this.generator = generator;
+        }
+
+        GatherTask(GatherTask<P_IN> parent, Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+            this.generator = parent.generator;
+        }
+
+        @Override
+        protected GatherTask<P_IN> makeChild(Spliterator<P_IN> spliterator) {
+            return new GatherTask<>(this, spliterator);
+        }
+
+        @Override
+        protected Leaf doLeaf() {
+            Leaf leaf = helper.wrapAndCopyInto(new Leaf(generator), spliterator);
+            leaf.complete();
+            return leaf;
+        }
+
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            if (!isLeaf()) {
+                Leaf leftResult = leftChild.getLocalResult();
+                leftResult.combine(rightChild.getLocalResult());
+                setLocalResult(leftResult);
+            }
+            // GC spliterator, left and right child
+            super.onCompletion(caller);
+        }
+    }
+}
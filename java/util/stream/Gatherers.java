@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.stream;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Implementations of {@link Gatherer} that provide useful intermediate
+ * operations, such as windowing elements, running accumulations and
+ * concurrent mapping.
+ *
+ * @since 1.8
+ */
+public final class Gatherers {
+
+    private Gatherers() { }
+
+    // Sentinel functions used by the defaults in Gatherer; GathererOp
+    // recognizes them to skip work and to detect sequential gatherers
+
+    static final Supplier<Object> DEFAULT_INITIALIZER = () -> null;
+
+    static final BinaryOperator<Object> DEFAULT_COMBINER = (l, r) -> {
+        throw new UnsupportedOperationException("sequential gatherer");
+    };
+
+    static final BiConsumer<Object, Gatherer.Downstream<Object>> DEFAULT_FINISHER = (s, d) -> { };
+
+    /**
+     * Returns a gatherer that groups elements into lists of
+     * {@code windowSize} elements, in encounter order.  The last list may
+     * contain fewer elements.  The lists are unmodifiable and may contain
+     * {@code null} elements.
+     *
+     * <p>Example: {@code Stream.of(1,2,3,4,5,6,7).gather(windowFixed(3))}
+     * produces {@code [[1, 2, 3], [4, 5, 6], [7]]}.
+     *
+     * @param <T> the type of elements
+     * @param windowSize the size of the windows
+     * @return a new gatherer grouping elements into fixed-size windows
+     * @throws IllegalArgumentException if {@code windowSize} is less than 1
+     */
+    public static <T> Gatherer<T, ?, List<T>> windowFixed(int windowSize) {
+        if (windowSize < 1)
+            throw new IllegalArgumentException("'windowSize' must be greater than zero");
+
+        class FixedWindow {
+            Object[] window;
+            int at;
+
+            boolean integrate(T element, Gatherer.Downstream<? super List<T>> downstream) {
+                if (window == null)
+                    window = new Object[windowSize];
+                window[at++] = element;
+                if (at < windowSize)
+                    return true;
+                Object[] full = window;
+                window = null;
+                at = 0;
+                return downstream.push(asList(full));
+            }
+
+            void finish(Gatherer.Downstream<? super List<T>> downstream) {
+                if (window != null && at > 0 && !downstream.isRejecting())
+                    downstream.push(asList(Arrays.copyOf(window, at)));
+                window = null;
+            }
+        }
+        return Gatherer.<T, FixedWindow, List<T>>ofSequential(
+                FixedWindow::new,
+                Gatherer.Integrator.<FixedWindow, T, List<T>>ofGreedy(FixedWindow::integrate),
+                FixedWindow::finish);
+    }
+
+    /**
+     * Returns a gatherer that produces, for each element from the
+     * {@code windowSize}-th on, a list of the last {@code windowSize}
+     * elements, in encounter order.  If the stream has fewer than
+     * {@code windowSize} elements, a single list of all elements is
+     * produced.  The lists are unmodifiable and may contain {@code null}
+     * elements.
+     *
+     * <p>Example: {@code Stream.of(1,2,3,4).gather(windowSliding(2))}
+     * produces {@code [[1, 2], [2, 3], [3, 4]]}.
+     *
+     * @param <T> the type of elements
+     * @param windowSize the size of the windows
+     * @return a new gatherer grouping elements into sliding windows
+     * @throws IllegalArgumentException if {@code windowSize} is less than 1
+     */
+    public static <T> Gatherer<T, ?, List<T>> windowSliding(int windowSize) {
+        if (windowSize < 1)
+            throw new IllegalArgumentException("'windowSize' must be greater than zero");
+
+        class SlidingWindow {
+            Object[] window;
+            int at;
+            boolean emitted;
+
+            boolean integrate(T element, Gatherer.Downstream<? super List<T>> downstream) {
+                if (window == null)
+                    window = new Object[windowSize];
+                if (at == windowSize) {
+                    System.arraycopy(window, 1, window, 0, windowSize - 1);
+                    at--;
+                }
+                window[at++] = element;
+                if (at < windowSize)
+                    return true;
+                emitted = true;
+                return downstream.push(asList(window.clone()));
+            }
+
+            void finish(Gatherer.Downstream<? super List<T>> downstream) {
+                if (!emitted && window != null && at > 0 && !downstream.isRejecting())
+                    downstream.push(asList(Arrays.copyOf(window, at)));
+                window = null;
+            }
+        }
+        return Gatherer.<T, SlidingWindow, List<T>>ofSequential(
+                SlidingWindow::new,
+                Gatherer.Integrator.<SlidingWindow, T, List<T>>ofGreedy(SlidingWindow::integrate),
+                SlidingWindow::finish);
+    }
+
+    /**
+     * Returns a gatherer that performs a prefix scan: starting from the
+     * value supplied by {@code initial}, each element is combined with the
+     * current value by {@code scanner} and the result is pushed downstream
+     * and becomes the current value.
+     *
+     * <p>Example: {@code Stream.of(1,2,3).gather(scan(() -> 0, Integer::sum))}
+     * produces {@code [1, 3, 6]}.
+     *
+     * @param <T> the type of input elements
+     * @param <R> the type of the accumulated values
+     * @param initial supplier of the initial value
+     * @param scanner function combining the current value with an element
+     * @return a new gatherer performing a prefix scan
+     * @throws NullPointerException if any argument is null
+     */
+    public static <T, R> Gatherer<T, ?, R> scan(Supplier<R> initial,
+                                                BiFunction<? super R, ? super T, ? extends R> scanner) {
+        Objects.requireNonNull(initial, "'initial' must not be null");
+        Objects.requireNonNull(scanner, "'scanner' must not be null");
+
+        class State {
+            R current = initial.get();
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                return downstream.push(current = scanner.apply(current, element));
+            }
+        }
+        return Gatherer.<T, State, R>ofSequential(
+                State::new,
+                Gatherer.Integrator.<State, T, R>ofGreedy(State::integrate));
+    }
+
+    /**
+     * Returns a gatherer that applies {@code mapper} to each element with
+     * at most {@code maxConcurrency} invocations running at the same time,
+     * and pushes the results downstream in encounter order.
+     *
+     * <p>The mapper is invoked on threads owned by the gatherer; they are
+     * released when the stream completes, and expire on their own if the
+     * stream is abandoned.  If an invocation of the mapper throws, the
+     * pending invocations are cancelled and the exception is rethrown from
+     * the stream operation, wrapped in a {@code RuntimeException} if it is
+     * a checked exception.
+     *
+     * @apiNote
+     * This gatherer is intended for mapping functions that block, such as
+     * remote calls, where running a bounded number of them concurrently
+     * improves throughput regardless of whether the stream is parallel.
+     *
+     * @param <T> the type of input elements
+     * @param <R> the type of output elements
+     * @param maxConcurrency the maximum number of concurrent invocations
+     * @param mapper the function to apply to each element
+     * @return a new gatherer mapping elements concurrently
+     * @throws IllegalArgumentException if {@code maxConcurrency} is less
+     *         than 1
+     * @throws NullPointerException if {@code mapper} is null
+     */
+    public static <T, R> Gatherer<T, ?, R> mapConcurrent(int maxConcurrency,
+                                                         Function<? super T, ? extends R> mapper) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("'maxConcurrency' must be greater than zero");
+        Objects.requireNonNull(mapper, "'mapper' must not be null");
+
+        class State {
+            final ArrayDeque<Future<R>> window = new ArrayDeque<>(Math.min(maxConcurrency, 16));
+            ThreadPoolExecutor executor;
+
+            boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+                if (executor == null)
+                    executor = newExecutor(maxConcurrency);
+                window.add(executor.submit(() -> mapper.apply(element)));
+                boolean proceed = true;
+                while (proceed && window.size() >= maxConcurrency)
+                    proceed = downstream.push(await(window.peek()));
+                if (!proceed)
+                    shutdown();
+                return proceed;
+            }
+
+            void finish(Gatherer.Downstream<? super R> downstream) {
+                try {
+                    boolean proceed = true;
+                    while (proceed && !window.isEmpty())
+                        proceed = downstream.push(await(window.peek()));
+                } finally {
+                    shutdown();
+                }
+            }
+
+            private R await(Future<R> head) {
+                try {
+                    R r = head.get();
+                    window.remove();
+                    return r;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    shutdown();
+                    throw new CancellationException("interrupted while waiting for mapper");
+                } catch (ExecutionException ee) {
+                    shutdown();
+                    Throwable cause = ee.getCause();
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw new RuntimeException(cause);
+                }
+            }
+
+            void shutdown() {
+                for (Future<R> f : window)
+                    f.cancel(true);
+                window.clear();
+                if (executor != null)
+                    executor.shutdownNow();
+            }
+        }
+        return Gatherer.<T, State, R>ofSequential(
+                State::new,
+                Gatherer.Integrator.<State, T, R>of(State::integrate),
+                State::finish);
+    }
+
+    private static final AtomicInteger mapperThreadNumber = new AtomicInteger();
+
+    private static ThreadPoolExecutor newExecutor(int threads) {
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "Gatherers-mapConcurrent-" +
+                                     mapperThreadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ThreadPoolExecutor e = new ThreadPoolExecutor(threads, threads,
+                                                      1L, TimeUnit.SECONDS,
+                                                      new LinkedBlockingQueue<>(),
+                                                      factory);
+        // idle threads expire even if the stream is abandoned before
+        // its finisher runs
+        e.allowCoreThreadTimeOut(true);
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(Object[] elements) {
+        return Collections.unmodifiableList(Arrays.asList((T[]) elements));
+    }
+
+    /**
+     * Plain implementation of {@link Gatherer} holding its four functions.
+     */
+    static final class GathererImpl<T, A, R> implements Gatherer<T, A, R> {
+        private final Supplier<A> initializer;
+        private final Integrator<A, T, R> integrator;
+        private final BinaryOperator<A> combiner;
+        private final BiConsumer<A, Downstream<? super R>> finisher;
+
+        GathererImpl(Supplier<A> initializer,
+                     Integrator<A, T, R> integrator,
+                     BinaryOperator<A> combiner,
+                     BiConsumer<A, Downstream<? super R>> finisher) {
+            this.initializer = initializer;
+            this.integrator = integrator;
+            this.combiner = combiner;
+            this.finisher = finisher;
+        }
+
+        @Override
+        public Supplier<A> initializer() {
+            return initializer;
+        }
+
+        @Override
+        public Integrator<A, T, R> integrator() {
+            return integrator;
+        }
+
+        @Override
+        public BinaryOperator<A> combiner() {
+            return combiner;
+        }
+
+        @Override
+        public BiConsumer<A, Downstream<? super R>> finisher() {
+            return finisher;
+        }
+    }
+}
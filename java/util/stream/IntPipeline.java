@@ -225,6 +225,16 @@ abstract class IntPipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new StatelessOp<Integer>(this, StreamShape.INT_VALUE,
                                         StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.INT_MAP;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
                 return new Sink.ChainedInt<Integer>(sink) {
@@ -242,6 +252,16 @@ abstract class IntPipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new ReferencePipeline.StatelessOp<Integer, U>(this, StreamShape.INT_VALUE,
                                                              StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.INT_MAP_TO_OBJ;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Integer> opWrapSink(int flags, Sink<U> sink) {
                 return new Sink.ChainedInt<U>(sink) {
@@ -259,6 +279,16 @@ abstract class IntPipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new LongPipeline.StatelessOp<Integer>(this, StreamShape.INT_VALUE,
                                                      StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.INT_MAP_TO_LONG;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Integer> opWrapSink(int flags, Sink<Long> sink) {
                 return new Sink.ChainedInt<Long>(sink) {
@@ -276,6 +306,16 @@ abstract class IntPipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new DoublePipeline.StatelessOp<Integer>(this, StreamShape.INT_VALUE,
                                                        StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.INT_MAP_TO_DOUBLE;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Integer> opWrapSink(int flags, Sink<Double> sink) {
                 return new Sink.ChainedInt<Double>(sink) {
@@ -330,6 +370,16 @@ abstract class IntPipeline<E_IN>
         Objects.requireNonNull(predicate);
         return new StatelessOp<Integer>(this, StreamShape.INT_VALUE,
                                         StreamOpFlag.NOT_SIZED) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.INT_FILTER;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return predicate;
+            }
+
             @Override
             Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
                 return new Sink.ChainedInt<Integer>(sink) {
@@ -206,6 +206,16 @@ abstract class LongPipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new StatelessOp<Long>(this, StreamShape.LONG_VALUE,
                                      StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.LONG_MAP;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
                 return new Sink.ChainedLong<Long>(sink) {
@@ -223,6 +233,16 @@ abstract class LongPipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new ReferencePipeline.StatelessOp<Long, U>(this, StreamShape.LONG_VALUE,
                                                           StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.LONG_MAP_TO_OBJ;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Long> opWrapSink(int flags, Sink<U> sink) {
                 return new Sink.ChainedLong<U>(sink) {
@@ -240,6 +260,16 @@ abstract class LongPipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new IntPipeline.StatelessOp<Long>(this, StreamShape.LONG_VALUE,
                                                  StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.LONG_MAP_TO_INT;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Long> opWrapSink(int flags, Sink<Integer> sink) {
                 return new Sink.ChainedLong<Integer>(sink) {
@@ -257,6 +287,16 @@ abstract class LongPipeline<E_IN>
         Objects.requireNonNull(mapper);
         return new DoublePipeline.StatelessOp<Long>(this, StreamShape.LONG_VALUE,
                                                     StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.LONG_MAP_TO_DOUBLE;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<Long> opWrapSink(int flags, Sink<Double> sink) {
                 return new Sink.ChainedLong<Double>(sink) {
@@ -311,6 +351,16 @@ abstract class LongPipeline<E_IN>
         Objects.requireNonNull(predicate);
         return new StatelessOp<Long>(this, StreamShape.LONG_VALUE,
                                      StreamOpFlag.NOT_SIZED) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.LONG_FILTER;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return predicate;
+            }
+
             @Override
             Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
                 return new Sink.ChainedLong<Long>(sink) {
@@ -161,6 +161,16 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         Objects.requireNonNull(predicate);
         return new StatelessOp<P_OUT, P_OUT>(this, StreamShape.REFERENCE,
                                      StreamOpFlag.NOT_SIZED) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.REF_FILTER;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return predicate;
+            }
+
             @Override
             Sink<P_OUT> opWrapSink(int flags, Sink<P_OUT> sink) {
                 return new Sink.ChainedReference<P_OUT, P_OUT>(sink) {
@@ -185,6 +195,16 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         Objects.requireNonNull(mapper);
         return new StatelessOp<P_OUT, R>(this, StreamShape.REFERENCE,
                                      StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.REF_MAP;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<P_OUT> opWrapSink(int flags, Sink<R> sink) {
                 return new Sink.ChainedReference<P_OUT, R>(sink) {
@@ -202,6 +222,16 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         Objects.requireNonNull(mapper);
         return new IntPipeline.StatelessOp<P_OUT>(this, StreamShape.REFERENCE,
                                               StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.REF_MAP_TO_INT;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<P_OUT> opWrapSink(int flags, Sink<Integer> sink) {
                 return new Sink.ChainedReference<P_OUT, Integer>(sink) {
@@ -219,6 +249,16 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         Objects.requireNonNull(mapper);
         return new LongPipeline.StatelessOp<P_OUT>(this, StreamShape.REFERENCE,
                                       StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.REF_MAP_TO_LONG;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<P_OUT> opWrapSink(int flags, Sink<Long> sink) {
                 return new Sink.ChainedReference<P_OUT, Long>(sink) {
@@ -236,6 +276,16 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         Objects.requireNonNull(mapper);
         return new DoublePipeline.StatelessOp<P_OUT>(this, StreamShape.REFERENCE,
                                         StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT) {
+            @Override
+            StreamFusion.Kind opFusionKind() {
+                return StreamFusion.Kind.REF_MAP_TO_DOUBLE;
+            }
+
+            @Override
+            Object opFusionFunction() {
+                return mapper;
+            }
+
             @Override
             Sink<P_OUT> opWrapSink(int flags, Sink<Double> sink) {
                 return new Sink.ChainedReference<P_OUT, Double>(sink) {
@@ -379,6 +429,13 @@ abstract class ReferencePipeline<P_IN, P_OUT>
 
     // Stateful intermediate operations from Stream
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final <R> Stream<R> gather(Gatherer<? super P_OUT, ?, R> gatherer) {
+        Objects.requireNonNull(gatherer);
+        return GathererOp.of(this, (Gatherer<P_OUT, Object, R>) gatherer);
+    }
+
     @Override
     public final Stream<P_OUT> distinct() {
         return DistinctOps.makeRef(this);
@@ -394,6 +451,17 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         return SortedOps.makeRef(this, comparator);
     }
 
+    @Override
+    public final Stream<P_OUT> distinct(SpillOptions<P_OUT> spill) {
+        return SpillingOps.makeDistinctRef(this, spill);
+    }
+
+    @Override
+    public final Stream<P_OUT> sorted(Comparator<? super P_OUT> comparator,
+                                      SpillOptions<P_OUT> spill) {
+        return SpillingOps.makeSortedRef(this, comparator, spill);
+    }
+
     @Override
     public final Stream<P_OUT> limit(long maxSize) {
         if (maxSize < 0)
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.stream;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Configuration for stateful stream operations that may spill their
+ * buffered elements to temporary files instead of holding all of them in
+ * memory; see {@link Stream#sorted(java.util.Comparator, SpillOptions)} and
+ * {@link Stream#distinct(SpillOptions)}.
+ *
+ * <p>The memory budget is expressed as a number of elements: an operation
+ * holds at most that many elements in memory at once and writes the
+ * remainder, encoded with the {@link ElementCodec}, to files in the
+ * configured directory.  These files are removed when the operation has
+ * delivered its last element, or when the stream is closed.  If a
+ * short-circuiting terminal operation stops consuming the output of an
+ * operation and the stream is not closed, the files are removed on a
+ * best-effort basis by a {@link java.lang.ref.Cleaner Cleaner} some time
+ * after that output becomes unreachable; streams with spilling operations
+ * should therefore be closed, for instance with try-with-resources, when
+ * they may be short-circuited.
+ *
+ * <p>Instances are immutable and may be shared between streams.
+ *
+ * @param <T> the type of stream elements
+ * @since 1.8
+ */
+public final class SpillOptions<T> {
+
+    private final ElementCodec<T> codec;
+    private final int maxElementsInMemory;
+    private final Path directory;
+
+    private SpillOptions(ElementCodec<T> codec, int maxElementsInMemory, Path directory) {
+        this.codec = codec;
+        this.maxElementsInMemory = maxElementsInMemory;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns spill options that hold at most {@code maxElementsInMemory}
+     * elements in memory and spill to the default temporary-file directory.
+     *
+     * @param <T> the type of stream elements
+     * @param codec the codec used to write and read spilled elements
+     * @param maxElementsInMemory the memory budget, in elements
+     * @return the spill options
+     * @throws NullPointerException if {@code codec} is null
+     * @throws IllegalArgumentException if {@code maxElementsInMemory} is
+     *         less than 1
+     */
+    public static <T> SpillOptions<T> of(ElementCodec<T> codec, int maxElementsInMemory) {
+        Objects.requireNonNull(codec);
+        if (maxElementsInMemory < 1)
+            throw new IllegalArgumentException(Integer.toString(maxElementsInMemory));
+        return new SpillOptions<>(codec, maxElementsInMemory, null);
+    }
+
+    /**
+     * Returns spill options identical to these ones but spilling to
+     * files in the given directory.
+     *
+     * @param directory the directory in which to create spill files
+     * @return the spill options
+     * @throws NullPointerException if {@code directory} is null
+     */
+    public SpillOptions<T> inDirectory(Path directory) {
+        return new SpillOptions<>(codec, maxElementsInMemory, Objects.requireNonNull(directory));
+    }
+
+    /**
+     * Returns the codec used to write and read spilled elements.
+     *
+     * @return the codec
+     */
+    public ElementCodec<T> codec() {
+        return codec;
+    }
+
+    /**
+     * Returns the maximum number of elements held in memory at once.
+     *
+     * @return the memory budget, in elements
+     */
+    public int maxElementsInMemory() {
+        return maxElementsInMemory;
+    }
+
+    /**
+     * Returns the directory in which spill files are created, or
+     * {@code null} for the default temporary-file directory.
+     *
+     * @return the spill directory, or {@code null}
+     */
+    public Path directory() {
+        return directory;
+    }
+}
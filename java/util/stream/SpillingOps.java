@@ -0,0 +1,960 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntFunction;
+
+/**
+ * Factory methods for "sorted" and "distinct" operations that hold a bounded
+ * number of elements in memory and spill the remainder to temporary files,
+ * as configured by {@link SpillOptions}.
+ *
+ * <p>Sorting writes sorted runs of at most {@code maxElementsInMemory}
+ * elements and merges them, together with the final in-memory run, with a
+ * k-way merge.  Runs are ordered by their position in the input so that the
+ * sort remains stable.  At most {@link #MAX_FAN_IN} runs are merged at once;
+ * if there are more, consecutive groups of runs are first merged into
+ * longer runs, in as many passes as needed.
+ *
+ * <p>Distinct passes elements through while the set of seen elements is
+ * within budget.  Once the budget is reached, unseen elements are tagged
+ * with their encounter position and hash-partitioned to files; each
+ * partition (re-partitioned if it is itself too large) is then reduced to
+ * its first occurrences, and the survivors are merged back by encounter
+ * position.  The output order is therefore the same as for
+ * {@link DistinctOps}.
+ *
+ * <p>In parallel pipelines the upstream elements are accumulated
+ * sequentially, and the result is exposed to downstream stages as a lazy
+ * spliterator over the merged output.
+ *
+ * <p>A spill file is only open while it is being written or read, so the
+ * number of open files is bounded by the fan-in and the number of
+ * partitions rather than by the input size.  The files of an evaluation
+ * are deleted once its output has been delivered, when the stream is
+ * closed, or, if a short-circuiting terminal operation abandons the output
+ * of an unclosed stream, by the common {@link Cleaner} once the sink or
+ * spliterator reading the output has become phantom reachable.
+ *
+ * @since 1.8
+ */
+final class SpillingOps {
+
+    private SpillingOps() { }
+
+    /** Maximum size of the buffers used to write and read spill files. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Minimum size of the buffers used to read spill files. */
+    private static final int MIN_BUFFER_SIZE = 1 << 12;
+
+    /** Size of the buffers of the partition files written at once. */
+    private static final int PARTITION_BUFFER_SIZE = 1 << 13;
+
+    /** Maximum number of spill files read at once by a merge. */
+    static final int MAX_FAN_IN = 64;
+
+    /** Number of hash partitions used by the distinct operation. */
+    private static final int PARTITIONS = 64;
+
+    /** Maximum number of times an oversized partition is re-partitioned. */
+    private static final int MAX_PARTITION_DEPTH = 4;
+
+    /**
+     * Appends a spilling "sorted" operation to the provided stream.
+     *
+     * @param <T> the type of both input and output elements
+     * @param upstream a reference stream with element type T
+     * @param comparator the comparator to order elements by
+     * @param options the spill configuration
+     */
+    static <T> Stream<T> makeSortedRef(AbstractPipeline<?, T, ?> upstream,
+                                       Comparator<? super T> comparator,
+                                       SpillOptions<T> options) {
+        return new SortedOp<>(upstream, comparator, options);
+    }
+
+    /**
+     * Appends a spilling "distinct" operation to the provided stream.
+     *
+     * @param <T> the type of both input and output elements
+     * @param upstream a reference stream with element type T
+     * @param options the spill configuration
+     */
+    static <T> Stream<T> makeDistinctRef(AbstractPipeline<?, T, ?> upstream,
+                                         SpillOptions<T> options) {
+        return new DistinctOp<>(upstream, options);
+    }
+
+    /**
+     * Collects the output of a lazily evaluated stateful stage into a node.
+     */
+    private static <T> Node<T> toNode(Spliterator<T> s, IntFunction<T[]> generator) {
+        long size = s.getExactSizeIfKnown();
+        Node.Builder<T> nb = Nodes.builder(size, generator);
+        nb.begin(size);
+        s.forEachRemaining(nb);
+        nb.end();
+        return nb.build();
+    }
+
+    private static final class SortedOp<T> extends ReferencePipeline.StatefulOp<T, T> {
+        private final Comparator<? super T> comparator;
+        private final SpillOptions<T> options;
+        private final SpillTracker spills = new SpillTracker();
+
+        SortedOp(AbstractPipeline<?, T, ?> upstream, Comparator<? super T> comparator,
+                 SpillOptions<T> options) {
+            super(upstream, StreamShape.REFERENCE,
+                  StreamOpFlag.IS_ORDERED | StreamOpFlag.NOT_SORTED);
+            this.comparator = Objects.requireNonNull(comparator);
+            this.options = Objects.requireNonNull(options);
+            onClose(spills);
+        }
+
+        @Override
+        Sink<T> opWrapSink(int flags, Sink<T> sink) {
+            Objects.requireNonNull(sink);
+            return new SpillingSortingSink<>(sink, comparator, options, spills);
+        }
+
+        @Override
+        <P_IN> Spliterator<T> opEvaluateParallelLazy(PipelineHelper<T> helper,
+                                                     Spliterator<P_IN> spliterator) {
+            SortSpill<T> spill = new SortSpill<>(comparator, options);
+            Spliterator<T> result;
+            try {
+                helper.wrapAndCopyInto((Sink<T>) spill::add, spliterator);
+                result = Spliterators.spliterator(spill.iterator(), spill.count(),
+                                                  Spliterator.ORDERED);
+            } catch (Throwable t) {
+                spill.close();
+                throw t;
+            }
+            spills.track(result, spill::close);
+            return result;
+        }
+
+        @Override
+        <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper,
+                                          Spliterator<P_IN> spliterator,
+                                          IntFunction<T[]> generator) {
+            return toNode(opEvaluateParallelLazy(helper, spliterator), generator);
+        }
+    }
+
+    private static final class DistinctOp<T> extends ReferencePipeline.StatefulOp<T, T> {
+        private final SpillOptions<T> options;
+        private final SpillTracker spills = new SpillTracker();
+
+        DistinctOp(AbstractPipeline<?, T, ?> upstream, SpillOptions<T> options) {
+            super(upstream, StreamShape.REFERENCE,
+                  StreamOpFlag.IS_DISTINCT | StreamOpFlag.NOT_SIZED);
+            this.options = Objects.requireNonNull(options);
+            onClose(spills);
+        }
+
+        @Override
+        Sink<T> opWrapSink(int flags, Sink<T> sink) {
+            Objects.requireNonNull(sink);
+            if (StreamOpFlag.DISTINCT.isKnown(flags))
+                return sink;
+            return new SpillingDistinctSink<>(sink, options, spills);
+        }
+
+        @Override
+        <P_IN> Spliterator<T> opEvaluateParallelLazy(PipelineHelper<T> helper,
+                                                     Spliterator<P_IN> spliterator) {
+            if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                // No-op
+                return helper.wrapSpliterator(spliterator);
+            }
+            int characteristics = StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())
+                                  ? Spliterator.DISTINCT | Spliterator.ORDERED
+                                  : Spliterator.DISTINCT;
+            DistinctSpill<T> spill = new DistinctSpill<>(options);
+            // elements passed through before the budget was reached,
+            // bounded by maxElementsInMemory
+            List<T> passed = new ArrayList<>();
+            Iterator<T> spilled;
+            try {
+                helper.wrapAndCopyInto((Sink<T>) t -> {
+                    if (spill.add(t))
+                        passed.add(t);
+                }, spliterator);
+                spilled = spill.spilled();
+            } catch (Throwable t) {
+                spill.close();
+                throw t;
+            }
+            Iterator<T> first = passed.iterator();
+            Iterator<T> it = new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return first.hasNext() || spilled.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return first.hasNext() ? first.next() : spilled.next();
+                }
+            };
+            Spliterator<T> result = Spliterators.spliteratorUnknownSize(it, characteristics);
+            spills.track(result, spill::close);
+            return result;
+        }
+
+        @Override
+        <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper,
+                                          Spliterator<P_IN> spliterator,
+                                          IntFunction<T[]> generator) {
+            if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                // No-op
+                return helper.evaluate(spliterator, false, generator);
+            }
+            return toNode(opEvaluateParallelLazy(helper, spliterator), generator);
+        }
+    }
+
+    /**
+     * {@link Sink} for implementing a spilling sort.  Like the sorting sinks
+     * in {@link SortedOps} it records whether cancellation was requested so
+     * that short-circuiting is preserved when pushing the sorted elements.
+     */
+    private static final class SpillingSortingSink<T> extends Sink.ChainedReference<T, T> {
+        private final Comparator<? super T> comparator;
+        private final SpillOptions<T> options;
+        private final SpillTracker spills;
+        private SortSpill<T> spill;
+        private Cleaner.Cleanable cleanable;
+        private boolean cancellationWasRequested;
+
+        SpillingSortingSink(Sink<? super T> downstream, Comparator<? super T> comparator,
+                            SpillOptions<T> options, SpillTracker spills) {
+            super(downstream);
+            this.comparator = comparator;
+            this.options = options;
+            this.spills = spills;
+        }
+
+        @Override
+        public void begin(long size) {
+            spill = new SortSpill<>(comparator, options);
+            cleanable = spills.track(this, spill::close);
+        }
+
+        @Override
+        public void end() {
+            try {
+                downstream.begin(spill.count());
+                Iterator<T> it = spill.iterator();
+                if (!cancellationWasRequested) {
+                    while (it.hasNext())
+                        downstream.accept(it.next());
+                }
+                else {
+                    while (it.hasNext() && !downstream.cancellationRequested())
+                        downstream.accept(it.next());
+                }
+                downstream.end();
+            } finally {
+                cleanable.clean();
+                cleanable = null;
+                spill = null;
+            }
+        }
+
+        @Override
+        public void accept(T t) {
+            spill.add(t);
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            cancellationWasRequested = true;
+            return false;
+        }
+    }
+
+    /**
+     * {@link Sink} for implementing a spilling distinct.
+     */
+    private static final class SpillingDistinctSink<T> extends Sink.ChainedReference<T, T> {
+        private final SpillOptions<T> options;
+        private final SpillTracker spills;
+        private DistinctSpill<T> spill;
+        private Cleaner.Cleanable cleanable;
+
+        SpillingDistinctSink(Sink<? super T> downstream, SpillOptions<T> options,
+                             SpillTracker spills) {
+            super(downstream);
+            this.options = options;
+            this.spills = spills;
+        }
+
+        @Override
+        public void begin(long size) {
+            spill = new DistinctSpill<>(options);
+            cleanable = spills.track(this, spill::close);
+            downstream.begin(-1);
+        }
+
+        @Override
+        public void end() {
+            try {
+                Iterator<T> it = spill.spilled();
+                while (it.hasNext() && !downstream.cancellationRequested())
+                    downstream.accept(it.next());
+                downstream.end();
+            } finally {
+                cleanable.clean();
+                cleanable = null;
+                spill = null;
+            }
+        }
+
+        @Override
+        public void accept(T t) {
+            if (spill.add(t))
+                downstream.accept(t);
+        }
+    }
+
+    /**
+     * Accumulates elements for sorting, writing sorted runs to spill files
+     * whenever the in-memory buffer reaches the budget.
+     */
+    static final class SortSpill<T> implements Closeable {
+        private final Comparator<? super T> comparator;
+        private final SpillOptions<T> options;
+        private final ArrayList<T> buffer = new ArrayList<>();
+        private final List<SpillFile<T>> runs = new ArrayList<>();
+        private long count;
+
+        SortSpill(Comparator<? super T> comparator, SpillOptions<T> options) {
+            this.comparator = comparator;
+            this.options = options;
+        }
+
+        void add(T t) {
+            buffer.add(t);
+            count++;
+            if (buffer.size() >= options.maxElementsInMemory())
+                spillRun();
+        }
+
+        long count() {
+            return count;
+        }
+
+        private void spillRun() {
+            buffer.sort(comparator);
+            SpillFile<T> run = SpillFile.create(options, false, BUFFER_SIZE);
+            runs.add(run);
+            for (T t : buffer)
+                run.write(0, t);
+            run.finish();
+            buffer.clear();
+        }
+
+        /**
+         * Returns an iterator over all accumulated elements in sorted order.
+         * The spill files are closed when the iterator is exhausted.
+         */
+        Iterator<T> iterator() {
+            buffer.sort(comparator);
+            if (runs.isEmpty())
+                return buffer.iterator();
+
+            Comparator<Cursor<T>> order = (a, b) -> {
+                int c = comparator.compare(a.element, b.element);
+                // equal elements are taken from earlier runs first
+                return c != 0 ? c : Integer.compare(a.order, b.order);
+            };
+            // leave room for the in-memory run
+            mergeRuns(runs, MAX_FAN_IN - 1, order, options, false);
+            int bufferSize = readBufferSize(runs, runs.size(), options);
+            List<Cursor<T>> cursors = new ArrayList<>(runs.size() + 1);
+            for (SpillFile<T> run : runs)
+                cursors.add(run.cursor(cursors.size(), bufferSize));
+            cursors.add(new ListCursor<>(buffer, cursors.size()));
+            return new MergeIterator<>(cursors, order, this);
+        }
+
+        @Override
+        public void close() {
+            SpillFile.closeAll(runs);
+        }
+    }
+
+    /**
+     * Tracks seen elements for the distinct operation, spilling unseen
+     * elements to hash partitions once the budget is reached.
+     */
+    static final class DistinctSpill<T> implements Closeable {
+        private final SpillOptions<T> options;
+        private HashSet<T> seen = new HashSet<>();
+        private List<SpillFile<T>> partitions;
+        private final List<SpillFile<T>> survivors = new ArrayList<>();
+        private long position;
+
+        DistinctSpill(SpillOptions<T> options) {
+            this.options = options;
+        }
+
+        /**
+         * Offers an element.  Returns true if the element is seen for the
+         * first time and should be passed downstream immediately, false if
+         * it is a duplicate or has been spilled.
+         */
+        boolean add(T t) {
+            if (partitions == null) {
+                if (!seen.add(t))
+                    return false;
+                if (seen.size() >= options.maxElementsInMemory())
+                    partitions = SpillFile.createAll(options, PARTITIONS,
+                                                     PARTITION_BUFFER_SIZE);
+                return true;
+            }
+            if (!seen.contains(t))
+                partitions.get(partition(t, 0)).write(position++, t);
+            return false;
+        }
+
+        /**
+         * Returns an iterator over the first occurrences of all spilled
+         * elements, in encounter order.  The spill files are closed when the
+         * iterator is exhausted.
+         */
+        Iterator<T> spilled() {
+            if (partitions == null)
+                return new ArrayList<T>(0).iterator();
+            // every spilled element is known to be absent from seen
+            seen = null;
+            try {
+                for (SpillFile<T> p : partitions)
+                    p.finish();
+                for (SpillFile<T> p : partitions) {
+                    reduce(p, 1);
+                    p.close();
+                }
+            } finally {
+                SpillFile.closeAll(partitions);
+            }
+            Comparator<Cursor<T>> order = (a, b) -> Long.compare(a.position, b.position);
+            mergeRuns(survivors, MAX_FAN_IN, order, options, true);
+            int bufferSize = readBufferSize(survivors, survivors.size(), options);
+            List<Cursor<T>> cursors = new ArrayList<>(survivors.size());
+            for (SpillFile<T> s : survivors)
+                cursors.add(s.cursor(cursors.size(), bufferSize));
+            return new MergeIterator<>(cursors, order, this);
+        }
+
+        /**
+         * Reduces a partition to the first occurrence of each element,
+         * re-partitioning it first if it exceeds the budget.
+         */
+        private void reduce(SpillFile<T> p, int depth) {
+            if (p.count() <= options.maxElementsInMemory() || depth >= MAX_PARTITION_DEPTH) {
+                HashSet<T> firsts = new HashSet<>();
+                SpillFile<T> out = SpillFile.create(options, true, BUFFER_SIZE);
+                survivors.add(out);
+                for (Cursor<T> c = p.cursor(0, BUFFER_SIZE); c.advance(); ) {
+                    if (firsts.add(c.element))
+                        out.write(c.position, c.element);
+                }
+                out.finish();
+                return;
+            }
+            List<SpillFile<T>> subs = SpillFile.createAll(options, PARTITIONS,
+                                                          PARTITION_BUFFER_SIZE);
+            try {
+                for (Cursor<T> c = p.cursor(0, BUFFER_SIZE); c.advance(); )
+                    subs.get(partition(c.element, depth)).write(c.position, c.element);
+                for (SpillFile<T> s : subs)
+                    s.finish();
+                for (SpillFile<T> s : subs) {
+                    reduce(s, depth + 1);
+                    s.close();
+                }
+            } finally {
+                SpillFile.closeAll(subs);
+            }
+        }
+
+        /**
+         * Returns the partition of an element at the given depth.  Equal
+         * elements map to the same partition at every depth, while the mix
+         * differs between depths so that a partition is spread out when it
+         * is re-partitioned.
+         */
+        private static int partition(Object t, int depth) {
+            int h = Objects.hashCode(t) + depth * 0x61c88647;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return (h & 0x7fffffff) % PARTITIONS;
+        }
+
+        @Override
+        public void close() {
+            if (partitions != null)
+                SpillFile.closeAll(partitions);
+            SpillFile.closeAll(survivors);
+        }
+    }
+
+    /**
+     * Merges consecutive groups of at most {@link #MAX_FAN_IN} runs into
+     * single runs, in as many passes as needed, until at most
+     * {@code maxRuns} runs remain.  The merged runs replace the originals in
+     * the list, which are closed.  Since groups are consecutive and ties
+     * within a group are broken by the index of the run in the group, a
+     * stable order remains stable.
+     */
+    static <T> void mergeRuns(List<SpillFile<T>> runs, int maxRuns,
+                              Comparator<Cursor<T>> order,
+                              SpillOptions<T> options, boolean positioned) {
+        while (runs.size() > maxRuns) {
+            List<SpillFile<T>> merged = new ArrayList<>();
+            try {
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    List<SpillFile<T>> group =
+                            runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                    if (group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+                    SpillFile<T> out = SpillFile.create(options, positioned, BUFFER_SIZE);
+                    merged.add(out);
+                    int bufferSize = readBufferSize(group, group.size(), options);
+                    PriorityQueue<Cursor<T>> queue = new PriorityQueue<>(group.size(), order);
+                    for (SpillFile<T> run : group) {
+                        Cursor<T> c = run.cursor(queue.size(), bufferSize);
+                        if (c.advance())
+                            queue.add(c);
+                    }
+                    for (Cursor<T> c; (c = queue.poll()) != null; ) {
+                        out.write(c.position, c.element);
+                        if (c.advance())
+                            queue.add(c);
+                    }
+                    out.finish();
+                    SpillFile.closeAll(group);
+                }
+            } catch (Throwable t) {
+                for (SpillFile<T> f : merged) {
+                    if (!runs.contains(f))
+                        f.close();
+                }
+                throw t;
+            }
+            runs.clear();
+            runs.addAll(merged);
+        }
+    }
+
+    /**
+     * Returns the size of the buffer for each of {@code n} runs read at
+     * once.  The memory budget in bytes is estimated from the average
+     * encoded size of the elements in the runs and divided between the
+     * runs, within [{@link #MIN_BUFFER_SIZE}, {@link #BUFFER_SIZE}].
+     */
+    static int readBufferSize(List<? extends SpillFile<?>> runs, int n,
+                              SpillOptions<?> options) {
+        long bytes = 0, count = 0;
+        for (SpillFile<?> run : runs) {
+            bytes += run.bytes();
+            count += run.count();
+        }
+        if (count == 0 || n == 0)
+            return MIN_BUFFER_SIZE;
+        long budget = (bytes / count + 1) * options.maxElementsInMemory();
+        return (int) Math.max(MIN_BUFFER_SIZE, Math.min(BUFFER_SIZE, budget / n));
+    }
+
+    /**
+     * Closes the spill state of one operation when its stream is closed.
+     * Each piece of state is also registered with the common cleaner
+     * against the sink or spliterator using it, so that it is closed if
+     * that object is abandoned, for instance by a short-circuiting terminal
+     * operation, without the stream being closed.
+     */
+    static final class SpillTracker implements Runnable {
+        private final List<Cleaner.Cleanable> cleanables = new ArrayList<>();
+
+        /**
+         * Registers an action closing spill state used by {@code user}.
+         * The action must not refer to {@code user}.
+         */
+        synchronized Cleaner.Cleanable track(Object user, Runnable close) {
+            Cleaner.Cleanable c = sun.misc.SharedSecrets.getJavaLangRefAccess()
+                                                        .cleaner().register(user, close);
+            cleanables.add(c);
+            return c;
+        }
+
+        @Override
+        public void run() {
+            List<Cleaner.Cleanable> pending;
+            synchronized (this) {
+                pending = new ArrayList<>(cleanables);
+                cleanables.clear();
+            }
+            RuntimeException failure = null;
+            for (Cleaner.Cleanable c : pending) {
+                try {
+                    c.clean();
+                } catch (RuntimeException e) {
+                    if (failure == null)
+                        failure = e;
+                    else
+                        failure.addSuppressed(e);
+                }
+            }
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    /**
+     * A temporary file holding a sequence of elements, each optionally
+     * preceded by its encounter position.  The file is written through a
+     * buffered stream over a {@link FileChannel}, which is closed by
+     * {@link #finish}, and read back through a channel opened by
+     * {@link #cursor}, which the cursor closes when it is exhausted.  The
+     * file is deleted when closed.
+     */
+    static final class SpillFile<T> implements Closeable {
+        private final Path path;
+        private final ElementCodec<T> codec;
+        private final boolean positioned;
+        private FileChannel channel;
+        private DataOutputStream out;
+        private long count;
+        private long bytes;
+        private boolean closed;
+
+        private SpillFile(Path path, FileChannel channel, ElementCodec<T> codec,
+                          boolean positioned, int bufferSize) {
+            this.path = path;
+            this.channel = channel;
+            this.codec = codec;
+            this.positioned = positioned;
+            this.out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), bufferSize));
+        }
+
+        static <T> SpillFile<T> create(SpillOptions<T> options, boolean positioned,
+                                       int bufferSize) {
+            Path path = null;
+            try {
+                Path dir = options.directory();
+                path = (dir == null)
+                       ? Files.createTempFile("stream-spill", ".tmp")
+                       : Files.createTempFile(dir, "stream-spill", ".tmp");
+                FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE);
+                return new SpillFile<>(path, ch, options.codec(), positioned, bufferSize);
+            } catch (IOException e) {
+                if (path != null) {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException x) {
+                        e.addSuppressed(x);
+                    }
+                }
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        static <T> List<SpillFile<T>> createAll(SpillOptions<T> options, int n,
+                                                int bufferSize) {
+            List<SpillFile<T>> files = new ArrayList<>(n);
+            try {
+                for (int i = 0; i < n; i++)
+                    files.add(create(options, true, bufferSize));
+            } catch (RuntimeException e) {
+                closeAll(files);
+                throw e;
+            }
+            return files;
+        }
+
+        static void closeAll(List<? extends SpillFile<?>> files) {
+            RuntimeException failure = null;
+            for (SpillFile<?> f : files) {
+                try {
+                    f.close();
+                } catch (RuntimeException e) {
+                    if (failure == null)
+                        failure = e;
+                    else
+                        failure.addSuppressed(e);
+                }
+            }
+            if (failure != null)
+                throw failure;
+        }
+
+        long count() {
+            return count;
+        }
+
+        /**
+         * Returns the size of the file, once writing has finished.
+         */
+        long bytes() {
+            return bytes;
+        }
+
+        void write(long position, T t) {
+            try {
+                if (positioned)
+                    out.writeLong(position);
+                if (t == null) {
+                    out.writeBoolean(false);
+                } else {
+                    out.writeBoolean(true);
+                    codec.write(t, out);
+                }
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Finishes writing, and closes the file until it is read.
+         */
+        synchronized void finish() {
+            if (out == null)
+                return;
+            try {
+                out.flush();
+                bytes = channel.size();
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                out = null;
+                channel = null;
+            }
+        }
+
+        /**
+         * Finishes writing and returns a cursor over the elements of this
+         * file, from the first one, reading through a buffer of the given
+         * size.
+         */
+        synchronized Cursor<T> cursor(int order, int bufferSize) {
+            finish();
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(Channels.newInputStream(channel), bufferSize));
+                return new FileCursor<>(in, codec, positioned, count, order);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Closes the channel of this file, if open, and deletes the file.
+         * This method may be called more than once, and from the cleaner
+         * thread.
+         */
+        @Override
+        public synchronized void close() {
+            if (closed)
+                return;
+            closed = true;
+            try {
+                try {
+                    if (channel != null)
+                        channel.close();
+                } finally {
+                    channel = null;
+                    out = null;
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * A position in a sequence of elements being merged.
+     */
+    abstract static class Cursor<T> {
+        /** Index of the sequence, used to break ties between equal elements. */
+        final int order;
+        /** The current element. */
+        T element;
+        /** The encounter position of the current element, if recorded. */
+        long position;
+
+        Cursor(int order) {
+            this.order = order;
+        }
+
+        /**
+         * Moves to the next element, returning false if there is none.
+         */
+        abstract boolean advance();
+    }
+
+    static final class FileCursor<T> extends Cursor<T> {
+        private final DataInputStream in;
+        private final ElementCodec<T> codec;
+        private final boolean positioned;
+        private long remaining;
+
+        FileCursor(DataInputStream in, ElementCodec<T> codec, boolean positioned,
+                   long count, int order) {
+            super(order);
+            this.in = in;
+            this.codec = codec;
+            this.positioned = positioned;
+            this.remaining = count;
+        }
+
+        @Override
+        boolean advance() {
+            if (remaining == 0) {
+                element = null;
+                try {
+                    // release the file descriptor as soon as possible
+                    in.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return false;
+            }
+            remaining--;
+            try {
+                if (positioned)
+                    position = in.readLong();
+                element = in.readBoolean() ? codec.read(in) : null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }
+    }
+
+    static final class ListCursor<T> extends Cursor<T> {
+        private final List<T> list;
+        private int index;
+
+        ListCursor(List<T> list, int order) {
+            super(order);
+            this.list = list;
+        }
+
+        @Override
+        boolean advance() {
+            if (index == list.size()) {
+                element = null;
+                return false;
+            }
+            element = list.get(index++);
+            return true;
+        }
+    }
+
+    /**
+     * Iterator performing a k-way merge of cursors with a priority queue.
+     * The owner of the cursors is closed once the merge is exhausted.
+     */
+    static final class MergeIterator<T> implements Iterator<T> {
+        private final PriorityQueue<Cursor<T>> queue;
+        private final Closeable owner;
+
+        MergeIterator(List<Cursor<T>> cursors, Comparator<Cursor<T>> order, Closeable owner) {
+            this.queue = new PriorityQueue<>(Math.max(1, cursors.size()), order);
+            this.owner = owner;
+            for (Cursor<T> c : cursors) {
+                if (c.advance())
+                    queue.add(c);
+            }
+            closeIfExhausted();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Cursor<T> c = queue.poll();
+            if (c == null)
+                throw new NoSuchElementException();
+            T t = c.element;
+            if (c.advance())
+                queue.add(c);
+            else
+                closeIfExhausted();
+            return t;
+        }
+
+        private void closeIfExhausted() {
+            if (queue.isEmpty()) {
+                try {
+                    owner.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
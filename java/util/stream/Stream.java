@@ -329,6 +329,38 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     DoubleStream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper);
 
+    /**
+     * Returns a stream consisting of the results of applying the given
+     * {@link Gatherer} to the elements of this stream.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a> that short-circuits unless the gatherer's
+     * integrator is {@linkplain Gatherer.Integrator.Greedy greedy}.
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator() spliterator}
+     * of this stream, wraps it in a new stream of the same parallelism, applies
+     * the gatherer to that stream and returns it, closing this stream when the
+     * returned stream is closed.
+     *
+     * @apiNote
+     * Gatherers allow stages such as windowing, running accumulations and
+     * stateful mappings to be expressed without collecting to a list and
+     * streaming again; see {@link Gatherers} for common gatherers.
+     *
+     * @param <R> the element type of the new stream
+     * @param gatherer a gatherer
+     * @return the new stream
+     * @see Gatherers
+     * @since 1.8
+     */
+    default <R> Stream<R> gather(Gatherer<? super T, ?, R> gatherer) {
+        Objects.requireNonNull(gatherer);
+        return StreamSupport.stream(spliterator(), isParallel())
+                            .gather(gatherer)
+                            .onClose(this::close);
+    }
+
     /**
      * Returns a stream consisting of the distinct elements (according to
      * {@link Object#equals(Object)}) of this stream.
@@ -391,6 +423,73 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     Stream<T> sorted(Comparator<? super T> comparator);
 
+    /**
+     * Returns a stream consisting of the distinct elements (according to
+     * {@link Object#equals(Object)}) of this stream, holding at most
+     * {@link SpillOptions#maxElementsInMemory()} elements in memory and
+     * spilling the remainder to temporary files.
+     *
+     * <p>The selection of distinct elements is stable in the same way as
+     * for {@link #distinct()}.  Spilled elements are written and read back
+     * with the {@linkplain SpillOptions#codec() codec} of the spill options.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @implSpec
+     * The default implementation ignores the spill options and returns
+     * {@code distinct()}.
+     *
+     * @apiNote
+     * This method is intended for streams with more distinct elements than
+     * fit in memory.  In parallel pipelines the elements reaching this
+     * operation are accumulated sequentially.
+     *
+     * @param spill the spill configuration
+     * @return the new stream
+     * @throws NullPointerException if {@code spill} is null
+     * @since 1.8
+     */
+    default Stream<T> distinct(SpillOptions<T> spill) {
+        Objects.requireNonNull(spill);
+        return distinct();
+    }
+
+    /**
+     * Returns a stream consisting of the elements of this stream, sorted
+     * according to the provided {@code Comparator}, holding at most
+     * {@link SpillOptions#maxElementsInMemory()} elements in memory.  The
+     * remaining elements are written to temporary files as sorted runs
+     * which are merged back when the sorted elements are pushed downstream.
+     *
+     * <p>For ordered streams, the sort is stable.  For unordered streams, no
+     * stability guarantees are made.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @implSpec
+     * The default implementation ignores the spill options and returns
+     * {@code sorted(comparator)}.
+     *
+     * @apiNote
+     * This method is intended for streams with more elements than fit in
+     * memory.  In parallel pipelines the elements reaching this operation
+     * are accumulated sequentially.
+     *
+     * @param comparator a <a href="package-summary.html#NonInterference">non-interfering</a>,
+     *                   <a href="package-summary.html#Statelessness">stateless</a>
+     *                   {@code Comparator} to be used to compare stream elements
+     * @param spill the spill configuration
+     * @return the new stream
+     * @throws NullPointerException if {@code spill} is null
+     * @since 1.8
+     */
+    default Stream<T> sorted(Comparator<? super T> comparator, SpillOptions<T> spill) {
+        Objects.requireNonNull(spill);
+        return sorted(comparator);
+    }
+
     /**
      * Returns a stream consisting of the elements of this stream, additionally
      * performing the provided action on each element as elements are consumed
@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.lang.reflect.Constructor;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jdk.internal.org.objectweb.asm.ClassWriter;
+import jdk.internal.org.objectweb.asm.Label;
+import jdk.internal.org.objectweb.asm.MethodVisitor;
+import sun.misc.Unsafe;
+
+import static jdk.internal.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Fuses runs of adjacent stateless {@code map} and {@code filter} stages of
+ * a stream pipeline into a single {@link Sink}, whose {@code accept} method
+ * applies every function of the run in straight-line code before pushing the
+ * result downstream.
+ *
+ * <p>Without fusion every element passes through one chained sink per stage,
+ * and the {@code accept} call sites of those sinks are shared by every
+ * pipeline in the program, so they quickly become megamorphic.  A fused sink
+ * class is generated for each distinct sequence of stage kinds and function
+ * classes, so the calls it makes to the stage functions remain monomorphic
+ * and can be inlined.  Generated classes are cached, keyed on the class of
+ * the first function of the run, and are unloaded together with it.
+ *
+ * <p>Fusion is turned on or off based on whether the system property
+ * {@code java.util.stream.fusion} is considered {@code true} according to
+ * {@link Boolean#getBoolean(String)}.  It is off by default.  Fusion does not
+ * change the results of a pipeline; if a run cannot be fused its stages are
+ * wrapped individually as usual.
+ *
+ * @since 1.8
+ */
+final class StreamFusion {
+    private static final String FUSION_PROPERTY = "java.util.stream.fusion";
+
+    /** Should adjacent stateless stages be fused? */
+    static final boolean ENABLED = AccessController.doPrivileged(
+            (PrivilegedAction<Boolean>) () -> Boolean.getBoolean(FUSION_PROPERTY));
+
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+
+    private static final String SINK = "java/util/stream/Sink";
+    private static final String FUSED_NAME = "java/util/stream/StreamFusion$Fused";
+    private static final String CTOR_DESC = "(Ljava/util/stream/Sink;[Ljava/lang/Object;)V";
+
+    /** Marker cached for sequences whose generation failed */
+    private static final Object UNFUSABLE = new Object();
+
+    /**
+     * Cache of fused sink constructors, keyed on the class of the first
+     * function of the run and then on the kinds and function classes of
+     * the whole run.
+     */
+    private static final ClassValue<ConcurrentMap<List<Object>, Object>> CACHE
+            = new ClassValue<ConcurrentMap<List<Object>, Object>>() {
+        @Override
+        protected ConcurrentMap<List<Object>, Object> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private StreamFusion() { }
+
+    /**
+     * The kinds of stage that may be fused.  Each kind describes the shape of
+     * the elements consumed and produced by the stage, and the functional
+     * interface method it applies to each element.
+     */
+    enum Kind {
+        REF_MAP(StreamShape.REFERENCE, StreamShape.REFERENCE,
+                "java/util/function/Function", "apply", "(Ljava/lang/Object;)Ljava/lang/Object;"),
+        REF_FILTER(StreamShape.REFERENCE, StreamShape.REFERENCE,
+                   "java/util/function/Predicate", "test", "(Ljava/lang/Object;)Z"),
+        REF_MAP_TO_INT(StreamShape.REFERENCE, StreamShape.INT_VALUE,
+                       "java/util/function/ToIntFunction", "applyAsInt", "(Ljava/lang/Object;)I"),
+        REF_MAP_TO_LONG(StreamShape.REFERENCE, StreamShape.LONG_VALUE,
+                        "java/util/function/ToLongFunction", "applyAsLong", "(Ljava/lang/Object;)J"),
+        REF_MAP_TO_DOUBLE(StreamShape.REFERENCE, StreamShape.DOUBLE_VALUE,
+                          "java/util/function/ToDoubleFunction", "applyAsDouble", "(Ljava/lang/Object;)D"),
+
+        INT_MAP(StreamShape.INT_VALUE, StreamShape.INT_VALUE,
+                "java/util/function/IntUnaryOperator", "applyAsInt", "(I)I"),
+        INT_FILTER(StreamShape.INT_VALUE, StreamShape.INT_VALUE,
+                   "java/util/function/IntPredicate", "test", "(I)Z"),
+        INT_MAP_TO_OBJ(StreamShape.INT_VALUE, StreamShape.REFERENCE,
+                       "java/util/function/IntFunction", "apply", "(I)Ljava/lang/Object;"),
+        INT_MAP_TO_LONG(StreamShape.INT_VALUE, StreamShape.LONG_VALUE,
+                        "java/util/function/IntToLongFunction", "applyAsLong", "(I)J"),
+        INT_MAP_TO_DOUBLE(StreamShape.INT_VALUE, StreamShape.DOUBLE_VALUE,
+                          "java/util/function/IntToDoubleFunction", "applyAsDouble", "(I)D"),
+
+        LONG_MAP(StreamShape.LONG_VALUE, StreamShape.LONG_VALUE,
+                 "java/util/function/LongUnaryOperator", "applyAsLong", "(J)J"),
+        LONG_FILTER(StreamShape.LONG_VALUE, StreamShape.LONG_VALUE,
+                    "java/util/function/LongPredicate", "test", "(J)Z"),
+        LONG_MAP_TO_OBJ(StreamShape.LONG_VALUE, StreamShape.REFERENCE,
+                        "java/util/function/LongFunction", "apply", "(J)Ljava/lang/Object;"),
+        LONG_MAP_TO_INT(StreamShape.LONG_VALUE, StreamShape.INT_VALUE,
+                        "java/util/function/LongToIntFunction", "applyAsInt", "(J)I"),
+        LONG_MAP_TO_DOUBLE(StreamShape.LONG_VALUE, StreamShape.DOUBLE_VALUE,
+                           "java/util/function/LongToDoubleFunction", "applyAsDouble", "(J)D"),
+
+        DOUBLE_MAP(StreamShape.DOUBLE_VALUE, StreamShape.DOUBLE_VALUE,
+                   "java/util/function/DoubleUnaryOperator", "applyAsDouble", "(D)D"),
+        DOUBLE_FILTER(StreamShape.DOUBLE_VALUE, StreamShape.DOUBLE_VALUE,
+                      "java/util/function/DoublePredicate", "test", "(D)Z"),
+        DOUBLE_MAP_TO_OBJ(StreamShape.DOUBLE_VALUE, StreamShape.REFERENCE,
+                          "java/util/function/DoubleFunction", "apply", "(D)Ljava/lang/Object;"),
+        DOUBLE_MAP_TO_INT(StreamShape.DOUBLE_VALUE, StreamShape.INT_VALUE,
+                          "java/util/function/DoubleToIntFunction", "applyAsInt", "(D)I"),
+        DOUBLE_MAP_TO_LONG(StreamShape.DOUBLE_VALUE, StreamShape.LONG_VALUE,
+                           "java/util/function/DoubleToLongFunction", "applyAsLong", "(D)J");
+
+        final StreamShape inputShape;
+        final StreamShape outputShape;
+        final String owner;
+        final String method;
+        final String descriptor;
+
+        Kind(StreamShape inputShape, StreamShape outputShape,
+             String owner, String method, String descriptor) {
+            this.inputShape = inputShape;
+            this.outputShape = outputShape;
+            this.owner = owner;
+            this.method = method;
+            this.descriptor = descriptor;
+        }
+
+        boolean isFilter() {
+            return descriptor.endsWith(")Z");
+        }
+    }
+
+    /**
+     * Returns a sink that applies the given stages, in order, to each element
+     * before passing the result to {@code downstream}, or {@code null} if the
+     * stages could not be fused.
+     *
+     * @param kinds the kinds of the stages, in pipeline order
+     * @param functions the functions of the stages, in pipeline order
+     * @param downstream the sink receiving the output of the last stage
+     * @return the fused sink, or {@code null}
+     */
+    static Sink<?> fuse(Kind[] kinds, Object[] functions, Sink<?> downstream) {
+        Object[] key = new Object[kinds.length * 2];
+        for (int i = 0; i < kinds.length; i++) {
+            key[2 * i] = kinds[i];
+            key[2 * i + 1] = functions[i].getClass();
+        }
+        ConcurrentMap<List<Object>, Object> cache = CACHE.get(functions[0].getClass());
+        Object ctor = cache.computeIfAbsent(Arrays.asList(key), k -> generate(kinds));
+        if (ctor == UNFUSABLE)
+            return null;
+        try {
+            return (Sink<?>) ((Constructor<?>) ctor).newInstance(downstream, functions);
+        }
+        catch (ReflectiveOperationException e) {
+            cache.put(Arrays.asList(key), UNFUSABLE);
+            return null;
+        }
+    }
+
+    /**
+     * Generates a fused sink class for the given sequence of stage kinds,
+     * returning its constructor, or {@link #UNFUSABLE} if the class could
+     * not be generated.
+     */
+    private static Object generate(Kind[] kinds) {
+        try {
+            for (int i = 1; i < kinds.length; i++) {
+                if (kinds[i].inputShape != kinds[i - 1].outputShape)
+                    return UNFUSABLE;
+            }
+            Class<?> c = UNSAFE.defineAnonymousClass(StreamFusion.class, spinClass(kinds), null);
+            Constructor<?> ctor = c.getDeclaredConstructor(Sink.class, Object[].class);
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    ctor.setAccessible(true);
+                    return null;
+                }
+            });
+            return ctor;
+        }
+        catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return UNFUSABLE;
+        }
+    }
+
+    private static byte[] spinClass(Kind[] kinds) {
+        StreamShape in = kinds[0].inputShape;
+        String superName = baseClass(in);
+        boolean filtering = false;
+        for (Kind k : kinds)
+            filtering |= k.isFilter();
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        cw.visit(V1_8, ACC_SUPER + ACC_FINAL + ACC_SYNTHETIC, FUSED_NAME, null, superName, null);
+        for (int i = 0; i < kinds.length; i++) {
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "f" + i,
+                          "L" + kinds[i].owner + ";", null, null).visitEnd();
+        }
+
+        // Constructor(Sink downstream, Object[] functions)
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", CTOR_DESC, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitInsn(filtering ? ICONST_1 : ICONST_0);
+        mv.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "(Ljava/util/stream/Sink;Z)V", false);
+        for (int i = 0; i < kinds.length; i++) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(AALOAD);
+            mv.visitTypeInsn(CHECKCAST, kinds[i].owner);
+            mv.visitFieldInsn(PUTFIELD, FUSED_NAME, "f" + i, "L" + kinds[i].owner + ";");
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+
+        // accept(T t), applying each stage to a value held in a local
+        mv = cw.visitMethod(ACC_PUBLIC, "accept", "(" + descriptorOf(in) + ")V", null, null);
+        mv.visitCode();
+        StreamShape shape = in;
+        int slot = 1;
+        for (int i = 0; i < kinds.length; i++) {
+            Kind k = kinds[i];
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, FUSED_NAME, "f" + i, "L" + k.owner + ";");
+            mv.visitVarInsn(loadOpcode(shape), slot);
+            mv.visitMethodInsn(INVOKEINTERFACE, k.owner, k.method, k.descriptor, true);
+            if (k.isFilter()) {
+                Label pass = new Label();
+                mv.visitJumpInsn(IFNE, pass);
+                mv.visitInsn(RETURN);
+                mv.visitLabel(pass);
+            }
+            else {
+                int next = slot + slotSize(shape);
+                shape = k.outputShape;
+                mv.visitVarInsn(storeOpcode(shape), next);
+                slot = next;
+            }
+        }
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, "java/util/stream/Sink$" + chainedName(in),
+                          "downstream", "L" + SINK + ";");
+        mv.visitVarInsn(loadOpcode(shape), slot);
+        mv.visitMethodInsn(INVOKEINTERFACE, SINK, "accept", "(" + descriptorOf(shape) + ")V", true);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static String baseClass(StreamShape shape) {
+        switch (shape) {
+            case REFERENCE:    return "java/util/stream/StreamFusion$RefHead";
+            case INT_VALUE:    return "java/util/stream/StreamFusion$IntHead";
+            case LONG_VALUE:   return "java/util/stream/StreamFusion$LongHead";
+            case DOUBLE_VALUE: return "java/util/stream/StreamFusion$DoubleHead";
+            default: throw new IllegalStateException("Unknown shape " + shape);
+        }
+    }
+
+    private static String chainedName(StreamShape shape) {
+        switch (shape) {
+            case REFERENCE:    return "ChainedReference";
+            case INT_VALUE:    return "ChainedInt";
+            case LONG_VALUE:   return "ChainedLong";
+            case DOUBLE_VALUE: return "ChainedDouble";
+            default: throw new IllegalStateException("Unknown shape " + shape);
+        }
+    }
+
+    private static String descriptorOf(StreamShape shape) {
+        switch (shape) {
+            case REFERENCE:    return "Ljava/lang/Object;";
+            case INT_VALUE:    return "I";
+            case LONG_VALUE:   return "J";
+            case DOUBLE_VALUE: return "D";
+            default: throw new IllegalStateException("Unknown shape " + shape);
+        }
+    }
+
+    private static int loadOpcode(StreamShape shape) {
+        switch (shape) {
+            case REFERENCE:    return ALOAD;
+            case INT_VALUE:    return ILOAD;
+            case LONG_VALUE:   return LLOAD;
+            case DOUBLE_VALUE: return DLOAD;
+            default: throw new IllegalStateException("Unknown shape " + shape);
+        }
+    }
+
+    private static int storeOpcode(StreamShape shape) {
+        switch (shape) {
+            case REFERENCE:    return ASTORE;
+            case INT_VALUE:    return ISTORE;
+            case LONG_VALUE:   return LSTORE;
+            case DOUBLE_VALUE: return DSTORE;
+            default: throw new IllegalStateException("Unknown shape " + shape);
+        }
+    }
+
+    private static int slotSize(StreamShape shape) {
+        return (shape == StreamShape.LONG_VALUE || shape == StreamShape.DOUBLE_VALUE) ? 2 : 1;
+    }
+
+    // Base classes of generated sinks, one per input shape.  Each passes an
+    // unknown size downstream if any fused stage is a filter.
+
+    abstract static class RefHead extends Sink.ChainedReference<Object, Object> {
+        private final boolean filtering;
+
+        RefHead(Sink<Object> downstream, boolean filtering) {
+            super(downstream);
+            this.filtering = filtering;
+        }
+
+        @Override
+        public void begin(long size) {
+            downstream.begin(filtering ? -1 : size);
+        }
+    }
+
+    abstract static class IntHead extends Sink.ChainedInt<Object> {
+        private final boolean filtering;
+
+        IntHead(Sink<Object> downstream, boolean filtering) {
+            super(downstream);
+            this.filtering = filtering;
+        }
+
+        @Override
+        public void begin(long size) {
+            downstream.begin(filtering ? -1 : size);
+        }
+    }
+
+    abstract static class LongHead extends Sink.ChainedLong<Object> {
+        private final boolean filtering;
+
+        LongHead(Sink<Object> downstream, boolean filtering) {
+            super(downstream);
+            this.filtering = filtering;
+        }
+
+        @Override
+        public void begin(long size) {
+            downstream.begin(filtering ? -1 : size);
+        }
+    }
+
+    abstract static class DoubleHead extends Sink.ChainedDouble<Object> {
+        private final boolean filtering;
+
+        DoubleHead(Sink<Object> downstream, boolean filtering) {
+            super(downstream);
+            this.filtering = filtering;
+        }
+
+        @Override
+        public void begin(long size) {
+            downstream.begin(filtering ? -1 : size);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+
+/**
+ * A profile of the evaluation of one stream pipeline, as recorded by the
+ * {@link StreamProfiler}.
+ *
+ * <p>A profile describes each stage of the pipeline, in pipeline order and
+ * ending with the terminal operation, with the number of elements it
+ * received and emitted and the time spent in it.  For a parallel pipeline it
+ * also describes each fork-join task created to evaluate it, from which the
+ * shape of the split tree, the sizes of the leaves and the tasks executed by
+ * a thread other than the one that forked them (stolen tasks) can be
+ * derived.
+ *
+ * <p>Times are measured with {@link System#nanoTime()} around each element
+ * passed to a stage, so they include the overhead of measurement and, for a
+ * parallel pipeline, are summed over all threads.  Work done by a stateful
+ * operation between the segments of a parallel evaluation, such as sorting
+ * the collected elements, is not attributed to any stage.
+ *
+ * @see StreamProfiler
+ * @since 1.8
+ */
+public final class StreamProfile {
+
+    /**
+     * A stage of a profiled pipeline.
+     */
+    public static final class Stage {
+        private final String name;
+        private final long elementsIn;
+        private final long elementsOut;
+        private final long nanos;
+
+        Stage(String name, long elementsIn, long elementsOut, long nanos) {
+            this.name = name;
+            this.elementsIn = elementsIn;
+            this.elementsOut = elementsOut;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns a description of the operation of this stage, such as
+         * {@code "ReferencePipeline.map"}.
+         *
+         * @return the name of this stage
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of elements passed to this stage.
+         *
+         * @return the number of elements passed to this stage
+         */
+        public long getElementsIn() {
+            return elementsIn;
+        }
+
+        /**
+         * Returns the number of elements emitted by this stage, or {@code -1}
+         * if this stage is the terminal operation.
+         *
+         * @return the number of elements emitted by this stage, or {@code -1}
+         */
+        public long getElementsOut() {
+            return elementsOut;
+        }
+
+        /**
+         * Returns the time, in nanoseconds, spent in this stage excluding the
+         * time spent in the stages downstream of it.
+         *
+         * @return the time spent in this stage
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %12d %12s %12.3f", name, elementsIn,
+                                 elementsOut < 0 ? "-" : Long.toString(elementsOut),
+                                 nanos / 1e6);
+        }
+    }
+
+    /**
+     * A fork-join task created to evaluate a parallel pipeline.
+     */
+    public static final class Task {
+        private final int id;
+        private final int parentId;
+        private final int depth;
+        private final long estimatedSize;
+        private final boolean leaf;
+        private final boolean stolen;
+        private final String threadName;
+        private final long nanos;
+
+        Task(int id, int parentId, int depth, long estimatedSize,
+             boolean leaf, boolean stolen, String threadName, long nanos) {
+            this.id = id;
+            this.parentId = parentId;
+            this.depth = depth;
+            this.estimatedSize = estimatedSize;
+            this.leaf = leaf;
+            this.stolen = stolen;
+            this.threadName = threadName;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the identifier of this task, unique within a profile.
+         *
+         * @return the identifier of this task
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Returns the identifier of the task that split to create this task,
+         * or {@code -1} if this task is the root of a split tree.
+         *
+         * @return the identifier of the parent task, or {@code -1}
+         */
+        public int getParentId() {
+            return parentId;
+        }
+
+        /**
+         * Returns the depth of this task in its split tree, the root having
+         * a depth of zero.
+         *
+         * @return the depth of this task
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Returns the size estimate of the spliterator of this task when it
+         * stopped splitting, or when it was created if it split.
+         *
+         * @return the estimated number of elements covered by this task
+         */
+        public long getEstimatedSize() {
+            return estimatedSize;
+        }
+
+        /**
+         * Returns {@code true} if this task traversed its elements rather
+         * than splitting.
+         *
+         * @return {@code true} if this task is a leaf
+         */
+        public boolean isLeaf() {
+            return leaf;
+        }
+
+        /**
+         * Returns {@code true} if this task was executed by a thread other
+         * than the one that created it.
+         *
+         * @return {@code true} if this task was stolen
+         */
+        public boolean isStolen() {
+            return stolen;
+        }
+
+        /**
+         * Returns the name of the thread that executed this task, or
+         * {@code null} if the task was never executed.
+         *
+         * @return the name of the executing thread, or {@code null}
+         */
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * Returns the time, in nanoseconds, this task spent traversing its
+         * elements if it is a leaf, otherwise zero.
+         *
+         * @return the traversal time of this leaf task
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < depth; i++)
+                sb.append("  ");
+            sb.append('#').append(id).append(" size ").append(estimatedSize);
+            if (leaf)
+                sb.append(String.format(" leaf %.3f ms", nanos / 1e6));
+            if (stolen)
+                sb.append(" stolen");
+            if (threadName != null)
+                sb.append(" [").append(threadName).append(']');
+            return sb.toString();
+        }
+    }
+
+    private final boolean parallel;
+    private final long elapsedNanos;
+    private final long stealCount;
+    private final List<Stage> stages;
+    private final List<Task> tasks;
+
+    StreamProfile(boolean parallel, long elapsedNanos, long stealCount,
+                  List<Stage> stages, List<Task> tasks) {
+        this.parallel = parallel;
+        this.elapsedNanos = elapsedNanos;
+        this.stealCount = stealCount;
+        this.stages = Collections.unmodifiableList(stages);
+        this.tasks = Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Returns {@code true} if the pipeline was evaluated in parallel.
+     *
+     * @return {@code true} if the pipeline was evaluated in parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Returns the wall-clock time, in nanoseconds, taken to evaluate the
+     * terminal operation.
+     *
+     * @return the elapsed time of the evaluation
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the increase in the {@linkplain
+     * java.util.concurrent.ForkJoinPool#getStealCount() steal count} of the
+     * fork-join pool used for a parallel evaluation while it was in
+     * progress.  The count includes steals of tasks unrelated to the
+     * pipeline that were executed concurrently in the same pool.
+     *
+     * @return the number of steals in the pool during the evaluation
+     */
+    public long getStealCount() {
+        return stealCount;
+    }
+
+    /**
+     * Returns the stages of the pipeline, in pipeline order.  The source is
+     * not included; the number of elements it produced is the
+     * {@linkplain Stage#getElementsIn() input count} of the first stage.  The
+     * last stage is the terminal operation.
+     *
+     * @return an unmodifiable list of the stages of the pipeline
+     */
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    /**
+     * Returns the fork-join tasks created to evaluate the pipeline, in order
+     * of creation; empty if the pipeline was evaluated sequentially.  A
+     * parallel evaluation may build several split trees, for example one per
+     * segment of a pipeline with stateful operations.
+     *
+     * @return an unmodifiable list of the tasks of the evaluation
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns the number of leaf tasks.
+     *
+     * @return the number of leaf tasks
+     */
+    public int getLeafCount() {
+        int n = 0;
+        for (Task t : tasks) {
+            if (t.isLeaf())
+                n++;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the number of tasks executed by a thread other than the one
+     * that created them.
+     *
+     * @return the number of stolen tasks
+     */
+    public int getStolenTaskCount() {
+        int n = 0;
+        for (Task t : tasks) {
+            if (t.isStolen())
+                n++;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the greatest depth of any task, or {@code -1} if there are no
+     * tasks.
+     *
+     * @return the depth of the deepest split tree
+     */
+    public int getMaxDepth() {
+        int d = -1;
+        for (Task t : tasks)
+            d = Math.max(d, t.getDepth());
+        return d;
+    }
+
+    /**
+     * Returns a multi-line, human readable report of this profile.
+     *
+     * @return a report of this profile
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(parallel ? "parallel" : "sequential")
+          .append(String.format(" pipeline, %.3f ms", elapsedNanos / 1e6));
+        if (parallel) {
+            sb.append(", ").append(tasks.size()).append(" tasks (")
+              .append(getLeafCount()).append(" leaves, max depth ").append(getMaxDepth())
+              .append(", ").append(getStolenTaskCount()).append(" stolen), ")
+              .append(stealCount).append(" pool steals");
+        }
+        sb.append('\n').append(String.format("%-32s %12s %12s %12s", "stage", "in", "out", "self ms"));
+        for (Stage s : stages)
+            sb.append('\n').append(s);
+        if (!tasks.isEmpty()) {
+            LongSummaryStatistics leaves = new LongSummaryStatistics();
+            for (Task t : tasks) {
+                if (t.isLeaf())
+                    leaves.accept(t.getEstimatedSize());
+            }
+            if (leaves.getCount() > 0) {
+                sb.append('\n').append(String.format("leaf sizes: min %d, max %d, mean %.1f",
+                                                     leaves.getMin(), leaves.getMax(),
+                                                     leaves.getAverage()));
+            }
+            for (Task t : tasks)
+                sb.append('\n').append(t);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ManagementPermission;
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.management.ObjectName;
+
+/**
+ * An opt-in profiler of stream pipelines.  When profiling is enabled, the
+ * evaluation of each terminal operation is observed and described by a
+ * {@link StreamProfile}: the elements received and emitted by each stage,
+ * the time spent in each stage and, for parallel pipelines, the split tree
+ * of fork-join tasks, the sizes of its leaves and the steals that occurred.
+ * Profiles are passed to the registered {@linkplain #addListener listeners}
+ * on the thread that invoked the terminal operation.
+ *
+ * <p>Profiling is turned on or off based on whether the system property
+ * {@code java.util.stream.profile} is considered {@code true} according to
+ * {@link Boolean#getBoolean(String)}, and may be changed at runtime with
+ * {@link #setEnabled(boolean)} or the {@link StreamProfilerMXBean}.
+ * Profiling adds a significant per-element overhead and should normally be
+ * turned off for production use.
+ *
+ * <p>Pipelines traversed through {@link BaseStream#iterator()} or
+ * {@link BaseStream#spliterator()} are not profiled.
+ *
+ * @apiNote
+ * Typical usage when tuning a parallel pipeline would be:
+ * <pre>{@code
+ *     StreamProfiler.addListener(p -> System.err.println(p));
+ *     StreamProfiler.setEnabled(true);
+ *     long n = lines.parallelStream().filter(s -> s.contains("ERROR")).count();
+ * }</pre>
+ *
+ * @since 1.8
+ */
+public final class StreamProfiler {
+    private static final String PROFILE_PROPERTY = "java.util.stream.profile";
+
+    private static final String OBJECT_NAME = "java.util.stream:type=StreamProfiler";
+
+    /** Are pipelines being profiled? */
+    private static volatile boolean enabled = AccessController.doPrivileged(
+            (PrivilegedAction<Boolean>) () -> Boolean.getBoolean(PROFILE_PROPERTY));
+
+    private static final List<Consumer<? super StreamProfile>> listeners
+            = new CopyOnWriteArrayList<>();
+
+    private static final AtomicLong profiledCount = new AtomicLong();
+
+    private static volatile StreamProfile lastProfile;
+
+    private static final AtomicBoolean mxbeanRegistered = new AtomicBoolean();
+
+    /** Set while a thread publishes a profile, so pipelines evaluated by
+     *  listeners are not themselves profiled */
+    private static final ThreadLocal<Boolean> publishing = new ThreadLocal<>();
+
+    private StreamProfiler() { }
+
+    /**
+     * Returns {@code true} if stream pipelines are being profiled.
+     *
+     * @return {@code true} if profiling is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns {@code true} if the evaluation of a terminal operation starting
+     * on the current thread should be profiled.
+     */
+    static boolean shouldProfile() {
+        return enabled && publishing.get() == null;
+    }
+
+    /**
+     * Enables or disables profiling of stream pipelines.  Pipelines whose
+     * evaluation is in progress are not affected.
+     *
+     * @param enabled {@code true} to enable profiling
+     * @throws SecurityException if a security manager exists and the caller
+     *         does not have ManagementPermission("control")
+     */
+    public static void setEnabled(boolean enabled) {
+        checkControl();
+        StreamProfiler.enabled = enabled;
+    }
+
+    /**
+     * Registers a listener to be passed the profile of each pipeline
+     * evaluated while profiling is enabled.  The listener is invoked on the
+     * thread that invoked the terminal operation, after the operation
+     * completes, whether normally or abruptly.  Exceptions thrown by the
+     * listener are propagated to that thread.  Pipelines evaluated by the
+     * listener on that thread are not profiled.
+     *
+     * @param listener the listener to add
+     * @throws NullPointerException if {@code listener} is null
+     * @throws SecurityException if a security manager exists and the caller
+     *         does not have ManagementPermission("control")
+     */
+    public static void addListener(Consumer<? super StreamProfile> listener) {
+        Objects.requireNonNull(listener);
+        checkControl();
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener previously added with {@link #addListener}.
+     *
+     * @param listener the listener to remove
+     * @return {@code true} if the listener was registered
+     * @throws SecurityException if a security manager exists and the caller
+     *         does not have ManagementPermission("control")
+     */
+    public static boolean removeListener(Consumer<? super StreamProfile> listener) {
+        checkControl();
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Returns the profile of the most recently evaluated pipeline, or
+     * {@code null} if no pipeline has been profiled.
+     *
+     * @return the most recent profile, or {@code null}
+     */
+    public static StreamProfile getLastProfile() {
+        return lastProfile;
+    }
+
+    /**
+     * Returns the management interface of the profiler.
+     *
+     * @return the management interface of the profiler
+     */
+    public static StreamProfilerMXBean getMXBean() {
+        return MXBean.INSTANCE;
+    }
+
+    private static void checkControl() {
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null)
+            sm.checkPermission(new ManagementPermission("control"));
+    }
+
+    private static void publish(StreamProfile profile) {
+        lastProfile = profile;
+        profiledCount.incrementAndGet();
+        publishing.set(Boolean.TRUE);
+        try {
+            if (mxbeanRegistered.compareAndSet(false, true))
+                registerMXBean();
+            for (Consumer<? super StreamProfile> listener : listeners)
+                listener.accept(profile);
+        }
+        finally {
+            publishing.remove();
+        }
+    }
+
+    private static void registerMXBean() {
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+                try {
+                    ManagementFactory.getPlatformMBeanServer()
+                            .registerMBean(MXBean.INSTANCE, new ObjectName(OBJECT_NAME));
+                }
+                catch (Exception e) {
+                    // Profiles remain available through listeners
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Returns a short description of a pipeline stage or terminal operation,
+     * of the form {@code "ReferencePipeline.map"} for an operation
+     * implemented by an anonymous class, otherwise the name of the class
+     * without its package.
+     */
+    static String nameOf(Object op) {
+        if (op instanceof String)
+            return (String) op;
+        Class<?> c = op.getClass();
+        Method m = c.isAnonymousClass() ? c.getEnclosingMethod() : null;
+        if (m != null)
+            return m.getDeclaringClass().getSimpleName() + "." + m.getName();
+        String name = c.getName();
+        return name.substring(name.lastIndexOf('.') + 1).replace('$', '.');
+    }
+
+    private static final class MXBean implements StreamProfilerMXBean {
+        static final MXBean INSTANCE = new MXBean();
+
+        @Override
+        public boolean isEnabled() {
+            return StreamProfiler.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            StreamProfiler.setEnabled(enabled);
+        }
+
+        @Override
+        public long getProfiledPipelineCount() {
+            return profiledCount.get();
+        }
+
+        @Override
+        public String getLastReport() {
+            StreamProfile p = lastProfile;
+            return (p == null) ? null : p.toString();
+        }
+    }
+
+    /**
+     * A node in a split tree of fork-join tasks, updated by the thread
+     * executing the task.
+     */
+    static final class TaskNode {
+        final int id;
+        final int parentId;
+        final int depth;
+        final Thread creator;
+        long estimatedSize;
+        Thread executor;
+        boolean leaf;
+        long nanos;
+
+        TaskNode(int id, int parentId, int depth, long estimatedSize) {
+            this.id = id;
+            this.parentId = parentId;
+            this.depth = depth;
+            this.estimatedSize = estimatedSize;
+            this.creator = Thread.currentThread();
+        }
+    }
+
+    /**
+     * Records the evaluation of a terminal operation.  Created by the
+     * pipeline when evaluation starts, updated by {@code wrapSink} and
+     * {@code AbstractTask.compute} on any thread, and finished by the
+     * pipeline on the thread that started it.
+     *
+     * <p>Entry {@code i} of the counters records the elements passed to
+     * {@code stages[i]}, where {@code stages[0]} is the source and entry
+     * {@code stages.length} is the terminal operation.
+     */
+    static final class Recorder {
+        private final Object[] stages;
+        private final String[] names;
+        private final LongAdder[] counts;
+        private final LongAdder[] nanos;
+        private final boolean parallel;
+        private final long startNanos;
+        private final ForkJoinPool pool;
+        private final long startSteals;
+        private final AtomicInteger nextTaskId = new AtomicInteger();
+        private final ConcurrentLinkedQueue<TaskNode> tasks = new ConcurrentLinkedQueue<>();
+
+        Recorder(Object[] stages, Object terminal, boolean parallel) {
+            this.stages = stages;
+            this.parallel = parallel;
+            int n = stages.length + 1;
+            names = new String[n];
+            counts = new LongAdder[n];
+            nanos = new LongAdder[n];
+            for (int i = 1; i < n; i++) {
+                names[i] = nameOf(i < stages.length ? stages[i] : terminal);
+                counts[i] = new LongAdder();
+                nanos[i] = new LongAdder();
+            }
+            if (parallel) {
+                ForkJoinPool p = ForkJoinTask.getPool();
+                pool = (p != null) ? p : ForkJoinPool.commonPool();
+                startSteals = pool.getStealCount();
+            }
+            else {
+                pool = null;
+                startSteals = 0;
+            }
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Wraps a sink receiving the output of the given stage with one that
+         * counts and times the elements passed to it.
+         */
+        @SuppressWarnings("unchecked")
+        <T> Sink<T> wrap(Object stage, StreamShape outputShape, Sink<T> sink) {
+            int i = 0;
+            while (stages[i] != stage)
+                i++;
+            i++;
+            Sink<Object> downstream = (Sink<Object>) sink;
+            switch (outputShape) {
+                case REFERENCE:
+                    return (Sink<T>) new OfRef(downstream, counts[i], nanos[i]);
+                case INT_VALUE:
+                    return (Sink<T>) new OfInt(downstream, counts[i], nanos[i]);
+                case LONG_VALUE:
+                    return (Sink<T>) new OfLong(downstream, counts[i], nanos[i]);
+                case DOUBLE_VALUE:
+                    return (Sink<T>) new OfDouble(downstream, counts[i], nanos[i]);
+                default:
+                    throw new IllegalStateException("Unknown shape " + outputShape);
+            }
+        }
+
+        /**
+         * Records the creation of a task by splitting.
+         */
+        TaskNode taskCreated(TaskNode parent, long estimatedSize) {
+            TaskNode node = new TaskNode(nextTaskId.getAndIncrement(), parent.id,
+                                         parent.depth + 1, estimatedSize);
+            tasks.add(node);
+            return node;
+        }
+
+        /**
+         * Records that the current thread is executing a task, creating a
+         * root node if {@code node} is null.
+         */
+        TaskNode taskStarted(TaskNode node, long estimatedSize) {
+            if (node == null) {
+                node = new TaskNode(nextTaskId.getAndIncrement(), -1, 0, estimatedSize);
+                tasks.add(node);
+            }
+            node.estimatedSize = estimatedSize;
+            node.executor = Thread.currentThread();
+            return node;
+        }
+
+        /**
+         * Records the completion of the traversal of a leaf task.
+         */
+        void leafCompleted(TaskNode node, long elapsedNanos) {
+            node.leaf = true;
+            node.nanos = elapsedNanos;
+        }
+
+        /**
+         * Builds the profile of the evaluation and passes it to the
+         * listeners.
+         */
+        void finish() {
+            long elapsed = System.nanoTime() - startNanos;
+            long steals = (pool != null) ? pool.getStealCount() - startSteals : 0;
+
+            List<StreamProfile.Stage> stageProfiles = new ArrayList<>(names.length - 1);
+            for (int i = 1; i < names.length; i++) {
+                boolean terminal = i == names.length - 1;
+                long in = counts[i].sum();
+                long out = terminal ? -1 : counts[i + 1].sum();
+                long self = nanos[i].sum() - (terminal ? 0 : nanos[i + 1].sum());
+                stageProfiles.add(new StreamProfile.Stage(names[i], in, out, Math.max(self, 0)));
+            }
+
+            List<StreamProfile.Task> taskProfiles = new ArrayList<>(tasks.size());
+            for (TaskNode t : tasks) {
+                Thread executor = t.executor;
+                taskProfiles.add(new StreamProfile.Task(
+                        t.id, t.parentId, t.depth, t.estimatedSize, t.leaf,
+                        executor != null && executor != t.creator,
+                        executor != null ? executor.getName() : null, t.nanos));
+            }
+            taskProfiles.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+
+            publish(new StreamProfile(parallel, elapsed, steals, stageProfiles, taskProfiles));
+        }
+    }
+
+    // Sinks counting and timing the elements passed to a stage.  A parallel
+    // forEach shares one sink chain between all of its leaf tasks, so the
+    // sinks keep no state of their own and add to the shared counters of
+    // their stage directly; the counters are read when the terminal
+    // operation completes.
+
+    private abstract static class CountingSink {
+        final Sink<Object> downstream;
+        final LongAdder count;
+        final LongAdder nanos;
+
+        CountingSink(Sink<Object> downstream, LongAdder count, LongAdder nanos) {
+            this.downstream = downstream;
+            this.count = count;
+            this.nanos = nanos;
+        }
+
+        public void begin(long size) {
+            long start = System.nanoTime();
+            downstream.begin(size);
+            nanos.add(System.nanoTime() - start);
+        }
+
+        public void end() {
+            long start = System.nanoTime();
+            downstream.end();
+            nanos.add(System.nanoTime() - start);
+        }
+
+        public boolean cancellationRequested() {
+            return downstream.cancellationRequested();
+        }
+    }
+
+    private static final class OfRef extends CountingSink implements Sink<Object> {
+        OfRef(Sink<Object> downstream, LongAdder count, LongAdder nanos) {
+            super(downstream, count, nanos);
+        }
+
+        @Override
+        public void accept(Object t) {
+            long start = System.nanoTime();
+            downstream.accept(t);
+            nanos.add(System.nanoTime() - start);
+            count.increment();
+        }
+    }
+
+    private static final class OfInt extends CountingSink implements Sink.OfInt {
+        OfInt(Sink<Object> downstream, LongAdder count, LongAdder nanos) {
+            super(downstream, count, nanos);
+        }
+
+        @Override
+        public void accept(int t) {
+            long start = System.nanoTime();
+            downstream.accept(t);
+            nanos.add(System.nanoTime() - start);
+            count.increment();
+        }
+    }
+
+    private static final class OfLong extends CountingSink implements Sink.OfLong {
+        OfLong(Sink<Object> downstream, LongAdder count, LongAdder nanos) {
+            super(downstream, count, nanos);
+        }
+
+        @Override
+        public void accept(long t) {
+            long start = System.nanoTime();
+            downstream.accept(t);
+            nanos.add(System.nanoTime() - start);
+            count.increment();
+        }
+    }
+
+    private static final class OfDouble extends CountingSink implements Sink.OfDouble {
+        OfDouble(Sink<Object> downstream, LongAdder count, LongAdder nanos) {
+            super(downstream, count, nanos);
+        }
+
+        @Override
+        public void accept(double t) {
+            long start = System.nanoTime();
+            downstream.accept(t);
+            nanos.add(System.nanoTime() - start);
+            count.increment();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+/**
+ * The management interface of the {@link StreamProfiler}.
+ *
+ * <p>Once profiling has been enabled and a pipeline profiled, an MXBean
+ * implementing this interface is registered in the
+ * {@linkplain java.lang.management.ManagementFactory#getPlatformMBeanServer
+ * platform MBeanServer} with the {@code ObjectName}
+ * <tt>java.util.stream:type=StreamProfiler</tt>.
+ *
+ * @see StreamProfiler
+ * @since 1.8
+ */
+public interface StreamProfilerMXBean {
+
+    /**
+     * Returns {@code true} if stream pipelines are being profiled.
+     *
+     * @return {@code true} if profiling is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Enables or disables profiling of stream pipelines.
+     *
+     * @param enabled {@code true} to enable profiling
+     * @throws SecurityException if a security manager exists and the caller
+     *         does not have ManagementPermission("control")
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the number of pipelines profiled since the Java virtual
+     * machine started.
+     *
+     * @return the number of profiled pipelines
+     */
+    long getProfiledPipelineCount();
+
+    /**
+     * Returns the report of the most recently profiled pipeline, or
+     * {@code null} if no pipeline has been profiled.
+     *
+     * @return the most recent report, or {@code null}
+     * @see StreamProfile#toString()
+     */
+    String getLastReport();
+}
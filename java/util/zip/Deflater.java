@@ -168,7 +168,7 @@ class Deflater {
     public Deflater(int level, boolean nowrap) {
         this.level = level;
         this.strategy = DEFAULT_STRATEGY;
-        this.zsRef = new ZStreamRef(init(level, DEFAULT_STRATEGY, nowrap));
+        this.zsRef = DeflaterZStreamRef.get(this, init(level, DEFAULT_STRATEGY, nowrap));
     }
 
     /**
@@ -531,26 +531,28 @@ class Deflater {
     /**
      * Closes the compressor and discards any unprocessed input.
      * This method should be called when the compressor is no longer
-     * being used, but will also be called automatically by the
-     * finalize() method. Once this method is called, the behavior
-     * of the Deflater object is undefined.
+     * being used. If it is not, the native resources of the Deflater
+     * are released by a {@link java.lang.ref.Cleaner Cleaner} some time
+     * after it has become unreachable. Once this method is called, the
+     * behavior of the Deflater object is undefined.
      */
     public void end() {
         synchronized (zsRef) {
-            long addr = zsRef.address();
-            zsRef.clear();
-            if (addr != 0) {
-                end(addr);
-                buf = null;
-            }
+            zsRef.clean();
+            buf = null;
         }
     }
 
     /**
      * Closes the compressor when garbage is collected.
+     *
+     * @deprecated The native resources are released by a cleaner once the
+     * Deflater is unreachable, or by {@link #end} if a subclass overrides it.
+     * This method does nothing and is kept only so that subclasses calling
+     * {@code super.finalize()} still compile.
      */
+    @Deprecated
     protected void finalize() {
-        end();
     }
 
     private void ensureOpen() {
@@ -559,6 +561,49 @@ class Deflater {
             throw new NullPointerException("Deflater has been closed");
     }
 
+    /*
+     * Ends the z_stream of a Deflater. It must not refer to the Deflater, which
+     * could then never become phantom reachable.
+     */
+    private static class DeflaterZStreamRef extends ZStreamRef {
+        DeflaterZStreamRef(Deflater owner, long address) {
+            super(owner, address);
+        }
+
+        DeflaterZStreamRef(long address) {
+            super(address);
+        }
+
+        void end(long addr) {
+            Deflater.end(addr);
+        }
+
+        static DeflaterZStreamRef get(Deflater owner, long address) {
+            if (overridesEnd(owner.getClass(), Deflater.class)) {
+                return new FinalizableZStreamRef(owner, address);
+            }
+            return new DeflaterZStreamRef(owner, address);
+        }
+    }
+
+    /*
+     * The z_stream of a subclass overriding end(), which is called when the
+     * Deflater is unreachable.
+     */
+    private static final class FinalizableZStreamRef extends DeflaterZStreamRef {
+        private final Deflater owner;
+
+        FinalizableZStreamRef(Deflater owner, long address) {
+            super(address);
+            this.owner = owner;
+        }
+
+        @Override
+        protected void finalize() {
+            owner.end();
+        }
+    }
+
     private static native void initIDs();
     private native static long init(int level, int strategy, boolean nowrap);
     private native static void setDictionary(long addr, byte[] b, int off, int len);
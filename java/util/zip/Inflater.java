@@ -100,7 +100,7 @@ class Inflater {
      * @param nowrap if true then support GZIP compatible compression
      */
     public Inflater(boolean nowrap) {
-        zsRef = new ZStreamRef(init(nowrap));
+        zsRef = InflaterZStreamRef.get(this, init(nowrap));
     }
 
     /**
@@ -361,26 +361,28 @@ class Inflater {
     /**
      * Closes the decompressor and discards any unprocessed input.
      * This method should be called when the decompressor is no longer
-     * being used, but will also be called automatically by the finalize()
-     * method. Once this method is called, the behavior of the Inflater
-     * object is undefined.
+     * being used. If it is not, the native resources of the Inflater
+     * are released by a {@link java.lang.ref.Cleaner Cleaner} some time
+     * after it has become unreachable. Once this method is called, the
+     * behavior of the Inflater object is undefined.
      */
     public void end() {
         synchronized (zsRef) {
-            long addr = zsRef.address();
-            zsRef.clear();
-            if (addr != 0) {
-                end(addr);
-                buf = null;
-            }
+            zsRef.clean();
+            buf = null;
         }
     }
 
     /**
      * Closes the decompressor when garbage is collected.
+     *
+     * @deprecated The native resources are released by a cleaner once the
+     * Inflater is unreachable, or by {@link #end} if a subclass overrides it.
+     * This method does nothing and is kept only so that subclasses calling
+     * {@code super.finalize()} still compile.
      */
+    @Deprecated
     protected void finalize() {
-        end();
     }
 
     private void ensureOpen () {
@@ -395,6 +397,49 @@ class Inflater {
         }
     }
 
+    /*
+     * Ends the z_stream of a Inflater. It must not refer to the Inflater, which
+     * could then never become phantom reachable.
+     */
+    private static class InflaterZStreamRef extends ZStreamRef {
+        InflaterZStreamRef(Inflater owner, long address) {
+            super(owner, address);
+        }
+
+        InflaterZStreamRef(long address) {
+            super(address);
+        }
+
+        void end(long addr) {
+            Inflater.end(addr);
+        }
+
+        static InflaterZStreamRef get(Inflater owner, long address) {
+            if (overridesEnd(owner.getClass(), Inflater.class)) {
+                return new FinalizableZStreamRef(owner, address);
+            }
+            return new InflaterZStreamRef(owner, address);
+        }
+    }
+
+    /*
+     * The z_stream of a subclass overriding end(), which is called when the
+     * Inflater is unreachable.
+     */
+    private static final class FinalizableZStreamRef extends InflaterZStreamRef {
+        private final Inflater owner;
+
+        FinalizableZStreamRef(Inflater owner, long address) {
+            super(address);
+            this.owner = owner;
+        }
+
+        @Override
+        protected void finalize() {
+            owner.end();
+        }
+    }
+
     private native static void initIDs();
     private native static long init(boolean nowrap);
     private native static void setDictionary(long addr, byte[] b, int off,
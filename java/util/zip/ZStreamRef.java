@@ -25,22 +25,91 @@
 
 package java.util.zip;
 
+import java.lang.ref.Cleaner;
+import sun.misc.SharedSecrets;
+
 /**
  * A reference to the native zlib's z_stream structure.
+ *
+ * It is also the cleaning action of its owner, a Deflater or an Inflater:
+ * the z_stream is ended by the owner's end method or, if that is never
+ * called, by the common cleaner once the owner is phantom reachable.
+ * An owner whose class overrides end is not registered with the cleaner,
+ * which would bypass the override; the owner then uses a reference with a
+ * finalizer calling end, as the finalize method of the owner used to.
  */
 
-class ZStreamRef {
+abstract class ZStreamRef implements Runnable {
 
     private volatile long address;
+    private final Cleaner.Cleanable cleanable;
+
+    ZStreamRef (Object owner, long address) {
+        this.address = address;
+        this.cleanable = SharedSecrets.getJavaLangRefAccess().cleaner()
+                                      .register(owner, this);
+    }
+
+    /**
+     * Creates a reference not registered with the cleaner.
+     */
     ZStreamRef (long address) {
         this.address = address;
+        this.cleanable = null;
+    }
+
+    /**
+     * Returns true if the nearest override in {@code c} of end() or
+     * finalize() of {@code base} is of end().  A subclass overriding
+     * finalize() keeps its own finalizer, and the cleaner.
+     */
+    static boolean overridesEnd(Class<?> c, Class<?> base) {
+        for (; c != base; c = c.getSuperclass()) {
+            if (declares(c, "finalize")) {
+                return false;
+            }
+            if (declares(c, "end")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean declares(Class<?> c, String name) {
+        try {
+            c.getDeclaredMethod(name);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
     }
 
     long address() {
         return address;
     }
 
-    void clear() {
+    /**
+     * Ends the z_stream, at most once, and unregisters it from the
+     * cleaner.
+     */
+    void clean() {
+        if (cleanable != null) {
+            cleanable.clean();
+        } else {
+            run();
+        }
+    }
+
+    public synchronized void run() {
+        long addr = address;
         address = 0;
+        if (addr != 0) {
+            end(addr);
+        }
     }
+
+    /**
+     * Ends the z_stream at the given address.
+     */
+    abstract void end(long addr);
 }
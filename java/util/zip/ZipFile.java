@@ -30,6 +30,7 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
+import java.lang.ref.Cleaner;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
@@ -64,6 +65,12 @@ class ZipFile implements ZipConstants, Closeable {
     private final boolean locsig;  // if zip file starts with LOCSIG (usually true)
     private volatile boolean closeRequested = false;
 
+    // the native resources, released by close or by the cleaner
+    private final CleanableResource res;
+    private final Cleaner.Cleanable cleanable;
+    // finalizer calling close() of a subclass overriding it, or null
+    private final Object altFinalizer;
+
     private static final int STORED = ZipEntry.STORED;
     private static final int DEFLATED = ZipEntry.DEFLATED;
 
@@ -222,6 +229,9 @@ class ZipFile implements ZipConstants, Closeable {
         this.name = name;
         this.total = getTotal(jzfile);
         this.locsig = startsWithLOC(jzfile);
+        this.res = new CleanableResource(jzfile, streams, inflaterCache);
+        this.cleanable = cleaner().register(this, res);
+        this.altFinalizer = AltFinalizer.get(this);
     }
 
     /**
@@ -387,11 +397,14 @@ class ZipFile implements ZipConstants, Closeable {
         private volatile boolean closeRequested = false;
         private boolean eof = false;
         private final ZipFileInputStream zfin;
+        private final Cleaner.Cleanable cleanable;
 
         ZipFileInflaterInputStream(ZipFileInputStream zfin, Inflater inf,
                 int size) {
             super(zfin, inf, size);
             this.zfin = zfin;
+            this.cleanable = cleaner().register(this,
+                    new InflaterCleanupAction(inf, res));
         }
 
         public void close() throws IOException {
@@ -400,13 +413,11 @@ class ZipFile implements ZipConstants, Closeable {
             closeRequested = true;
 
             super.close();
-            Inflater inf;
             synchronized (streams) {
-                inf = streams.remove(this);
-            }
-            if (inf != null) {
-                releaseInflater(inf);
+                streams.remove(this);
             }
+            // release the inflater, unless close() of the ZipFile ended it
+            cleanable.clean();
         }
 
         // Override fill() method to provide an extra "dummy" byte
@@ -432,9 +443,23 @@ class ZipFile implements ZipConstants, Closeable {
             return (avail > (long) Integer.MAX_VALUE ?
                     Integer.MAX_VALUE : (int) avail);
         }
+    }
+
+    /*
+     * Releases the inflater of a ZipFileInflaterInputStream that is closed,
+     * or that has become unreachable. It must not refer to the stream.
+     */
+    private static class InflaterCleanupAction implements Runnable {
+        private final Inflater inf;
+        private final CleanableResource res;
+
+        InflaterCleanupAction(Inflater inf, CleanableResource res) {
+            this.inf = inf;
+            this.res = res;
+        }
 
-        protected void finalize() throws Throwable {
-            close();
+        public void run() {
+            res.releaseInflater(inf);
         }
     }
 
@@ -454,20 +479,93 @@ class ZipFile implements ZipConstants, Closeable {
         return new Inflater(true);
     }
 
+    // List of available Inflater objects for decompression
+    private final Deque<Inflater> inflaterCache = new ArrayDeque<>();
+
     /*
-     * Releases the specified inflater to the list of available inflaters.
+     * The native resources of a ZipFile: the jzfile, and the inflaters of
+     * its streams and of its cache. It is run by close(), or by the
+     * cleaner once the ZipFile is phantom reachable, and so must not
+     * refer to the ZipFile. The jzfile is only closed and its entries only
+     * freed while holding the lock on this object.
      */
-    private void releaseInflater(Inflater inf) {
-        if (false == inf.ended()) {
-            inf.reset();
+    private static class CleanableResource implements Runnable {
+        private long jzfile;
+        private final Map<InputStream, Inflater> streams;
+        private final Deque<Inflater> inflaterCache;
+
+        CleanableResource(long jzfile, Map<InputStream, Inflater> streams,
+                          Deque<Inflater> inflaterCache) {
+            this.jzfile = jzfile;
+            this.streams = streams;
+            this.inflaterCache = inflaterCache;
+        }
+
+        /*
+         * Frees the specified entry, unless the zip file has been closed.
+         */
+        synchronized void freeEntry(long jzentry) {
+            if (jzfile != 0) {
+                ZipFile.freeEntry(jzfile, jzentry);
+            }
+        }
+
+        /*
+         * Releases the specified inflater to the list of available
+         * inflaters, or ends it if the zip file has been closed.
+         */
+        void releaseInflater(Inflater inf) {
+            if (false == inf.ended()) {
+                synchronized (this) {
+                    if (jzfile == 0) {
+                        inf.end();
+                        return;
+                    }
+                }
+                inf.reset();
+                synchronized (inflaterCache) {
+                    inflaterCache.add(inf);
+                }
+            }
+        }
+
+        public void run() {
+            // End the inflaters of the streams still open
+            synchronized (streams) {
+                for (Inflater inf : streams.values()) {
+                    if (inf != null) {
+                        inf.end();
+                    }
+                }
+                streams.clear();
+            }
+
+            // Release cached inflaters
+            Inflater inf;
             synchronized (inflaterCache) {
-                inflaterCache.add(inf);
+                while (null != (inf = inflaterCache.poll())) {
+                    inf.end();
+                }
+            }
+
+            synchronized (this) {
+                if (jzfile != 0) {
+                    // Close the zip file
+                    long zf = this.jzfile;
+                    jzfile = 0;
+
+                    close(zf);
+                }
             }
         }
     }
 
-    // List of available Inflater objects for decompression
-    private Deque<Inflater> inflaterCache = new ArrayDeque<>();
+    /*
+     * Returns the cleaner of the ZipFiles and of their streams.
+     */
+    private static Cleaner cleaner() {
+        return sun.misc.SharedSecrets.getJavaLangRefAccess().cleaner();
+    }
 
     /**
      * Returns the path name of the ZIP file.
@@ -626,21 +724,9 @@ class ZipFile implements ZipConstants, Closeable {
                 }
             }
 
-            // Release cached inflaters
-            Inflater inf;
-            synchronized (inflaterCache) {
-                while (null != (inf = inflaterCache.poll())) {
-                    inf.end();
-                }
-            }
-
-            if (jzfile != 0) {
-                // Close the zip file
-                long zf = this.jzfile;
-                jzfile = 0;
-
-                close(zf);
-            }
+            // Release cached inflaters and close the zip file
+            jzfile = 0;
+            cleanable.clean();
         }
     }
 
@@ -648,18 +734,62 @@ class ZipFile implements ZipConstants, Closeable {
      * Ensures that the system resources held by this ZipFile object are
      * released when there are no more references to it.
      *
-     * <p>
-     * Since the time when GC would invoke this method is undetermined,
-     * it is strongly recommended that applications invoke the <code>close</code>
-     * method as soon they have finished accessing this <code>ZipFile</code>.
-     * This will prevent holding up system resources for an undetermined
-     * length of time.
+     * @deprecated The system resources are released by a cleaner once the
+     * ZipFile is unreachable, and subclasses overriding {@link #close} have
+     * it called then, as before.  This method does nothing and is kept
+     * only so that subclasses calling {@code super.finalize()} still
+     * compile.  Applications should still invoke {@code close} as soon as
+     * they have finished accessing this {@code ZipFile}.
      *
      * @throws IOException if an I/O error has occurred
      * @see    java.util.zip.ZipFile#close()
      */
+    @Deprecated
     protected void finalize() throws IOException {
-        close();
+    }
+
+    /*
+     * Calls close() of a subclass overriding it when the ZipFile becomes
+     * unreachable; the cleaner, which cannot call the override, still
+     * releases whatever close() left open.  A subclass whose nearest
+     * override is of finalize() keeps its own finalizer, as before.
+     */
+    private static class AltFinalizer {
+        private final ZipFile zf;
+
+        private AltFinalizer(ZipFile zf) {
+            this.zf = zf;
+        }
+
+        static AltFinalizer get(ZipFile zf) {
+            for (Class<?> c = zf.getClass(); c != ZipFile.class;
+                 c = c.getSuperclass()) {
+                if (declares(c, "finalize")) {
+                    return null;
+                }
+                if (declares(c, "close")) {
+                    return new AltFinalizer(zf);
+                }
+            }
+            return null;
+        }
+
+        private static boolean declares(Class<?> c, String name) {
+            try {
+                c.getDeclaredMethod(name);
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+
+        @Override
+        protected final void finalize() {
+            try {
+                zf.close();
+            } catch (IOException ignore) {
+            }
+        }
     }
 
     private static native void close(long jzfile);
@@ -691,11 +821,15 @@ class ZipFile implements ZipConstants, Closeable {
         protected long rem;     // number of remaining bytes within entry
         protected long size;    // uncompressed size of this entry
 
+        private final Cleaner.Cleanable cleanable;
+
         ZipFileInputStream(long jzentry) {
             pos = 0;
             rem = getEntryCSize(jzentry);
             size = getEntrySize(jzentry);
             this.jzentry = jzentry;
+            this.cleanable = cleaner().register(this,
+                    new EntryCleanupAction(res, jzentry));
         }
 
         public int read(byte b[], int off, int len) throws IOException {
@@ -762,18 +896,32 @@ class ZipFile implements ZipConstants, Closeable {
 
             rem = 0;
             synchronized (ZipFile.this) {
-                if (jzentry != 0 && ZipFile.this.jzfile != 0) {
-                    freeEntry(ZipFile.this.jzfile, jzentry);
+                if (jzentry != 0) {
                     jzentry = 0;
+                    cleanable.clean();
                 }
             }
             synchronized (streams) {
                 streams.remove(this);
             }
         }
+    }
+
+    /*
+     * Frees the entry of a ZipFileInputStream that is closed, or that has
+     * become unreachable. It must not refer to the stream.
+     */
+    private static class EntryCleanupAction implements Runnable {
+        private final CleanableResource res;
+        private final long jzentry;
+
+        EntryCleanupAction(CleanableResource res, long jzentry) {
+            this.res = res;
+            this.jzentry = jzentry;
+        }
 
-        protected void finalize() {
-            close();
+        public void run() {
+            res.freeEntry(jzentry);
         }
     }
 
@@ -599,6 +599,11 @@ public interface ImageInputStream extends DataInput, Closeable {
      * <p> The bit offset within the stream is reset to zero before
      * the read occurs.
      *
+     * <p> Unlike the <code>DataInput</code> method it overrides, which
+     * reads big-endian values, this method uses the byte order of the
+     * stream.  Use {@link #readFully(int[], int, int, ByteOrder)} to read
+     * values in a fixed byte order.
+     *
      * @param i an array of ints to be written to.
      * @param off the starting position within <code>i</code> to write to.
      * @param len the maximum number of <code>int</code>s to read.
@@ -614,6 +619,26 @@ public interface ImageInputStream extends DataInput, Closeable {
      */
     void readFully(int[] i, int off, int len) throws IOException;
 
+    /**
+     * Reads <code>i.length</code> ints from the stream according to
+     * the current byte order, as if by
+     * <code>readFully(i, 0, i.length)</code>.  This replaces the
+     * big-endian default inherited from <code>DataInput</code>, so that
+     * this method and the three-argument form agree.
+     *
+     * @param i an array of ints to be written to.
+     *
+     * @exception NullPointerException if <code>i</code> is
+     * <code>null</code>.
+     * @exception java.io.EOFException if the stream reaches the end before
+     * reading all the bytes.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(int[] i) throws IOException {
+        readFully(i, 0, i.length);
+    }
+
     /**
      * Reads <code>len</code> longs (signed 64-bit integers) from the
      * stream according to the current byte order, and
@@ -624,6 +649,11 @@ public interface ImageInputStream extends DataInput, Closeable {
      * <p> The bit offset within the stream is reset to zero before
      * the read occurs.
      *
+     * <p> Unlike the <code>DataInput</code> method it overrides, which
+     * reads big-endian values, this method uses the byte order of the
+     * stream.  Use {@link #readFully(long[], int, int, ByteOrder)} to read
+     * values in a fixed byte order.
+     *
      * @param l an array of longs to be written to.
      * @param off the starting position within <code>l</code> to write to.
      * @param len the maximum number of <code>long</code>s to read.
@@ -639,6 +669,26 @@ public interface ImageInputStream extends DataInput, Closeable {
      */
     void readFully(long[] l, int off, int len) throws IOException;
 
+    /**
+     * Reads <code>l.length</code> longs from the stream according to
+     * the current byte order, as if by
+     * <code>readFully(l, 0, l.length)</code>.  This replaces the
+     * big-endian default inherited from <code>DataInput</code>, so that
+     * this method and the three-argument form agree.
+     *
+     * @param l an array of longs to be written to.
+     *
+     * @exception NullPointerException if <code>l</code> is
+     * <code>null</code>.
+     * @exception java.io.EOFException if the stream reaches the end before
+     * reading all the bytes.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(long[] l) throws IOException {
+        readFully(l, 0, l.length);
+    }
+
     /**
      * Reads <code>len</code> floats (32-bit IEEE single-precision
      * floats) from the stream according to the current byte order,
@@ -674,6 +724,11 @@ public interface ImageInputStream extends DataInput, Closeable {
      * <p> The bit offset within the stream is reset to zero before
      * the read occurs.
      *
+     * <p> Unlike the <code>DataInput</code> method it overrides, which
+     * reads big-endian values, this method uses the byte order of the
+     * stream.  Use {@link #readFully(double[], int, int, ByteOrder)} to read
+     * values in a fixed byte order.
+     *
      * @param d an array of doubles to be written to.
      * @param off the starting position within <code>d</code> to write to.
      * @param len the maximum number of <code>double</code>s to read.
@@ -689,6 +744,26 @@ public interface ImageInputStream extends DataInput, Closeable {
      */
     void readFully(double[] d, int off, int len) throws IOException;
 
+    /**
+     * Reads <code>d.length</code> doubles from the stream according to
+     * the current byte order, as if by
+     * <code>readFully(d, 0, d.length)</code>.  This replaces the
+     * big-endian default inherited from <code>DataInput</code>, so that
+     * this method and the three-argument form agree.
+     *
+     * @param d an array of doubles to be written to.
+     *
+     * @exception NullPointerException if <code>d</code> is
+     * <code>null</code>.
+     * @exception java.io.EOFException if the stream reaches the end before
+     * reading all the bytes.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void readFully(double[] d) throws IOException {
+        readFully(d, 0, d.length);
+    }
+
     /**
      * Returns the current byte position of the stream.  The next read
      * will take place starting at this offset.
@@ -457,6 +457,66 @@ public abstract class ImageInputStreamImpl implements ImageInputStream {
         }
     }
 
+    /**
+     * Reads the values in the given byte order by switching the byte order
+     * of the stream for the duration of
+     * {@link #readFully(int[], int, int)}, rather than by swapping the
+     * bytes of values read in the order of the stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(int[] i, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        ByteOrder oldByteOrder = getByteOrder();
+        setByteOrder(order);
+        try {
+            readFully(i, off, len);
+        } finally {
+            setByteOrder(oldByteOrder);
+        }
+    }
+
+    /**
+     * Reads the values in the given byte order by switching the byte order
+     * of the stream for the duration of
+     * {@link #readFully(long[], int, int)}, rather than by swapping the
+     * bytes of values read in the order of the stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(long[] l, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        ByteOrder oldByteOrder = getByteOrder();
+        setByteOrder(order);
+        try {
+            readFully(l, off, len);
+        } finally {
+            setByteOrder(oldByteOrder);
+        }
+    }
+
+    /**
+     * Reads the values in the given byte order by switching the byte order
+     * of the stream for the duration of
+     * {@link #readFully(double[], int, int)}, rather than by swapping the
+     * bytes of values read in the order of the stream.
+     *
+     * @since 1.8
+     */
+    public void readFully(double[] d, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        ByteOrder oldByteOrder = getByteOrder();
+        setByteOrder(order);
+        try {
+            readFully(d, off, len);
+        } finally {
+            setByteOrder(oldByteOrder);
+        }
+    }
+
     private void toShorts(byte[] b, short[] s, int off, int len) {
         int boff = 0;
         if (byteOrder == ByteOrder.BIG_ENDIAN) {
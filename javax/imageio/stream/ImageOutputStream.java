@@ -513,6 +513,50 @@ public interface ImageOutputStream extends ImageInputStream, DataOutput {
      */
     void writeInts(int[] i, int off, int len) throws IOException;
 
+    /**
+     * Writes all the ints of <code>i</code> to the stream according to
+     * the current byte order, as if by
+     * <code>writeInts(i, 0, i.length)</code>.  This replaces the
+     * big-endian default inherited from <code>DataOutput</code>, so that
+     * the values may be read back with
+     * {@link ImageInputStream#readFully(int[]) readFully}.
+     *
+     * @param i an array of <code>int</code>s to be written.
+     *
+     * @exception NullPointerException if <code>i</code> is
+     * <code>null</code>.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(int[] i) throws IOException {
+        writeInts(i, 0, i.length);
+    }
+
+    /**
+     * Writes a sequence of ints to the stream according to the current
+     * byte order, as if by <code>writeInts(i, off, len)</code>.  This
+     * replaces the big-endian default inherited from
+     * <code>DataOutput</code>, so that the values may be read back with
+     * {@link ImageInputStream#readFully(int[], int, int) readFully}.  Use
+     * {@link #write(int[], int, int, java.nio.ByteOrder)} to write values
+     * in a fixed byte order.
+     *
+     * @param i an array of <code>int</code>s to be written.
+     * @param off the start offset in the data.
+     * @param len the number of <code>int</code>s to write.
+     *
+     * @exception IndexOutOfBoundsException if <code>off</code> is
+     * negative, <code>len</code> is negative, or <code>off +
+     * len</code> is greater than <code>i.length</code>.
+     * @exception NullPointerException if <code>i</code> is
+     * <code>null</code>.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(int[] i, int off, int len) throws IOException {
+        writeInts(i, off, len);
+    }
+
     /**
      * Writes a sequence of longs to the stream at the current
      * position.  If <code>len</code> is 0, nothing is written.
@@ -539,6 +583,50 @@ public interface ImageOutputStream extends ImageInputStream, DataOutput {
      */
     void writeLongs(long[] l, int off, int len) throws IOException;
 
+    /**
+     * Writes all the longs of <code>l</code> to the stream according to
+     * the current byte order, as if by
+     * <code>writeLongs(l, 0, l.length)</code>.  This replaces the
+     * big-endian default inherited from <code>DataOutput</code>, so that
+     * the values may be read back with
+     * {@link ImageInputStream#readFully(long[]) readFully}.
+     *
+     * @param l an array of <code>long</code>s to be written.
+     *
+     * @exception NullPointerException if <code>l</code> is
+     * <code>null</code>.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(long[] l) throws IOException {
+        writeLongs(l, 0, l.length);
+    }
+
+    /**
+     * Writes a sequence of longs to the stream according to the current
+     * byte order, as if by <code>writeLongs(l, off, len)</code>.  This
+     * replaces the big-endian default inherited from
+     * <code>DataOutput</code>, so that the values may be read back with
+     * {@link ImageInputStream#readFully(long[], int, int) readFully}.  Use
+     * {@link #write(long[], int, int, java.nio.ByteOrder)} to write values
+     * in a fixed byte order.
+     *
+     * @param l an array of <code>long</code>s to be written.
+     * @param off the start offset in the data.
+     * @param len the number of <code>long</code>s to write.
+     *
+     * @exception IndexOutOfBoundsException if <code>off</code> is
+     * negative, <code>len</code> is negative, or <code>off +
+     * len</code> is greater than <code>l.length</code>.
+     * @exception NullPointerException if <code>l</code> is
+     * <code>null</code>.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(long[] l, int off, int len) throws IOException {
+        writeLongs(l, off, len);
+    }
+
     /**
      * Writes a sequence of floats to the stream at the current
      * position.  If <code>len</code> is 0, nothing is written.
@@ -591,6 +679,50 @@ public interface ImageOutputStream extends ImageInputStream, DataOutput {
      */
     void writeDoubles(double[] d, int off, int len) throws IOException;
 
+    /**
+     * Writes all the doubles of <code>d</code> to the stream according to
+     * the current byte order, as if by
+     * <code>writeDoubles(d, 0, d.length)</code>.  This replaces the
+     * big-endian default inherited from <code>DataOutput</code>, so that
+     * the values may be read back with
+     * {@link ImageInputStream#readFully(double[]) readFully}.
+     *
+     * @param d an array of <code>double</code>s to be written.
+     *
+     * @exception NullPointerException if <code>d</code> is
+     * <code>null</code>.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(double[] d) throws IOException {
+        writeDoubles(d, 0, d.length);
+    }
+
+    /**
+     * Writes a sequence of doubles to the stream according to the current
+     * byte order, as if by <code>writeDoubles(d, off, len)</code>.  This
+     * replaces the big-endian default inherited from
+     * <code>DataOutput</code>, so that the values may be read back with
+     * {@link ImageInputStream#readFully(double[], int, int) readFully}.  Use
+     * {@link #write(double[], int, int, java.nio.ByteOrder)} to write values
+     * in a fixed byte order.
+     *
+     * @param d an array of <code>double</code>s to be written.
+     * @param off the start offset in the data.
+     * @param len the number of <code>double</code>s to write.
+     *
+     * @exception IndexOutOfBoundsException if <code>off</code> is
+     * negative, <code>len</code> is negative, or <code>off +
+     * len</code> is greater than <code>d.length</code>.
+     * @exception NullPointerException if <code>d</code> is
+     * <code>null</code>.
+     * @exception IOException if an I/O error occurs.
+     * @since 1.8
+     */
+    default void write(double[] d, int off, int len) throws IOException {
+        writeDoubles(d, off, len);
+    }
+
     /**
      * Writes a single bit, given by the least significant bit of the
      * argument, to the stream at the current bit offset within the
@@ -386,6 +386,66 @@ public abstract class ImageOutputStreamImpl
         write(b, 0, len*8);
     }
 
+    /**
+     * Writes the values in the given byte order by switching the byte order
+     * of the stream for the duration of
+     * {@link #writeInts(int[], int, int)}, rather than by swapping the
+     * bytes of values written in the order of the stream.
+     *
+     * @since 1.8
+     */
+    public void write(int[] i, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        ByteOrder oldByteOrder = getByteOrder();
+        setByteOrder(order);
+        try {
+            writeInts(i, off, len);
+        } finally {
+            setByteOrder(oldByteOrder);
+        }
+    }
+
+    /**
+     * Writes the values in the given byte order by switching the byte order
+     * of the stream for the duration of
+     * {@link #writeLongs(long[], int, int)}, rather than by swapping the
+     * bytes of values written in the order of the stream.
+     *
+     * @since 1.8
+     */
+    public void write(long[] l, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        ByteOrder oldByteOrder = getByteOrder();
+        setByteOrder(order);
+        try {
+            writeLongs(l, off, len);
+        } finally {
+            setByteOrder(oldByteOrder);
+        }
+    }
+
+    /**
+     * Writes the values in the given byte order by switching the byte order
+     * of the stream for the duration of
+     * {@link #writeDoubles(double[], int, int)}, rather than by swapping the
+     * bytes of values written in the order of the stream.
+     *
+     * @since 1.8
+     */
+    public void write(double[] d, int off, int len, ByteOrder order)
+        throws IOException
+    {
+        ByteOrder oldByteOrder = getByteOrder();
+        setByteOrder(order);
+        try {
+            writeDoubles(d, off, len);
+        } finally {
+            setByteOrder(oldByteOrder);
+        }
+    }
+
     public void writeBit(int bit) throws IOException {
         writeBits((1L & bit), 1);
     }
@@ -34,6 +34,7 @@ import java.net.MalformedURLException;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 import static java.util.logging.Level.*;
@@ -51,6 +52,9 @@ public class ToolProvider {
     private static final String propertyName = "sun.tools.ToolProvider";
     private static final String loggerName   = "javax.tools";
 
+    // Set once StackWalker has failed to link, on a VM without its natives
+    private static volatile boolean noStackWalker;
+
     /*
      * Define the system property "sun.tools.ToolProvider" to enable
      * debugging:
@@ -61,16 +65,36 @@ public class ToolProvider {
         // NOTE: do not make this method private as it affects stack traces
         try {
             if (System.getProperty(propertyName) != null) {
-                StackTraceElement[] st = Thread.currentThread().getStackTrace();
                 String method = "???";
                 String cls = ToolProvider.class.getName();
-                if (st.length > 2) {
-                    StackTraceElement frame = st[2];
-                    method = String.format((Locale)null, "%s(%s:%s)",
-                                           frame.getMethodName(),
-                                           frame.getFileName(),
-                                           frame.getLineNumber());
-                    cls = frame.getClassName();
+                if (!noStackWalker) {
+                    try {
+                        // the frame of the caller of this method
+                        Optional<StackWalker.StackFrame> caller = StackWalker.getInstance()
+                                .walk(s -> s.skip(1).findFirst());
+                        if (caller.isPresent()) {
+                            StackWalker.StackFrame frame = caller.get();
+                            method = String.format((Locale)null, "%s(%s:%s)",
+                                                   frame.getMethodName(),
+                                                   frame.getFileName(),
+                                                   frame.getLineNumber());
+                            cls = frame.getClassName();
+                        }
+                    } catch (LinkageError e) {
+                        // the VM lacks the StackWalker natives
+                        noStackWalker = true;
+                    }
+                }
+                if (noStackWalker) {
+                    StackTraceElement[] st = Thread.currentThread().getStackTrace();
+                    if (st.length > 2) {
+                        StackTraceElement frame = st[2];
+                        method = String.format((Locale)null, "%s(%s:%s)",
+                                               frame.getMethodName(),
+                                               frame.getFileName(),
+                                               frame.getLineNumber());
+                        cls = frame.getClassName();
+                    }
                 }
                 Logger logger = Logger.getLogger(loggerName);
                 if (reason instanceof Throwable) {
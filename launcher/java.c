@@ -97,6 +97,7 @@ static int numOptions, maxOptions;
  * Prototypes for functions internal to launcher.
  */
 static void SetClassPath(const char *s);
+static void ExpandArgFiles(int *pargc, char ***pargv);
 static void SelectVersion(int argc, char **argv, char **main_class);
 static void SetJvmEnvironment(int argc, char **argv);
 static jboolean ParseArguments(int *pargc, char ***pargv,
@@ -206,6 +207,9 @@ JLI_Launch(int argc, char ** argv,              /* main argc, argc */
 
     InitLauncher(javaw);
     DumpState();
+    if (!IsJavaArgs()) {
+        ExpandArgFiles(&argc, &argv);
+    }
     if (JLI_IsTraceLauncher()) {
         int i;
         printf("Command line args:\n");
@@ -1052,6 +1056,227 @@ SelectVersion(int argc, char **argv, char **main_class)
     return;
 }
 
+/*
+ * Argument files.
+ *
+ * An argument of the form @file that appears before the main class (or
+ * the jar file operand of -jar) is replaced by the arguments read from
+ * that file.  This keeps long class paths and option lists off the exec
+ * command line, where they count against ARG_MAX.  In the file, arguments
+ * are separated by white space and a '#' at the start of an argument
+ * begins a comment that runs to the end of the line.  Single or double
+ * quotes group white space into one argument; within quotes a backslash
+ * escapes the next character, "\n", "\t", "\r" and "\f" have their usual
+ * meaning, and a backslash at the end of a line continues the argument
+ * on the next line with leading white space removed.  Argument files are
+ * not expanded recursively.  An argument beginning with "@@" is passed on
+ * with the first '@' removed, and --disable-@files turns expansion off for
+ * the rest of the command line.
+ */
+#define DISABLE_ARGFILES_OPTION "--disable-@files"
+
+enum argfile_state {
+    ARGFILE_OPTIONS,    /* still looking at launcher options */
+    ARGFILE_VALUE,      /* the next argument is the value of -cp/-classpath */
+    ARGFILE_DONE        /* the main class or jar file has been seen */
+};
+
+static jboolean
+IsArgFileWhiteSpace(char c)
+{
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+}
+
+static void
+AppendArg(int *pcount, int *plimit, char ***pargs, char *arg)
+{
+    /* always leave room for the terminating NULL */
+    if (*pcount + 1 >= *plimit) {
+        *plimit = (*plimit == 0) ? 32 : *plimit * 2;
+        *pargs = (char **)JLI_MemRealloc(*pargs, *plimit * sizeof(char *));
+    }
+    (*pargs)[(*pcount)++] = arg;
+    (*pargs)[*pcount] = NULL;
+}
+
+static int
+NextArgFileState(int state, const char *arg)
+{
+    switch (state) {
+    case ARGFILE_VALUE:
+        return ARGFILE_OPTIONS;
+    case ARGFILE_OPTIONS:
+        if (JLI_StrCmp(arg, "-cp") == 0 || JLI_StrCmp(arg, "-classpath") == 0) {
+            return ARGFILE_VALUE;
+        }
+        return (arg[0] == '-') ? ARGFILE_OPTIONS : ARGFILE_DONE;
+    default:
+        return state;
+    }
+}
+
+/*
+ * Reads the named argument file and appends its arguments.  The arguments
+ * are tokenized in place and point into a buffer that is never freed.
+ */
+static void
+ReadArgFile(const char *name, int *pcount, int *plimit, char ***pargs)
+{
+    FILE *fp;
+    char *buf;
+    char *p;
+    char *end;
+    size_t len = 0;
+    size_t size = 8192;
+    size_t n;
+
+    if ((fp = fopen(name, "rb")) == NULL) {
+        JLI_ReportErrorMessage(ARG_ERROR4, name);
+        exit(1);
+    }
+    buf = (char *)JLI_MemAlloc(size);
+    while ((n = fread(buf + len, 1, size - len - 1, fp)) > 0) {
+        len += n;
+        if (size - len - 1 == 0) {
+            size *= 2;
+            buf = (char *)JLI_MemRealloc(buf, size);
+        }
+    }
+    if (ferror(fp)) {
+        fclose(fp);
+        JLI_ReportErrorMessage(ARG_ERROR4, name);
+        exit(1);
+    }
+    fclose(fp);
+    buf[len] = '\0';
+
+    p = buf;
+    end = buf + len;
+    while (p < end) {
+        char *start;
+        char *q;
+
+        while (p < end && IsArgFileWhiteSpace(*p)) {
+            p++;
+        }
+        if (p == end) {
+            break;
+        }
+        if (*p == '#') {
+            while (p < end && *p != '\n' && *p != '\r') {
+                p++;
+            }
+            continue;
+        }
+
+        /* q trails p, so the unquoted argument can be built in place */
+        start = q = p;
+        while (p < end && !IsArgFileWhiteSpace(*p)) {
+            char quote;
+
+            if (*p != '"' && *p != '\'') {
+                *q++ = *p++;
+                continue;
+            }
+            quote = *p++;
+            while (p < end && *p != quote) {
+                if (*p != '\\' || p + 1 == end) {
+                    *q++ = *p++;
+                    continue;
+                }
+                p++;
+                switch (*p) {
+                case 'n':  *q++ = '\n'; p++; break;
+                case 't':  *q++ = '\t'; p++; break;
+                case 'r':  *q++ = '\r'; p++; break;
+                case 'f':  *q++ = '\f'; p++; break;
+                case '\r':
+                case '\n':
+                    /* line continuation */
+                    if (*p == '\r' && p + 1 < end && p[1] == '\n') {
+                        p++;
+                    }
+                    p++;
+                    while (p < end && (*p == ' ' || *p == '\t')) {
+                        p++;
+                    }
+                    break;
+                default:   *q++ = *p++; break;
+                }
+            }
+            if (p == end) {
+                JLI_ReportErrorMessage(ARG_ERROR5, name);
+                exit(1);
+            }
+            p++;    /* closing quote */
+        }
+        if (p < end) {
+            p++;    /* the separator is overwritten by the terminator */
+        }
+        *q = '\0';
+        AppendArg(pcount, plimit, pargs, start);
+    }
+}
+
+/*
+ * Replaces *pargv with a copy in which argument files have been expanded,
+ * see the description above.  The command line is left alone when it
+ * contains nothing to expand.
+ */
+static void
+ExpandArgFiles(int *pargc, char ***pargv)
+{
+    int argc = *pargc;
+    char **argv = *pargv;
+    char **args = NULL;
+    int count = 0;
+    int limit = 0;
+    int state = ARGFILE_OPTIONS;
+    jboolean disabled = JNI_FALSE;
+    int i;
+
+    for (i = 1; i < argc; i++) {
+        if (argv[i][0] == '@' ||
+                JLI_StrCmp(argv[i], DISABLE_ARGFILES_OPTION) == 0) {
+            break;
+        }
+    }
+    if (i == argc) {
+        return;
+    }
+
+    AppendArg(&count, &limit, &args, argv[0]);
+    for (i = 1; i < argc; i++) {
+        char *arg = argv[i];
+
+        if (state != ARGFILE_DONE) {
+            if (JLI_StrCmp(arg, DISABLE_ARGFILES_OPTION) == 0) {
+                disabled = JNI_TRUE;
+                continue;
+            }
+            if (!disabled && arg[0] == '@' && arg[1] == '@') {
+                arg++;
+            } else if (!disabled && arg[0] == '@' && arg[1] != '\0') {
+                int first = count;
+                int j;
+
+                ReadArgFile(arg + 1, &count, &limit, &args);
+                JLI_TraceLauncher("Argument file %s: %d arguments\n",
+                                  arg + 1, count - first);
+                for (j = first; j < count; j++) {
+                    state = NextArgFileState(state, args[j]);
+                }
+                continue;
+            }
+        }
+        AppendArg(&count, &limit, &args, arg);
+        state = NextArgFileState(state, arg);
+    }
+
+    *pargc = count;
+    *pargv = args;
+}
+
 /*
  * Parses command line arguments.  Returns JNI_FALSE if launcher
  * should exit without starting vm, returns JNI_TRUE if vm needs
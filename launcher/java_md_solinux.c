@@ -108,6 +108,9 @@
  *  b. if any other libjvm.so is found in any of the paths.
  * If case b is true, then the launcher will set the LD_LIBRARY_PATH to the
  * desired JRE and reexec, in order to propagate the environment.
+ * On linux the launcher never re-execs for this reason, as the runtime linker
+ * cannot substitute another libjvm.so for the one already loaded; see
+ * RequiresSetenv.
  *
  *  Main
  *  (incoming argv)
@@ -324,6 +327,19 @@ RequiresSetenv(int wanted, const char *jvmpath) {
     if ((getgid() != getegid()) || (getuid() != geteuid())) {
         return JNI_FALSE;
     }
+
+    /*
+     * A libjvm.so elsewhere on LD_LIBRARY_PATH cannot be picked up on linux,
+     * so there is never a reason to pay for a re-exec here. LoadJavaVM opens
+     * the selected libjvm.so by its absolute path before any library that
+     * depends on it is loaded, and glibc satisfies such dependencies from an
+     * already loaded object with a matching soname instead of searching the
+     * path again. The remaining libraries are found through $ORIGIN.
+     */
+    if (JLI_IsTraceLauncher() && ContainsLibJVM(wanted, llp)) {
+        JLI_TraceLauncher("ignoring libjvm.so in LD_LIBRARY_PATH, no re-exec\n");
+    }
+    return JNI_FALSE;
 #endif /* __linux */
 
     /*
@@ -38,6 +38,26 @@ static char     *manifest;
 
 static const char       *manifest_name = "META-INF/MANIFEST.MF";
 
+/*
+ * Location of the manifest in the most recently examined jar file.
+ *
+ * SelectVersion, JLI_ManifestIterate and any launcher that is exec'ed to
+ * select a JRE or data model all look for the manifest of the same jar
+ * file, and for a jar file with many entries the scan of the central
+ * directory dominates.  The entry found is therefore remembered here, keyed
+ * by the identity, size and modification time of the file, and exported in
+ * the environment so that an exec'ed launcher can skip the scan as well.
+ */
+#define MANIFEST_ENV_ENTRY "_JAVA_LAUNCHER_MANIFEST"
+
+static struct {
+    int         valid;
+    jlong       key[4];         /* st_dev, st_ino, st_size, st_mtime */
+    zentry      entry;
+} manifest_cache;
+
+static char     manifest_env_entry[sizeof(MANIFEST_ENV_ENTRY) + 8 * 24];
+
 /*
  * Inflate the manifest file (or any file for that matter).
  *
@@ -427,6 +447,60 @@ find_file(int fd, zentry *entry, const char *file_name)
     return (-1);        /* Fell off the end the loop without a Manifest */
 }
 
+/*
+ * Locate the manifest of the jar file open on fd, consulting the cache
+ * described above before falling back on find_file().  Returns 0 on success
+ * and -1 on failure.
+ */
+static int
+find_manifest(int fd, zentry *entry)
+{
+    struct stat st;
+    jlong       key[4];
+    const char  *env;
+    long long   v[8];
+
+    if (fstat(fd, &st) != 0) {
+        return find_file(fd, entry, manifest_name);
+    }
+    key[0] = (jlong)st.st_dev;
+    key[1] = (jlong)st.st_ino;
+    key[2] = (jlong)st.st_size;
+    key[3] = (jlong)st.st_mtime;
+
+    if (manifest_cache.valid && memcmp(manifest_cache.key, key, sizeof(key)) == 0) {
+        *entry = manifest_cache.entry;
+        return (0);
+    }
+
+    /* inherited from the launcher that exec'ed this one? */
+    if ((env = getenv(MANIFEST_ENV_ENTRY)) != NULL &&
+            sscanf(env, "%lld:%lld:%lld:%lld:%lld:%lld:%lld:%lld",
+                   &v[0], &v[1], &v[2], &v[3], &v[4], &v[5], &v[6], &v[7]) == 8 &&
+            v[0] == key[0] && v[1] == key[1] && v[2] == key[2] && v[3] == key[3] &&
+            v[4] >= 0 && v[5] >= 0 && v[6] >= 0 && v[6] + v[5] <= key[2] &&
+            (v[7] == STORED || v[7] == DEFLATED)) {
+        entry->isize = (size_t)v[4];
+        entry->csize = (size_t)v[5];
+        entry->offset = (jlong)v[6];
+        entry->how = (int)v[7];
+    } else if (find_file(fd, entry, manifest_name) != 0) {
+        return (-1);
+    } else {
+        JLI_Snprintf(manifest_env_entry, sizeof(manifest_env_entry),
+                     "%s=%lld:%lld:%lld:%lld:%lld:%lld:%lld:%d",
+                     MANIFEST_ENV_ENTRY, (long long)key[0], (long long)key[1],
+                     (long long)key[2], (long long)key[3],
+                     (long long)entry->isize, (long long)entry->csize,
+                     (long long)entry->offset, entry->how);
+        (void)JLI_PutEnv(manifest_env_entry);
+    }
+    memcpy(manifest_cache.key, key, sizeof(key));
+    manifest_cache.entry = *entry;
+    manifest_cache.valid = 1;
+    return (0);
+}
+
 /*
  * Parse a Manifest file header entry into a distinct "name" and "value".
  * Continuation lines are joined into a single "value". The documented
@@ -577,7 +651,7 @@ JLI_ParseManifest(char *jarfile, manifest_info *info)
     info->jre_version = NULL;
     info->jre_restrict_search = 0;
     info->splashscreen_image_file_name = NULL;
-    if (rc = find_file(fd, &entry, manifest_name) != 0) {
+    if (find_manifest(fd, &entry) != 0) {
         close(fd);
         return (-2);
     }
@@ -677,7 +751,7 @@ JLI_ManifestIterate(const char *jarfile, attribute_closure ac, void *user_data)
         return (-1);
     }
 
-    if (rc = find_file(fd, &entry, manifest_name) != 0) {
+    if (find_manifest(fd, &entry) != 0) {
         close(fd);
         return (-2);
     }